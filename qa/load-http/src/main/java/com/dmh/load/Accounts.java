@@ -0,0 +1,129 @@
+package com.dmh.load;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Archivo de cuentas para la carga ({@code email,password} por línea, con encabezado).
+ * <p>
+ * {@link #generate} lo arma dando de alta cada cuenta por la propia app ({@code POST /api/register}), así
+ * existe en el backend que tenga la app detrás (Supabase real o el stub de {@code qa/selenium}).
+ * Los emails llevan un sello de la corrida: regenerar no choca con cuentas anteriores.
+ */
+final class Accounts {
+
+    static final class Account {
+        final String email;
+        final String password;
+
+        Account(String email, String password) {
+            this.email = email;
+            this.password = password;
+        }
+    }
+
+    private final List<Account> list;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private Accounts(List<Account> list) {
+        this.list = list;
+    }
+
+    /** Round-robin: cada request usa la cuenta siguiente. */
+    Account next() {
+        return list.get(Math.floorMod(next.getAndIncrement(), list.size()));
+    }
+
+    int size() {
+        return list.size();
+    }
+
+    static Accounts load(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            throw new IllegalStateException("No existe el archivo de cuentas " + file.toAbsolutePath()
+                    + ": generarlo con `java -jar target/dmh-load-http.jar accounts <n>`");
+        }
+        List<Account> out = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String l = line.trim();
+            if (l.isEmpty() || l.startsWith("#") || l.startsWith("email,")) {
+                continue;
+            }
+            int comma = l.indexOf(',');
+            if (comma < 0) {
+                throw new IllegalStateException("Línea inválida en " + file + ": " + line);
+            }
+            out.add(new Account(l.substring(0, comma).trim(), l.substring(comma + 1).trim()));
+        }
+        if (out.isEmpty()) {
+            throw new IllegalStateException("El archivo de cuentas está vacío: " + file);
+        }
+        return new Accounts(out);
+    }
+
+    /**
+     * Da de alta {@code n} cuentas (hasta {@code parallel} registros a la vez) y escribe las que quedaron creadas.
+     * Con {@code register=false} sólo escribe el archivo (cuentas que ya existen por otro medio).
+     */
+    static int generate(HttpClient client, String baseUrl, int n, String password, Path file, boolean register,
+            int parallel) throws IOException {
+        String stamp = Long.toString(System.currentTimeMillis() / 1000, 36);
+        List<String> lines = new ArrayList<>();
+        lines.add("email,password");
+        Semaphore permits = new Semaphore(parallel);
+        List<CompletableFuture<String>> pending = new ArrayList<>();
+        Duration timeout = Duration.ofSeconds(30);
+        for (int i = 0; i < n; i++) {
+            String email = "load." + stamp + "." + i + "@dmh.test";
+            if (!register) {
+                pending.add(CompletableFuture.completedFuture(email));
+                continue;
+            }
+            permits.acquireUninterruptibly();
+            pending.add(client.sendAsync(Target.post(baseUrl + "/api/register", registerBody(email, password, i), timeout),
+                            HttpResponse.BodyHandlers.ofString())
+                    .handle((res, err) -> {
+                        permits.release();
+                        if (err != null) {
+                            System.out.println("  " + email + ": " + err);
+                            return null;
+                        }
+                        if (res.statusCode() != 200) {
+                            System.out.println("  " + email + ": HTTP " + res.statusCode() + " " + res.body());
+                            return null;
+                        }
+                        return email;
+                    }));
+        }
+        int ok = 0;
+        for (CompletableFuture<String> f : pending) {
+            String email = f.join();
+            if (email != null) {
+                lines.add(email + "," + password);
+                ok++;
+            }
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.write(file, lines, StandardCharsets.UTF_8);
+        return ok;
+    }
+
+    static String registerBody(String email, String password, long seq) {
+        return "{\"nombre\":\"Carga\",\"apellido\":\"Http\",\"dni\":" + Report.quote(String.valueOf(30000000 + seq % 60000000))
+                + ",\"email\":" + Report.quote(email) + ",\"password\":" + Report.quote(password)
+                + ",\"telefono\":null}";
+    }
+}
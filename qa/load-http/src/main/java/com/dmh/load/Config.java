@@ -0,0 +1,54 @@
+package com.dmh.load;
+
+/**
+ * Lectura de configuración: System Properties ({@code java -DLOAD_RATE=50 -jar ...}) y luego ENV.
+ * Se prueban las claves en orden; la primera no vacía gana (ver tabla del README).
+ */
+final class Config {
+
+    private Config() {
+    }
+
+    static String str(String def, String... keys) {
+        for (String k : keys) {
+            String v = System.getProperty(k);
+            if (v != null && !v.isBlank()) {
+                return v.trim();
+            }
+            v = System.getenv(k);
+            if (v != null && !v.isBlank()) {
+                return v.trim();
+            }
+        }
+        return def;
+    }
+
+    static int intValue(int def, String... keys) {
+        String v = str(null, keys);
+        if (v == null) {
+            return def;
+        }
+        try {
+            return Integer.parseInt(v);
+        } catch (NumberFormatException e) {
+            return def;
+        }
+    }
+
+    static double doubleValue(double def, String... keys) {
+        String v = str(null, keys);
+        if (v == null) {
+            return def;
+        }
+        try {
+            return Double.parseDouble(v);
+        } catch (NumberFormatException e) {
+            return def;
+        }
+    }
+
+    static String baseUrl() {
+        String url = str("http://localhost:3000", "BASE_URL", "baseUrl");
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
@@ -0,0 +1,137 @@
+package com.dmh.load;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma log-lineal de latencias en microsegundos (mismo esquema de buckets que HdrHistogram):
+ * debajo de 128 µs un bucket por µs; arriba, cada potencia de 2 se parte en 64 buckets lineales,
+ * así el error relativo queda por debajo de 1,6 % en todo el rango (hasta ~1 h).
+ * <p>
+ * Memoria fija (~14 KB) y {@link #record} sin locks: lo llaman a la vez los hilos del cliente HTTP.
+ * <p>
+ * Omisión coordinada: el modelo abierto ya graba desde el instante <i>programado</i> de cada request;
+ * el cerrado con ritmo fijo usa {@link #recordCorrected}, que agrega las muestras que el generador
+ * no llegó a mandar mientras esperaba una respuesta lenta.
+ */
+final class Histogram {
+
+    private static final int SUB_BITS = 7;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int HALF = SUB_COUNT / 2;
+    /** 2^32 µs ≈ 71 min: lo que pase de ahí se cuenta en el último bucket. */
+    private static final long MAX_VALUE = (1L << 32) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(index(MAX_VALUE) + 1);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    void record(long micros) {
+        long v = Math.min(Math.max(micros, 0), MAX_VALUE);
+        counts.incrementAndGet(index(v));
+        total.incrementAndGet();
+        sum.addAndGet(v);
+        max.accumulateAndGet(v, Math::max);
+    }
+
+    /**
+     * Como {@code recordValueWithExpectedInterval} de HdrHistogram: si el valor supera el intervalo esperado
+     * entre requests, se graban también las muestras "perdidas" (v - i, v - 2i, ...).
+     */
+    void recordCorrected(long micros, long expectedIntervalMicros) {
+        record(micros);
+        if (expectedIntervalMicros <= 0) {
+            return;
+        }
+        for (long missing = micros - expectedIntervalMicros; missing >= expectedIntervalMicros;
+                missing -= expectedIntervalMicros) {
+            record(missing);
+        }
+    }
+
+    void add(Histogram other) {
+        for (int i = 0; i < counts.length(); i++) {
+            long c = other.counts.get(i);
+            if (c > 0) {
+                counts.addAndGet(i, c);
+            }
+        }
+        total.addAndGet(other.total.get());
+        sum.addAndGet(other.sum.get());
+        max.accumulateAndGet(other.max.get(), Math::max);
+    }
+
+    long count() {
+        return total.get();
+    }
+
+    long max() {
+        return max.get();
+    }
+
+    double mean() {
+        long n = total.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    /** Valor (µs) bajo el que cae el {@code p} % de las muestras; límite superior del bucket. */
+    long percentile(double p) {
+        long n = total.get();
+        if (n == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(p / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestEquivalent(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Distribución en el formato de texto de HdrHistogram ({@code .hgrm}), en ms, para graficarla con
+     * el plotter de HdrHistogram o compararla entre corridas.
+     */
+    String distribution() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%12s %14s %10s %14s%n%n", "Value", "Percentile", "TotalCount", "1/(1-Percentile)"));
+        long n = total.get();
+        long seen = 0;
+        for (int i = 0; i < counts.length() && n > 0; i++) {
+            long c = counts.get(i);
+            if (c == 0) {
+                continue;
+            }
+            seen += c;
+            double q = (double) seen / n;
+            sb.append(String.format("%12.3f %14.12f %10d %14s%n", Math.min(highestEquivalent(i), max.get()) / 1000.0,
+                    q, seen, q < 1 ? String.format("%.2f", 1 / (1 - q)) : ""));
+        }
+        sb.append(String.format("#[Mean    = %12.3f]%n", mean() / 1000.0));
+        sb.append(String.format("#[Max     = %12.3f, Total count    = %12d]%n", max() / 1000.0, n));
+        sb.append(String.format("#[Buckets = %12d, SubBuckets     = %12d]%n", counts.length() / HALF, SUB_COUNT));
+        return sb.toString();
+    }
+
+    /* ---------- Buckets ---------- */
+    private static int index(long v) {
+        if (v < SUB_COUNT) {
+            return (int) v;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(v) - (SUB_BITS - 1);
+        return shift * HALF + (int) (v >>> shift);
+    }
+
+    private static long highestEquivalent(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int shift = index / HALF - 1;
+        long sub = index % HALF + HALF;
+        return ((sub + 1) << shift) - 1;
+    }
+}
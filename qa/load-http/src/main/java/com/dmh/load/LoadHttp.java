@@ -0,0 +1,122 @@
+package com.dmh.load;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generador de carga HTTP para las rutas de servidor de la app ({@code /api/login}, {@code /api/register},
+ * {@code /api/check-env}).
+ * <pre>
+ *   java -jar target/dmh-load-http.jar accounts 200          # da de alta 200 cuentas y escribe el archivo
+ *   java -DLOAD_MODEL=open -DLOAD_RATE=50 -jar target/dmh-load-http.jar
+ *   java -DLOAD_MODEL=closed -DLOAD_USERS=32 -jar target/dmh-load-http.jar
+ * </pre>
+ * Deja {@code target/load-http/<modelo>-<ts>.json} (p50/p90/p99/p99.9 por ruta) y un {@code .hgrm} por ruta.
+ * Ver la tabla de configuración en el README.
+ */
+public final class LoadHttp {
+
+    private LoadHttp() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String command = args.length > 0 ? args[0] : "run";
+        String baseUrl = Config.baseUrl();
+        Path accountsFile = Path.of(Config.str("target/load-accounts.csv", "LOAD_ACCOUNTS", "loadAccounts"));
+        int clientThreads = Config.intValue(Math.max(4, Runtime.getRuntime().availableProcessors() * 2),
+                "LOAD_CLIENT_THREADS", "loadClientThreads");
+        ExecutorService clientPool = Executors.newFixedThreadPool(clientThreads, r -> {
+            Thread t = new Thread(r, "load-http-client");
+            t.setDaemon(true);
+            return t;
+        });
+        HttpClient client = HttpClient.newBuilder()
+                .executor(clientPool)
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        try {
+            switch (command) {
+                case "accounts":
+                    int n = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+                    boolean register = Config.str("true", "LOAD_REGISTER", "loadRegister").equalsIgnoreCase("true");
+                    String password = Config.str("Carga-Http-2024", "LOAD_PASSWORD", "loadPassword");
+                    int created = Accounts.generate(client, baseUrl, n, password, accountsFile, register,
+                            Config.intValue(8, "LOAD_REGISTER_PARALLEL", "loadRegisterParallel"));
+                    System.out.printf("%d/%d cuentas en %s%n", created, n, accountsFile.toAbsolutePath());
+                    if (created == 0) {
+                        System.exit(1);
+                    }
+                    break;
+                case "run":
+                    if (!run(client, baseUrl, accountsFile)) {
+                        System.exit(1);
+                    }
+                    break;
+                default:
+                    System.err.println("Uso: java -jar dmh-load-http.jar [run | accounts <n>]");
+                    System.exit(2);
+            }
+        } finally {
+            clientPool.shutdownNow();
+        }
+    }
+
+    private static boolean run(HttpClient client, String baseUrl, Path accountsFile)
+            throws IOException, InterruptedException {
+        String model = Config.str("open", "LOAD_MODEL", "loadModel").toLowerCase();
+        String mix = Config.str("login=6,loginEmail=2,checkEnv=1,register=1", "LOAD_MIX", "loadMix");
+        int durationS = Config.intValue(60, "LOAD_DURATION", "loadDuration");
+        int warmupS = Config.intValue(10, "LOAD_WARMUP", "loadWarmup");
+        long seed = Config.intValue(42, "LOAD_SEED", "loadSeed");
+        Duration timeout = Duration.ofMillis(Config.intValue(30000, "LOAD_TIMEOUT_MS", "loadTimeoutMs"));
+        Accounts accounts = Accounts.load(accountsFile);
+
+        Report report = new Report();
+        Workload workload = new Workload(client, baseUrl, accounts, Workload.parseMix(mix), report, timeout);
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("baseUrl", baseUrl);
+        config.put("model", model);
+        config.put("mix", mix);
+        config.put("durationSeconds", durationS);
+        config.put("warmupSeconds", warmupS);
+        config.put("accounts", accounts.size());
+        config.put("seed", seed);
+        long warmup = TimeUnit.SECONDS.toNanos(warmupS);
+        long duration = TimeUnit.SECONDS.toNanos(durationS);
+        if ("open".equals(model)) {
+            double rate = Config.doubleValue(20, "LOAD_RATE", "loadRate");
+            int maxInFlight = Config.intValue(1000, "LOAD_MAX_IN_FLIGHT", "loadMaxInFlight");
+            config.put("rate", rate);
+            config.put("maxInFlight", maxInFlight);
+            System.out.printf("Modelo abierto: %.1f req/s, %ds (+%ds de warm-up) contra %s%n", rate, durationS, warmupS,
+                    baseUrl);
+            workload.open(rate, maxInFlight, warmup, duration, seed);
+        } else if ("closed".equals(model)) {
+            int users = Config.intValue(16, "LOAD_USERS", "loadUsers");
+            int thinkMs = Config.intValue(0, "LOAD_THINK_MS", "loadThinkMs");
+            int paceMs = Config.intValue(0, "LOAD_PACE_MS", "loadPaceMs");
+            config.put("users", users);
+            config.put("thinkMs", thinkMs);
+            config.put("paceMs", paceMs);
+            System.out.printf("Modelo cerrado: %d usuarios, %ds (+%ds de warm-up) contra %s%n", users, durationS,
+                    warmupS, baseUrl);
+            workload.closed(users, thinkMs, paceMs, warmup, duration, seed);
+        } else {
+            throw new IllegalArgumentException("LOAD_MODEL debe ser open o closed: " + model);
+        }
+
+        Map<String, Object> summary = report.summary(config, durationS);
+        System.out.println(Report.table(summary));
+        Path out = report.write(Path.of("target", "load-http"), model + "-" + System.currentTimeMillis(), summary);
+        System.out.println("Reporte: " + out.toAbsolutePath());
+        return ((Number) summary.get("requests")).longValue() > 0;
+    }
+}
@@ -0,0 +1,226 @@
+package com.dmh.load;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resultados por ruta: histograma de tiempo de respuesta (desde el instante programado), de servicio
+ * (desde que salió el request), códigos HTTP y errores de red. Thread-safe.
+ */
+final class Report {
+
+    /** Un juego de mediciones por ruta. */
+    static final class Stats {
+        final Histogram response = new Histogram();
+        final Histogram service = new Histogram();
+        final Map<Integer, AtomicLong> statuses = new ConcurrentHashMap<>();
+        final AtomicLong failures = new AtomicLong();
+        volatile String lastError;
+    }
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<Target, Stats> stats = new EnumMap<>(Target.class);
+    /** Lo programado antes (warm-up) no cuenta. */
+    private volatile long measureFrom = Long.MAX_VALUE;
+
+    Report() {
+        for (Target t : Target.values()) {
+            stats.put(t, new Stats());
+        }
+    }
+
+    void startMeasuring(long nanoTime) {
+        measureFrom = nanoTime;
+    }
+
+    /**
+     * {@code intended}: cuándo tocaba mandar el request según el modelo; {@code sent}: cuándo salió de verdad.
+     * {@code status} es -1 si no hubo respuesta (timeout, conexión rechazada...).
+     * Con {@code expectedIntervalMicros > 0} se corrige la omisión coordinada del modelo cerrado.
+     */
+    void record(Target target, long intended, long sent, long done, int status, Throwable error,
+            long expectedIntervalMicros) {
+        if (intended < measureFrom) {
+            return;
+        }
+        Stats s = stats.get(target);
+        long responseMicros = TimeUnit.NANOSECONDS.toMicros(done - intended);
+        if (expectedIntervalMicros > 0) {
+            s.response.recordCorrected(responseMicros, expectedIntervalMicros);
+        } else {
+            s.response.record(responseMicros);
+        }
+        s.service.record(TimeUnit.NANOSECONDS.toMicros(done - sent));
+        if (error != null) {
+            s.failures.incrementAndGet();
+            s.lastError = error.getClass().getSimpleName() + ": " + String.valueOf(error.getMessage()).split("\n")[0];
+        } else {
+            s.statuses.computeIfAbsent(status, k -> new AtomicLong()).incrementAndGet();
+            if (status >= 400) {
+                s.failures.incrementAndGet();
+                s.lastError = "HTTP " + status;
+            }
+        }
+    }
+
+    Map<String, Object> summary(Map<String, Object> config, double measuredSeconds) {
+        Histogram all = new Histogram();
+        long requests = 0;
+        long failures = 0;
+        Map<String, Object> byTarget = new LinkedHashMap<>();
+        for (Map.Entry<Target, Stats> e : stats.entrySet()) {
+            Stats s = e.getValue();
+            if (s.service.count() == 0) {
+                continue;
+            }
+            all.add(s.response);
+            requests += s.service.count();
+            failures += s.failures.get();
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("requests", s.service.count());
+            m.put("failures", s.failures.get());
+            m.put("throughput", measuredSeconds > 0 ? s.service.count() / measuredSeconds : 0);
+            Map<String, Object> statuses = new TreeMap<>();
+            s.statuses.forEach((k, v) -> statuses.put(String.valueOf(k), v.get()));
+            m.put("statuses", statuses);
+            m.put("responseMs", percentiles(s.response));
+            m.put("serviceMs", percentiles(s.service));
+            if (s.lastError != null) {
+                m.put("lastError", s.lastError);
+            }
+            byTarget.put(e.getKey().key, m);
+        }
+        Map<String, Object> doc = new LinkedHashMap<>();
+        doc.put("config", config);
+        doc.put("measuredSeconds", measuredSeconds);
+        doc.put("requests", requests);
+        doc.put("failures", failures);
+        doc.put("throughput", measuredSeconds > 0 ? requests / measuredSeconds : 0);
+        doc.put("responseMs", percentiles(all));
+        doc.put("targets", byTarget);
+        return doc;
+    }
+
+    /** {@code <prefix>.json} con el resumen y un {@code <prefix>.<ruta>.hgrm} por ruta. */
+    Path write(Path dir, String prefix, Map<String, Object> summary) throws IOException {
+        Files.createDirectories(dir);
+        Path json = dir.resolve(prefix + ".json");
+        Files.writeString(json, toJson(summary), StandardCharsets.UTF_8);
+        for (Map.Entry<Target, Stats> e : stats.entrySet()) {
+            if (e.getValue().response.count() > 0) {
+                Files.writeString(dir.resolve(prefix + "." + e.getKey().key + ".hgrm"),
+                        e.getValue().response.distribution(), StandardCharsets.UTF_8);
+            }
+        }
+        return json;
+    }
+
+    /** Tabla legible para la consola. */
+    @SuppressWarnings("unchecked")
+    static String table(Map<String, Object> summary) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Requests=%s fallidos=%s  %.1f req/s (tiempo de respuesta desde el instante programado)%n",
+                summary.get("requests"), summary.get("failures"), ((Number) summary.get("throughput")).doubleValue()));
+        sb.append(String.format("%-12s %8s %6s %8s %9s %9s %9s %9s %9s%n",
+                "ruta", "n", "err", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        ((Map<String, Object>) summary.get("targets")).forEach((name, v) -> {
+            Map<String, Object> t = (Map<String, Object>) v;
+            Map<String, Object> p = (Map<String, Object>) t.get("responseMs");
+            sb.append(String.format("%-12s %8s %6s %8.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n", name, t.get("requests"),
+                    t.get("failures"), t.get("throughput"), p.get("p50"), p.get("p90"), p.get("p99"), p.get("p99.9"),
+                    p.get("max")));
+        });
+        return sb.toString();
+    }
+
+    /* ---------- Helpers ---------- */
+    private static Map<String, Object> percentiles(Histogram h) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        for (double p : PERCENTILES) {
+            m.put("p" + (p == Math.rint(p) ? String.valueOf((int) p) : String.valueOf(p)), h.percentile(p) / 1000.0);
+        }
+        m.put("max", h.max() / 1000.0);
+        m.put("mean", h.mean() / 1000.0);
+        return m;
+    }
+
+    /** JSON mínimo (Map/List/String/Number/Boolean/null): el módulo no tiene dependencias. */
+    @SuppressWarnings("unchecked")
+    static String toJson(Object o) {
+        if (o == null) {
+            return "null";
+        }
+        if (o instanceof String) {
+            return quote((String) o);
+        }
+        if (o instanceof Double && !Double.isFinite((Double) o)) {
+            return "null";
+        }
+        if (o instanceof Number || o instanceof Boolean) {
+            return String.valueOf(o);
+        }
+        StringBuilder sb = new StringBuilder();
+        if (o instanceof Map) {
+            sb.append('{');
+            for (Map.Entry<String, Object> e : ((Map<String, Object>) o).entrySet()) {
+                if (sb.length() > 1) {
+                    sb.append(',');
+                }
+                sb.append(quote(e.getKey())).append(':').append(toJson(e.getValue()));
+            }
+            return sb.append('}').toString();
+        }
+        if (o instanceof List) {
+            sb.append('[');
+            for (Object v : (List<Object>) o) {
+                if (sb.length() > 1) {
+                    sb.append(',');
+                }
+                sb.append(toJson(v));
+            }
+            return sb.append(']').toString();
+        }
+        return quote(String.valueOf(o));
+    }
+
+    static String quote(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : s.toCharArray()) {
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,59 @@
+package com.dmh.load;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+
+/**
+ * Rutas de la app que se cargan; la clave es la que se usa en {@code LOAD_MIX}.
+ * <ul>
+ *   <li>{@code login}: {@code POST /api/login} con email + password (bcrypt + lectura de usuarios/email_codes).</li>
+ *   <li>{@code loginEmail}: paso 1 del login, sólo email (una lectura de usuarios, sin bcrypt).</li>
+ *   <li>{@code register}: {@code POST /api/register} con un email nuevo por request (Auth admin + insert + bcrypt).</li>
+ *   <li>{@code checkEnv}: {@code GET /api/check-env} (no toca Supabase: piso de latencia del servidor).</li>
+ * </ul>
+ */
+enum Target {
+    LOGIN("login"), LOGIN_EMAIL("loginEmail"), REGISTER("register"), CHECK_ENV("checkEnv");
+
+    final String key;
+
+    Target(String key) {
+        this.key = key;
+    }
+
+    static Target of(String key) {
+        for (Target t : values()) {
+            if (t.key.equalsIgnoreCase(key)) {
+                return t;
+            }
+        }
+        throw new IllegalArgumentException("Ruta desconocida en LOAD_MIX: " + key);
+    }
+
+    /** {@code seq} hace único el email de los registros dentro de la corrida. */
+    HttpRequest request(String baseUrl, Accounts.Account account, String runId, long seq, Duration timeout) {
+        switch (this) {
+            case LOGIN:
+                return post(baseUrl + "/api/login", "{\"email\":" + Report.quote(account.email)
+                        + ",\"password\":" + Report.quote(account.password) + "}", timeout);
+            case LOGIN_EMAIL:
+                return post(baseUrl + "/api/login", "{\"email\":" + Report.quote(account.email) + "}", timeout);
+            case REGISTER:
+                return post(baseUrl + "/api/register", Accounts.registerBody(
+                        "load." + runId + "." + seq + "@dmh.test", account.password, seq), timeout);
+            case CHECK_ENV:
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/api/check-env")).timeout(timeout).GET().build();
+            default:
+                throw new IllegalStateException(name());
+        }
+    }
+
+    static HttpRequest post(String url, String json, Duration timeout) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+}
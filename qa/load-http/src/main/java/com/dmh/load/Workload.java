@@ -0,0 +1,161 @@
+package com.dmh.load;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Los dos modelos de carga sobre un mismo {@link HttpClient}.
+ * <ul>
+ *   <li><b>Abierto</b> (tasa constante): los requests se programan cada {@code 1/rate} s sin esperar respuestas,
+ *   como llegan usuarios reales. La latencia se mide desde el instante programado: si el servidor (o el propio
+ *   generador, al topar {@code maxInFlight}) se atrasa, la espera entra en los percentiles.</li>
+ *   <li><b>Cerrado</b> (N usuarios): cada usuario manda, espera la respuesta, piensa y repite. Con
+ *   {@code paceMs} cada usuario apunta a un request cada {@code paceMs} y la corrección de
+ *   {@link Histogram#recordCorrected} cubre los que no llegó a mandar.</li>
+ * </ul>
+ */
+final class Workload {
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final Accounts accounts;
+    private final List<Target> weighted;
+    private final Report report;
+    private final Duration timeout;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong seq = new AtomicLong();
+
+    Workload(HttpClient client, String baseUrl, Accounts accounts, List<Target> weighted, Report report,
+            Duration timeout) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.accounts = accounts;
+        this.weighted = weighted;
+        this.report = report;
+        this.timeout = timeout;
+    }
+
+    /** Modelo abierto: {@code rate} req/s durante warm-up + duración. */
+    void open(double rate, int maxInFlight, long warmupNanos, long durationNanos, long seed) {
+        Random random = new Random(seed);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long period = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + durationNanos;
+        report.startMeasuring(measureFrom);
+        for (long i = 0; ; i++) {
+            long intended = start + i * period;
+            if (intended >= end) {
+                break;
+            }
+            parkUntil(intended);
+            // Si no hay lugar se espera acá: el atraso se mide igual porque la latencia cuenta desde "intended"
+            inFlight.acquireUninterruptibly();
+            Target target = weighted.get(random.nextInt(weighted.size()));
+            HttpRequest request = target.request(baseUrl, accounts.next(), runId, seq.incrementAndGet(), timeout);
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((res, err) -> {
+                        report.record(target, intended, sent, System.nanoTime(), res != null ? res.statusCode() : -1,
+                                err, 0);
+                        inFlight.release();
+                    });
+        }
+        drain(inFlight, maxInFlight);
+    }
+
+    /** Modelo cerrado: {@code users} hilos, cada uno con su request en curso como máximo. */
+    void closed(int users, long thinkMs, long paceMs, long warmupNanos, long durationNanos, long seed)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + durationNanos;
+        report.startMeasuring(measureFrom);
+        long expectedMicros = TimeUnit.MILLISECONDS.toMicros(paceMs);
+        ExecutorService pool = Executors.newFixedThreadPool(users, r -> {
+            Thread t = new Thread(r, "load-user");
+            t.setDaemon(true);
+            return t;
+        });
+        for (int u = 0; u < users; u++) {
+            Random random = new Random(seed + u);
+            // Arranque escalonado dentro del primer período, para no disparar todos juntos
+            long first = start + (paceMs > 0 ? TimeUnit.MILLISECONDS.toNanos(paceMs) * u / users : 0);
+            pool.submit(() -> {
+                long next = first;
+                while (next < end && !Thread.currentThread().isInterrupted()) {
+                    parkUntil(next);
+                    Target target = weighted.get(random.nextInt(weighted.size()));
+                    HttpRequest request = target.request(baseUrl, accounts.next(), runId, seq.incrementAndGet(),
+                            timeout);
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<Void> res = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        report.record(target, sent, sent, System.nanoTime(), res.statusCode(), null, expectedMicros);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (Exception e) {
+                        report.record(target, sent, sent, System.nanoTime(), -1, e, expectedMicros);
+                    }
+                    next = paceMs > 0 ? Math.max(next + TimeUnit.MILLISECONDS.toNanos(paceMs), System.nanoTime())
+                            : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(thinkMs);
+                }
+            });
+        }
+        pool.shutdown();
+        if (!pool.awaitTermination(TimeUnit.NANOSECONDS.toSeconds(end - start) + timeout.toSeconds() + 10,
+                TimeUnit.SECONDS)) {
+            pool.shutdownNow();
+        }
+    }
+
+    /* ---------- Helpers ---------- */
+    static List<Target> parseMix(String mix) {
+        List<Target> out = new ArrayList<>();
+        for (String part : mix.split(",")) {
+            if (part.isBlank()) {
+                continue;
+            }
+            String[] kv = part.trim().split("=");
+            Target t = Target.of(kv[0].trim());
+            int weight = kv.length > 1 ? Integer.parseInt(kv[1].trim()) : 1;
+            for (int i = 0; i < weight; i++) {
+                out.add(t);
+            }
+        }
+        if (out.isEmpty()) {
+            throw new IllegalArgumentException("LOAD_MIX sin rutas: " + mix);
+        }
+        return out;
+    }
+
+    /** Espera a que terminen los requests en vuelo (como mucho el timeout de un request y un margen). */
+    private void drain(Semaphore inFlight, int maxInFlight) {
+        try {
+            if (!inFlight.tryAcquire(maxInFlight, timeout.toSeconds() + 10, TimeUnit.SECONDS)) {
+                System.out.println("Quedaron requests sin respuesta al cerrar la corrida");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void parkUntil(long nanoTime) {
+        long left;
+        while ((left = nanoTime - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(left);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.dmh.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/** Buckets y percentiles con resultados calculados a mano (esquema log-lineal de 7 bits). */
+class HistogramTest {
+
+    @Test
+    void emptyIsZero() {
+        Histogram h = new Histogram();
+        assertEquals(0, h.count());
+        assertEquals(0, h.percentile(99));
+        assertEquals(0.0, h.mean());
+    }
+
+    @Test
+    void belowOneHundredTwentyEightMicrosEveryValueIsItsOwnBucket() {
+        Histogram h = new Histogram();
+        for (long v = 1; v <= 100; v++) {
+            h.record(v);
+        }
+        assertEquals(100, h.count());
+        assertEquals(1, h.percentile(0));
+        assertEquals(50, h.percentile(50));
+        assertEquals(90, h.percentile(90));
+        assertEquals(99, h.percentile(99));
+        assertEquals(100, h.percentile(100));
+        assertEquals(50.5, h.mean(), 1e-9);
+        assertEquals(100, h.max());
+    }
+
+    @Test
+    void percentileIsTheUpperBoundOfTheBucketCappedAtMax() {
+        Histogram h = new Histogram();
+        // 128 y 129 comparten bucket (de 2 µs): el límite superior es 129
+        h.record(128);
+        h.record(100_000_000);
+        assertEquals(129, h.percentile(50));
+        assertEquals(100_000_000, h.percentile(100));
+
+        Histogram only = new Histogram();
+        only.record(128);
+        // el límite del bucket no pasa del máximo visto
+        assertEquals(128, only.percentile(50));
+    }
+
+    @Test
+    void oneSecondFallsInTheBucketUpTo1007615() {
+        // 1e6 µs: bit más alto 19 → shift 13, sub-bucket 1e6 >>> 13 = 122 → [999424, 1007615]
+        Histogram h = new Histogram();
+        h.record(1_000_000);
+        h.record(2_000_000);
+        assertEquals(1_007_615, h.percentile(50));
+        assertEquals(2_000_000, h.percentile(100));
+    }
+
+    @Test
+    void relativeErrorStaysBelowOnePointSixPercent() {
+        long huge = 4_000_000_000L;
+        for (long v = 1; v < huge; v = v * 3 / 2 + 1) {
+            Histogram h = new Histogram();
+            h.record(v);
+            h.record(huge);
+            long upper = h.percentile(50);
+            assertTrue(upper >= v, "límite " + upper + " < valor " + v);
+            assertTrue((upper - v) <= v * 0.016, "error de " + (upper - v) + " µs para " + v);
+        }
+    }
+
+    @Test
+    void valuesOutOfRangeAreClamped() {
+        Histogram h = new Histogram();
+        h.record(-5);
+        h.record(Long.MAX_VALUE);
+        assertEquals(0, h.percentile(50));
+        assertEquals((1L << 32) - 1, h.max());
+    }
+
+    @Test
+    void correctedRecordingAddsTheSamplesTheGeneratorCouldNotSend() {
+        Histogram h = new Histogram();
+        // 1000 µs con intervalo esperado de 100: 1000, 900, ..., 100
+        h.recordCorrected(1000, 100);
+        assertEquals(10, h.count());
+        assertEquals(100, h.percentile(10));
+        assertEquals(550.0, h.mean(), 1e-9);
+
+        Histogram fast = new Histogram();
+        fast.recordCorrected(80, 100);
+        assertEquals(1, fast.count());
+    }
+
+    @Test
+    void addMergesCountsMeanAndMax() {
+        Histogram a = new Histogram();
+        Histogram b = new Histogram();
+        for (long v = 1; v <= 50; v++) {
+            a.record(v);
+            b.record(v + 50);
+        }
+        a.add(b);
+        assertEquals(100, a.count());
+        assertEquals(50, a.percentile(50));
+        assertEquals(100, a.max());
+        assertEquals(50.5, a.mean(), 1e-9);
+    }
+}
@@ -0,0 +1,65 @@
+package com.dmh.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Locators de la actividad contra cuentas con muchos movimientos: la lista pagina de a 10, pero el paginador
+ * pinta un botón por página, así los XPath que recorren todos los {@code //button} crecen con el historial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LargeListBenchmark {
+
+    @Param({
+        "ActividadPage.LIST", "ActividadPage.BTN_APPLY", "ActividadPage.P_UMES", "ActividadPage.FILTRAR",
+        "ActividadPage.PERIODO_LABEL", "ActividadPage.OPERACION_LABEL"
+    })
+    public String locator;
+
+    @Param({"10", "1000", "10000"})
+    public int movimientos;
+
+    private final LocatorProbe probe = new LocatorProbe();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        probe.open(locator, movimientos);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        probe.close();
+    }
+
+    @Benchmark
+    public List<WebElement> endToEnd() {
+        return probe.findElements();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LocatorProbe.BATCH)
+    public long inBrowser() {
+        return probe.evaluateInPage();
+    }
+}
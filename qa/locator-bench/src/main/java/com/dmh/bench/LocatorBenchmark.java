@@ -0,0 +1,81 @@
+package com.dmh.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Costo de cada locator de los Page Objects sobre el snapshot de su pantalla.
+ * <ul>
+ *   <li>{@code endToEnd}: {@code driver.findElements(by)}, lo que paga el Page Object en cada sondeo.</li>
+ *   <li>{@code inBrowser}: sólo la evaluación del selector en la página (por evaluación).</li>
+ * </ul>
+ * La lista de claves sale de {@link LocatorCatalog}; para medir un subconjunto: {@code -p locator=A,B}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocatorBenchmark {
+
+    @Param({
+        "LoginPage.emailSel", "LoginPage.continueByTestId", "LoginPage.continueByText",
+        "LoginPage.passSel", "LoginPage.submitByTestId", "LoginPage.submitByText",
+        "HomePage.search", "HomePage.ctaActividad", "Navbar.greeting",
+        "ActividadPage.LIST", "ActividadPage.SEARCH", "ActividadPage.BTN_APPLY", "ActividadPage.BTN_CLEAR",
+        "ActividadPage.P_HOY", "ActividadPage.P_U7", "ActividadPage.P_U15", "ActividadPage.P_UMES",
+        "ActividadPage.P_U3M", "ActividadPage.FILTRAR", "ActividadPage.PERIODO_LABEL",
+        "ActividadPage.OPERACION_LABEL",
+        "PerfilPage.CVU_COPY", "PerfilPage.ALIAS_COPY", "PerfilPage.ALIAS_INPUT", "PerfilPage.ALIAS_ROW",
+        "PerfilPage.EDIT_BTN", "PerfilPage.SAVE_BTN", "PerfilPage.CANCEL_BTN", "PerfilPage.ANY_ALIAS_INP",
+        "PerfilPage.ANY_EDIT_BTN", "PerfilPage.TOAST",
+        "TarjetasPage.HEADING_LIST", "TarjetasPage.BTN_ADD", "TarjetasPage.BTN_ADD_FALLBACK",
+        "TarjetasPage.BRAND_INFO", "TarjetasPage.IN_NUM", "TarjetasPage.IN_EXP", "TarjetasPage.IN_NAME",
+        "TarjetasPage.IN_CVV", "TarjetasPage.BTN_CONTINUAR"
+    })
+    public String locator;
+
+    /** Movimientos de la cuenta (sólo cambia el DOM de la actividad). */
+    @Param({"10"})
+    public int movimientos;
+
+    private final LocatorProbe probe = new LocatorProbe();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        probe.open(locator, movimientos);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        probe.close();
+    }
+
+    @Benchmark
+    public List<WebElement> endToEnd() {
+        return probe.findElements();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LocatorProbe.BATCH)
+    public long inBrowser() {
+        return probe.evaluateInPage();
+    }
+}
@@ -0,0 +1,125 @@
+package com.dmh.bench;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+
+import com.dmh.selenium.pages.ActividadPage;
+import com.dmh.selenium.pages.HomePage;
+import com.dmh.selenium.pages.LoginPage;
+import com.dmh.selenium.pages.Navbar;
+import com.dmh.selenium.pages.PerfilPage;
+import com.dmh.selenium.pages.TarjetasPage;
+import com.dmh.selenium.support.Config;
+
+/**
+ * Locators de los Page Objects y el snapshot donde se usan.
+ * <p>
+ * Los campos {@code By} se leen por reflexión del Page Object: el benchmark mide siempre el selector
+ * vigente, sin copiarlo. Los {@code static} se leen sin instanciar; los de instancia, de un Page Object
+ * construido como en los tests ({@code (WebDriver, String)} con {@link Config#baseUrl()}, si no
+ * {@code (WebDriver)}). Si se renombra un campo, falla el setup con la clave.
+ * Los que se arman dentro de un método (sin campo) se copian acá como {@code inline}; al cambiarlos
+ * en el Page Object hay que actualizarlos.
+ */
+final class LocatorCatalog {
+
+    /** Clave ({@code Pagina.CAMPO}) → dónde se mide. */
+    private static final Map<String, Entry> ENTRIES = new LinkedHashMap<>();
+
+    static final class Entry {
+        final String key;
+        final String snapshot;
+        final Class<?> page;
+        final String field;
+        final By inline;
+
+        private Entry(String key, String snapshot, Class<?> page, String field, By inline) {
+            this.key = key;
+            this.snapshot = snapshot;
+            this.page = page;
+            this.field = field;
+            this.inline = inline;
+        }
+    }
+
+    static {
+        field("login-email", LoginPage.class, "emailSel", "continueByTestId", "continueByText");
+        field("login-password", LoginPage.class, "passSel", "submitByTestId", "submitByText");
+        field("home", HomePage.class, "search", "ctaActividad");
+        field("home", Navbar.class, "greeting");
+        field("actividad", ActividadPage.class, "LIST", "SEARCH", "BTN_APPLY", "BTN_CLEAR",
+                "P_HOY", "P_U7", "P_U15", "P_UMES", "P_U3M");
+        // ActividadPage.openFilters / choosePeriodo("ultimo_mes") / chooseOperacion("egresos")
+        inline("actividad", "ActividadPage.FILTRAR",
+                By.xpath("//button[normalize-space()='Filtrar' or contains(.,'Filtrar')]"));
+        inline("actividad", "ActividadPage.PERIODO_LABEL",
+                By.xpath("//section[.//p[contains(.,'Período')]]//button[normalize-space()='Último mes']"));
+        inline("actividad", "ActividadPage.OPERACION_LABEL",
+                By.xpath("//section[.//p[contains(.,'Operación')]]//button[normalize-space()='Egresos']"));
+        field("perfil", PerfilPage.class, "CVU_COPY", "ALIAS_COPY", "ALIAS_INPUT", "ALIAS_ROW", "EDIT_BTN",
+                "SAVE_BTN", "CANCEL_BTN", "ANY_ALIAS_INP", "ANY_EDIT_BTN");
+        // PerfilPage.waitMiniToast
+        inline("perfil", "PerfilPage.TOAST", By.xpath("//*[contains(translate(.,'COPIADO','copiado'),'copiado')]"));
+        field("tarjetas", TarjetasPage.class, "HEADING_LIST", "BTN_ADD", "BTN_ADD_FALLBACK");
+        field("tarjetas-form", TarjetasPage.class, "BRAND_INFO", "IN_NUM", "IN_EXP", "IN_NAME", "IN_CVV",
+                "BTN_CONTINUAR");
+    }
+
+    private LocatorCatalog() {
+    }
+
+    static Entry entry(String key) {
+        Entry e = ENTRIES.get(key);
+        if (e == null) {
+            throw new IllegalArgumentException("Locator desconocido: " + key + " (ver LocatorCatalog)");
+        }
+        return e;
+    }
+
+    static Map<String, Entry> all() {
+        return ENTRIES;
+    }
+
+    /** El {@code By} tal cual lo tiene el Page Object (instanciado con {@code driver} si hace falta). */
+    static By resolve(Entry e, WebDriver driver) {
+        if (e.inline != null) {
+            return e.inline;
+        }
+        try {
+            Field f = e.page.getDeclaredField(e.field);
+            f.setAccessible(true);
+            Object page = Modifier.isStatic(f.getModifiers()) ? null : instance(e.page, driver);
+            return (By) f.get(page);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("No se pudo leer " + e.key + " del Page Object", ex);
+        }
+    }
+
+    /** Mismos constructores que usan los tests: primero {@code (WebDriver, String)}, si no {@code (WebDriver)}. */
+    private static Object instance(Class<?> page, WebDriver driver) throws ReflectiveOperationException {
+        try {
+            Constructor<?> c = page.getConstructor(WebDriver.class, String.class);
+            return c.newInstance(driver, Config.baseUrl());
+        } catch (NoSuchMethodException ex) {
+            return page.getConstructor(WebDriver.class).newInstance(driver);
+        }
+    }
+
+    /* ---------- Registro ---------- */
+    private static void field(String snapshot, Class<?> page, String... fields) {
+        for (String f : fields) {
+            String key = page.getSimpleName() + "." + f;
+            ENTRIES.put(key, new Entry(key, snapshot, page, f, null));
+        }
+    }
+
+    private static void inline(String snapshot, String key, By by) {
+        ENTRIES.put(key, new Entry(key, snapshot, null, null, by));
+    }
+}
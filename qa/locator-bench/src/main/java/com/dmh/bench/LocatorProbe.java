@@ -0,0 +1,91 @@
+package com.dmh.bench;
+
+import java.util.List;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import com.dmh.selenium.support.ChromeFactory;
+
+/**
+ * Un Chrome headless con el snapshot del locator cargado, y las dos formas de medirlo:
+ * <ul>
+ *   <li>{@link #findElements()}: lo que paga un Page Object, round-trip WebDriver incluido.</li>
+ *   <li>{@link #evaluateInPage()}: sólo la evaluación en la página ({@code querySelectorAll} /
+ *   {@code document.evaluate}, como hace chromedriver), {@link #BATCH} veces por {@code executeScript}.</li>
+ * </ul>
+ */
+final class LocatorProbe {
+
+    /** Evaluaciones por round-trip en la medición in-browser: diluye el costo del round-trip. */
+    static final int BATCH = 200;
+
+    private static final String EVALUATE =
+            "var q=arguments[0],xp=arguments[1],n=arguments[2],c=0;"
+            + "for(var i=0;i<n;i++){"
+            + " if(xp){c+=document.evaluate(q,document,null,XPathResult.ORDERED_NODE_SNAPSHOT_TYPE,null).snapshotLength;}"
+            + " else{c+=document.querySelectorAll(q).length;}}"
+            + "return c;";
+
+    private WebDriver driver;
+    private By by;
+    private String query;
+    private boolean xpath;
+
+    void open(String key, int movimientos) {
+        LocatorCatalog.Entry entry = LocatorCatalog.entry(key);
+        driver = ChromeFactory.create();
+        by = LocatorCatalog.resolve(entry, driver);
+        String[] q = toQuery(by);
+        xpath = "xpath".equals(q[0]);
+        query = q[1];
+        long nodes = Snapshots.open(driver, entry.snapshot, movimientos);
+        int matches = driver.findElements(by).size();
+        // Sin columna propia en JMH: queda en la salida, al lado del resultado
+        System.out.printf("# %s en %s (movimientos=%d, %d nodos): %d coincidencias%s%n", key, entry.snapshot,
+                movimientos, nodes, matches, matches == 0 ? " — el locator no encuentra nada en este DOM" : "");
+    }
+
+    List<WebElement> findElements() {
+        return driver.findElements(by);
+    }
+
+    long evaluateInPage() {
+        return ((Number) ((JavascriptExecutor) driver).executeScript(EVALUATE, query, xpath, BATCH)).longValue();
+    }
+
+    void close() {
+        if (driver != null) {
+            driver.quit();
+            driver = null;
+        }
+    }
+
+    /* ---------- Helpers ---------- */
+
+    /** {@code By} → estrategia nativa del browser (css o xpath), a partir de su {@code toString()}. */
+    static String[] toQuery(By by) {
+        String s = by.toString();
+        int colon = s.indexOf(": ");
+        String kind = colon > 0 ? s.substring(0, colon) : s;
+        String value = colon > 0 ? s.substring(colon + 2) : "";
+        switch (kind) {
+            case "By.cssSelector":
+                return new String[]{"css", value};
+            case "By.xpath":
+                return new String[]{"xpath", value};
+            case "By.id":
+                return new String[]{"css", "[id='" + value + "']"};
+            case "By.name":
+                return new String[]{"css", "[name='" + value + "']"};
+            case "By.className":
+                return new String[]{"css", "." + value};
+            case "By.tagName":
+                return new String[]{"css", value};
+            default:
+                throw new IllegalArgumentException("Estrategia no soportada por el benchmark: " + s);
+        }
+    }
+}
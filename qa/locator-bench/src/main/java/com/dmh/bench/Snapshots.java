@@ -0,0 +1,75 @@
+package com.dmh.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Snapshots HTML de las pantallas ({@code src/main/resources/snapshots}), abiertos como {@code file://}.
+ * <p>
+ * Los elementos con {@code data-bench-repeat} se replican según la cantidad de movimientos, igual que la app:
+ * {@code rows} = filas visibles (la actividad pagina de a 10) y {@code pages} = botones de paginación
+ * (uno por página, sin paginador si hay una sola).
+ */
+final class Snapshots {
+
+    static final int PAGE_SIZE = 10;
+
+    private static final String EXPAND =
+            "var counts=arguments[0];"
+            + "document.querySelectorAll('[data-bench-repeat]').forEach(function(el){"
+            + " var n=counts[el.getAttribute('data-bench-repeat')];"
+            + " if(n===undefined)return;"
+            + " if(n<=0){el.remove();return;}"
+            + " var last=el;"
+            + " for(var i=2;i<=n;i++){var c=el.cloneNode(true);"
+            + "  if(el.getAttribute('data-bench-repeat')==='pages'){c.textContent=String(i);}"
+            + "  last.after(c);last=c;}"
+            + "});"
+            + "return document.getElementsByTagName('*').length;";
+
+    private static Path dir;
+
+    private Snapshots() {
+    }
+
+    /** Abre el snapshot y lo expande; devuelve la cantidad de elementos del DOM resultante. */
+    static long open(WebDriver driver, String name, int movimientos) {
+        driver.get(file(name).toUri().toString());
+        int pages = (movimientos + PAGE_SIZE - 1) / PAGE_SIZE;
+        Map<String, Object> counts = Map.of(
+                "rows", Math.min(movimientos, PAGE_SIZE),
+                "pages", pages > 1 ? pages : 0);
+        return ((Number) ((JavascriptExecutor) driver).executeScript(EXPAND, counts)).longValue();
+    }
+
+    /** Copia los snapshots del classpath (dentro del jar) a un directorio temporal, una vez por JVM. */
+    private static synchronized Path file(String name) {
+        try {
+            if (dir == null) {
+                dir = Files.createTempDirectory("dmh-snapshots");
+                dir.toFile().deleteOnExit();
+            }
+            Path out = dir.resolve(name + ".html");
+            if (!Files.exists(out)) {
+                try (InputStream in = Snapshots.class.getResourceAsStream("/snapshots/" + name + ".html")) {
+                    if (in == null) {
+                        throw new IllegalArgumentException("No existe el snapshot " + name);
+                    }
+                    Files.copy(in, out, StandardCopyOption.REPLACE_EXISTING);
+                }
+                out.toFile().deleteOnExit();
+            }
+            return out;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,74 +1,70 @@
 package com.dmh.selenium;
 
 import java.time.Duration;
+import java.util.function.Function;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.TestInstance;
-import org.openqa.selenium.PageLoadStrategy;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
-
-@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+import com.dmh.selenium.support.BrowserMocks;
+import com.dmh.selenium.support.CommandMetrics;
+import com.dmh.selenium.support.CommandReport;
+import com.dmh.selenium.support.Config;
+import com.dmh.selenium.support.DriverHolder;
+import com.dmh.selenium.support.DriverPool;
+import com.dmh.selenium.support.DriverProvisioning;
+import com.dmh.selenium.support.PageMetrics;
+import com.dmh.selenium.support.PerfReport;
+import com.dmh.selenium.support.ResourceBlocking;
+import com.dmh.selenium.support.RouteCoverage;
+import com.dmh.selenium.support.ScreenshotOnFailure;
+import com.dmh.selenium.support.SessionCache;
+import com.dmh.selenium.support.SupabaseStubExtension;
+import com.dmh.selenium.support.WaitPolicy;
+
+/**
+ * Ciclo de vida PER_METHOD (default de JUnit): cada test tiene su propia instancia,
+ * así driver/wait/baseUrl no se comparten cuando los métodos corren en paralelo.
+ */
+@ExtendWith({SupabaseStubExtension.class, PerfReport.class, CommandReport.class, BrowserMocks.class,
+        ResourceBlocking.class, ScreenshotOnFailure.class, RouteCoverage.class})
 public abstract class BaseTest {
 
+    /** El Chrome del pool, sin decorar: es el que se devuelve en {@link #quit()}. */
+    private WebDriver pooled;
     protected WebDriver driver;
     protected WebDriverWait wait;
     protected String baseUrl;
 
-    private static String resolveBaseUrl() {
-        String prop = System.getProperty("BASE_URL");
-        String env = System.getenv("BASE_URL");
-        String url = (prop != null && !prop.isBlank()) ? prop
-                : (env != null && !env.isBlank()) ? env
-                : "http://localhost:3000";
-        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
-    }
-
     @BeforeAll
-    void setupConfig() {
-        WebDriverManager.chromedriver().setup();
-        baseUrl = resolveBaseUrl();
+    static void setupConfig() {
+        // Chromedriver del cache local, resuelto una vez por JVM: una falla acá es de la clase, no del primer test
+        DriverProvisioning.ensure();
     }
 
     @BeforeEach
     void openBrowser() {
-        boolean headless = Boolean.parseBoolean(
-                System.getProperty("HEADLESS",
-                        String.valueOf(Boolean.parseBoolean(System.getenv("HEADLESS") == null ? "true" : System.getenv("HEADLESS"))))
-        );
-
-        ChromeOptions options = new ChromeOptions();
-        options.setPageLoadStrategy(PageLoadStrategy.NORMAL);
-
-        // Tamaño estable para headless/CI
-        options.addArguments("--window-size=1366,900");
-        options.addArguments("--disable-dev-shm-usage", "--no-sandbox");
-
-        // Reduce interferencias de FedCM / Privacy Sandbox / SameSite
-        options.addArguments("--disable-features=FedCm,PrivacySandboxAdsAPIs,ChromeRootStoreUsed,BlockInsecurePrivateNetworkRequests,SameSiteByDefaultCookies,CookiesWithoutSameSiteMustBeSecure");
-
-        // Ruido visual y prompts
-        options.addArguments("--disable-notifications", "--disable-infobars");
-
-        if (headless) {
-            // Headless moderno + estabilidad en Windows
-            options.addArguments("--headless=new", "--disable-gpu", "--disable-software-rasterizer");
-        }
-
-        driver = new ChromeDriver(options);
-        wait = new WebDriverWait(driver, Duration.ofSeconds(40)); // un poco más generoso para CI/headless
+        baseUrl = Config.baseUrl();
+        // Chrome precalentado y limpio (o uno nuevo si POOL_SIZE=0)
+        pooled = DriverPool.shared().lease();
+        // Cada comando queda medido (CommandMetrics) y atribuido al Page Object que lo pidió
+        driver = CommandMetrics.decorate(pooled);
+        // Wait de Selenium para esperas ad hoc en los tests; el timeout lo ajusta WaitPolicy
+        wait = WaitPolicy.wait(driver, "test." + getClass().getSimpleName(), Duration.ofSeconds(40));
+        DriverHolder.set(driver);
+        PageMetrics.install(driver);
     }
 
     @AfterEach
     void quit() {
-        if (driver != null) {
-            driver.quit();
+        try {
+            DriverPool.shared().release(pooled);
+        } finally {
+            DriverHolder.clear();
         }
     }
 
@@ -84,13 +80,33 @@ public abstract class BaseTest {
         return baseUrl + p;
     }
 
+    /**
+     * Deja el driver logueado con el usuario de pruebas y parado en /home.
+     * Reutiliza la sesión cacheada (SessionCache) y sólo cae al login por UI si la rechazan.
+     */
+    protected void signIn() {
+        SessionCache.signIn(driver, baseUrl,
+                Config.str(null, "E2E_EMAIL", "E2E_USER"),
+                Config.str(null, "E2E_PASSWORD", "E2E_PASS"));
+    }
+
     protected void go(String path) {
         driver.navigate().to(abs(path));
+        PageMetrics.record(driver, path);
     }
 
     /* ==== NUEVO: usado por todos los Smoke ==== */
     protected void assertUrlContains(String fragment) {
-        new WebDriverWait(driver, Duration.ofSeconds(30))
-                .until(d -> d.getCurrentUrl().contains(fragment));
+        WaitPolicy.until(driver, "test.url", Duration.ofSeconds(30), new Function<WebDriver, Boolean>() {
+            @Override
+            public Boolean apply(WebDriver d) {
+                return d.getCurrentUrl().contains(fragment);
+            }
+
+            @Override
+            public String toString() {
+                return "URL que contenga '" + fragment + "'";
+            }
+        });
     }
 }
@@ -0,0 +1,152 @@
+package com.dmh.selenium.load;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.json.Json;
+
+import com.dmh.selenium.support.PerfReport;
+
+/**
+ * Mediciones de la corrida de carga: latencia por paso (p50/p90/p99/max), errores y flujos completados.
+ * Thread-safe: cada usuario virtual registra desde su hilo.
+ */
+final class LoadReport {
+
+    private static final Json JSON = new Json();
+
+    private final Map<String, List<Double>> latencies = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> errors = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> flowsOk = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> flowsFailed = new ConcurrentHashMap<>();
+    private final Map<String, String> lastError = new ConcurrentHashMap<>();
+
+    /** Lo que arrancó antes (ramp-up) no cuenta: se mide el régimen con todos los usuarios activos. */
+    private volatile long measureFrom = Long.MAX_VALUE;
+
+    void startMeasuring() {
+        measureFrom = System.nanoTime();
+    }
+
+    void step(String name, long startedAt, long nanos) {
+        if (startedAt < measureFrom) {
+            return;
+        }
+        latencies.computeIfAbsent(name, k -> Collections.synchronizedList(new ArrayList<>())).add(nanos / 1e6);
+    }
+
+    void stepFailed(String name, long startedAt, Throwable t) {
+        if (startedAt < measureFrom) {
+            return;
+        }
+        errors.computeIfAbsent(name, k -> new AtomicInteger()).incrementAndGet();
+        lastError.put(name, t.getClass().getSimpleName() + ": " + String.valueOf(t.getMessage()).split("\n")[0]);
+    }
+
+    void flow(String name, long startedAt, boolean ok) {
+        if (startedAt < measureFrom) {
+            return;
+        }
+        (ok ? flowsOk : flowsFailed).computeIfAbsent(name, k -> new AtomicInteger()).incrementAndGet();
+    }
+
+    /** Resumen: throughput sobre la ventana medida (sin ramp-up) y percentiles por paso. */
+    Map<String, Object> summary(Map<String, Object> config, double measuredSeconds) {
+        int ok = total(flowsOk);
+        int failed = total(flowsFailed);
+        int steps = 0;
+        Map<String, Object> bySteps = new LinkedHashMap<>();
+        TreeSet<String> names = new TreeSet<>(latencies.keySet());
+        names.addAll(errors.keySet());
+        for (String name : names) {
+            List<Double> recorded = latencies.getOrDefault(name, List.of());
+            List<Double> values;
+            synchronized (recorded) {
+                values = new ArrayList<>(recorded);
+            }
+            Collections.sort(values);
+            steps += values.size();
+            Map<String, Object> s = new LinkedHashMap<>();
+            s.put("count", values.size());
+            s.put("errors", count(errors, name));
+            s.put("p50", PerfReport.percentile(values, 50));
+            s.put("p90", PerfReport.percentile(values, 90));
+            s.put("p99", PerfReport.percentile(values, 99));
+            s.put("max", values.isEmpty() ? Double.NaN : values.get(values.size() - 1));
+            if (lastError.containsKey(name)) {
+                s.put("lastError", lastError.get(name));
+            }
+            bySteps.put(name, s);
+        }
+        Map<String, Object> flows = new LinkedHashMap<>();
+        for (String f : new TreeMap<>(merge()).keySet()) {
+            flows.put(f, Map.of("ok", count(flowsOk, f), "failed", count(flowsFailed, f)));
+        }
+        Map<String, Object> doc = new LinkedHashMap<>();
+        doc.put("config", config);
+        doc.put("measuredSeconds", measuredSeconds);
+        doc.put("flowsOk", ok);
+        doc.put("flowsFailed", failed);
+        doc.put("flowsPerSecond", measuredSeconds > 0 ? ok / measuredSeconds : 0);
+        doc.put("stepsPerSecond", measuredSeconds > 0 ? steps / measuredSeconds : 0);
+        doc.put("flows", flows);
+        doc.put("steps", bySteps);
+        return doc;
+    }
+
+    static Path write(Map<String, Object> summary) throws IOException {
+        Path dir = Path.of("target", "load");
+        Files.createDirectories(dir);
+        Path out = dir.resolve("virtual-users-" + System.currentTimeMillis() + ".json");
+        Files.writeString(out, JSON.toJson(summary), StandardCharsets.UTF_8);
+        return out;
+    }
+
+    /** Tabla legible para la salida de Maven. */
+    @SuppressWarnings("unchecked")
+    static String table(Map<String, Object> summary) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Flujos ok=%s fallidos=%s  %.2f flujos/s  %.2f pasos/s%n",
+                summary.get("flowsOk"), summary.get("flowsFailed"),
+                ((Number) summary.get("flowsPerSecond")).doubleValue(),
+                ((Number) summary.get("stepsPerSecond")).doubleValue()));
+        sb.append(String.format("%-32s %7s %6s %9s %9s %9s %9s%n", "paso", "n", "err", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        ((Map<String, Object>) summary.get("steps")).forEach((name, v) -> {
+            Map<String, Object> s = (Map<String, Object>) v;
+            sb.append(String.format("%-32s %7s %6s %9.0f %9.0f %9.0f %9.0f%n", name, s.get("count"), s.get("errors"),
+                    s.get("p50"), s.get("p90"), s.get("p99"), s.get("max")));
+        });
+        return sb.toString();
+    }
+
+    /* ---------- Helpers ---------- */
+    private Map<String, AtomicInteger> merge() {
+        Map<String, AtomicInteger> all = new LinkedHashMap<>(flowsOk);
+        flowsFailed.forEach(all::putIfAbsent);
+        return all;
+    }
+
+    private static int count(Map<String, AtomicInteger> m, String key) {
+        AtomicInteger v = m.get(key);
+        return v != null ? v.get() : 0;
+    }
+
+    private static int total(Map<String, AtomicInteger> m) {
+        int n = 0;
+        for (AtomicInteger v : m.values()) {
+            n += v.get();
+        }
+        return n;
+    }
+}
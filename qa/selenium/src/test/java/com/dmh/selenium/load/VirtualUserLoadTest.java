@@ -0,0 +1,329 @@
+package com.dmh.selenium.load;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import com.dmh.selenium.pages.ActividadPage;
+import com.dmh.selenium.pages.HomePage;
+import com.dmh.selenium.pages.LoginPage;
+import com.dmh.selenium.pages.PerfilPage;
+import com.dmh.selenium.pages.TarjetasPage;
+import com.dmh.selenium.support.ChromeFactory;
+import com.dmh.selenium.support.Config;
+import com.dmh.selenium.support.DriverProvisioning;
+import com.dmh.selenium.support.SupabaseStub;
+import com.dmh.selenium.support.SupabaseStubData;
+
+/**
+ * Carga con browsers reales reutilizando los Page Objects: N usuarios virtuales (un Chrome headless cada uno)
+ * repiten una mezcla ponderada de flujos durante un tiempo fijo, con ramp-up.
+ * <p>
+ * No corre con los smokes: se activa con {@code LOAD_USERS > 0} y se lanza sola, contra la app local:
+ * <pre>
+ *   mvn -q -Dtest=VirtualUserLoadTest -DLOAD_USERS=8 -DLOAD_DURATION=120 -DLOAD_RAMP_UP=30 test
+ * </pre>
+ * Deja {@code target/load/virtual-users-<ts>.json} con flujos/s y p50/p90/p99 por paso. Los flujos que escriben
+ * (alias, tarjeta) necesitan {@code SUPABASE_STUB=true}: contra la cuenta compartida de E2E sólo corre buscar.
+ */
+class VirtualUserLoadTest {
+
+    /** Flujos de usuario; el peso sale de {@code LOAD_MIX} ("buscar=3,alias=1,tarjeta=1"). */
+    enum Flow {
+        BUSCAR("buscar", false), ALIAS("alias", true), TARJETA("tarjeta", true);
+
+        final String key;
+        /** Escribe en la cuenta: sólo con el stub, donde cada usuario virtual tiene la suya. */
+        final boolean mutates;
+
+        Flow(String key, boolean mutates) {
+            this.key = key;
+            this.mutates = mutates;
+        }
+    }
+
+    /** Usuario virtual: su browser, su cuenta y su generador (reproducible con {@code LOAD_SEED}). */
+    private final class VirtualUser {
+        final int index;
+        final String email;
+        final String password;
+        final String userId;
+        final Random random;
+        WebDriver driver;
+        int iteration;
+
+        VirtualUser(int index, String email, String password, String userId) {
+            this.index = index;
+            this.email = email;
+            this.password = password;
+            this.userId = userId;
+            this.random = new Random(seed + index);
+        }
+    }
+
+    private final LoadReport report = new LoadReport();
+    private final String baseUrl = Config.baseUrl();
+    private final long seed = Config.intValue(42, "LOAD_SEED", "loadSeed");
+    private final long thinkMs = Config.intValue(1000, "LOAD_THINK_MS", "loadThinkMs");
+    private List<Flow> weighted;
+    private SupabaseStub stub;
+
+    @Test
+    void run() throws InterruptedException {
+        int users = Config.intValue(0, "LOAD_USERS", "loadUsers");
+        assumeTrue(users > 0, "Carga desactivada: definir LOAD_USERS > 0");
+        int durationS = Config.intValue(120, "LOAD_DURATION", "loadDuration");
+        int rampUpS = Config.intValue(30, "LOAD_RAMP_UP", "loadRampUp");
+        String mix = Config.str("buscar=3,alias=1,tarjeta=1", "LOAD_MIX", "loadMix");
+        weighted = parseMix(mix);
+        if (!SupabaseStub.enabled()) {
+            // Sin stub la única cuenta es la de E2E, la de los smokes: N usuarios pisándole el alias y llenándola de
+            // tarjetas (topa en 10 y no se limpian) la dejan inservible para la corrida siguiente
+            List<String> mutating = weighted.stream().filter(f -> f.mutates).map(f -> f.key).distinct()
+                    .collect(Collectors.toList());
+            assertTrue(mutating.isEmpty(), "LOAD_MIX=" + mix + ": " + mutating
+                    + " modifican la cuenta; sin SUPABASE_STUB=true sólo se puede correr buscar");
+        }
+
+        DriverProvisioning.ensure();
+        // Cada muestra de PageMetrics es un executeScript más por navegación: en carga no interesa
+        // (sólo mientras dura la carga: con reuseForks, el resto de las clases de la JVM lo sigue midiendo)
+        String perfMetrics = System.getProperty("PERF_METRICS");
+        if (Config.str(null, "PERF_METRICS", "perfMetrics") == null) {
+            System.setProperty("PERF_METRICS", "false");
+        }
+        try {
+            List<VirtualUser> vus = accounts(users);
+
+            long start = System.nanoTime();
+            long rampEnd = start + TimeUnit.SECONDS.toNanos(rampUpS);
+            long end = rampEnd + TimeUnit.SECONDS.toNanos(durationS);
+            ExecutorService pool = Executors.newFixedThreadPool(users, r -> {
+                Thread t = new Thread(r, "virtual-user");
+                t.setDaemon(true);
+                return t;
+            });
+            for (VirtualUser vu : vus) {
+                long startAt = start + (users == 1 ? 0 : TimeUnit.SECONDS.toNanos(rampUpS) * vu.index / users);
+                pool.submit(() -> runUser(vu, startAt, end));
+            }
+            sleepUntil(rampEnd);
+            report.startMeasuring();
+            pool.shutdown();
+            // Margen para que el último flujo en curso termine (las esperas de los Page Objects llegan a 40 s)
+            if (!pool.awaitTermination(durationS + 120L, TimeUnit.SECONDS)) {
+                pool.shutdownNow();
+            }
+            if (stub != null) {
+                SupabaseStub.release();
+            }
+
+            Map<String, Object> config = new LinkedHashMap<>();
+            config.put("baseUrl", baseUrl);
+            config.put("users", users);
+            config.put("durationSeconds", durationS);
+            config.put("rampUpSeconds", rampUpS);
+            config.put("mix", mix);
+            config.put("thinkMs", thinkMs);
+            config.put("seed", seed);
+            config.put("supabaseStub", stub != null);
+            Map<String, Object> summary = report.summary(config, durationS);
+            System.out.println(LoadReport.table(summary));
+            try {
+                System.out.println("Reporte: " + LoadReport.write(summary).toAbsolutePath());
+            } catch (IOException e) {
+                System.out.println("No se pudo escribir el reporte de carga: " + e.getMessage());
+            }
+            assertTrue(((Number) summary.get("flowsOk")).intValue() > 0,
+                    "Ningún flujo se completó en la ventana medida");
+        } finally {
+            if (perfMetrics == null) {
+                System.clearProperty("PERF_METRICS");
+            } else {
+                System.setProperty("PERF_METRICS", perfMetrics);
+            }
+        }
+    }
+
+    /* ---------- Usuario virtual ---------- */
+    private void runUser(VirtualUser vu, long startAt, long end) {
+        sleepUntil(startAt);
+        try {
+            openBrowser(vu);
+            while (System.nanoTime() < end) {
+                Flow flow = weighted.get(vu.random.nextInt(weighted.size()));
+                vu.iteration++;
+                long t0 = System.nanoTime();
+                boolean ok = true;
+                try {
+                    runFlow(vu, flow);
+                } catch (RuntimeException e) {
+                    ok = false;
+                    recover(vu);
+                }
+                report.flow(flow.key, t0, ok);
+                if (thinkMs > 0) {
+                    sleepUntil(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(thinkMs));
+                }
+            }
+        } catch (RuntimeException e) {
+            report.stepFailed("browser", System.nanoTime(), e);
+        } finally {
+            quit(vu);
+        }
+    }
+
+    private void runFlow(VirtualUser vu, Flow flow) {
+        switch (flow) {
+            case BUSCAR:
+                // login → búsqueda en home → filtros de actividad
+                logout(vu);
+                step("LoginPage.login", () -> new LoginPage(vu.driver, baseUrl).login(vu.email, vu.password));
+                HomePage home = new HomePage(vu.driver, baseUrl);
+                step("HomePage.searchEnter", () -> home.searchEnter("pag"));
+                ActividadPage act = new ActividadPage(vu.driver, baseUrl);
+                step("ActividadPage.applyFilters", () -> act.openFilters()
+                        .choosePeriodo("ultimo_mes").chooseOperacion("egresos").applyFilters());
+                break;
+            case ALIAS:
+                PerfilPage perfil = new PerfilPage(vu.driver, baseUrl);
+                step("PerfilPage.open", perfil::open);
+                String alias = "vu" + vu.index + ".it" + vu.iteration + ".carga";
+                step("PerfilPage.editAlias", () -> perfil.editAlias(alias));
+                break;
+            case TARJETA:
+                // La app limita a 10 tarjetas: se vacía la lista de ese usuario del stub (no se mide)
+                stub.data().deleteWhere("medios_pago", "usuario_id", vu.userId);
+                TarjetasPage t = new TarjetasPage(vu.driver, baseUrl);
+                step("TarjetasPage.openList", () -> t.openList(baseUrl));
+                step("TarjetasPage.openForm", t::openForm);
+                step("TarjetasPage.createVisaDemo", t::createVisaDemo);
+                break;
+            default:
+                throw new IllegalStateException(flow.name());
+        }
+    }
+
+    private void step(String name, Runnable action) {
+        long t0 = System.nanoTime();
+        try {
+            action.run();
+            report.step(name, t0, System.nanoTime() - t0);
+        } catch (RuntimeException e) {
+            report.stepFailed(name, t0, e);
+            throw e;
+        }
+    }
+
+    /* ---------- Browser ---------- */
+    private void openBrowser(VirtualUser vu) {
+        vu.driver = ChromeFactory.create();
+        step("LoginPage.login", () -> new LoginPage(vu.driver, baseUrl).login(vu.email, vu.password));
+    }
+
+    /** Después de un flujo fallido: si el Chrome murió se reabre; si no, se vuelve a loguear. */
+    private void recover(VirtualUser vu) {
+        try {
+            if (vu.driver == null) {
+                throw new WebDriverException("El usuario virtual no tiene browser");
+            }
+            vu.driver.getWindowHandle();
+            logout(vu);
+            new LoginPage(vu.driver, baseUrl).login(vu.email, vu.password);
+        } catch (WebDriverException e) {
+            quit(vu);
+            try {
+                openBrowser(vu);
+            } catch (RuntimeException ignore) {
+                // se reintenta en el próximo flujo
+            }
+        }
+    }
+
+    private void logout(VirtualUser vu) {
+        if (!vu.driver.getCurrentUrl().startsWith(baseUrl)) {
+            vu.driver.get(baseUrl + "/favicon.ico");
+        }
+        ((JavascriptExecutor) vu.driver).executeScript(
+                "try{localStorage.clear();}catch(e){}try{sessionStorage.clear();}catch(e){}");
+        vu.driver.manage().deleteAllCookies();
+    }
+
+    private static void quit(VirtualUser vu) {
+        if (vu.driver == null) {
+            return;
+        }
+        try {
+            vu.driver.quit();
+        } catch (RuntimeException ignore) {
+        }
+        vu.driver = null;
+    }
+
+    /* ---------- Helpers ---------- */
+
+    /** Con el stub, una cuenta por usuario virtual; si no, todos comparten la de E2E (sólo flujos de lectura). */
+    private List<VirtualUser> accounts(int users) {
+        List<VirtualUser> out = new ArrayList<>();
+        if (SupabaseStub.enabled()) {
+            stub = SupabaseStub.acquire();
+            for (int i = 0; i < users; i++) {
+                String email = "vu" + i + "@dmh.test";
+                out.add(new VirtualUser(i, email, SupabaseStubData.PASSWORD, stub.data().addUser(email)));
+            }
+            return out;
+        }
+        String email = Config.str(null, "E2E_EMAIL", "E2E_USER");
+        String password = Config.str(null, "E2E_PASSWORD", "E2E_PASS");
+        for (int i = 0; i < users; i++) {
+            out.add(new VirtualUser(i, email, password, null));
+        }
+        return out;
+    }
+
+    static List<Flow> parseMix(String mix) {
+        List<Flow> out = new ArrayList<>();
+        for (String part : mix.split(",")) {
+            String[] kv = part.trim().split("=");
+            for (Flow f : Flow.values()) {
+                if (f.key.equalsIgnoreCase(kv[0].trim())) {
+                    int weight = kv.length > 1 ? Integer.parseInt(kv[1].trim()) : 1;
+                    for (int i = 0; i < weight; i++) {
+                        out.add(f);
+                    }
+                }
+            }
+        }
+        if (out.isEmpty()) {
+            throw new IllegalArgumentException("LOAD_MIX sin flujos válidos: " + mix);
+        }
+        return out;
+    }
+
+    private static void sleepUntil(long nanoTime) {
+        long left = nanoTime - System.nanoTime();
+        if (left <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(left);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -5,22 +5,29 @@ import java.util.Locale;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.Keys;
-import org.openqa.selenium.NoSuchElementException;
-import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedCondition;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
+
+import com.dmh.selenium.support.DomWait;
+import com.dmh.selenium.support.Locators;
+import com.dmh.selenium.support.NetworkTracker;
+import com.dmh.selenium.support.PageMetrics;
+import com.dmh.selenium.support.SoftNavigation;
+import com.dmh.selenium.support.WaitPolicy;
 
 public class ActividadPage {
 
     private final WebDriver driver;
-    private final WebDriverWait wait;
     private final String baseUrl;
 
+    private static final Duration TIMEOUT = Duration.ofSeconds(20);
+
+    /** Lista de movimientos o su estado vacío: los dos son exclusivos de /actividad. */
+    static final String CONTENT = "[data-testid='actividad-list'], [data-testid='actividad-empty']";
+
     // --- Locators principales ---
-    private final By LIST = By.cssSelector("[data-testid='actividad-list'], .divide-y");
+    private final By LIST = By.cssSelector(CONTENT);
     private final By SEARCH = By.cssSelector("[data-testid='actividad-search-input']");
     private final By BTN_APPLY = By.cssSelector("[data-testid='filters-apply']");
     private final By BTN_CLEAR = By.cssSelector("[data-testid='filters-clear']");
@@ -33,19 +40,14 @@ public class ActividadPage {
     private final By P_U3M = By.cssSelector("[data-testid='period-ultimos-3-meses']");
 
     // ---------- Constructores ----------
-    public ActividadPage(WebDriver driver, WebDriverWait wait, String baseUrl) {
+    public ActividadPage(WebDriver driver, String baseUrl) {
         this.driver = driver;
-        this.wait = wait;
         this.baseUrl = baseUrl != null ? baseUrl : "";
     }
 
     // Sobrecarga: solo WebDriver (como usan tus tests)
     public ActividadPage(WebDriver driver) {
-        this(
-                driver,
-                new WebDriverWait(driver, Duration.ofSeconds(20)),
-                resolveBaseUrl()
-        );
+        this(driver, resolveBaseUrl());
     }
 
     private static String resolveBaseUrl() {
@@ -62,30 +64,36 @@ public class ActividadPage {
         return s;
     }
 
-    // Para wait.until(ActividadPage.assertLoaded())
+    // Para WaitPolicy.until(driver, "...", timeout, ActividadPage.assertLoaded())
     public static ExpectedCondition<WebElement> assertLoaded() {
         return drv -> {
-            WebElement el = drv.findElement(By.cssSelector("[data-testid='actividad-list'], .divide-y"));
+            WebElement el = drv.findElement(By.cssSelector(CONTENT));
             return el.isDisplayed() ? el : null;
         };
     }
 
     // Para usar encadenado en instancia
     public ActividadPage assertLoadedInstance() {
-        wait.until(assertLoaded());
+        DomWait.visible(driver, "actividad.lista", TIMEOUT, LIST);
         return this;
     }
 
     public ActividadPage open() {
+        NetworkTracker net = NetworkTracker.of(driver);
+        long mark = net.mark();
         driver.get(baseUrl + "/actividad");
-        wait.until(assertLoaded());
+        // La lista se pinta vacía y después llegan los movimientos
+        WaitPolicy.run("actividad.movimientos", Duration.ofSeconds(15),
+                t -> net.awaitResponse("/rest/v1/movimientos", "GET", mark, t));
+        DomWait.visible(driver, "actividad.lista", TIMEOUT, LIST);
+        PageMetrics.record(driver, "/actividad");
         return this;
     }
 
     public ActividadPage openFilters() {
         By FILTRAR = By.xpath("//button[normalize-space()='Filtrar' or contains(.,'Filtrar')]");
-        waitUntilClickable(FILTRAR).click();
-        wait.until(ExpectedConditions.visibilityOfElementLocated(BTN_APPLY));
+        waitUntilClickable("actividad.filtrar", FILTRAR).click();
+        DomWait.visible(driver, "actividad.filtros-abiertos", TIMEOUT, BTN_APPLY);
         return this;
     }
 
@@ -124,18 +132,13 @@ public class ActividadPage {
                 return this;
         }
 
-        try {
-            waitUntilClickable(target).click();
-            return this;
-        } catch (NoSuchElementException | TimeoutException ignore) {
-            // 2) fallback por texto visible en el modal “Período”
-            String label = mapPeriodoLabel(k);
-            if (label != null) {
-                By BTN = By.xpath("//section[.//p[contains(.,'Período')]]//button[normalize-space()='" + label + "']");
-                waitUntilClickable(BTN).click();
-            }
-            return this;
-        }
+        // 2) fallback por texto visible en el modal “Período”: ambos candidatos en un solo sondeo
+        String label = mapPeriodoLabel(k);
+        By[] candidates = label == null
+                ? new By[]{target}
+                : new By[]{target, By.xpath("//section[.//p[contains(.,'Período')]]//button[normalize-space()='" + label + "']")};
+        Locators.first(driver, "actividad.periodo." + k, TIMEOUT, candidates).click();
+        return this;
     }
 
     public ActividadPage chooseOperacion(String operacion) {
@@ -149,24 +152,30 @@ public class ActividadPage {
         }
 
         By BTN = By.xpath("//section[.//p[contains(.,'Operación')]]//button[normalize-space()='" + label + "']");
-        waitUntilClickable(BTN).click();
+        waitUntilClickable("actividad.operacion", BTN).click();
         return this;
     }
 
     public ActividadPage applyFilters() {
-        waitUntilClickable(BTN_APPLY).click();
-        wait.until(ExpectedConditions.visibilityOfElementLocated(LIST));
+        WebElement apply = waitUntilClickable("actividad.aplicar", BTN_APPLY);
+        // Aplicar reescribe period=/op= en la URL (router.replace) y re-filtra la lista, que ya estaba en pantalla
+        SoftNavigation nav = SoftNavigation.armChange(driver, "actividad-filtros", CONTENT);
+        apply.click();
+        nav.finish(Duration.ofSeconds(10));
+        settle();
+        DomWait.visible(driver, "actividad.lista", TIMEOUT, LIST);
         return this;
     }
 
     public ActividadPage clearFilters() {
-        waitUntilClickable(BTN_CLEAR).click();
-        wait.until(ExpectedConditions.visibilityOfElementLocated(LIST));
+        waitUntilClickable("actividad.limpiar", BTN_CLEAR).click();
+        settle();
+        DomWait.visible(driver, "actividad.lista", TIMEOUT, LIST);
         return this;
     }
 
     public ActividadPage search(String text) {
-        WebElement el = wait.until(ExpectedConditions.visibilityOfElementLocated(SEARCH));
+        WebElement el = DomWait.visible(driver, "actividad.buscador", TIMEOUT, SEARCH);
         el.clear();
         el.sendKeys(text);
         el.sendKeys(Keys.ENTER);
@@ -174,9 +183,14 @@ public class ActividadPage {
     }
 
     // --- Helpers ---
-    private WebElement waitUntilClickable(By locator) {
-        return new WebDriverWait(driver, Duration.ofSeconds(20))
-                .until(ExpectedConditions.elementToBeClickable(locator));
+    /** Filtrar reescribe la URL (router.replace) y puede disparar fetches: esperamos a que la red se calme. */
+    private void settle() {
+        NetworkTracker net = NetworkTracker.of(driver);
+        WaitPolicy.run("actividad.red-inactiva", Duration.ofSeconds(10), t -> net.awaitIdle(Duration.ofMillis(250), t));
+    }
+
+    private WebElement waitUntilClickable(String name, By locator) {
+        return DomWait.clickable(driver, name, TIMEOUT, locator);
     }
 
     private String mapPeriodoLabel(String key) {
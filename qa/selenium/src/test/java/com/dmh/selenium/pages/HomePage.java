@@ -7,19 +7,27 @@ import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.Keys;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
+
+import com.dmh.selenium.support.DomWait;
+import com.dmh.selenium.support.NetworkTracker;
+import com.dmh.selenium.support.PageMetrics;
+import com.dmh.selenium.support.SoftNavigation;
+import com.dmh.selenium.support.WaitPolicy;
 
 public class HomePage {
 
     private final WebDriver driver;
-    private final WebDriverWait wait;
     private final String baseUrl;
 
+    private static final Duration TIMEOUT = Duration.ofSeconds(20);
+
     // Buscador flexible (insensible a mayúsculas)
     private final By search = By.cssSelector("input[placeholder*='buscar' i]");
     private final By ctaActividad = By.xpath("//button[.//text()[contains(.,'Ver toda la actividad')]]");
 
+    // Contenido que marca que /actividad ya se pintó (transiciones client-side)
+    private static final String ACTIVIDAD_LIST = ActividadPage.CONTENT;
+
     private static String resolveBaseUrl() {
         String prop = System.getProperty("BASE_URL");
         String env = System.getenv("BASE_URL");
@@ -29,9 +37,8 @@ public class HomePage {
         return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
     }
 
-    public HomePage(WebDriver driver, WebDriverWait wait, String baseUrl) {
+    public HomePage(WebDriver driver, String baseUrl) {
         this.driver = driver;
-        this.wait = (wait != null) ? wait : new WebDriverWait(driver, Duration.ofSeconds(20));
         String url = (baseUrl != null && !baseUrl.isBlank()) ? baseUrl : resolveBaseUrl();
         this.baseUrl = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
     }
@@ -41,28 +48,34 @@ public class HomePage {
     }
 
     private void waitDomReady() {
-        new WebDriverWait(driver, Duration.ofSeconds(10))
-                .until(d -> "complete".equals(
-                ((JavascriptExecutor) d).executeScript("return document.readyState")));
+        WaitPolicy.until(driver, "home.dom-listo", Duration.ofSeconds(10),
+                d -> "complete".equals(((JavascriptExecutor) d).executeScript("return document.readyState")));
     }
 
     public void open() {
         driver.navigate().to(abs("/home"));
         waitDomReady();
+        // Saldo, perfil y últimos movimientos llegan por fetch a Supabase después del load
+        NetworkTracker net = NetworkTracker.of(driver);
+        WaitPolicy.run("home.red-inactiva", Duration.ofSeconds(10), t -> net.awaitIdle(Duration.ofMillis(300), t));
+        PageMetrics.record(driver, "/home");
         // Acepta cualquiera de los elementos “ancla” del Home
-        wait.until(ExpectedConditions.or(
-                ExpectedConditions.visibilityOfElementLocated(search),
-                ExpectedConditions.visibilityOfElementLocated(ctaActividad)
-        ));
+        DomWait.visible(driver, "home.ancla", TIMEOUT, search, ctaActividad);
     }
 
     public void searchEnter(String q) {
-        WebElement s = wait.until(ExpectedConditions.elementToBeClickable(search));
+        WebElement s = DomWait.clickable(driver, "home.buscador", TIMEOUT, search);
         s.clear();
-        s.sendKeys(q + Keys.ENTER);
+        s.sendKeys(q);
+        SoftNavigation nav = SoftNavigation.arm(driver, "home-buscar→/actividad", ACTIVIDAD_LIST);
+        s.sendKeys(Keys.ENTER);
+        nav.finish(Duration.ofSeconds(10));
     }
 
     public void goToActividadByButton() {
-        wait.until(ExpectedConditions.elementToBeClickable(ctaActividad)).click();
+        WebElement cta = DomWait.clickable(driver, "home.cta-actividad", TIMEOUT, ctaActividad);
+        SoftNavigation nav = SoftNavigation.arm(driver, "home-cta→/actividad", ACTIVIDAD_LIST);
+        cta.click();
+        nav.finish(Duration.ofSeconds(10));
     }
 }
@@ -1,38 +1,37 @@
 package com.dmh.selenium.pages;
 
 import java.time.Duration;
+import java.util.Optional;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.Keys;
-import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
+
+import com.dmh.selenium.support.DomWait;
+import com.dmh.selenium.support.Forms;
+import com.dmh.selenium.support.Locators;
+import com.dmh.selenium.support.PageMetrics;
+import com.dmh.selenium.support.WaitPolicy;
 
 public class LoginPage {
 
     private final WebDriver driver;
-    private final WebDriverWait wait;
     private final String baseUrl;
 
+    // Techo de las esperas; el timeout real lo ajusta WaitPolicy con el historial
+    private static final Duration TIMEOUT = Duration.ofSeconds(40);
+
     // 1) Solo driver
     public LoginPage(WebDriver driver) {
-        this(driver,
-                new WebDriverWait(driver, Duration.ofSeconds(40)),
-                System.getProperty("baseUrl", "http://localhost:3000"));
+        this(driver, System.getProperty("baseUrl", "http://localhost:3000"));
     }
 
     // 2) driver + baseUrl
     public LoginPage(WebDriver driver, String baseUrl) {
-        this(driver, new WebDriverWait(driver, Duration.ofSeconds(40)), baseUrl);
-    }
-
-    // 3) driver + wait + baseUrl
-    public LoginPage(WebDriver driver, WebDriverWait wait, String baseUrl) {
         this.driver = driver;
-        this.wait = (wait != null) ? wait : new WebDriverWait(driver, Duration.ofSeconds(40));
         this.baseUrl = (baseUrl != null && !baseUrl.isBlank())
                 ? baseUrl
                 : System.getProperty("baseUrl", "http://localhost:3000");
@@ -77,13 +76,14 @@ public class LoginPage {
     }
 
     private void goToLogin() {
-        // Intenta rutas típicas de login
-        String[] paths = {"/login", "/auth/login", "/signin", "/ingresar"};
-        for (String p : paths) {
+        // Intenta rutas típicas de login (la que funcionó antes va primero)
+        for (String p : Locators.preferred("login.route", "/login", "/auth/login", "/signin", "/ingresar")) {
             driver.get(baseUrl + p);
             try {
-                new WebDriverWait(driver, Duration.ofSeconds(4))
-                        .until(ExpectedConditions.presenceOfElementLocated(emailSel));
+                WaitPolicy.until(driver, "login.ruta", Duration.ofSeconds(4),
+                        ExpectedConditions.presenceOfElementLocated(emailSel));
+                Locators.remember("login.route", p);
+                PageMetrics.record(driver, p);
                 return; // encontró el email → esta es la ruta correcta
             } catch (TimeoutException ignore) {
                 /* prueba la siguiente */ }
@@ -106,49 +106,26 @@ public class LoginPage {
         goToLogin();
 
         // Email
-        WebElement emailEl = wait.until(ExpectedConditions.visibilityOfElementLocated(emailSel));
-        emailEl.clear();
-        emailEl.sendKeys(email);
+        WebElement emailEl = DomWait.visible(driver, "login.email", TIMEOUT, emailSel);
+        Forms.set(driver, emailEl, email);
 
-        // Si hay paso intermedio, clic en Continuar (por testId o por texto)
+        // Si hay paso intermedio, clic en Continuar (por testId o por texto, en un solo round-trip)
         try {
-            WebElement contBtn = null;
-            try {
-                contBtn = driver.findElement(continueByTestId);
-            } catch (NoSuchElementException ignored) {
-            }
-            if (contBtn == null) {
-                try {
-                    contBtn = driver.findElement(continueByText);
-                } catch (NoSuchElementException ignored) {
-                }
-            }
-            if (contBtn != null && contBtn.isDisplayed() && contBtn.isEnabled()) {
-                contBtn.click();
-            }
+            Locators.firstNow(driver, continueByTestId, continueByText)
+                    .filter(WebElement::isEnabled)
+                    .ifPresent(WebElement::click);
         } catch (Exception ignored) {
         }
 
         // Password
-        WebElement passEl = wait.until(ExpectedConditions.visibilityOfElementLocated(passSel));
-        passEl.clear();
-        passEl.sendKeys(password);
+        WebElement passEl = DomWait.visible(driver, "login.password", TIMEOUT, passSel);
+        Forms.set(driver, passEl, password);
 
         // Submit (por testId o por texto; fallback ENTER)
         try {
-            WebElement submit = null;
-            try {
-                submit = driver.findElement(submitByTestId);
-            } catch (NoSuchElementException ignored) {
-            }
-            if (submit == null) {
-                try {
-                    submit = driver.findElement(submitByText);
-                } catch (NoSuchElementException ignored) {
-                }
-            }
-            if (submit != null) {
-                submit.click();
+            Optional<WebElement> submit = Locators.firstNow(driver, submitByTestId, submitByText);
+            if (submit.isPresent()) {
+                submit.get().click();
             } else {
                 passEl.sendKeys(Keys.ENTER);
             }
@@ -157,7 +134,7 @@ public class LoginPage {
         }
 
         // Esperar a salir de /login
-        wait.until(d -> !d.getCurrentUrl().contains("/login")
+        WaitPolicy.until(driver, "login.salida", TIMEOUT, d -> !d.getCurrentUrl().contains("/login")
                 && !d.getCurrentUrl().contains("/auth/login")
                 && !d.getCurrentUrl().contains("/signin")
                 && !d.getCurrentUrl().contains("/ingresar"));
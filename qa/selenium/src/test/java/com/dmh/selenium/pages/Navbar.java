@@ -1,5 +1,6 @@
 package com.dmh.selenium.pages;
 
+import java.net.URI;
 import java.time.Duration;
 
 import org.openqa.selenium.By;
@@ -9,28 +10,48 @@ import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.interactions.Actions;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
+
+import com.dmh.selenium.support.DomWait;
+import com.dmh.selenium.support.SoftNavigation;
+import com.dmh.selenium.support.WaitPolicy;
 
 public class Navbar {
 
     private final WebDriver driver;
-    private final WebDriverWait wait;
     private final By greeting = By.cssSelector("[data-testid='navbar-user-greeting']");
 
     public Navbar(WebDriver driver) {
         this.driver = driver;
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(15));
     }
 
     public void clickGreeting() {
-        WebElement el = wait.until(ExpectedConditions.visibilityOfElementLocated(greeting));
+        WebElement el = DomWait.visible(driver, "navbar.saludo", Duration.ofSeconds(15), greeting);
         new Actions(driver).moveToElement(el).pause(Duration.ofMillis(100)).perform();
+        // Ya parados en /home (recién logueados) el click no navega: no hay transición que medir
+        SoftNavigation nav = samePath(el.getAttribute("href"), driver.getCurrentUrl())
+                ? null
+                : SoftNavigation.arm(driver, "navbar-saludo→/home", "input[placeholder*='buscar' i]");
         try {
             el.click();
         } catch (WebDriverException ex) {
             ((JavascriptExecutor) driver).executeScript("arguments[0].click();", el);
         }
-        new WebDriverWait(driver, Duration.ofSeconds(10))
-                .until(ExpectedConditions.urlContains("/home"));
+        WaitPolicy.until(driver, "navbar.url-home", Duration.ofSeconds(10), ExpectedConditions.urlContains("/home"));
+        if (nav != null) {
+            nav.finish(Duration.ofSeconds(10));
+        }
+    }
+
+    private static boolean samePath(String href, String current) {
+        if (href == null || current == null) {
+            return false;
+        }
+        try {
+            String a = URI.create(href).getPath();
+            String b = URI.create(current).getPath();
+            return a != null && a.equals(b);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
     }
 }
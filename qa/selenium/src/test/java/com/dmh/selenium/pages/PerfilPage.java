@@ -1,24 +1,28 @@
 package com.dmh.selenium.pages;
 
 import java.time.Duration;
+import java.util.Optional;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.ElementClickInterceptedException;
 import org.openqa.selenium.JavascriptException;
 import org.openqa.selenium.JavascriptExecutor;
-import org.openqa.selenium.Keys;
 import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.interactions.Actions;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
+
+import com.dmh.selenium.support.DomWait;
+import com.dmh.selenium.support.Forms;
+import com.dmh.selenium.support.Locators;
+import com.dmh.selenium.support.NetworkTracker;
+import com.dmh.selenium.support.PageMetrics;
+import com.dmh.selenium.support.WaitPolicy;
 
 public class PerfilPage {
 
     private final WebDriver driver;
-    private final WebDriverWait wait;
     private final String baseUrl;
 
     private static final Duration TIMEOUT = Duration.ofSeconds(25);
@@ -32,16 +36,16 @@ public class PerfilPage {
     private final By SAVE_BTN = By.xpath("//div[contains(@class,'py-4')][.//div[normalize-space()='Alias']]//button[normalize-space()='Guardar']");
     private final By CANCEL_BTN = By.xpath("//div[contains(@class,'py-4')][.//div[normalize-space()='Alias']]//button[normalize-space()='Cancelar']");
     private final By ANY_ALIAS_INP = By.xpath("//div[contains(@class,'py-4')][.//div[normalize-space()='Alias']]//input | //input[@data-testid='perfil-alias-input']");
+    private final By ANY_EDIT_BTN = By.xpath("//button[normalize-space()='Editar']");
 
-    public PerfilPage(WebDriver driver, WebDriverWait wait, String baseUrl) {
+    public PerfilPage(WebDriver driver, String baseUrl) {
         this.driver = driver;
-        this.wait = wait != null ? wait : new WebDriverWait(driver, TIMEOUT);
         this.baseUrl = baseUrl != null ? baseUrl : resolveBaseUrl();
     }
 
     // Sobrecarga: solo WebDriver (como usan los tests)
     public PerfilPage(WebDriver driver) {
-        this(driver, new WebDriverWait(driver, TIMEOUT), resolveBaseUrl());
+        this(driver, resolveBaseUrl());
     }
 
     private static String resolveBaseUrl() {
@@ -59,9 +63,15 @@ public class PerfilPage {
     }
 
     public PerfilPage open() {
+        NetworkTracker net = NetworkTracker.of(driver);
+        long mark = net.mark();
         driver.get(baseUrl + "/perfil");
+        // Usuario + cuenta (alias/CVU) se cargan por fetch; sin eso "Editar" abre vacío
+        WaitPolicy.run("perfil.cuentas", Duration.ofSeconds(15),
+                t -> net.awaitResponse("/rest/v1/cuentas", "GET", mark, t));
         // Esperar que la fila de "Alias" exista (modo lectura)
-        wait.until(ExpectedConditions.visibilityOfElementLocated(ALIAS_ROW));
+        DomWait.visible(driver, "perfil.fila-alias", TIMEOUT, ALIAS_ROW);
+        PageMetrics.record(driver, "/perfil");
         return this;
     }
 
@@ -69,9 +79,9 @@ public class PerfilPage {
      * Click de copiar en CVU y Alias (para el test que lo usa).
      */
     public PerfilPage copyBoth() {
-        clickIfPresent(CVU_COPY);
+        clickIfPresent("perfil.copiar-cvu", CVU_COPY);
         waitMiniToast();
-        clickIfPresent(ALIAS_COPY);
+        clickIfPresent("perfil.copiar-alias", ALIAS_COPY);
         waitMiniToast();
         return this;
     }
@@ -85,7 +95,7 @@ public class PerfilPage {
 
     public PerfilPage editAliasTo(String newAlias) {
         // 1) asegurarse que estamos viendo la fila de Alias
-        WebElement row = wait.until(ExpectedConditions.visibilityOfElementLocated(ALIAS_ROW));
+        WebElement row = DomWait.visible(driver, "perfil.fila-alias", TIMEOUT, ALIAS_ROW);
         scrollIntoView(row);
 
         // 2) abrir editor: intentar click normal, si no, JS click + segundo intento
@@ -96,61 +106,44 @@ public class PerfilPage {
         }
 
         // 3) esperar a que aparezca el input o, alternativamente, el botón "Guardar"
-        wait.until(ExpectedConditions.or(
-                ExpectedConditions.visibilityOfElementLocated(ALIAS_INPUT),
-                ExpectedConditions.elementToBeClickable(SAVE_BTN)
-        ));
+        DomWait.clickable(driver, "perfil.editor-alias", TIMEOUT, ALIAS_INPUT, SAVE_BTN);
 
-        // 4) escribir el alias (try data-testid, fallback a ANY_ALIAS_INP)
-        WebElement input;
-        try {
-            input = new WebDriverWait(driver, Duration.ofSeconds(5))
-                    .until(ExpectedConditions.visibilityOfElementLocated(ALIAS_INPUT));
-        } catch (TimeoutException e) {
-            input = wait.until(ExpectedConditions.visibilityOfElementLocated(ANY_ALIAS_INP));
-        }
+        // 4) escribir el alias (data-testid o ANY_ALIAS_INP, evaluados juntos)
+        WebElement input = Locators.first(driver, "perfil.alias-input", TIMEOUT, ALIAS_INPUT, ANY_ALIAS_INP);
 
-        clearAndType(input, newAlias);
+        Forms.set(driver, input, newAlias);
 
-        // 5) guardar (click robusto) y verificar que el input ya no esté
-        jsClick(wait.until(ExpectedConditions.elementToBeClickable(SAVE_BTN)));
+        // 5) guardar (click robusto), esperar el PATCH a cuentas y verificar que el input ya no esté
+        NetworkTracker net = NetworkTracker.of(driver);
+        long mark = net.mark();
+        jsClick(DomWait.clickable(driver, "perfil.guardar", TIMEOUT, SAVE_BTN));
+        WaitPolicy.run("perfil.patch-cuentas", TIMEOUT,
+                t -> net.waitForResponse("/rest/v1/cuentas", "PATCH", mark, t));
 
-        wait.until(ExpectedConditions.invisibilityOfElementLocated(ALIAS_INPUT));
-        wait.until(ExpectedConditions.textToBePresentInElementLocated(ALIAS_ROW, newAlias));
+        DomWait.gone(driver, "perfil.editor-cerrado", TIMEOUT, ALIAS_INPUT);
+        DomWait.text(driver, "perfil.alias-guardado", TIMEOUT, newAlias, ALIAS_ROW);
         return this;
     }
 
     // --- helpers -------------------------------------------------------------
     private boolean ensureEditMode() {
+        // Botón "Editar" de la fila Alias o, si el XPath no matchea, cualquier "Editar" visible
+        Optional<WebElement> edit = Locators.firstOrEmpty(driver, "perfil.editar", Duration.ofSeconds(5), EDIT_BTN, ANY_EDIT_BTN);
+        if (edit.isEmpty()) {
+            return false;
+        }
+        scrollIntoView(edit.get());
         try {
-            WebElement edit = new WebDriverWait(driver, Duration.ofSeconds(5))
-                    .until(ExpectedConditions.elementToBeClickable(EDIT_BTN));
-            scrollIntoView(edit);
-            try {
-                edit.click();
-            } catch (ElementClickInterceptedException ignored) {
-                jsClick(edit);
-            }
-            return true;
-        } catch (TimeoutException e) {
-            // Fallback global por si el XPath no matcheó: cualquier botón "Editar" visible
-            try {
-                WebElement anyEdit = new WebDriverWait(driver, Duration.ofSeconds(3))
-                        .until(ExpectedConditions.elementToBeClickable(
-                                By.xpath("//button[normalize-space()='Editar']")));
-                scrollIntoView(anyEdit);
-                jsClick(anyEdit);
-                return true;
-            } catch (TimeoutException ignore) {
-                return false;
-            }
+            edit.get().click();
+        } catch (ElementClickInterceptedException ignored) {
+            jsClick(edit.get());
         }
+        return true;
     }
 
-    private void clickIfPresent(By locator) {
+    private void clickIfPresent(String name, By locator) {
         try {
-            WebElement el = new WebDriverWait(driver, Duration.ofSeconds(5))
-                    .until(ExpectedConditions.elementToBeClickable(locator));
+            WebElement el = DomWait.clickable(driver, name, Duration.ofSeconds(5), locator);
             scrollIntoView(el);
             try {
                 el.click();
@@ -165,10 +158,8 @@ public class PerfilPage {
         // “CVU copiado” o “Alias copiado” (el texto exacto puede cambiar; buscamos 'copiado')
         By TOAST = By.xpath("//*[contains(translate(.,'COPIADO','copiado'),'copiado')]");
         try {
-            new WebDriverWait(driver, Duration.ofSeconds(5))
-                    .until(ExpectedConditions.visibilityOfElementLocated(TOAST));
-            new WebDriverWait(driver, Duration.ofSeconds(3))
-                    .until(ExpectedConditions.invisibilityOfElementLocated(TOAST));
+            DomWait.visible(driver, "perfil.toast", Duration.ofSeconds(5), TOAST);
+            DomWait.gone(driver, "perfil.toast-cierre", Duration.ofSeconds(3), TOAST);
         } catch (TimeoutException ignore) {
         }
     }
@@ -180,12 +171,6 @@ public class PerfilPage {
         }
     }
 
-    private void clearAndType(WebElement el, String text) {
-        el.sendKeys(Keys.chord(Keys.CONTROL, "a"));
-        el.sendKeys(Keys.DELETE);
-        el.sendKeys(text);
-    }
-
     private void jsClick(WebElement el) {
         ((JavascriptExecutor) driver).executeScript("arguments[0].click();", el);
     }
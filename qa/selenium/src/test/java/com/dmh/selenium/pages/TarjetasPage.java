@@ -2,26 +2,31 @@
 package com.dmh.selenium.pages;
 
 import java.time.Duration;
-import java.util.Locale;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.ElementClickInterceptedException;
 import org.openqa.selenium.JavascriptException;
 import org.openqa.selenium.JavascriptExecutor;
-import org.openqa.selenium.Keys;
-import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.interactions.Actions;
 import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
+
+import com.dmh.selenium.support.DomWait;
+import com.dmh.selenium.support.Forms;
+import com.dmh.selenium.support.Locators;
+import com.dmh.selenium.support.NetworkTracker;
+import com.dmh.selenium.support.PageMetrics;
+import com.dmh.selenium.support.WaitPolicy;
 
 public class TarjetasPage {
 
     private final WebDriver driver;
-    private final WebDriverWait wait;
     private String baseUrl;
 
     private static final Duration TIMEOUT = Duration.ofSeconds(25);
@@ -39,15 +44,14 @@ public class TarjetasPage {
     private final By IN_CVV = By.xpath("//input[contains(@placeholder,'Código de seguridad')]");
     private final By BTN_CONTINUAR = By.xpath("//button[normalize-space()='Continuar']");
 
-    public TarjetasPage(WebDriver driver, WebDriverWait wait, String baseUrl) {
+    public TarjetasPage(WebDriver driver, String baseUrl) {
         this.driver = driver;
-        this.wait = wait != null ? wait : new WebDriverWait(driver, TIMEOUT);
         this.baseUrl = baseUrl != null ? baseUrl : resolveBaseUrl();
     }
 
     // Sobrecarga: solo WebDriver (como usan los tests)
     public TarjetasPage(WebDriver driver) {
-        this(driver, new WebDriverWait(driver, TIMEOUT), resolveBaseUrl());
+        this(driver, resolveBaseUrl());
     }
 
     private static String resolveBaseUrl() {
@@ -69,29 +73,28 @@ public class TarjetasPage {
             this.baseUrl = baseUrl;
         }
         driver.get(this.baseUrl + "/tarjetas");
-        wait.until(ExpectedConditions.visibilityOfElementLocated(HEADING_LIST));
+        DomWait.visible(driver, "tarjetas.listado", TIMEOUT, HEADING_LIST);
+        PageMetrics.record(driver, "/tarjetas");
         return this;
     }
 
     public TarjetasPage openList() {
         driver.get((baseUrl != null ? baseUrl : "") + "/tarjetas");
-        wait.until(ExpectedConditions.visibilityOfElementLocated(HEADING_LIST));
+        DomWait.visible(driver, "tarjetas.listado", TIMEOUT, HEADING_LIST);
+        PageMetrics.record(driver, "/tarjetas");
         return this;
     }
 
     public TarjetasPage openForm() {
-        // 1) intentamos por data-testid
-        if (!clickAddIfPresent(BTN_ADD)) {
-            // 2) fallback por texto visible “Alta de tarjeta”
-            if (!clickAddIfPresent(BTN_ADD_FALLBACK)) {
-                // 3) pequeño scroll y último intento
-                new Actions(driver).scrollByAmount(0, 200).pause(Duration.ofMillis(150)).perform();
-                clickAddIfPresent(BTN_ADD_FALLBACK);
-            }
+        // 1) data-testid o texto visible “Alta de tarjeta”, evaluados juntos
+        if (!clickAddIfPresent(BTN_ADD, BTN_ADD_FALLBACK)) {
+            // 2) pequeño scroll y último intento
+            new Actions(driver).scrollByAmount(0, 200).pause(Duration.ofMillis(150)).perform();
+            clickAddIfPresent(BTN_ADD, BTN_ADD_FALLBACK);
         }
 
         // Al abrir, debe aparecer el bloque de marca o la URL con ?alta=1
-        wait.until(ExpectedConditions.or(
+        WaitPolicy.until(driver, "tarjetas.formulario", TIMEOUT, ExpectedConditions.or(
                 ExpectedConditions.visibilityOfElementLocated(BRAND_INFO),
                 (ExpectedCondition<Boolean>) d -> d.getCurrentUrl().contains("alta=1")
         ));
@@ -100,21 +103,16 @@ public class TarjetasPage {
 
     public TarjetasPage assertBrandShown(String expectedBrand) {
         // 1) El bloque debe estar visible
-        WebElement info = wait.until(ExpectedConditions.visibilityOfElementLocated(BRAND_INFO));
+        WebElement info = DomWait.visible(driver, "tarjetas.marca", TIMEOUT, BRAND_INFO);
 
         // 2) Si no se pidió marca específica, listo
         if (expectedBrand == null || expectedBrand.isBlank()) {
             return this;
         }
 
-        String expected = expectedBrand.trim().toLowerCase(Locale.ROOT);
-
-        // 3) Intento best-effort (no rompe si todavía dice “Desconocida”)
+        // 3) Intento best-effort (no rompe si todavía dice “Desconocida”); el texto se compara sin mayúsculas
         try {
-            new WebDriverWait(driver, Duration.ofSeconds(8)).until(d -> {
-                String txt = d.findElement(BRAND_INFO).getText().toLowerCase(Locale.ROOT);
-                return txt.contains(expected);
-            });
+            DomWait.text(driver, "tarjetas.marca-detectada", Duration.ofSeconds(8), expectedBrand.trim(), BRAND_INFO);
         } catch (TimeoutException ignore) {
             // toleramos el estado inicial; más tarde al tipear ya cambia a la marca correcta
         }
@@ -127,50 +125,48 @@ public class TarjetasPage {
         String name = "DEMO USER";
         String cvv = "123";
 
-        WebElement eNum = wait.until(ExpectedConditions.visibilityOfElementLocated(IN_NUM));
-        WebElement eExp = wait.until(ExpectedConditions.visibilityOfElementLocated(IN_EXP));
-        WebElement eName = wait.until(ExpectedConditions.visibilityOfElementLocated(IN_NAME));
-        WebElement eCvv = wait.until(ExpectedConditions.visibilityOfElementLocated(IN_CVV));
-
-        clearAndType(eNum, num);
-        clearAndType(eExp, exp);
-        clearAndType(eName, name);
-        clearAndType(eCvv, cvv);
+        // Todo de una sola vez: la marca sale del estado que deja onChange (no de cada tecla), así que el setter
+        // nativo + input/change alcanza también para el número
+        Map<By, String> form = new LinkedHashMap<>();
+        form.put(IN_NUM, num);
+        form.put(IN_EXP, exp);
+        form.put(IN_NAME, name);
+        form.put(IN_CVV, cvv);
+        Forms.fill(driver, "tarjetas.campos", TIMEOUT, form);
 
-        WebElement continuar = wait.until(ExpectedConditions.elementToBeClickable(BTN_CONTINUAR));
+        WebElement continuar = DomWait.clickable(driver, "tarjetas.continuar", TIMEOUT, BTN_CONTINUAR);
         scrollIntoView(continuar);
+        NetworkTracker net = NetworkTracker.of(driver);
+        long mark = net.mark();
         try {
             continuar.click();
         } catch (ElementClickInterceptedException e) {
             jsClick(continuar);
         }
 
-        // Vuelve al listado
-        wait.until(ExpectedConditions.visibilityOfElementLocated(HEADING_LIST));
+        // Insert + refresh del listado (GET medios_pago) y vuelve al listado
+        WaitPolicy.run("tarjetas.alta-post", TIMEOUT,
+                t -> net.waitForResponse("/rest/v1/medios_pago", "POST", mark, t));
+        WaitPolicy.run("tarjetas.refresco", Duration.ofSeconds(10),
+                t -> net.awaitResponse("/rest/v1/medios_pago", "GET", mark, t));
+        DomWait.visible(driver, "tarjetas.listado", TIMEOUT, HEADING_LIST);
         return this;
     }
 
     // --- helpers -------------------------------------------------------------
-    private boolean clickAddIfPresent(By locator) {
-        try {
-            WebElement btn = new WebDriverWait(driver, Duration.ofSeconds(7))
-                    .until(ExpectedConditions.elementToBeClickable(locator));
-            scrollIntoView(btn);
-            try {
-                btn.click();
-            } catch (ElementClickInterceptedException e) {
-                jsClick(btn);
-            }
-            return true;
-        } catch (TimeoutException | NoSuchElementException e) {
+    private boolean clickAddIfPresent(By... candidates) {
+        Optional<WebElement> found = Locators.firstOrEmpty(driver, "tarjetas.alta", Duration.ofSeconds(7), candidates);
+        if (found.isEmpty()) {
             return false;
         }
-    }
-
-    private void clearAndType(WebElement el, String text) {
-        el.sendKeys(Keys.chord(Keys.CONTROL, "a"));
-        el.sendKeys(Keys.DELETE);
-        el.sendKeys(text);
+        WebElement btn = found.get();
+        scrollIntoView(btn);
+        try {
+            btn.click();
+        } catch (ElementClickInterceptedException e) {
+            jsClick(btn);
+        }
+        return true;
     }
 
     private void scrollIntoView(WebElement el) {
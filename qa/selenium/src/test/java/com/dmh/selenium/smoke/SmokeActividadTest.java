@@ -5,26 +5,28 @@ import org.junit.jupiter.api.Test;
 import com.dmh.selenium.BaseTest;
 import com.dmh.selenium.pages.ActividadPage;
 import com.dmh.selenium.pages.HomePage;
-import com.dmh.selenium.pages.LoginPage;
+import com.dmh.selenium.support.FrozenClock;
+import com.dmh.selenium.support.MockRoute;
 
 public class SmokeActividadTest extends BaseTest {
 
     @Test
     void homeEnterRedirectsWithQuery() {
-        new LoginPage(driver, wait, baseUrl)
-                .login(System.getProperty("E2E_EMAIL"), System.getProperty("E2E_PASSWORD"));
-        HomePage home = new HomePage(driver, wait, baseUrl);
+        signIn();
+        HomePage home = new HomePage(driver, baseUrl);
         home.open();
         home.searchEnter("luz");
         assertUrlContains("/actividad?q=luz");
         new ActividadPage(driver).assertLoaded();
     }
 
+    // Mismos datos y fecha que actividad.spec.ts: el período "último mes" no depende del día en que corre
     @Test
+    @FrozenClock
+    @MockRoute(url = "/rest/v1/movimientos", resource = "fixtures/actividad/movimientos.json")
     void actividadFiltersSyncWithUrl() {
-        new LoginPage(driver, wait, baseUrl)
-                .login(System.getProperty("E2E_EMAIL"), System.getProperty("E2E_PASSWORD"));
-        driver.navigate().to(baseUrl + "/actividad");
+        signIn();
+        go("/actividad");
         ActividadPage act = new ActividadPage(driver);
         act.assertLoaded();
         act.openFilters();
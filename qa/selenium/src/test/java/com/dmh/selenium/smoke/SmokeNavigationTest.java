@@ -10,7 +10,7 @@ public class SmokeNavigationTest extends BaseTest {
 
     @Test
     void greetingRedirectsToHome() {
-        new LoginPage(driver, wait, baseUrl)
+        new LoginPage(driver, baseUrl)
                 .login(System.getProperty("E2E_EMAIL"), System.getProperty("E2E_PASSWORD"));
         new Navbar(driver).clickGreeting();
         assertUrlContains("/home");
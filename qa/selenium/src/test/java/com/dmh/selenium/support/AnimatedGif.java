@@ -0,0 +1,137 @@
+package com.dmh.selenium.support;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Frames JPEG del {@link Screencast} → GIF animado, sólo con ImageIO del JDK (sin ffmpeg ni dependencias).
+ * Cada frame dura lo que tardó en llegar el siguiente, así el GIF respeta el ritmo real del test;
+ * el último queda {@link #LAST_FRAME_CS} centésimas para que se alcance a ver el estado final.
+ * <p>
+ * Los frames se pasan a una paleta fija (cubo 6×6×6 + 40 grises) antes de escribirlos: con imágenes RGB el writer
+ * de GIF arma una paleta por frame y tarda ~8 veces más. Para capturas de una UI alcanza y sobra.
+ */
+final class AnimatedGif {
+
+    private static final int LAST_FRAME_CS = 200;
+    /** Mínimo que respetan los visores de GIF (menos se dibuja a 10 cs). */
+    private static final int MIN_DELAY_CS = 2;
+    private static final IndexColorModel PALETTE = palette();
+
+    private AnimatedGif() {
+    }
+
+    static void write(List<Screencast.Frame> frames, OutputStream out) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("gif");
+        if (!writers.hasNext()) {
+            throw new IOException("El JDK no tiene writer de GIF");
+        }
+        ImageWriter writer = writers.next();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            writer.prepareWriteSequence(null);
+            for (int i = 0; i < frames.size(); i++) {
+                BufferedImage jpeg = ImageIO.read(new ByteArrayInputStream(frames.get(i).jpeg));
+                if (jpeg == null) {
+                    continue;
+                }
+                BufferedImage img = indexed(jpeg);
+                int delayCs = i + 1 < frames.size()
+                        ? (int) ((frames.get(i + 1).timestamp - frames.get(i).timestamp) / 10)
+                        : LAST_FRAME_CS;
+                writer.writeToSequence(new IIOImage(img, null, metadata(writer, img, Math.max(MIN_DELAY_CS, delayCs),
+                        i == 0)), null);
+            }
+            writer.endWriteSequence();
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static BufferedImage indexed(BufferedImage src) {
+        BufferedImage out = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_BYTE_INDEXED, PALETTE);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.drawImage(src, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    private static IndexColorModel palette() {
+        byte[] r = new byte[256];
+        byte[] gr = new byte[256];
+        byte[] b = new byte[256];
+        int i = 0;
+        for (int x = 0; x < 6; x++) {
+            for (int y = 0; y < 6; y++) {
+                for (int z = 0; z < 6; z++, i++) {
+                    r[i] = (byte) (x * 51);
+                    gr[i] = (byte) (y * 51);
+                    b[i] = (byte) (z * 51);
+                }
+            }
+        }
+        // 216 colores del cubo; el resto, grises intermedios (textos y bordes con antialiasing)
+        for (int k = 0; i < 256; k++, i++) {
+            int v = (k + 1) * 255 / 41;
+            r[i] = (byte) v;
+            gr[i] = (byte) v;
+            b[i] = (byte) v;
+        }
+        return new IndexColorModel(8, 256, r, gr, b);
+    }
+
+    private static IIOMetadata metadata(ImageWriter writer, BufferedImage img, int delayCs, boolean first)
+            throws IOException {
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        IIOMetadata meta = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(img), param);
+        String format = meta.getNativeMetadataFormatName();
+        IIOMetadataNode root = (IIOMetadataNode) meta.getAsTree(format);
+
+        IIOMetadataNode gce = child(root, "GraphicControlExtension");
+        gce.setAttribute("disposalMethod", "none");
+        gce.setAttribute("userInputFlag", "FALSE");
+        gce.setAttribute("transparentColorFlag", "FALSE");
+        gce.setAttribute("delayTime", Integer.toString(delayCs));
+        gce.setAttribute("transparentColorIndex", "0");
+
+        if (first) {
+            // NETSCAPE2.0: repetir para siempre
+            IIOMetadataNode app = new IIOMetadataNode("ApplicationExtension");
+            app.setAttribute("applicationID", "NETSCAPE");
+            app.setAttribute("authenticationCode", "2.0");
+            app.setUserObject(new byte[]{1, 0, 0});
+            child(root, "ApplicationExtensions").appendChild(app);
+        }
+        meta.setFromTree(format, root);
+        return meta;
+    }
+
+    private static IIOMetadataNode child(IIOMetadataNode root, String name) {
+        for (int i = 0; i < root.getLength(); i++) {
+            if (root.item(i).getNodeName().equalsIgnoreCase(name)) {
+                return (IIOMetadataNode) root.item(i);
+            }
+        }
+        IIOMetadataNode node = new IIOMetadataNode(name);
+        root.appendChild(node);
+        return node;
+    }
+}
@@ -0,0 +1,152 @@
+package com.dmh.selenium.support;
+
+import java.io.IOException;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonException;
+
+/**
+ * Login sin browser (java.net.http) para preparar tests que sólo necesitan estar autenticados.
+ * <p>
+ * Replica lo que hace la pantalla de login: valida email y password contra {@code /api/login}
+ * y luego pide la sesión a Supabase Auth ({@code /auth/v1/token?grant_type=password}).
+ * El resultado es un {@link SessionState} listo para inyectar en el WebDriver.
+ * Necesita {@code NEXT_PUBLIC_SUPABASE_URL} y {@code NEXT_PUBLIC_SUPABASE_ANON_KEY} (las mismas que usa la app).
+ */
+public final class ApiLogin {
+
+    private static final Json JSON = new Json();
+    private static final Duration TIMEOUT = Duration.ofSeconds(20);
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+
+    private ApiLogin() {
+    }
+
+    public static String supabaseUrl() {
+        String url = Config.str(null, "NEXT_PUBLIC_SUPABASE_URL", "SUPABASE_URL");
+        return url != null && url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    public static String anonKey() {
+        return Config.str(null, "NEXT_PUBLIC_SUPABASE_ANON_KEY", "SUPABASE_ANON_KEY");
+    }
+
+    public static boolean available() {
+        return Config.bool(true, "API_LOGIN", "apiLogin") && supabaseUrl() != null && anonKey() != null;
+    }
+
+    /** Falla con {@link IllegalStateException} si la app o Supabase rechazan las credenciales (o piden 2FA). */
+    public static SessionState login(String baseUrl, String email, String password) {
+        if (email == null || password == null) {
+            throw new IllegalStateException("Faltan credenciales: define E2E_EMAIL y E2E_PASSWORD (system props o ENV).");
+        }
+        String normalized = email.toLowerCase().trim();
+
+        // 1) Paso email: la cuenta tiene que existir
+        Map<String, Object> step1 = post(baseUrl + "/api/login", Map.of("email", normalized), Map.of()).body;
+        if (!Boolean.TRUE.equals(step1.get("exists"))) {
+            throw new IllegalStateException("/api/login: no existe la cuenta " + normalized);
+        }
+
+        // 2) Paso password: validación propia del backend (usuarios + bcrypt)
+        Response step2 = post(baseUrl + "/api/login", Map.of("email", normalized, "password", password), Map.of());
+        if (!Boolean.TRUE.equals(step2.body.get("success"))) {
+            throw new IllegalStateException("/api/login rechazó el login: " + step2.body.get("message"));
+        }
+        if (Boolean.TRUE.equals(step2.body.get("needsVerification"))) {
+            throw new IllegalStateException("/api/login pide código por email (primer login); usar login por UI.");
+        }
+
+        // 3) Sesión de Supabase Auth: lo mismo que supabase.auth.signInWithPassword
+        String sbUrl = supabaseUrl();
+        Map<String, Object> session = post(sbUrl + "/auth/v1/token?grant_type=password",
+                Map.of("email", normalized, "password", password),
+                Map.of("apikey", anonKey(), "Authorization", "Bearer " + anonKey())).body;
+        if (session.get("access_token") == null) {
+            throw new IllegalStateException("Supabase Auth no devolvió access_token: " + session.get("error_description"));
+        }
+        long expiresAt = session.get("expires_at") instanceof Number
+                ? ((Number) session.get("expires_at")).longValue()
+                : Instant.now().getEpochSecond() + ((Number) session.getOrDefault("expires_in", 3600)).longValue();
+        Map<String, Object> stored = new LinkedHashMap<>(session);
+        stored.put("expires_at", expiresAt);
+
+        Map<String, String> ls = new LinkedHashMap<>();
+        ls.put(storageKey(sbUrl), JSON.toJson(stored));
+        return new SessionState(normalized, baseUrl, expiresAt, step2.cookies, ls);
+    }
+
+    /* ---------- Helpers ---------- */
+    /** Clave por defecto de supabase-js v2: sb-&lt;project ref&gt;-auth-token. */
+    static String storageKey(String supabaseUrl) {
+        String host = URI.create(supabaseUrl).getHost();
+        return "sb-" + host.split("\\.")[0] + "-auth-token";
+    }
+
+    private static final class Response {
+        final Map<String, Object> body;
+        final List<Map<String, Object>> cookies;
+
+        Response(Map<String, Object> body, List<Map<String, Object>> cookies) {
+            this.body = body;
+            this.cookies = cookies;
+        }
+    }
+
+    private static Response post(String url, Map<String, Object> body, Map<String, String> headers) {
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(url))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(JSON.toJson(body)));
+        headers.forEach(b::header);
+        try {
+            HttpResponse<String> res = HTTP.send(b.build(), HttpResponse.BodyHandlers.ofString());
+            Map<String, Object> parsed;
+            try {
+                parsed = res.body() == null || res.body().isBlank() ? Map.of() : JSON.toType(res.body(), Json.MAP_TYPE);
+            } catch (JsonException e) {
+                throw new IllegalStateException(url + " respondió " + res.statusCode() + " sin JSON", e);
+            }
+            return new Response(parsed, cookiesOf(res));
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo llamar a " + url, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido llamando a " + url, e);
+        }
+    }
+
+    /** Si la ruta setea cookies (hoy no lo hace) también viajan al driver. */
+    private static List<Map<String, Object>> cookiesOf(HttpResponse<?> res) {
+        List<Map<String, Object>> out = new ArrayList<>();
+        for (String header : res.headers().allValues("set-cookie")) {
+            for (HttpCookie c : HttpCookie.parse(header)) {
+                Map<String, Object> m = new LinkedHashMap<>();
+                m.put("name", c.getName());
+                m.put("value", c.getValue());
+                m.put("path", c.getPath() != null ? c.getPath() : "/");
+                m.put("secure", c.getSecure());
+                m.put("httpOnly", c.isHttpOnly());
+                if (c.getMaxAge() > 0) {
+                    m.put("expiry", Instant.now().getEpochSecond() + c.getMaxAge());
+                }
+                out.add(m);
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,251 @@
+package com.dmh.selenium.support;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.launcher.LauncherSession;
+import org.junit.platform.launcher.LauncherSessionListener;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.openqa.selenium.json.Json;
+
+import com.dmh.selenium.BaseTest;
+
+/**
+ * Calentamiento de la app antes del primer test (registrado en
+ * {@code META-INF/services/org.junit.platform.launcher.LauncherSessionListener}).
+ * <p>
+ * Espera a que la app responda de verdad ({@code GET /api/check-env} con 200, no sólo el puerto abierto) y después
+ * pide en paralelo, por rondas, todas las rutas que visitan los Page Objects más las {@code /api/*}: así la compilación
+ * on-demand de {@code next dev} y los caches fríos los paga el warm-up y no el primer test de cada ruta.
+ * Los tests arrancan cuando la latencia de cada ruta se estabiliza (varía menos de {@link #STABLE_RATIO} o de
+ * {@link #STABLE_FLOOR_MS} ms contra la ronda anterior) o al llegar a {@code WARMUP_ROUNDS}.
+ * <p>
+ * Rutas: {@code WARMUP_ROUTES} (o las de la app, por defecto) más las que registró {@link RouteCoverage} en
+ * {@code TEST_MAP}. El tiempo queda aparte del de los tests, en {@code target/surefire-reports/perf/warmup.json};
+ * si la app nunca responde, se avisa y los tests corren igual. Desactivar: {@code WARMUP=false}.
+ * <p>
+ * Sólo calienta si el plan de ejecución tiene alguna subclase de {@link BaseTest}: los tests unitarios de
+ * {@code support} no esperan a una app que no usan.
+ */
+public class AppWarmup implements LauncherSessionListener {
+
+    private static final Json JSON = new Json();
+
+    /** Surefire abre una sesión para el discovery y otra para la ejecución: se calienta una sola vez. */
+    private static final AtomicBoolean DONE = new AtomicBoolean();
+
+    private static final String DEFAULT_ROUTES = "/,/login,/register,/home,/actividad,/perfil,/tarjetas,/transferir,"
+            + "/cargar-dinero,/pagar-servicios,/pagar-servicios/claro/identificador,/pagar-servicios/claro/pagar,"
+            + "/pagar-servicios/claro/exito,/pagar-servicios/claro/tarjeta-error";
+    /** POST con cuerpo vacío: compilan la ruta y responden 400 sin tocar Supabase. */
+    private static final List<String> API_POST = List.of("/api/login", "/api/register");
+    private static final String READY_PATH = "/api/check-env";
+
+    private static final double STABLE_RATIO = 0.25;
+    private static final long STABLE_FLOOR_MS = 50;
+    private static final int MIN_ROUNDS = 2;
+
+    @Override
+    public void launcherSessionOpened(LauncherSession session) {
+        if (!Config.bool(true, "WARMUP", "warmup")) {
+            return;
+        }
+        // Al abrir la sesión todavía no se sabe qué corre: se decide con el plan, antes del primer test
+        session.getLauncher().registerTestExecutionListeners(new TestExecutionListener() {
+            @Override
+            public void testPlanExecutionStarted(TestPlan plan) {
+                if (!usesApp(plan) || !DONE.compareAndSet(false, true)) {
+                    return;
+                }
+                try {
+                    warmUp();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    // el warm-up nunca impide correr los tests
+                    System.out.println("Warm-up: se saltea (" + e + ")");
+                }
+            }
+        });
+    }
+
+    /** Alguna clase del plan es un test de browser contra la app. */
+    static boolean usesApp(TestPlan plan) {
+        for (TestIdentifier root : plan.getRoots()) {
+            for (TestIdentifier id : plan.getDescendants(root)) {
+                TestSource source = id.getSource().orElse(null);
+                if (source instanceof ClassSource && usesApp((ClassSource) source)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean usesApp(ClassSource source) {
+        try {
+            return BaseTest.class.isAssignableFrom(source.getJavaClass());
+        } catch (RuntimeException e) {
+            // clase que no carga: la corrida va a fallar igual, sin warm-up
+            return false;
+        }
+    }
+
+    private static void warmUp() throws InterruptedException {
+        String baseUrl = Config.baseUrl();
+        long timeoutMs = Config.intValue(180, "WARMUP_TIMEOUT", "warmupTimeout") * 1000L;
+        int maxRounds = Math.max(MIN_ROUNDS, Config.intValue(8, "WARMUP_ROUNDS", "warmupRounds"));
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        long start = System.nanoTime();
+        long deadline = start + timeoutMs * 1_000_000;
+
+        Map<String, Object> doc = new LinkedHashMap<>();
+        doc.put("baseUrl", baseUrl);
+
+        // 1) Lista de verdad: la ruta de diagnóstico responde 200
+        int attempts = 0;
+        boolean ready = false;
+        while (!ready && System.nanoTime() < deadline) {
+            attempts++;
+            Timed r = request(http, baseUrl, READY_PATH, false).join();
+            ready = r.status == 200;
+            if (!ready) {
+                Thread.sleep(500);
+            }
+        }
+        long readyMs = (System.nanoTime() - start) / 1_000_000;
+        doc.put("ready", ready);
+        doc.put("readyMs", readyMs);
+        doc.put("readyAttempts", attempts);
+        if (!ready) {
+            System.out.printf("Warm-up: %s no respondió en %d s; los tests arrancan igual%n", baseUrl,
+                    timeoutMs / 1000);
+            write(doc, start);
+            return;
+        }
+
+        // 2) Rondas concurrentes hasta que las latencias se estabilizan
+        Set<String> routes = routes();
+        List<Map<String, Object>> rounds = new ArrayList<>();
+        Map<String, Long> previous = null;
+        boolean stable = false;
+        for (int round = 1; round <= maxRounds && !stable && System.nanoTime() < deadline; round++) {
+            long roundStart = System.nanoTime();
+            Map<String, CompletableFuture<Timed>> inFlight = new LinkedHashMap<>();
+            for (String path : routes) {
+                inFlight.put(path, request(http, baseUrl, path, false));
+            }
+            for (String path : API_POST) {
+                inFlight.put("POST " + path, request(http, baseUrl, path, true));
+            }
+            Map<String, Long> latencies = new LinkedHashMap<>();
+            Map<String, Object> detail = new LinkedHashMap<>();
+            inFlight.forEach((key, f) -> {
+                Timed t = f.join();
+                latencies.put(key, t.ms);
+                detail.put(key, Map.of("status", t.status, "ms", t.ms));
+            });
+            stable = round >= MIN_ROUNDS && previous != null && stable(previous, latencies);
+            Map<String, Object> r = new LinkedHashMap<>();
+            r.put("round", round);
+            r.put("ms", (System.nanoTime() - roundStart) / 1_000_000);
+            r.put("maxMs", latencies.values().stream().mapToLong(Long::longValue).max().orElse(0));
+            r.put("routes", detail);
+            rounds.add(r);
+            previous = latencies;
+        }
+        doc.put("routes", routes);
+        doc.put("rounds", rounds);
+        doc.put("stable", stable);
+        long totalMs = write(doc, start);
+        Object first = rounds.isEmpty() ? 0 : rounds.get(0).get("maxMs");
+        Object last = rounds.isEmpty() ? 0 : rounds.get(rounds.size() - 1).get("maxMs");
+        System.out.printf("Warm-up: app lista en %d ms; %d rutas en %d rondas (peor ruta %s → %s ms)%s; total %d ms%n",
+                readyMs, routes.size() + API_POST.size(), rounds.size(), first, last,
+                stable ? "" : " sin estabilizar", totalMs);
+    }
+
+    /** Cada ruta varía poco contra la ronda anterior. */
+    private static boolean stable(Map<String, Long> previous, Map<String, Long> current) {
+        for (Map.Entry<String, Long> e : current.entrySet()) {
+            long before = previous.getOrDefault(e.getKey(), Long.MAX_VALUE);
+            long delta = Math.abs(e.getValue() - before);
+            if (delta > Math.max(STABLE_FLOOR_MS, (long) (before * STABLE_RATIO))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<String> routes() {
+        Set<String> out = new LinkedHashSet<>();
+        for (String r : Config.str(DEFAULT_ROUTES, "WARMUP_ROUTES", "warmupRoutes").split("\\s*,\\s*")) {
+            if (!r.isEmpty()) {
+                out.add(r.startsWith("/") ? r : "/" + r);
+            }
+        }
+        // Lo que visitaron los tests en corridas anteriores (incluye slugs reales de rutas dinámicas)
+        for (TestMap.Entry e : TestMap.load(TestMap.file()).values()) {
+            out.addAll(e.routes);
+        }
+        return out;
+    }
+
+    /* ---------- HTTP ---------- */
+    private static final class Timed {
+        final int status;
+        final long ms;
+
+        Timed(int status, long ms) {
+            this.status = status;
+            this.ms = ms;
+        }
+    }
+
+    /** Nunca falla: un error de conexión vuelve como status 0. */
+    private static CompletableFuture<Timed> request(HttpClient http, String baseUrl, String path, boolean post) {
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(120));
+        if (post) {
+            b.header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString("{}"));
+        } else {
+            b.header("Accept", "text/html").GET();
+        }
+        long t0 = System.nanoTime();
+        return http.sendAsync(b.build(), HttpResponse.BodyHandlers.discarding())
+                .handle((res, err) -> new Timed(res != null ? res.statusCode() : 0,
+                        (System.nanoTime() - t0) / 1_000_000));
+    }
+
+    private static long write(Map<String, Object> doc, long start) {
+        long totalMs = (System.nanoTime() - start) / 1_000_000;
+        doc.put("totalMs", totalMs);
+        try {
+            Files.createDirectories(PerfReport.dir());
+            Files.writeString(PerfReport.dir().resolve("warmup.json"), JSON.toJson(doc), StandardCharsets.UTF_8);
+        } catch (IOException ignore) {
+            // el reporte nunca rompe la corrida
+        }
+        return totalMs;
+    }
+}
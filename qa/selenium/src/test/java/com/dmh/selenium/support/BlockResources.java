@@ -0,0 +1,31 @@
+package com.dmh.selenium.support;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Perfil "fast smoke" para un test (o todos los de la clase): los recursos de esos tipos y URLs no salen a la red
+ * (ver {@link ResourceBlocking}). Sin atributos es el perfil global ({@code BLOCK_TYPES} / {@code BLOCK_URLS}), aunque
+ * {@code FAST_PROFILE=false}. El del método gana sobre el de la clase; {@link FullLoad} lo apaga.
+ * <pre>
+ *   &#64;BlockResources(types = "Image", urls = "none")
+ *   &#64;BlockResources(urls = {"fonts.googleapis.com", "/_vercel/insights"}, stub = false)
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Inherited
+public @interface BlockResources {
+
+    /** Tipos de recurso de CDP ({@code Image}, {@code Media}, {@code Font}...). Vacío = {@code BLOCK_TYPES}. */
+    String[] types() default {};
+
+    /** Fragmentos de URL. Vacío = {@code BLOCK_URLS}; {@code "none"} = ninguno (también en {@link #types()}). */
+    String[] urls() default {};
+
+    /** true = se responde con un reemplazo inocuo cuando lo hay (GIF de 1x1, CSS/JS vacío); false = siempre falla. */
+    boolean stub() default true;
+}
@@ -0,0 +1,62 @@
+package com.dmh.selenium.support;
+
+import java.lang.reflect.AnnotatedElement;
+import java.util.Optional;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+
+/**
+ * Extensión JUnit que aplica {@link MockRoute} y {@link FrozenClock} (de la clase y del método) al driver del test,
+ * después de {@code @BeforeEach} (cuando ya existe el driver) y antes del cuerpo del test. Al terminar,
+ * antes de {@code @AfterEach}, saca los fixtures y el reloj fijo para que el driver vuelva limpio al pool.
+ */
+public class BrowserMocks implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final Json JSON = new Json();
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        WebDriver driver = DriverHolder.get();
+        if (driver == null) {
+            return;
+        }
+        AnnotatedElement cls = context.getRequiredTestClass();
+        AnnotatedElement method = context.getRequiredTestMethod();
+
+        Optional<FrozenClock> clock = AnnotationSupport.findAnnotation(method, FrozenClock.class)
+                .or(() -> AnnotationSupport.findAnnotation(cls, FrozenClock.class));
+        clock.ifPresent(c -> Clock.freeze(driver, c.value()));
+
+        // Primero los de la clase: los del método se agregan después y tienen prioridad
+        for (AnnotatedElement el : new AnnotatedElement[]{cls, method}) {
+            for (MockRoute r : AnnotationSupport.findRepeatableAnnotations(el, MockRoute.class)) {
+                Intercept.of(driver).add(fixtureOf(r));
+            }
+        }
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        WebDriver driver = DriverHolder.get();
+        if (driver != null) {
+            Intercept.resetFor(driver);
+            Clock.reset(driver);
+        }
+    }
+
+    static Fixture fixtureOf(MockRoute r) {
+        Fixture f = Fixture.on(r.method(), r.url()).status(r.status());
+        if (!r.resource().isEmpty()) {
+            return f.resource(r.resource());
+        }
+        if (!r.json().isEmpty()) {
+            return f.json(JSON.toType(r.json(), Object.class));
+        }
+        return f;
+    }
+}
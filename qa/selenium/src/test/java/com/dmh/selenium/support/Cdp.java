@@ -0,0 +1,82 @@
+package com.dmh.selenium.support;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+/**
+ * Acceso mínimo a Chrome DevTools Protocol con comandos/eventos "crudos" (método + Map).
+ * <p>
+ * No depende de las clases generadas {@code selenium-devtools-vNNN}, así que funciona aunque el
+ * Chrome local sea más nuevo que los paquetes CDP de Selenium. Una sola sesión por driver,
+ * compartida por todas las utilidades (red, intercepción, screencast...).
+ */
+public final class Cdp {
+
+    private Cdp() {
+    }
+
+    /** Quita decoradores (EventFiringDecorator, etc.) hasta llegar al driver real. */
+    public static WebDriver unwrap(WebDriver driver) {
+        WebDriver d = driver;
+        while (d instanceof WrapsDriver) {
+            WebDriver inner = ((WrapsDriver) d).getWrappedDriver();
+            if (inner == null || inner == d) {
+                break;
+            }
+            d = inner;
+        }
+        return d;
+    }
+
+    public static boolean supported(WebDriver driver) {
+        return unwrap(driver) instanceof HasDevTools;
+    }
+
+    public static DevTools devTools(WebDriver driver) {
+        WebDriver d = unwrap(driver);
+        if (!(d instanceof HasDevTools)) {
+            throw new IllegalStateException("El driver no soporta CDP: " + d.getClass().getSimpleName());
+        }
+        DevTools dt = ((HasDevTools) d).getDevTools();
+        synchronized (dt) {
+            dt.createSessionIfThereIsNotOne();
+        }
+        return dt;
+    }
+
+    public static Map<String, Object> send(WebDriver driver, String method, Map<String, Object> params) {
+        Map<String, Object> res = devTools(driver).send(new Command<>(method, params, Json.MAP_TYPE));
+        return res != null ? res : Map.of();
+    }
+
+    public static void on(WebDriver driver, String event, Consumer<Map<String, Object>> listener) {
+        devTools(driver).addListener(
+                new Event<Map<String, Object>>(event, input -> input.read(Json.MAP_TYPE)),
+                listener);
+    }
+
+    /* ---------- Helpers para leer payloads ---------- */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> map(Map<String, Object> m, String key) {
+        Object v = m.get(key);
+        return v instanceof Map ? (Map<String, Object>) v : Map.of();
+    }
+
+    public static String str(Map<String, Object> m, String key) {
+        Object v = m.get(key);
+        return v != null ? String.valueOf(v) : null;
+    }
+
+    public static double num(Map<String, Object> m, String key) {
+        Object v = m.get(key);
+        return v instanceof Number ? ((Number) v).doubleValue() : 0d;
+    }
+}
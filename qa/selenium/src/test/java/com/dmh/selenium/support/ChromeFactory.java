@@ -0,0 +1,48 @@
+package com.dmh.selenium.support;
+
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+
+/**
+ * Construcción de ChromeDriver con las opciones de la suite (antes inline en BaseTest).
+ */
+public final class ChromeFactory {
+
+    private ChromeFactory() {
+    }
+
+    public static ChromeOptions options() {
+        boolean headless = Config.bool(true, "HEADLESS", "headless");
+
+        ChromeOptions options = new ChromeOptions();
+        options.setPageLoadStrategy(PageLoadStrategy.NORMAL);
+
+        String bin = Config.str(null, "CHROME_BIN");
+        if (bin != null) {
+            options.setBinary(bin);
+        }
+
+        // Tamaño estable para headless/CI
+        options.addArguments("--window-size=1366,900");
+        options.addArguments("--disable-dev-shm-usage", "--no-sandbox");
+
+        // Reduce interferencias de FedCM / Privacy Sandbox / SameSite
+        options.addArguments("--disable-features=FedCm,PrivacySandboxAdsAPIs,ChromeRootStoreUsed,BlockInsecurePrivateNetworkRequests,SameSiteByDefaultCookies,CookiesWithoutSameSiteMustBeSecure");
+
+        // Ruido visual y prompts
+        options.addArguments("--disable-notifications", "--disable-infobars");
+
+        if (headless) {
+            // Headless moderno + estabilidad en Windows
+            options.addArguments("--headless=new", "--disable-gpu", "--disable-software-rasterizer");
+        }
+        return options;
+    }
+
+    /** Con el chromedriver de {@link DriverProvisioning} (la primera vez por JVM lo resuelve; después no cuesta). */
+    public static ChromeDriver create() {
+        DriverProvisioning.ensure();
+        return new ChromeDriver(options());
+    }
+}
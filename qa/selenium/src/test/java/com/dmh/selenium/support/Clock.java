@@ -0,0 +1,59 @@
+package com.dmh.selenium.support;
+
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Congela {@code Date} en el browser (port de {@code freezeTime} de e2e/utils/mockApi.ts).
+ * <p>
+ * El script se registra con {@code Page.addScriptToEvaluateOnNewDocument}: corre antes que la app en cada
+ * navegación, así los filtros por período ("hoy", "últimos 7 días"...) siempre ven la misma fecha.
+ * {@code new Date()} y {@code Date.now()} devuelven el instante fijo; {@code new Date(x)} sigue funcionando.
+ * Afecta a las navegaciones posteriores a {@link #freeze}, no a la página ya cargada.
+ */
+public final class Clock {
+
+    /** El mismo instante que usa la suite de Playwright. */
+    public static final String DEFAULT_INSTANT = "2022-08-17T16:34:00-03:00";
+
+    private static final String FIXED_DATE =
+            "(function(fixedMs){var OriginalDate=Date;"
+            + "class FixedDate extends OriginalDate{"
+            + " constructor(...args){if(args.length===0){super(fixedMs);}else{super(...args);}}"
+            + " static now(){return fixedMs;}}"
+            + "window.Date=FixedDate;})(%d);";
+
+    private static final Map<WebDriver, String> SCRIPTS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private Clock() {
+    }
+
+    /** {@code isoInstant} con offset, p. ej. {@code 2022-08-17T16:34:00-03:00}. */
+    public static void freeze(WebDriver driver, String isoInstant) {
+        long ms = OffsetDateTime.parse(isoInstant).toInstant().toEpochMilli();
+        WebDriver real = Cdp.unwrap(driver);
+        reset(real);
+        Cdp.send(real, "Page.enable", Map.of());
+        Map<String, Object> res = Cdp.send(real, "Page.addScriptToEvaluateOnNewDocument",
+                Map.of("source", String.format(FIXED_DATE, ms)));
+        SCRIPTS.put(real, Cdp.str(res, "identifier"));
+    }
+
+    /** Quita el reloj fijo (desde la próxima navegación). */
+    public static void reset(WebDriver driver) {
+        WebDriver real = Cdp.unwrap(driver);
+        String id = SCRIPTS.remove(real);
+        if (id == null) {
+            return;
+        }
+        try {
+            Cdp.send(real, "Page.removeScriptToEvaluateOnNewDocument", Map.of("identifier", id));
+        } catch (RuntimeException ignore) {
+            // driver cerrado
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.dmh.selenium.support;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Presupuesto de comandos WebDriver para un test (o todos los de la clase).
+ * Si se excede, {@link CommandReport} falla el test con el detalle por Page Object.
+ * {@code -1} = sin límite. Los defaults globales salen de {@code CMD_BUDGET_COUNT} / {@code CMD_BUDGET_MS}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Inherited
+public @interface CommandBudget {
+
+    /** Máximo de comandos (round-trips) por test. */
+    int maxCommands() default -1;
+
+    /** Máximo de tiempo total "en el cable" (suma de duraciones de comandos), en ms. */
+    long maxWireMillis() default -1;
+}
@@ -0,0 +1,247 @@
+package com.dmh.selenium.support;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.openqa.selenium.Alert;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+/**
+ * Instrumentación de comandos WebDriver: envuelve el driver con {@link EventFiringDecorator} y registra
+ * cada llamada que viaja al driver (findElement, click, sendKeys, executeScript, navigate...) con su
+ * duración y el método de Page Object que la originó.
+ * <p>
+ * Un recorder por driver decorado; el hilo que lo decoró lo expone vía {@link #current()} para que
+ * {@link CommandReport} lo agregue por test (conteos, p50/p90/p99) y controle el {@link CommandBudget}.
+ */
+public final class CommandMetrics implements WebDriverListener {
+
+    /** Llamadas que no van al driver: devuelven sub-interfaces o son utilitarias del proxy. */
+    private static final Set<String> LOCAL_CALLS = Set.of(
+            "manage", "navigate", "switchTo", "timeouts", "window", "logs",
+            "getWrappedDriver", "getWrappedElement", "getDevTools", "maybeGetDevTools",
+            "toString", "hashCode", "equals", "getCoordinates", "getId");
+
+    private static final String PAGES_PKG = "com.dmh.selenium.pages.";
+    private static final String TESTS_PKG = "com.dmh.selenium.smoke.";
+
+    private static final ThreadLocal<CommandMetrics> CURRENT = new ThreadLocal<>();
+
+    /** Un comando registrado. */
+    public static final class Call {
+        public final String command;
+        public final String caller;
+        public final long nanos;
+        public final boolean error;
+
+        Call(String command, String caller, long nanos, boolean error) {
+            this.command = command;
+            this.caller = caller;
+            this.nanos = nanos;
+            this.error = error;
+        }
+    }
+
+    private final Deque<long[]> started = new ArrayDeque<>();
+    private final List<Call> calls = Collections.synchronizedList(new ArrayList<>());
+
+    private CommandMetrics() {
+    }
+
+    public static boolean enabled() {
+        return Config.bool(true, "CMD_METRICS", "cmdMetrics");
+    }
+
+    /** Devuelve el driver decorado y deja su recorder como "actual" del hilo. */
+    public static WebDriver decorate(WebDriver driver) {
+        if (!enabled()) {
+            CURRENT.remove();
+            return driver;
+        }
+        CommandMetrics m = new CommandMetrics();
+        CURRENT.set(m);
+        return new EventFiringDecorator<>(m).decorate(driver);
+    }
+
+    public static Optional<CommandMetrics> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    static void clearCurrent() {
+        CURRENT.remove();
+    }
+
+    /* ---------- WebDriverListener ---------- */
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        if (!LOCAL_CALLS.contains(method.getName())) {
+            synchronized (started) {
+                started.push(new long[]{System.nanoTime()});
+            }
+        }
+    }
+
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        finish(target, method, false);
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        finish(target, method, true);
+    }
+
+    private void finish(Object target, Method method, boolean error) {
+        if (LOCAL_CALLS.contains(method.getName())) {
+            return;
+        }
+        long[] t0;
+        synchronized (started) {
+            t0 = started.poll();
+        }
+        if (t0 != null) {
+            calls.add(new Call(commandName(target, method), caller(), System.nanoTime() - t0[0], error));
+        }
+    }
+
+    /* ---------- Agregados ---------- */
+    public List<Call> calls() {
+        synchronized (calls) {
+            return new ArrayList<>(calls);
+        }
+    }
+
+    public int count() {
+        return calls.size();
+    }
+
+    public long wireMillis() {
+        long total = 0;
+        for (Call c : calls()) {
+            total += c.nanos;
+        }
+        return total / 1_000_000;
+    }
+
+    /** Por comando: count, totalMs, p50/p90/p99/max (ms). */
+    public Map<String, Object> byCommand() {
+        Map<String, List<Double>> grouped = new TreeMap<>();
+        for (Call c : calls()) {
+            grouped.computeIfAbsent(c.command, k -> new ArrayList<>()).add(c.nanos / 1e6);
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        grouped.forEach((cmd, values) -> out.put(cmd, stats(values)));
+        return out;
+    }
+
+    /** Por método de Page Object (o del test): count y totalMs, de mayor a menor. */
+    public Map<String, Object> byCaller() {
+        Map<String, double[]> grouped = new TreeMap<>();
+        for (Call c : calls()) {
+            double[] acc = grouped.computeIfAbsent(c.caller, k -> new double[2]);
+            acc[0]++;
+            acc[1] += c.nanos / 1e6;
+        }
+        List<Map.Entry<String, double[]>> sorted = new ArrayList<>(grouped.entrySet());
+        sorted.sort((a, b) -> Double.compare(b.getValue()[1], a.getValue()[1]));
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (Map.Entry<String, double[]> e : sorted) {
+            out.put(e.getKey(), Map.of("count", (int) e.getValue()[0], "totalMs", Math.round(e.getValue()[1])));
+        }
+        return out;
+    }
+
+    /** Page Objects (nombre simple) que pidieron al menos un comando. */
+    public Set<String> pageObjects() {
+        Set<String> out = new TreeSet<>();
+        for (Call c : calls()) {
+            int dot = c.caller.indexOf('.');
+            if (dot > 0) {
+                out.add(c.caller.substring(0, dot));
+            }
+        }
+        // Los llamados directos del test también tienen la forma Clase.metodo
+        out.removeIf(name -> !isPageObject(name));
+        return out;
+    }
+
+    private static boolean isPageObject(String simpleName) {
+        try {
+            Class.forName(PAGES_PKG + simpleName, false, CommandMetrics.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    static Map<String, Object> stats(List<Double> values) {
+        Collections.sort(values);
+        double total = 0;
+        for (double v : values) {
+            total += v;
+        }
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("count", values.size());
+        m.put("totalMs", Math.round(total));
+        m.put("p50", PerfReport.percentile(values, 50));
+        m.put("p90", PerfReport.percentile(values, 90));
+        m.put("p99", PerfReport.percentile(values, 99));
+        m.put("max", values.get(values.size() - 1));
+        return m;
+    }
+
+    /* ---------- Helpers ---------- */
+    private static String commandName(Object target, Method method) {
+        String name = method.getName();
+        if (target instanceof WebElement) {
+            return "element." + name;
+        }
+        if (target instanceof WebDriver) {
+            return name;
+        }
+        if (target instanceof WebDriver.Navigation) {
+            return "navigate." + name;
+        }
+        if (target instanceof WebDriver.TargetLocator || target instanceof Alert) {
+            return "switchTo." + name;
+        }
+        return "manage." + name;
+    }
+
+    /** Primer frame de un Page Object; si no hay, el del test; si no, "-". */
+    private static String caller() {
+        return StackWalker.getInstance().walk(frames -> {
+            String test = null;
+            for (StackWalker.StackFrame f : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                String cls = f.getClassName();
+                if (cls.startsWith(PAGES_PKG)) {
+                    return simple(cls) + "." + f.getMethodName();
+                }
+                if (test == null && cls.startsWith(TESTS_PKG)) {
+                    test = simple(cls) + "." + f.getMethodName();
+                }
+            }
+            return test != null ? test : "-";
+        });
+    }
+
+    private static String simple(String cls) {
+        String s = cls.substring(cls.lastIndexOf('.') + 1);
+        int inner = s.indexOf('$');
+        return inner > 0 ? s.substring(0, inner) : s;
+    }
+}
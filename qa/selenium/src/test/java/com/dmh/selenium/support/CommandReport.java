@@ -0,0 +1,114 @@
+package com.dmh.selenium.support;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.openqa.selenium.json.Json;
+
+/**
+ * Extensión JUnit que cierra las mediciones de {@link CommandMetrics} de cada test: resumen por comando
+ * y por método de Page Object, control del {@link CommandBudget} y, al terminar la clase,
+ * {@code target/surefire-reports/perf/<Clase>.commands.json}.
+ */
+public class CommandReport implements AfterEachCallback, AfterAllCallback {
+
+    private static final Json JSON = new Json();
+    private static final int TOP_CALLERS = 5;
+    private static final ConcurrentLinkedQueue<Map<String, Object>> TESTS = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        CommandMetrics m = CommandMetrics.current().orElse(null);
+        CommandMetrics.clearCurrent();
+        if (m == null) {
+            return;
+        }
+        String test = PerfReport.testId(context);
+        int count = m.count();
+        long wireMs = m.wireMillis();
+        Map<String, Object> byCaller = m.byCaller();
+
+        Map<String, Object> doc = new LinkedHashMap<>();
+        doc.put("test", test);
+        doc.put("commands", count);
+        doc.put("wireMs", wireMs);
+        doc.put("byCommand", m.byCommand());
+        doc.put("byCaller", byCaller);
+        TESTS.add(doc);
+
+        int maxCommands = Config.intValue(-1, "CMD_BUDGET_COUNT", "cmdBudgetCount");
+        long maxWireMs = Config.intValue(-1, "CMD_BUDGET_MS", "cmdBudgetMs");
+        CommandBudget budget = budgetOf(context);
+        if (budget != null) {
+            maxCommands = budget.maxCommands();
+            maxWireMs = budget.maxWireMillis();
+        }
+        List<String> exceeded = new ArrayList<>();
+        if (maxCommands >= 0 && count > maxCommands) {
+            exceeded.add(count + " comandos (máx " + maxCommands + ")");
+        }
+        if (maxWireMs >= 0 && wireMs > maxWireMs) {
+            exceeded.add(wireMs + " ms en el cable (máx " + maxWireMs + ")");
+        }
+        // Si el test ya falló por otra causa, no tapamos ese error con el del presupuesto
+        if (!exceeded.isEmpty() && context.getExecutionException().isEmpty()) {
+            throw new AssertionError("Presupuesto de comandos WebDriver excedido en " + test + ": "
+                    + String.join(", ", exceeded) + ". Más costosos: " + top(byCaller));
+        }
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        String cls = context.getRequiredTestClass().getName();
+        List<Map<String, Object>> tests = new ArrayList<>();
+        TESTS.removeIf(t -> {
+            if (String.valueOf(t.get("test")).startsWith(cls + "#")) {
+                tests.add(t);
+                return true;
+            }
+            return false;
+        });
+        if (tests.isEmpty()) {
+            return;
+        }
+        Map<String, Object> doc = new LinkedHashMap<>();
+        doc.put("testClass", cls);
+        doc.put("tests", tests);
+        try {
+            Files.createDirectories(PerfReport.dir());
+            Files.writeString(PerfReport.dir().resolve(cls + ".commands.json"), JSON.toJson(doc),
+                    StandardCharsets.UTF_8);
+        } catch (IOException ignore) {
+            // el reporte nunca rompe la corrida
+        }
+    }
+
+    /* ---------- Helpers ---------- */
+    private static CommandBudget budgetOf(ExtensionContext context) {
+        CommandBudget onMethod = context.getRequiredTestMethod().getAnnotation(CommandBudget.class);
+        return onMethod != null ? onMethod : context.getRequiredTestClass().getAnnotation(CommandBudget.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String top(Map<String, Object> byCaller) {
+        StringBuilder sb = new StringBuilder();
+        Iterator<Map.Entry<String, Object>> it = byCaller.entrySet().iterator();
+        for (int i = 0; i < TOP_CALLERS && it.hasNext(); i++) {
+            Map.Entry<String, Object> e = it.next();
+            Map<String, Object> v = (Map<String, Object>) e.getValue();
+            sb.append(i == 0 ? "" : "; ").append(e.getKey())
+                    .append(" = ").append(v.get("count")).append(" cmds/").append(v.get("totalMs")).append(" ms");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,54 @@
+package com.dmh.selenium.support;
+
+import java.nio.file.Path;
+
+/**
+ * Lectura de configuración: System Properties (las que pasa surefire) y luego ENV.
+ * Se prueban las claves en orden; la primera no vacía gana (ver tabla del README).
+ */
+public final class Config {
+
+    private Config() {
+    }
+
+    public static String str(String def, String... keys) {
+        for (String k : keys) {
+            String v = System.getProperty(k);
+            if (v != null && !v.isBlank()) {
+                return v.trim();
+            }
+            v = System.getenv(k);
+            if (v != null && !v.isBlank()) {
+                return v.trim();
+            }
+        }
+        return def;
+    }
+
+    public static int intValue(int def, String... keys) {
+        String v = str(null, keys);
+        if (v == null) {
+            return def;
+        }
+        try {
+            return Integer.parseInt(v);
+        } catch (NumberFormatException e) {
+            return def;
+        }
+    }
+
+    public static boolean bool(boolean def, String... keys) {
+        String v = str(null, keys);
+        return v == null ? def : Boolean.parseBoolean(v);
+    }
+
+    public static String baseUrl() {
+        String url = str("http://localhost:3000", "BASE_URL", "baseUrl");
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    /** Donde surefire deja los reportes; cada shard usa el suyo ({@code -DreportsDir=target/shards/2}). */
+    public static Path reportsDir() {
+        return Path.of(str("target/surefire-reports", "REPORTS_DIR", "reportsDir"));
+    }
+}
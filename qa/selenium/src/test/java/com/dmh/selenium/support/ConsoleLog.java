@@ -0,0 +1,155 @@
+package com.dmh.selenium.support;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Consola del browser vía CDP: {@code console.*} (Runtime), excepciones no capturadas y los mensajes
+ * propios de Chrome (dominio Log: requests fallidos, CSP, deprecaciones...).
+ * <p>
+ * Chrome empuja los eventos y se guardan en memoria, en un ring buffer de {@link #CAPACITY} entradas:
+ * leerlos no cuesta ningún round-trip. Lo usa {@link ScreenshotOnFailure} para adjuntar la consola a la falla;
+ * {@link DriverPool} lo vacía al devolver el driver.
+ */
+public final class ConsoleLog {
+
+    private static final Map<WebDriver, ConsoleLog> LOGS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    static final int CAPACITY = 300;
+
+    private final boolean available;
+    private final ArrayDeque<Map<String, Object>> entries = new ArrayDeque<>();
+    private long dropped;
+
+    private ConsoleLog(WebDriver driver) {
+        this.available = attach(driver);
+    }
+
+    public static ConsoleLog of(WebDriver driver) {
+        WebDriver real = Cdp.unwrap(driver);
+        synchronized (LOGS) {
+            return LOGS.computeIfAbsent(real, ConsoleLog::new);
+        }
+    }
+
+    public boolean available() {
+        return available;
+    }
+
+    /** Copia de lo registrado, de la más vieja a la más nueva. */
+    public List<Map<String, Object>> entries() {
+        synchronized (entries) {
+            return new ArrayList<>(entries);
+        }
+    }
+
+    /** Entradas descartadas por el ring buffer (las más viejas). */
+    public long dropped() {
+        synchronized (entries) {
+            return dropped;
+        }
+    }
+
+    /** Reinicia el log del driver si ya tenía uno (no lo crea). */
+    public static void resetFor(WebDriver driver) {
+        ConsoleLog log;
+        synchronized (LOGS) {
+            log = LOGS.get(Cdp.unwrap(driver));
+        }
+        if (log != null) {
+            synchronized (log.entries) {
+                log.entries.clear();
+                log.dropped = 0;
+            }
+        }
+    }
+
+    /* ---------- Eventos CDP ---------- */
+    private boolean attach(WebDriver driver) {
+        if (!Cdp.supported(driver)) {
+            return false;
+        }
+        try {
+            Cdp.on(driver, "Runtime.consoleAPICalled", e ->
+                    add(Cdp.num(e, "timestamp"), level(Cdp.str(e, "type")), "console", text(e.get("args")), null));
+            Cdp.on(driver, "Runtime.exceptionThrown", e -> {
+                Map<String, Object> d = Cdp.map(e, "exceptionDetails");
+                String desc = Cdp.str(Cdp.map(d, "exception"), "description");
+                add(Cdp.num(e, "timestamp"), "error", "exception", desc != null ? desc : Cdp.str(d, "text"),
+                        Cdp.str(d, "url"));
+            });
+            Cdp.on(driver, "Log.entryAdded", e -> {
+                Map<String, Object> en = Cdp.map(e, "entry");
+                add(Cdp.num(en, "timestamp"), Cdp.str(en, "level"), Cdp.str(en, "source"), Cdp.str(en, "text"),
+                        Cdp.str(en, "url"));
+            });
+            Cdp.send(driver, "Runtime.enable", Map.of());
+            Cdp.send(driver, "Log.enable", Map.of());
+            return true;
+        } catch (RuntimeException ex) {
+            return false;
+        }
+    }
+
+    private void add(double timestamp, String level, String source, String text, String url) {
+        Map<String, Object> en = new LinkedHashMap<>();
+        en.put("ts", (long) timestamp);
+        en.put("level", level);
+        en.put("source", source);
+        en.put("text", text);
+        if (url != null && !url.isEmpty()) {
+            en.put("url", url);
+        }
+        synchronized (entries) {
+            if (entries.size() >= CAPACITY) {
+                entries.removeFirst();
+                dropped++;
+            }
+            entries.addLast(en);
+        }
+    }
+
+    /** Tipos de {@code console.*} → niveles del dominio Log. */
+    private static String level(String type) {
+        if (type == null) {
+            return "info";
+        }
+        switch (type) {
+            case "error":
+            case "assert":
+                return "error";
+            case "warning":
+                return "warning";
+            case "debug":
+            case "trace":
+                return "verbose";
+            default:
+                return "info";
+        }
+    }
+
+    /** Argumentos de {@code console.log(...)}: el valor si es primitivo, si no la descripción del objeto. */
+    @SuppressWarnings("unchecked")
+    private static String text(Object args) {
+        if (!(args instanceof List)) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Object a : (List<Object>) args) {
+            if (!(a instanceof Map)) {
+                continue;
+            }
+            Map<String, Object> m = (Map<String, Object>) a;
+            String v = m.containsKey("value") ? Cdp.str(m, "value") : Cdp.str(m, "description");
+            sb.append(sb.length() == 0 ? "" : " ").append(v != null ? v : Cdp.str(m, "type"));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,118 @@
+package com.dmh.selenium.support;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.ScriptTimeoutException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Esperas que corren dentro de la página: un solo {@code executeAsyncScript} que chequea la condición al arrancar,
+ * la vuelve a chequear en el próximo frame después de cada mutación del DOM ({@code MutationObserver}) y, por las
+ * transiciones de CSS que no mutan nada, cada {@value #SAFETY_CHECK_MS} ms. Se resuelve en el frame en que la
+ * condición se cumple, sin el round-trip por sondeo ni el retraso del intervalo de {@code WebDriverWait}.
+ * <p>
+ * Los candidatos (CSS o XPath, como en {@link Locators}) cuentan si alguno cumple; "visible" es el mismo criterio que
+ * {@link Locators#firstNow}. El timeout lo decide {@link WaitPolicy} con el nombre de la espera, y el script se parte
+ * en tramos de {@value #CHUNK_MS} ms para no chocar con el script timeout del driver. Si la página se recarga a
+ * mitad de un tramo (el callback se pierde), se reintenta con el tiempo que queda.
+ */
+public final class DomWait {
+
+    private static final long CHUNK_MS = 10_000;
+    private static final long SAFETY_CHECK_MS = 100;
+
+    private static final String WAIT =
+            "var c=arguments[0],mode=arguments[1],text=(arguments[2]||'').toLowerCase(),limit=arguments[3],"
+            + "done=arguments[arguments.length-1];"
+            + "function vis(e){if(!e||!e.getClientRects().length)return false;"
+            + "var s=getComputedStyle(e);return s.visibility!=='hidden'&&s.display!=='none'&&s.opacity!=='0';}"
+            + "function all(q){var l=[];try{if(q[0]==='xpath'){var r=document.evaluate(q[1],document,null,"
+            + "XPathResult.ORDERED_NODE_SNAPSHOT_TYPE,null);for(var j=0;j<r.snapshotLength;j++){l.push(r.snapshotItem(j));}}"
+            + " else{l=document.querySelectorAll(q[1]);}}catch(e){}return l;}"
+            + "function check(){for(var i=0;i<c.length;i++){var l=all(c[i]);for(var k=0;k<l.length;k++){var e=l[k];"
+            + " if(!vis(e))continue;if(mode==='gone')return null;"
+            + " if(mode==='clickable'&&(e.disabled||e.getAttribute('aria-disabled')==='true'))continue;"
+            + " if(mode==='text'&&(e.innerText||e.textContent||'').toLowerCase().indexOf(text)<0)continue;"
+            + " return e;}}return mode==='gone'?true:null;}"
+            + "var first=check();if(first!==null){done(first);return;}"
+            + "var over=false,raf=0,obs,tick,timer;"
+            + "function finish(v){if(over)return;over=true;obs.disconnect();clearInterval(tick);clearTimeout(timer);"
+            + " if(raf)cancelAnimationFrame(raf);done(v);}"
+            + "function probe(){raf=0;var v=check();if(v!==null)finish(v);}"
+            + "obs=new MutationObserver(function(){if(!raf)raf=requestAnimationFrame(probe);});"
+            + "obs.observe(document.documentElement,{subtree:true,childList:true,attributes:true,characterData:true});"
+            + "tick=setInterval(probe," + SAFETY_CHECK_MS + ");"
+            + "timer=setTimeout(function(){finish(check());},limit);";
+
+    private DomWait() {
+    }
+
+    /** Primer elemento visible de los candidatos. */
+    public static WebElement visible(WebDriver driver, String name, Duration timeout, By... candidates) {
+        return (WebElement) await(driver, name, timeout, "visible", null, candidates);
+    }
+
+    /** Visible y sin {@code disabled}/{@code aria-disabled}: el equivalente de {@code elementToBeClickable}. */
+    public static WebElement clickable(WebDriver driver, String name, Duration timeout, By... candidates) {
+        return (WebElement) await(driver, name, timeout, "clickable", null, candidates);
+    }
+
+    /** Visible y con {@code text} en su texto (sin distinguir mayúsculas). */
+    public static WebElement text(WebDriver driver, String name, Duration timeout, String text, By... candidates) {
+        return (WebElement) await(driver, name, timeout, "text", text, candidates);
+    }
+
+    /** Ningún candidato visible (no existe, oculto o desmontado): el equivalente de {@code invisibilityOf...}. */
+    public static void gone(WebDriver driver, String name, Duration timeout, By... candidates) {
+        await(driver, name, timeout, "gone", null, candidates);
+    }
+
+    private static Object await(WebDriver driver, String name, Duration timeout, String mode, String text,
+            By... candidates) {
+        List<List<String>> args = Locators.toScriptArgs(Arrays.asList(candidates));
+        return WaitPolicy.run(name, timeout, limit -> {
+            long deadline = System.nanoTime() + limit.toNanos();
+            while (true) {
+                long left = (deadline - System.nanoTime()) / 1_000_000;
+                if (left <= 0) {
+                    throw new TimeoutException(describe(mode, text, candidates));
+                }
+                try {
+                    Object res = ((JavascriptExecutor) driver).executeAsyncScript(WAIT, args, mode, text,
+                            Math.min(left, CHUNK_MS));
+                    if (res != null) {
+                        return res;
+                    }
+                } catch (ScriptTimeoutException e) {
+                    // el tramo se pasó del script timeout del driver: se sigue con el que viene
+                } catch (JavascriptException e) {
+                    // recarga a mitad del tramo: el documento nuevo se vuelve a observar
+                    if (e.getMessage() == null || !e.getMessage().contains("unloaded")) {
+                        throw e;
+                    }
+                }
+            }
+        });
+    }
+
+    private static String describe(String mode, String text, By... candidates) {
+        String what = Arrays.toString(candidates);
+        switch (mode) {
+            case "clickable":
+                return "clickeable: " + what;
+            case "text":
+                return "texto '" + text + "' en " + what;
+            case "gone":
+                return "que desaparezca: " + what;
+            default:
+                return "visible: " + what;
+        }
+    }
+}
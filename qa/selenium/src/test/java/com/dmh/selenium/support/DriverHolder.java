@@ -0,0 +1,27 @@
+package com.dmh.selenium.support;
+
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Driver del test en curso, uno por hilo.
+ * Con ejecución paralela de JUnit, @BeforeEach, el test y @AfterEach corren en el mismo hilo.
+ */
+public final class DriverHolder {
+
+    private static final ThreadLocal<WebDriver> CURRENT = new ThreadLocal<>();
+
+    private DriverHolder() {
+    }
+
+    public static void set(WebDriver driver) {
+        CURRENT.set(driver);
+    }
+
+    public static WebDriver get() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
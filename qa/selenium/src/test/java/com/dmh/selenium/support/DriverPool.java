@@ -0,0 +1,215 @@
+package com.dmh.selenium.support;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+
+/**
+ * Pool de ChromeDriver precalentados que se prestan a los tests.
+ * <p>
+ * Al devolver un driver se limpia el estado del origen (cookies, localStorage, sessionStorage,
+ * IndexedDB, pestañas extra) y se recicla tras {@code POOL_MAX_USES} usos o si dejó de responder.
+ * {@code POOL_SIZE=0} desactiva el pool: un Chrome nuevo por test, como antes.
+ */
+public final class DriverPool {
+
+    private static volatile DriverPool shared;
+
+    private final int size;
+    private final int maxUses;
+    private final String origin;
+    private final Semaphore permits;
+    private final BlockingQueue<Entry> idle = new LinkedBlockingQueue<>();
+    private final Map<WebDriver, Entry> leased = new ConcurrentHashMap<>();
+    private final AtomicInteger starting = new AtomicInteger();
+
+    private static final class Entry {
+        final ChromeDriver driver;
+        int uses;
+
+        Entry(ChromeDriver driver) {
+            this.driver = driver;
+        }
+    }
+
+    DriverPool(int size, int maxUses, String baseUrl) {
+        this.size = Math.max(0, size);
+        this.maxUses = Math.max(1, maxUses);
+        this.origin = originOf(baseUrl);
+        this.permits = new Semaphore(Math.max(1, this.size), true);
+    }
+
+    public static DriverPool shared() {
+        DriverPool p = shared;
+        if (p == null) {
+            synchronized (DriverPool.class) {
+                p = shared;
+                if (p == null) {
+                    int workers = Config.bool(false, "smoke.parallel") ? Config.intValue(4, "smoke.threads") : 1;
+                    p = new DriverPool(
+                            Config.intValue(workers, "POOL_SIZE", "poolSize"),
+                            Config.intValue(20, "POOL_MAX_USES", "poolMaxUses"),
+                            Config.baseUrl());
+                    p.warmUp();
+                    Runtime.getRuntime().addShutdownHook(new Thread(p::shutdown, "driver-pool-shutdown"));
+                    shared = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    public boolean enabled() {
+        return size > 0;
+    }
+
+    /* ---------- API ---------- */
+    public WebDriver lease() {
+        if (!enabled()) {
+            return ChromeFactory.create();
+        }
+        permits.acquireUninterruptibly();
+        try {
+            Entry e = idle.poll();
+            if (e == null && starting.get() > 0) {
+                // Hay Chromes arrancando en background: mejor esperar uno que abrir otro
+                e = idle.poll(60, TimeUnit.SECONDS);
+            }
+            if (e == null) {
+                e = new Entry(ChromeFactory.create());
+            }
+            e.uses++;
+            leased.put(e.driver, e);
+            return e.driver;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            permits.release();
+            throw new IllegalStateException("Interrumpido esperando un driver del pool", ie);
+        } catch (RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    public void release(WebDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        if (!enabled()) {
+            driver.quit();
+            return;
+        }
+        Entry e = leased.remove(driver);
+        if (e == null) {
+            driver.quit();
+            return;
+        }
+        try {
+            if (e.uses >= maxUses || !reset(e.driver) || idle.size() >= size) {
+                quietQuit(e.driver);
+            } else {
+                idle.offer(e);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    public void shutdown() {
+        Entry e;
+        while ((e = idle.poll()) != null) {
+            quietQuit(e.driver);
+        }
+        for (WebDriver d : leased.keySet()) {
+            quietQuit(d);
+        }
+        leased.clear();
+    }
+
+    /* ---------- Helpers ---------- */
+    private void warmUp() {
+        for (int i = 0; i < size; i++) {
+            starting.incrementAndGet();
+            Thread t = new Thread(() -> {
+                try {
+                    idle.offer(new Entry(ChromeFactory.create()));
+                } catch (RuntimeException ignore) {
+                    // si falla el arranque en background, lease() crea uno on-demand
+                } finally {
+                    starting.decrementAndGet();
+                }
+            }, "driver-pool-warmup-" + i);
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    /** Deja el driver como recién abierto. Devuelve false si no responde (se recicla). */
+    private boolean reset(ChromeDriver d) {
+        try {
+            // 1) Cerrar pestañas extra y quedarse con la primera
+            Set<String> handles = d.getWindowHandles();
+            String keep = handles.iterator().next();
+            for (String h : handles) {
+                if (!h.equals(keep)) {
+                    d.switchTo().window(h).close();
+                }
+            }
+            d.switchTo().window(keep);
+
+            // 2) sessionStorage es por pestaña: sólo se limpia estando en el origen
+            String url = d.getCurrentUrl();
+            if (url != null && origin != null && url.startsWith(origin)) {
+                ((JavascriptExecutor) d).executeScript(
+                        "try{localStorage.clear();}catch(e){}try{sessionStorage.clear();}catch(e){}");
+            }
+
+            // 3) Cookies + localStorage + IndexedDB + caches del origen vía CDP
+            d.executeCdpCommand("Network.clearBrowserCookies", Map.of());
+            if (origin != null) {
+                d.executeCdpCommand("Storage.clearDataForOrigin", Map.of(
+                        "origin", origin,
+                        "storageTypes", "cookies,local_storage,indexeddb,websql,service_workers,cache_storage"));
+            }
+
+            // 4) Un test pudo haber tocado el implicit wait
+            d.manage().timeouts().implicitlyWait(Duration.ZERO);
+            d.navigate().to("about:blank");
+            NetworkTracker.resetFor(d);
+            Intercept.resetFor(d);
+            Clock.reset(d);
+            ConsoleLog.resetFor(d);
+            Screencast.resetFor(d);
+            return d.getWindowHandle() != null;
+        } catch (RuntimeException ex) {
+            return false;
+        }
+    }
+
+    private static void quietQuit(WebDriver d) {
+        try {
+            d.quit();
+        } catch (RuntimeException ignore) {
+        }
+    }
+
+    private static String originOf(String baseUrl) {
+        try {
+            URI u = URI.create(baseUrl);
+            return u.getScheme() + "://" + u.getHost() + (u.getPort() > 0 ? ":" + u.getPort() : "");
+        } catch (RuntimeException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,492 @@
+package com.dmh.selenium.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.openqa.selenium.json.Json;
+
+/**
+ * Chromedriver sin WebDriverManager ni Selenium Manager: una vez por JVM se averigua la versión del Chrome instalado
+ * ({@code CHROME_BIN} o el del sistema) y se usa un chromedriver compatible de un cache local
+ * ({@code DRIVER_CACHE}, default {@code ~/.cache/dmh-chromedriver/<plataforma>/<versión>/}), fijándolo en
+ * {@code webdriver.chrome.driver}. Después es una lectura volátil: {@link ChromeFactory#create()} lo llama siempre.
+ * <p>
+ * Cache:
+ * <ul>
+ *   <li>Cada binario tiene su {@code chromedriver.sha256} y se verifica al usarlo; uno que no coincide (descarga
+ *   cortada, disco) se borra y se vuelve a provisionar. Es un control de integridad local, no de procedencia: el
+ *   hash se calcula al guardar lo que bajó o se importó. Del zip sólo se anota su sha256 en {@code source.txt}, para
+ *   auditarlo; Chrome for Testing no publica digests contra los cuales validarlo.</li>
+ *   <li>Forks de surefire, shards y {@code qa/locator-bench} comparten el cache: todo pasa bajo un lock de archivo
+ *   ({@code .lock}), así uno solo descarga y nadie lee un binario a medio escribir.</li>
+ *   <li>La versión de Chrome se memoriza por binario (ruta, tamaño, fecha) en {@code chrome-versions.properties}:
+ *   {@code chrome --version} corre una vez por instalación, no por fork.</li>
+ *   <li>Se busca la versión exacta, si no el mismo build ({@code 128.0.6613.*}) y si no el mismo major: con el cache
+ *   poblado no toca la red. Sólo ante un faltante se baja de Chrome for Testing (Chrome 115+); con
+ *   {@code DRIVER_OFFLINE=true} eso es un error, con el comando para sembrar el cache.</li>
+ * </ul>
+ * Runners sin red: sembrar el cache con un chromedriver (o el zip de Chrome for Testing) traído como artefacto:
+ * <pre>
+ *   java -cp "target/test-classes:$(cat target/cp.txt)" com.dmh.selenium.support.DriverProvisioning \
+ *        import chromedriver-linux64.zip
+ * </pre>
+ * Sin argumentos, provisiona y muestra la ruta (para poblar el cache en un paso previo del CI). {@code CHROMEDRIVER}
+ * fija un binario a mano y saltea todo lo anterior; {@code CHROMEDRIVER_VERSION}, la versión a usar.
+ */
+public final class DriverProvisioning {
+
+    private static final Json JSON = new Json();
+    private static final String CFT = "https://storage.googleapis.com/chrome-for-testing-public/";
+    private static final String PATCHES =
+            "https://googlechromelabs.github.io/chrome-for-testing/latest-patch-versions-per-build.json";
+    private static final Pattern VERSION = Pattern.compile("(\\d+)\\.(\\d+)\\.(\\d+)\\.(\\d+)");
+    private static final String SUM_FILE = "chromedriver.sha256";
+    private static final String VERSIONS_FILE = "chrome-versions.properties";
+
+    private static volatile Path driver;
+
+    private DriverProvisioning() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 2 && "import".equals(args[0])) {
+            Path imported = importDriver(Path.of(args[1]));
+            System.out.println(imported);
+        } else if (args.length == 0) {
+            System.out.println(ensure());
+        } else {
+            System.err.println("Uso: DriverProvisioning [import <chromedriver|zip>]");
+            System.exit(2);
+        }
+    }
+
+    /** Ruta del chromedriver de esta JVM (provisionado la primera vez). */
+    public static Path ensure() {
+        Path d = driver;
+        if (d != null) {
+            return d;
+        }
+        synchronized (DriverProvisioning.class) {
+            if (driver == null) {
+                Path p = provision();
+                System.setProperty("webdriver.chrome.driver", p.toString());
+                driver = p;
+            }
+            return driver;
+        }
+    }
+
+    private static Path provision() {
+        String pinned = Config.str(null, "CHROMEDRIVER", "webdriver.chrome.driver");
+        if (pinned != null) {
+            Path p = Path.of(pinned);
+            if (!Files.isExecutable(p)) {
+                throw new IllegalStateException("CHROMEDRIVER no es un ejecutable: " + p);
+            }
+            return p;
+        }
+        long t0 = System.nanoTime();
+        try {
+            return locked(() -> {
+                String chrome = Config.str(null, "CHROMEDRIVER_VERSION", "chromedriverVersion");
+                if (chrome == null) {
+                    chrome = chromeVersion();
+                }
+                Path cached = cached(chrome);
+                if (cached != null) {
+                    return cached;
+                }
+                if (Config.bool(false, "DRIVER_OFFLINE", "driverOffline")) {
+                    throw new IllegalStateException(String.format("No hay chromedriver para Chrome %s en %s"
+                                    + " (en cache: %s) y DRIVER_OFFLINE=true. Sembrarlo con: java -cp ..."
+                                    + " com.dmh.selenium.support.DriverProvisioning import <chromedriver|zip>",
+                            chrome, platformDir(), cachedVersions()));
+                }
+                Path p = download(chrome);
+                System.out.printf("Chromedriver: %s para Chrome %s descargado en %d ms → %s%n",
+                        p.getParent().getFileName(), chrome, (System.nanoTime() - t0) / 1_000_000, p);
+                return p;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo provisionar chromedriver en " + cacheDir(), e);
+        }
+    }
+
+    /* ---------- Cache ---------- */
+
+    private interface Locked<T> {
+        T run() throws IOException;
+    }
+
+    /** Lock de archivo entre procesos; dentro de la JVM ya serializa {@link #ensure()} / {@code main}. */
+    private static synchronized <T> T locked(Locked<T> body) throws IOException {
+        Path dir = cacheDir();
+        Files.createDirectories(dir);
+        try (FileChannel ch = FileChannel.open(dir.resolve(".lock"), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            FileLock lock = ch.lock();
+            try {
+                return body.run();
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    static Path cacheDir() {
+        String d = Config.str(null, "DRIVER_CACHE", "driverCache");
+        return d != null ? Path.of(d) : Path.of(System.getProperty("user.home"), ".cache", "dmh-chromedriver");
+    }
+
+    private static Path platformDir() {
+        return cacheDir().resolve(platform());
+    }
+
+    /** Exacta, mismo build o mismo major (la más nueva); null si no hay ninguna sana. */
+    private static Path cached(String chrome) throws IOException {
+        Matcher want = VERSION.matcher(chrome);
+        if (!want.matches()) {
+            throw new IllegalStateException("Versión de Chrome inválida: " + chrome);
+        }
+        String build = want.group(1) + "." + want.group(2) + "." + want.group(3) + ".";
+        String major = want.group(1) + ".";
+        List<String> versions = cachedVersions();
+        List<String> order = new ArrayList<>();
+        if (versions.contains(chrome)) {
+            order.add(chrome);
+        }
+        versions.stream().filter(v -> v.startsWith(build) && !v.equals(chrome)).forEach(order::add);
+        versions.stream().filter(v -> v.startsWith(major) && !v.startsWith(build)).forEach(order::add);
+        for (String v : order) {
+            Path dir = platformDir().resolve(v);
+            Path bin = dir.resolve(binaryName());
+            if (verify(dir, bin)) {
+                return bin;
+            }
+            // checksum roto: se descarta y sigue con la próxima (o se vuelve a bajar)
+            deleteTree(dir);
+        }
+        return null;
+    }
+
+    /** Versiones en cache, de la más nueva a la más vieja. */
+    private static List<String> cachedVersions() throws IOException {
+        Path dir = platformDir();
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.map(p -> p.getFileName().toString())
+                    .filter(n -> VERSION.matcher(n).matches())
+                    .sorted(Comparator.comparing(DriverProvisioning::versionKey).reversed())
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static String versionKey(String v) {
+        Matcher m = VERSION.matcher(v);
+        m.matches();
+        return String.format(Locale.ROOT, "%05d.%05d.%05d.%05d", Integer.parseInt(m.group(1)),
+                Integer.parseInt(m.group(2)), Integer.parseInt(m.group(3)), Integer.parseInt(m.group(4)));
+    }
+
+    private static boolean verify(Path dir, Path bin) throws IOException {
+        Path sum = dir.resolve(SUM_FILE);
+        if (!Files.isRegularFile(bin) || !Files.isRegularFile(sum)) {
+            return false;
+        }
+        String expected = Files.readString(sum, StandardCharsets.UTF_8).trim().split("\\s+")[0];
+        return expected.equalsIgnoreCase(sha256(bin))
+                && (bin.toFile().canExecute() || bin.toFile().setExecutable(true));
+    }
+
+    /** Deja {@code binario} en {@code <plataforma>/<versión>/} con su checksum; tmp + move, bajo el lock. */
+    private static Path store(String version, Path binary, String source) throws IOException {
+        Path target = platformDir().resolve(version);
+        Path tmp = Files.createTempDirectory(cacheDir(), ".tmp-" + version + "-");
+        Path bin = tmp.resolve(binaryName());
+        Files.copy(binary, bin, StandardCopyOption.REPLACE_EXISTING);
+        bin.toFile().setExecutable(true);
+        Files.writeString(tmp.resolve(SUM_FILE), sha256(bin) + "  " + binaryName() + "\n", StandardCharsets.UTF_8);
+        Files.writeString(tmp.resolve("source.txt"), source + "\n" + Instant.now() + "\n", StandardCharsets.UTF_8);
+        Files.createDirectories(target.getParent());
+        deleteTree(target);
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        return target.resolve(binaryName());
+    }
+
+    /* ---------- Versión de Chrome ---------- */
+
+    /** Una vez por instalación: el resultado queda memorizado por ruta + tamaño + fecha del binario. */
+    private static String chromeVersion() throws IOException {
+        Path bin = chromeBinary();
+        String key = bin.toAbsolutePath() + "|" + Files.size(bin) + "|" + Files.getLastModifiedTime(bin).toMillis();
+        Path memo = cacheDir().resolve(VERSIONS_FILE);
+        Properties p = new Properties();
+        if (Files.isRegularFile(memo)) {
+            try (Reader r = Files.newBufferedReader(memo, StandardCharsets.UTF_8)) {
+                p.load(r);
+            }
+        }
+        String v = p.getProperty(key);
+        if (v != null) {
+            return v;
+        }
+        v = detect(bin);
+        p.setProperty(key, v);
+        try (Writer w = Files.newBufferedWriter(memo, StandardCharsets.UTF_8)) {
+            p.store(w, "Versión de Chrome por binario (ruta|tamaño|fecha)");
+        }
+        return v;
+    }
+
+    private static Path chromeBinary() {
+        String configured = Config.str(null, "CHROME_BIN");
+        if (configured != null) {
+            return Path.of(configured);
+        }
+        List<Path> candidates = new ArrayList<>();
+        String os = System.getProperty("os.name").toLowerCase(Locale.ROOT);
+        if (os.contains("win")) {
+            for (String env : new String[] {"ProgramFiles", "ProgramFiles(x86)", "LOCALAPPDATA"}) {
+                String base = System.getenv(env);
+                if (base != null) {
+                    candidates.add(Path.of(base, "Google", "Chrome", "Application", "chrome.exe"));
+                }
+            }
+        } else if (os.contains("mac")) {
+            candidates.add(Path.of("/Applications/Google Chrome.app/Contents/MacOS/Google Chrome"));
+            candidates.add(Path.of("/Applications/Chromium.app/Contents/MacOS/Chromium"));
+        } else {
+            String path = System.getenv("PATH");
+            for (String name : new String[] {"google-chrome", "google-chrome-stable", "chromium", "chromium-browser"}) {
+                for (String dir : (path != null ? path : "/usr/bin").split(File.pathSeparator)) {
+                    candidates.add(Path.of(dir, name));
+                }
+            }
+        }
+        for (Path c : candidates) {
+            if (Files.isExecutable(c)) {
+                return c;
+            }
+        }
+        throw new IllegalStateException("No se encontró Chrome; definir CHROME_BIN (buscado en: " + candidates + ")");
+    }
+
+    private static String detect(Path bin) throws IOException {
+        if (bin.getFileName().toString().endsWith(".exe")) {
+            // chrome.exe --version no imprime nada: la instalación tiene una carpeta por versión al lado
+            try (Stream<Path> s = Files.list(bin.getParent())) {
+                return s.map(p -> p.getFileName().toString())
+                        .filter(n -> VERSION.matcher(n).matches())
+                        .max(Comparator.comparing(DriverProvisioning::versionKey))
+                        .orElseThrow(() -> new IllegalStateException("Sin carpeta de versión junto a " + bin));
+            }
+        }
+        return versionOf(bin);
+    }
+
+    /** {@code Google Chrome 128.0.6613.84} / {@code ChromeDriver 128.0.6613.84 (...)} → la versión. */
+    private static String versionOf(Path bin) throws IOException {
+        Process proc = new ProcessBuilder(bin.toAbsolutePath().toString(), "--version")
+                .redirectErrorStream(true)
+                .start();
+        String out;
+        try (InputStream in = proc.getInputStream()) {
+            out = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        try {
+            if (!proc.waitFor(20, TimeUnit.SECONDS)) {
+                proc.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Matcher m = VERSION.matcher(out);
+        if (!m.find()) {
+            throw new IllegalStateException(bin + " --version no devolvió una versión: " + out.trim());
+        }
+        return m.group();
+    }
+
+    /* ---------- Descarga / import ---------- */
+
+    /** Chrome for Testing: la versión exacta y, si no está publicada, el último parche del mismo build. */
+    @SuppressWarnings("unchecked")
+    private static Path download(String chrome) throws IOException {
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        String version = chrome;
+        byte[] zip = get(http, zipUrl(version));
+        if (zip == null) {
+            byte[] patches = get(http, PATCHES);
+            Matcher m = VERSION.matcher(chrome);
+            m.matches();
+            String build = m.group(1) + "." + m.group(2) + "." + m.group(3);
+            Object entry = null;
+            if (patches != null) {
+                Map<String, Object> doc = JSON.toType(new String(patches, StandardCharsets.UTF_8), Json.MAP_TYPE);
+                if (doc.get("builds") instanceof Map) {
+                    entry = ((Map<String, Object>) doc.get("builds")).get(build);
+                }
+            }
+            if (!(entry instanceof Map) || ((Map<String, Object>) entry).get("version") == null) {
+                throw new IllegalStateException("Chrome for Testing no publica chromedriver para " + chrome
+                        + " (sólo Chrome 115+); fijar uno con CHROMEDRIVER");
+            }
+            version = String.valueOf(((Map<String, Object>) entry).get("version"));
+            zip = get(http, zipUrl(version));
+            if (zip == null) {
+                throw new IllegalStateException("No está publicado " + zipUrl(version));
+            }
+        }
+        Path tmp = Files.createTempFile(cacheDir(), ".download-", ".zip");
+        try {
+            Files.write(tmp, zip);
+            return storeFromZip(tmp, version, zipUrl(version) + " sha256=" + sha256(tmp));
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static String zipUrl(String version) {
+        return CFT + version + "/" + platform() + "/chromedriver-" + platform() + ".zip";
+    }
+
+    /** Cuerpo de la respuesta; null si es 404 (versión no publicada). */
+    private static byte[] get(HttpClient http, String url) throws IOException {
+        HttpRequest req = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofMinutes(2)).GET().build();
+        try {
+            HttpResponse<byte[]> res = http.send(req, HttpResponse.BodyHandlers.ofByteArray());
+            if (res.statusCode() == 404) {
+                return null;
+            }
+            if (res.statusCode() != 200) {
+                throw new IOException(url + " → HTTP " + res.statusCode());
+            }
+            return res.body();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Descarga interrumpida: " + url, e);
+        }
+    }
+
+    /** Un chromedriver suelto o el zip de Chrome for Testing, a la versión que informa {@code --version}. */
+    static Path importDriver(Path file) throws IOException {
+        return locked(() -> {
+            if (file.getFileName().toString().endsWith(".zip")) {
+                return storeFromZip(file, null, "import " + file.toAbsolutePath() + " sha256=" + sha256(file));
+            }
+            file.toFile().setExecutable(true);
+            String version = versionOf(file);
+            return store(version, file, "import " + file.toAbsolutePath());
+        });
+    }
+
+    /** Extrae el binario del zip; sin versión, la toma del binario extraído. */
+    private static Path storeFromZip(Path zip, String version, String source) throws IOException {
+        Path tmp = Files.createTempFile(cacheDir(), ".extract-", "");
+        try {
+            boolean found = false;
+            try (ZipInputStream in = new ZipInputStream(Files.newInputStream(zip))) {
+                for (ZipEntry e = in.getNextEntry(); e != null; e = in.getNextEntry()) {
+                    String name = e.getName();
+                    if (!e.isDirectory() && (name.equals(binaryName()) || name.endsWith("/" + binaryName()))) {
+                        Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+                        found = true;
+                        break;
+                    }
+                }
+            }
+            if (!found) {
+                throw new IllegalStateException(zip + " no contiene " + binaryName());
+            }
+            tmp.toFile().setExecutable(true);
+            return store(version != null ? version : versionOf(tmp), tmp, source);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /* ---------- Helpers ---------- */
+
+    /** Nombre de plataforma de Chrome for Testing. */
+    static String platform() {
+        String os = System.getProperty("os.name").toLowerCase(Locale.ROOT);
+        String arch = System.getProperty("os.arch").toLowerCase(Locale.ROOT);
+        if (os.contains("win")) {
+            return arch.contains("64") ? "win64" : "win32";
+        }
+        if (os.contains("mac")) {
+            return arch.contains("aarch64") || arch.contains("arm") ? "mac-arm64" : "mac-x64";
+        }
+        if (arch.contains("aarch64") || arch.contains("arm")) {
+            throw new IllegalStateException("Chrome for Testing no publica chromedriver para Linux ARM: "
+                    + "usar el de la distro (p. ej. chromium-driver) con CHROMEDRIVER");
+        }
+        return "linux64";
+    }
+
+    private static String binaryName() {
+        return platform().startsWith("win") ? "chromedriver.exe" : "chromedriver";
+    }
+
+    static String sha256(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] buf = new byte[1 << 16];
+            for (int n = in.read(buf); n > 0; n = in.read(buf)) {
+                md.update(buf, 0, n);
+            }
+            return HexFormat.of().formatHex(md.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void deleteTree(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> s = Files.walk(dir)) {
+            for (Path p : s.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(p);
+            }
+        }
+    }
+}
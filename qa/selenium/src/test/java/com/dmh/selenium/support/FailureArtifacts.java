@@ -0,0 +1,334 @@
+package com.dmh.selenium.support;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonOutput;
+
+/**
+ * Escritor en background de los artefactos de falla que junta {@link ScreenshotOnFailure}.
+ * <p>
+ * El hilo del test sólo pide los datos al browser y encola la {@link Capture}. Un único hilo escritor se encarga
+ * del resto: hash SHA-256 de la captura de pantalla (las idénticas se guardan una sola vez), gzip del HTML, del
+ * DOM snapshot de CDP y de la consola, el GIF del {@link Screencast} (si estaba grabando) y el índice.
+ * La cola es acotada ({@code ARTIFACTS_QUEUE}): si se llena, el test espera hasta {@link #OFFER_TIMEOUT_S} s
+ * y después la falla queda en {@code dropped} del índice, sin artefactos.
+ * <p>
+ * Todo va a {@code target/surefire-reports/artifacts/<corrida>/}, con un {@code manifest.json} que se reescribe
+ * después de cada falla (así queda completo aunque el fork muera) y al cerrar la JVM se espera a vaciar la cola.
+ */
+public final class FailureArtifacts {
+
+    private static final Json JSON = new Json();
+    private static final long OFFER_TIMEOUT_S = 30;
+    private static final long DRAIN_TIMEOUT_S = 60;
+
+    private static volatile FailureArtifacts shared;
+
+    private final Path dir;
+    private final String run;
+    private final ThreadPoolExecutor writer;
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    /* Estado del índice: sólo lo toca el hilo escritor (y el hook de cierre, con el escritor ya parado) */
+    private final List<Map<String, Object>> failures = new ArrayList<>();
+    private final Set<String> screenshots = new HashSet<>();
+    private int duplicateScreenshots;
+    private long bytesRaw;
+    private long bytesWritten;
+    private final ConcurrentLinkedQueue<String> dropped = new ConcurrentLinkedQueue<>();
+
+    /** Lo que se juntó en el hilo del test; nada de esto se procesa ahí. */
+    public static final class Capture {
+        final String test;
+        final Instant when;
+        final String cause;
+        final String url;
+        final byte[] png;
+        final String html;
+        final Map<String, Object> dom;
+        final List<Map<String, Object>> console;
+        final List<Screencast.Frame> frames;
+        final long captureMs;
+
+        public Capture(String test, Instant when, String cause, String url, byte[] png, String html,
+                       Map<String, Object> dom, List<Map<String, Object>> console, List<Screencast.Frame> frames,
+                       long captureMs) {
+            this.test = test;
+            this.when = when;
+            this.cause = cause;
+            this.url = url;
+            this.png = png;
+            this.html = html;
+            this.dom = dom;
+            this.console = console;
+            this.frames = frames;
+            this.captureMs = captureMs;
+        }
+    }
+
+    private FailureArtifacts(Path dir, String run, int queue) {
+        this.dir = dir;
+        this.run = run;
+        BlockingQueue<Runnable> q = new ArrayBlockingQueue<>(Math.max(1, queue));
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, q, r -> {
+            Thread t = new Thread(r, "failure-artifacts");
+            t.setDaemon(true);
+            return t;
+        });
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "failure-artifacts-drain"));
+    }
+
+    public static FailureArtifacts shared() {
+        FailureArtifacts f = shared;
+        if (f == null) {
+            synchronized (FailureArtifacts.class) {
+                f = shared;
+                if (f == null) {
+                    String run = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+                    f = new FailureArtifacts(Config.reportsDir().resolve("artifacts").resolve(run), run,
+                            Config.intValue(8, "ARTIFACTS_QUEUE", "artifactsQueue"));
+                    shared = f;
+                }
+            }
+        }
+        return f;
+    }
+
+    public Path dir() {
+        return dir;
+    }
+
+    /**
+     * Encola la captura. Bloquea al test sólo si la cola está llena; nunca tira excepción
+     * (los artefactos no cambian el resultado del test).
+     */
+    public void submit(Capture c) {
+        int id = sequence.incrementAndGet();
+        // offer() directo a la cola no arranca el hilo del pool: lo arrancamos la primera vez
+        writer.prestartCoreThread();
+        boolean queued = false;
+        try {
+            queued = !writer.isShutdown()
+                    && writer.getQueue().offer(() -> write(id, c), OFFER_TIMEOUT_S, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queued) {
+            // Entra en el próximo manifest.json (o en el del cierre)
+            dropped.add(c.test);
+        }
+    }
+
+    /* ---------- Hilo escritor ---------- */
+    private void write(int id, Capture c) {
+        Map<String, Object> e = entry(id, c);
+        String base = String.format("%03d-%s", id, fileName(c.test));
+        try {
+            Files.createDirectories(dir);
+            if (c.png != null) {
+                String hash = sha256(c.png);
+                String rel = "screenshots/" + hash.substring(0, 16) + ".png";
+                if (screenshots.add(hash)) {
+                    Files.createDirectories(dir.resolve("screenshots"));
+                    Files.write(dir.resolve(rel), c.png);
+                    bytesWritten += c.png.length;
+                } else {
+                    duplicateScreenshots++;
+                }
+                bytesRaw += c.png.length;
+                e.put("screenshot", rel);
+                e.put("screenshotSha256", hash);
+            }
+            if (c.html != null) {
+                e.put("html", gzip("html/" + base + ".html.gz", c.html));
+            }
+            if (c.dom != null) {
+                e.put("domSnapshot", gzip("dom/" + base + ".json.gz", c.dom));
+            }
+            if (c.console != null) {
+                e.put("console", gzip("console/" + base + ".json.gz", c.console));
+                e.put("consoleEntries", c.console.size());
+                e.put("consoleErrors", c.console.stream().filter(m -> "error".equals(m.get("level"))).count());
+            }
+            if (c.frames != null && !c.frames.isEmpty()) {
+                e.put("screencast", screencast("screencast/" + base + ".gif", c.frames));
+            }
+        } catch (IOException | RuntimeException ex) {
+            e.put("status", "error");
+            e.put("error", String.valueOf(ex));
+        }
+        index(e);
+    }
+
+    /** Escribe {@code value} (String tal cual, el resto como JSON) comprimido; devuelve la ruta relativa. */
+    private String gzip(String rel, Object value) throws IOException {
+        Path out = dir.resolve(rel);
+        Files.createDirectories(out.getParent());
+        CountingStream counting = new CountingStream(new GZIPOutputStream(Files.newOutputStream(out), 64 * 1024));
+        try (Writer w = new OutputStreamWriter(counting, StandardCharsets.UTF_8)) {
+            if (value instanceof String) {
+                w.write((String) value);
+            } else {
+                // Streaming: el DOM snapshot puede pesar varios MB como texto
+                JsonOutput json = JSON.newOutput(w).setPrettyPrint(false);
+                json.write(value);
+            }
+        }
+        bytesRaw += counting.count;
+        bytesWritten += Files.size(out);
+        return rel;
+    }
+
+    /** Últimos segundos del {@link Screencast} como GIF animado; lo caro (decodificar y cuantizar) pasa acá. */
+    private Map<String, Object> screencast(String rel, List<Screencast.Frame> frames) throws IOException {
+        long start = System.nanoTime();
+        Path out = dir.resolve(rel);
+        Files.createDirectories(out.getParent());
+        try (OutputStream os = Files.newOutputStream(out)) {
+            AnimatedGif.write(frames, os);
+        }
+        long size = Files.size(out);
+        for (Screencast.Frame f : frames) {
+            bytesRaw += f.jpeg.length;
+        }
+        bytesWritten += size;
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("file", rel);
+        m.put("frames", frames.size());
+        m.put("spanMs", frames.get(frames.size() - 1).timestamp - frames.get(0).timestamp);
+        m.put("bytes", size);
+        m.put("encodeMs", (System.nanoTime() - start) / 1_000_000);
+        return m;
+    }
+
+    private void index(Map<String, Object> e) {
+        failures.add(e);
+        writeManifest();
+    }
+
+    private void writeManifest() {
+        Map<String, Object> doc = new LinkedHashMap<>();
+        doc.put("run", run);
+        doc.put("failures", failures);
+        doc.put("count", failures.size());
+        doc.put("dropped", new ArrayList<>(dropped));
+        doc.put("uniqueScreenshots", screenshots.size());
+        doc.put("duplicateScreenshots", duplicateScreenshots);
+        doc.put("bytesRaw", bytesRaw);
+        doc.put("bytesWritten", bytesWritten);
+        try {
+            Files.createDirectories(dir);
+            // Atómico: quien lea el índice a mitad de corrida nunca ve un JSON cortado
+            Path tmp = dir.resolve("manifest.json.tmp");
+            Files.writeString(tmp, JSON.toJson(doc), StandardCharsets.UTF_8);
+            Files.move(tmp, dir.resolve("manifest.json"), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ignore) {
+            // el índice nunca rompe la corrida
+        }
+    }
+
+    private void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(DRAIN_TIMEOUT_S, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!dropped.isEmpty()) {
+            writeManifest();
+        }
+        if (sequence.get() > 0) {
+            System.out.println("Artefactos de falla: " + dir.resolve("manifest.json").toAbsolutePath());
+        }
+    }
+
+    /* ---------- Helpers ---------- */
+    private static Map<String, Object> entry(int id, Capture c) {
+        Map<String, Object> e = new LinkedHashMap<>();
+        e.put("id", id);
+        e.put("test", c.test);
+        e.put("status", "ok");
+        e.put("when", c.when.toString());
+        e.put("url", c.url);
+        e.put("cause", c.cause);
+        e.put("captureMs", c.captureMs);
+        return e;
+    }
+
+    private static String fileName(String test) {
+        String simple = test.substring(test.lastIndexOf('.') + 1);
+        return simple.replaceAll("[^A-Za-z0-9._-]", "-");
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            byte[] d = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder sb = new StringBuilder(d.length * 2);
+            for (byte b : d) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Cuenta los bytes sin comprimir que pasan hacia el gzip. */
+    private static final class CountingStream extends OutputStream {
+        private final OutputStream out;
+        long count;
+
+        CountingStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
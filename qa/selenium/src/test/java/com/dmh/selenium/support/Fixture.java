@@ -0,0 +1,136 @@
+package com.dmh.selenium.support;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.json.Json;
+
+/**
+ * Respuesta enlatada para {@link Intercept}: qué request matchea (método + fragmento de URL) y con qué se responde.
+ * <pre>
+ *   Fixture.get("/rest/v1/movimientos").json(List.of(Map.of("id", 1, "monto", -1265.57)))
+ *   Fixture.on("POST", "/rest/v1/rpc/fn_cargar_dinero").json(1800)
+ *   Fixture.get("/rest/v1/tarjetas").resource("fixtures/tarjetas.json")
+ * </pre>
+ * El fragmento se busca en cualquier parte de la URL (como las regex de {@code page.route} en mockApi.ts).
+ */
+public final class Fixture {
+
+    private static final Json JSON = new Json();
+
+    final String method;
+    final String urlFragment;
+    private int status = 200;
+    private String contentType = "application/json; charset=utf-8";
+    private byte[] body = new byte[0];
+    private Object json;
+    private final Map<String, String> headers = new LinkedHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger();
+
+    /** Status + body efectivos de una respuesta. */
+    static final class Reply {
+        final int status;
+        final byte[] body;
+
+        Reply(int status, byte[] body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private Fixture(String method, String urlFragment) {
+        this.method = method == null || method.isBlank() ? null : method.toUpperCase();
+        this.urlFragment = urlFragment;
+    }
+
+    /** {@code method} null o vacío = cualquier método. */
+    public static Fixture on(String method, String urlFragment) {
+        return new Fixture(method, urlFragment);
+    }
+
+    public static Fixture get(String urlFragment) {
+        return on("GET", urlFragment);
+    }
+
+    public Fixture status(int status) {
+        this.status = status;
+        return this;
+    }
+
+    public Fixture header(String name, String value) {
+        headers.put(name, value);
+        return this;
+    }
+
+    public Fixture json(Object value) {
+        this.json = value;
+        this.contentType = "application/json; charset=utf-8";
+        this.body = JSON.toJson(value).getBytes(StandardCharsets.UTF_8);
+        return this;
+    }
+
+    public Fixture text(String value, String contentType) {
+        this.json = null;
+        this.contentType = contentType;
+        this.body = value.getBytes(StandardCharsets.UTF_8);
+        return this;
+    }
+
+    /** JSON desde el classpath de test ({@code src/test/resources}). */
+    public Fixture resource(String path) {
+        String p = path.startsWith("/") ? path.substring(1) : path;
+        try (InputStream in = Fixture.class.getClassLoader().getResourceAsStream(p)) {
+            if (in == null) {
+                throw new IllegalArgumentException("No existe el fixture " + path + " en el classpath de test");
+            }
+            return json(JSON.toType(new String(in.readAllBytes(), StandardCharsets.UTF_8), Object.class));
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo leer el fixture " + path, e);
+        }
+    }
+
+    /** Cuántas veces se respondió con este fixture. */
+    public int hits() {
+        return hits.get();
+    }
+
+    boolean matches(String requestMethod, String url) {
+        return url.contains(urlFragment) && (method == null || method.equalsIgnoreCase(requestMethod));
+    }
+
+    /**
+     * Status y body para un request. Si supabase-js pidió un objeto ({@code .single()}/{@code .maybeSingle()})
+     * y el fixture es un array, se responde como PostgREST: el único elemento, o 406 si no hay exactamente uno.
+     */
+    Reply reply(String accept) {
+        hits.incrementAndGet();
+        if (json instanceof List && accept != null && accept.contains("vnd.pgrst.object")) {
+            List<?> rows = (List<?>) json;
+            if (rows.size() == 1) {
+                return new Reply(status, JSON.toJson(rows.get(0)).getBytes(StandardCharsets.UTF_8));
+            }
+            return new Reply(406, JSON.toJson(Map.of("code", "PGRST116",
+                    "message", "JSON object requested, multiple (or no) rows returned",
+                    "details", "The result contains " + rows.size() + " rows")).getBytes(StandardCharsets.UTF_8));
+        }
+        return new Reply(status, body);
+    }
+
+    String contentType() {
+        return contentType;
+    }
+
+    Map<String, String> headers() {
+        return headers;
+    }
+
+    @Override
+    public String toString() {
+        return (method != null ? method : "*") + " *" + urlFragment + "*";
+    }
+}
@@ -0,0 +1,78 @@
+package com.dmh.selenium.support;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Llenado de formularios en un solo round-trip.
+ * <p>
+ * {@link #fill} resuelve todos los campos (mismo criterio de visibilidad que {@link Locators}) y, sólo si están todos,
+ * los llena en orden con un único {@code executeScript}: foco, setter nativo de {@code value} (el de
+ * {@code HTMLInputElement.prototype}, así el tracker de React registra el cambio), eventos {@code input} y
+ * {@code change} con bubbling y blur. Con {@code clear()} + {@code sendKeys} eran 3+ comandos por campo.
+ * <p>
+ * Alcanza para todo campo controlado que deriva su estado de {@code onChange}: en la app lo son todos (también el
+ * número de tarjeta, cuya marca y formato salen de ese estado).
+ */
+public final class Forms {
+
+    private static final String SET_VALUE =
+            "function setValue(el,v){el.focus();"
+            + "var p=el instanceof HTMLTextAreaElement?HTMLTextAreaElement.prototype"
+            + ":el instanceof HTMLSelectElement?HTMLSelectElement.prototype:HTMLInputElement.prototype;"
+            + "Object.getOwnPropertyDescriptor(p,'value').set.call(el,v);"
+            + "el.dispatchEvent(new Event('input',{bubbles:true}));"
+            + "el.dispatchEvent(new Event('change',{bubbles:true}));el.blur();}";
+
+    private static final String FILL = SET_VALUE
+            + "var f=arguments[0],els=[];"
+            + "function vis(e){if(!e||!e.getClientRects().length)return false;"
+            + "var s=getComputedStyle(e);return s.visibility!=='hidden'&&s.display!=='none'&&s.opacity!=='0';}"
+            + "function first(q){var l=[];try{if(q[0]==='xpath'){var r=document.evaluate(q[1],document,null,"
+            + "XPathResult.ORDERED_NODE_SNAPSHOT_TYPE,null);for(var j=0;j<r.snapshotLength;j++){l.push(r.snapshotItem(j));}}"
+            + " else{l=document.querySelectorAll(q[1]);}}catch(e){}"
+            + " for(var k=0;k<l.length;k++){if(vis(l[k])&&!l[k].disabled)return l[k];}return null;}"
+            + "for(var i=0;i<f.length;i++){var el=first(f[i]);if(!el)return false;els.push(el);}"
+            + "for(var i=0;i<els.length;i++){setValue(els[i],arguments[1][i]);}"
+            + "return true;";
+
+    private static final String SET = SET_VALUE + "setValue(arguments[0],arguments[1]);";
+
+    private Forms() {
+    }
+
+    /**
+     * Espera a que estén todos los campos (visibles y habilitados) y los llena en el orden del mapa (usar un
+     * {@code LinkedHashMap} si el orden importa). La espera es {@code name} en {@link WaitPolicy}; mientras falte
+     * alguno no se toca ninguno.
+     */
+    public static void fill(WebDriver driver, String name, Duration timeout, Map<By, String> fields) {
+        List<By> locators = new ArrayList<>(fields.keySet());
+        List<List<String>> args = Locators.toScriptArgs(locators);
+        List<String> values = new ArrayList<>(fields.values());
+        WaitPolicy.until(driver, name, timeout, new Function<WebDriver, Boolean>() {
+            @Override
+            public Boolean apply(WebDriver d) {
+                return Boolean.TRUE.equals(((JavascriptExecutor) d).executeScript(FILL, args, values));
+            }
+
+            @Override
+            public String toString() {
+                return "campos visibles y habilitados: " + locators;
+            }
+        });
+    }
+
+    /** Mismo llenado que {@link #fill} sobre un elemento ya resuelto. */
+    public static void set(WebDriver driver, WebElement el, String value) {
+        ((JavascriptExecutor) driver).executeScript(SET, el, value);
+    }
+}
@@ -0,0 +1,17 @@
+package com.dmh.selenium.support;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/** Congela {@code Date} en el browser durante el test (ver {@link Clock}); lo aplica {@link BrowserMocks}. */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Inherited
+public @interface FrozenClock {
+
+    /** Instante ISO con offset. */
+    String value() default Clock.DEFAULT_INSTANT;
+}
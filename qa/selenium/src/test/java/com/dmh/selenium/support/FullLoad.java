@@ -0,0 +1,17 @@
+package com.dmh.selenium.support;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * El test (o la clase) carga todo, sin el perfil de {@link ResourceBlocking}: para tests visuales o que miden LCP con
+ * imágenes y fuentes reales. En el método gana sobre un {@link BlockResources} de la clase.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Inherited
+public @interface FullLoad {
+}
@@ -0,0 +1,200 @@
+package com.dmh.selenium.support;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Intercepción de requests en el browser vía CDP (dominio Fetch): los requests que matchean un {@link Fixture}
+ * se responden desde memoria, sin salir a la red. Equivalente a {@code page.route(...).fulfill(...)} de mockApi.ts.
+ * <pre>
+ *   Intercept.of(driver)
+ *       .add(Fixture.get("/rest/v1/movimientos").resource("fixtures/actividad/movimientos.json"))
+ *       .add(Fixture.on("POST", "/rpc/fn_cargar_dinero").json(1800));
+ * </pre>
+ * Sólo se pausan las URLs de los fixtures (patrones de Fetch.enable): el resto del tráfico no paga
+ * ningún round-trip extra. Si varios fixtures matchean, gana el último agregado.
+ * El perfil de {@link ResourceBlocking} comparte el mismo Fetch.enable (hay uno por sesión): lo que no es de un
+ * fixture y es del perfil se reemplaza o se corta ahí mismo.
+ * Lo limpia {@link BrowserMocks} al terminar el test y {@link DriverPool} al devolver el driver.
+ */
+public final class Intercept {
+
+    private static final Map<WebDriver, Intercept> INTERCEPTS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final WebDriver driver;
+    private final List<Fixture> fixtures = new ArrayList<>();
+    private ResourceBlocking.Profile blocking;
+    private boolean listening;
+
+    private Intercept(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    public static Intercept of(WebDriver driver) {
+        WebDriver real = Cdp.unwrap(driver);
+        synchronized (INTERCEPTS) {
+            return INTERCEPTS.computeIfAbsent(real, Intercept::new);
+        }
+    }
+
+    public Intercept add(Fixture fixture) {
+        if (!Cdp.supported(driver)) {
+            throw new IllegalStateException("La intercepción de requests necesita CDP (Chrome)");
+        }
+        synchronized (fixtures) {
+            fixtures.add(fixture);
+            listen();
+            enable();
+        }
+        return this;
+    }
+
+    /** Recursos que no salen a la red durante el test (ver {@link ResourceBlocking}); los fixtures tienen prioridad. */
+    Intercept block(ResourceBlocking.Profile profile) {
+        if (!Cdp.supported(driver)) {
+            throw new IllegalStateException("El bloqueo de recursos necesita CDP (Chrome)");
+        }
+        synchronized (fixtures) {
+            blocking = profile;
+            listen();
+            enable();
+        }
+        return this;
+    }
+
+    /** Saca todos los fixtures y el perfil de bloqueo, y apaga el dominio Fetch. */
+    public void clear() {
+        synchronized (fixtures) {
+            if (fixtures.isEmpty() && blocking == null) {
+                return;
+            }
+            fixtures.clear();
+            blocking = null;
+            try {
+                Cdp.send(driver, "Fetch.disable", Map.of());
+            } catch (RuntimeException ignore) {
+                // driver cerrado: no queda nada que limpiar
+            }
+        }
+    }
+
+    /** Limpia el interceptor del driver si ya tenía uno (no lo crea). */
+    public static void resetFor(WebDriver driver) {
+        Intercept i;
+        synchronized (INTERCEPTS) {
+            i = INTERCEPTS.get(Cdp.unwrap(driver));
+        }
+        if (i != null) {
+            i.clear();
+        }
+    }
+
+    /* ---------- CDP ---------- */
+    private void listen() {
+        if (!listening) {
+            Cdp.on(driver, "Fetch.requestPaused", this::onPaused);
+            listening = true;
+        }
+    }
+
+    private void enable() {
+        Set<String> patterns = new LinkedHashSet<>();
+        for (Fixture f : fixtures) {
+            patterns.add("*" + f.urlFragment + "*");
+        }
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (String p : patterns) {
+            list.add(Map.of("urlPattern", p, "requestStage", "Request"));
+        }
+        if (blocking != null) {
+            list.addAll(blocking.patterns());
+        }
+        Cdp.send(driver, "Fetch.enable", Map.of("patterns", list));
+    }
+
+    private void onPaused(Map<String, Object> e) {
+        String requestId = Cdp.str(e, "requestId");
+        Map<String, Object> req = Cdp.map(e, "request");
+        Map<String, Object> headers = Cdp.map(req, "headers");
+        String method = Cdp.str(req, "method");
+        String url = Cdp.str(req, "url");
+        String origin = header(headers, "Origin");
+        try {
+            if ("OPTIONS".equals(method)) {
+                // Preflight CORS de supabase-js (Authorization/apikey): se contesta acá mismo
+                fulfill(requestId, 204, cors(origin, header(headers, "Access-Control-Request-Headers")), new byte[0]);
+                return;
+            }
+            Fixture match = null;
+            ResourceBlocking.Profile profile;
+            synchronized (fixtures) {
+                for (int i = fixtures.size() - 1; i >= 0 && match == null; i--) {
+                    if (fixtures.get(i).matches(method, url)) {
+                        match = fixtures.get(i);
+                    }
+                }
+                profile = blocking;
+            }
+            if (match == null) {
+                ResourceBlocking.Stub stub = profile != null ? profile.block(url, Cdp.str(e, "resourceType")) : null;
+                if (stub == null) {
+                    Cdp.send(driver, "Fetch.continueRequest", Map.of("requestId", requestId));
+                } else if (stub.fails()) {
+                    Cdp.send(driver, "Fetch.failRequest",
+                            Map.of("requestId", requestId, "errorReason", "BlockedByClient"));
+                } else {
+                    Map<String, String> out = cors(origin, null);
+                    out.put("Content-Type", stub.contentType);
+                    fulfill(requestId, stub.status, out, stub.body);
+                }
+                return;
+            }
+            Fixture.Reply reply = match.reply(header(headers, "Accept"));
+            Map<String, String> out = cors(origin, null);
+            out.put("Content-Type", match.contentType());
+            out.putAll(match.headers());
+            fulfill(requestId, reply.status, out, reply.body);
+        } catch (RuntimeException ignore) {
+            // el target se cerró (navegación/fin de test) con el request pausado
+        }
+    }
+
+    private void fulfill(String requestId, int status, Map<String, String> headers, byte[] body) {
+        List<Map<String, Object>> list = new ArrayList<>();
+        headers.forEach((k, v) -> list.add(Map.of("name", k, "value", v)));
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("requestId", requestId);
+        params.put("responseCode", status);
+        params.put("responseHeaders", list);
+        params.put("body", Base64.getEncoder().encodeToString(body));
+        Cdp.send(driver, "Fetch.fulfillRequest", params);
+    }
+
+    private static Map<String, String> cors(String origin, String requestHeaders) {
+        Map<String, String> h = new LinkedHashMap<>();
+        h.put("Access-Control-Allow-Origin", origin != null ? origin : "*");
+        h.put("Access-Control-Allow-Methods", "GET, HEAD, POST, PATCH, PUT, DELETE, OPTIONS");
+        h.put("Access-Control-Allow-Headers", requestHeaders != null ? requestHeaders : "*");
+        h.put("Access-Control-Expose-Headers", "Content-Range");
+        return h;
+    }
+
+    /** Los headers de CDP vienen con el case original del request. */
+    private static String header(Map<String, Object> headers, String name) {
+        for (Map.Entry<String, Object> h : headers.entrySet()) {
+            if (h.getKey().equalsIgnoreCase(name)) {
+                return String.valueOf(h.getValue());
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,208 @@
+package com.dmh.selenium.support;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Resolución de cadenas de fallback en un solo round-trip.
+ * <p>
+ * Los candidatos (CSS o XPath) se evalúan dentro de la página con un único {@code executeScript},
+ * que devuelve el primer elemento visible. El orden es siempre el declarado: los Page Objects ponen
+ * primero el locator preciso y después los fallbacks amplios (p. ej. cualquier "Editar"), y como es
+ * un solo round-trip, probar primero el que ganó antes no ahorra nada y sí puede elegir el elemento
+ * equivocado.
+ * <p>
+ * Lo que sí se recuerda por clave ({@link #preferred}) son alternativas equivalentes que cuestan un
+ * intento cada una, como las rutas de login: durante la corrida y, opcionalmente, en disco
+ * ({@code LOCATOR_MEMO_FILE}).
+ */
+public final class Locators {
+
+    private static final String FIND_FIRST_VISIBLE =
+            "var c=arguments[0];"
+            + "function vis(e){if(!e||!e.getClientRects().length)return false;"
+            + "var s=getComputedStyle(e);return s.visibility!=='hidden'&&s.display!=='none'&&s.opacity!=='0';}"
+            + "for(var i=0;i<c.length;i++){var l=[];"
+            + " try{if(c[i][0]==='xpath'){var r=document.evaluate(c[i][1],document,null,XPathResult.ORDERED_NODE_SNAPSHOT_TYPE,null);"
+            + "  for(var j=0;j<r.snapshotLength;j++){l.push(r.snapshotItem(j));}}"
+            + " else{l=document.querySelectorAll(c[i][1]);}}catch(e){continue;}"
+            + " for(var k=0;k<l.length;k++){if(vis(l[k]))return [i,l[k]];}}"
+            + "return null;";
+
+    private static final Map<String, String> WINNERS = new ConcurrentHashMap<>();
+    /** Las que ganaron en esta JVM: al guardar pisan a las del archivo; el resto queda como lo dejó otro shard. */
+    private static final Set<String> CHANGED = ConcurrentHashMap.newKeySet();
+    private static volatile boolean loaded;
+
+    private Locators() {
+    }
+
+    /* ---------- API ---------- */
+
+    /** Un solo intento (sin espera): primer candidato visible, en el orden declarado, si hay. */
+    public static Optional<WebElement> firstNow(WebDriver driver, By... candidates) {
+        Object res = ((JavascriptExecutor) driver).executeScript(FIND_FIRST_VISIBLE,
+                toScriptArgs(List.of(candidates)));
+        if (!(res instanceof List) || ((List<?>) res).size() < 2 || !(((List<?>) res).get(1) instanceof WebElement)) {
+            return Optional.empty();
+        }
+        return Optional.of((WebElement) ((List<?>) res).get(1));
+    }
+
+    /**
+     * Espera hasta que alguno de los candidatos esté visible. Cada sondeo es un único round-trip,
+     * en lugar de un {@code WebDriverWait} por candidato. La espera es {@code key} en {@link WaitPolicy}.
+     */
+    public static WebElement first(WebDriver driver, String key, Duration timeout, By... candidates) {
+        return WaitPolicy.until(driver, key, timeout, new Function<WebDriver, WebElement>() {
+            @Override
+            public WebElement apply(WebDriver d) {
+                return firstNow(d, candidates).orElse(null);
+            }
+
+            @Override
+            public String toString() {
+                return "algún candidato visible para '" + key + "'";
+            }
+        });
+    }
+
+    /** Igual que {@link #first} pero sin lanzar: vacío si venció el timeout. */
+    public static Optional<WebElement> firstOrEmpty(WebDriver driver, String key, Duration timeout, By... candidates) {
+        try {
+            return Optional.of(first(driver, key, timeout, candidates));
+        } catch (TimeoutException e) {
+            return Optional.empty();
+        }
+    }
+
+    /** Ordena valores (rutas, labels...) poniendo primero el que ganó la última vez. */
+    public static List<String> preferred(String key, String... values) {
+        String w = remembered(key);
+        List<String> out = new ArrayList<>(values.length);
+        if (w != null) {
+            for (String v : values) {
+                if (v.equals(w)) {
+                    out.add(v);
+                }
+            }
+        }
+        for (String v : values) {
+            if (!v.equals(w)) {
+                out.add(v);
+            }
+        }
+        return out;
+    }
+
+    public static String remembered(String key) {
+        loadOnce();
+        return WINNERS.get(key);
+    }
+
+    public static void remember(String key, String value) {
+        loadOnce();
+        if (key != null && value != null) {
+            WINNERS.put(key, value);
+            CHANGED.add(key);
+        }
+    }
+
+    /** Olvida la clave (no se persiste). */
+    static void forget(String key) {
+        WINNERS.remove(key);
+        CHANGED.remove(key);
+    }
+
+    /* ---------- Helpers ---------- */
+    static List<List<String>> toScriptArgs(List<By> locators) {
+        List<List<String>> out = new ArrayList<>(locators.size());
+        for (By b : locators) {
+            if (!(b instanceof By.Remotable)) {
+                throw new IllegalArgumentException("Locator no soportado: " + b);
+            }
+            By.Remotable.Parameters p = ((By.Remotable) b).getRemoteParameters();
+            switch (p.using()) {
+                case "css selector":
+                    out.add(List.of("css", String.valueOf(p.value())));
+                    break;
+                case "xpath":
+                    out.add(List.of("xpath", String.valueOf(p.value())));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Sólo CSS/XPath en cadenas de fallback: " + b);
+            }
+        }
+        return out;
+    }
+
+    private static Path memoFile() {
+        String f = Config.str("target/locator-winners.properties", "LOCATOR_MEMO_FILE", "locatorMemoFile");
+        return "none".equalsIgnoreCase(f) ? null : Path.of(f);
+    }
+
+    private static void loadOnce() {
+        if (loaded) {
+            return;
+        }
+        synchronized (WINNERS) {
+            if (loaded) {
+                return;
+            }
+            Path f = memoFile();
+            if (f != null && Files.isRegularFile(f)) {
+                Properties p = new Properties();
+                try (Reader r = Files.newBufferedReader(f, StandardCharsets.UTF_8)) {
+                    p.load(r);
+                    p.forEach((k, v) -> WINNERS.putIfAbsent(String.valueOf(k), String.valueOf(v)));
+                } catch (IOException ignore) {
+                }
+            }
+            if (f != null) {
+                Runtime.getRuntime().addShutdownHook(new Thread(Locators::save, "locator-memo-save"));
+            }
+            loaded = true;
+        }
+    }
+
+    private static void save() {
+        Path f = memoFile();
+        if (f == null || CHANGED.isEmpty()) {
+            return;
+        }
+        try {
+            SharedFile.locked(f, () -> {
+                Properties p = new Properties();
+                if (Files.isRegularFile(f)) {
+                    try (Reader r = Files.newBufferedReader(f, StandardCharsets.UTF_8)) {
+                        p.load(r);
+                    }
+                }
+                CHANGED.forEach(k -> p.setProperty(k, WINNERS.get(k)));
+                StringWriter w = new StringWriter();
+                p.store(w, "Ruta ganadora por clave");
+                SharedFile.write(f, w.toString());
+            });
+        } catch (IOException ignore) {
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.dmh.selenium.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+/** Orden de las cadenas de fallback y de {@link Locators#preferred}, con un driver falso (sin browser). */
+class LocatorsTest {
+
+    private static final By PRECISE = By.cssSelector("[data-testid='perfil-alias-edit']");
+    private static final By BROAD = By.xpath("//button[normalize-space()='Editar']");
+
+    private final WebElement element = (WebElement) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[]{WebElement.class}, (p, m, a) -> null);
+
+    /** Candidatos que recibió el script en cada llamada. */
+    private final List<List<?>> sent = new ArrayList<>();
+
+    @AfterEach
+    void forget() {
+        Locators.forget("test.editar");
+        Locators.forget("test.ruta");
+    }
+
+    @Test
+    void broadFallbackThatWonIsNotPromotedOverThePreciseLocator() {
+        WebDriver driver = driverHitting(1);
+        assertSame(element, Locators.firstNow(driver, PRECISE, BROAD).orElseThrow());
+        assertSame(element, Locators.firstNow(driver, PRECISE, BROAD).orElseThrow());
+
+        List<List<String>> declared = Locators.toScriptArgs(List.of(PRECISE, BROAD));
+        assertEquals(List.of(declared, declared), sent);
+    }
+
+    @Test
+    void noVisibleCandidateIsEmpty() {
+        assertTrue(Locators.firstNow(driverHitting(-1), PRECISE, BROAD).isEmpty());
+    }
+
+    @Test
+    void scriptArgsKeepKindAndOrder() {
+        assertEquals(List.of(List.of("css", "[data-testid='perfil-alias-edit']"),
+                        List.of("xpath", "//button[normalize-space()='Editar']")),
+                Locators.toScriptArgs(List.of(PRECISE, BROAD)));
+    }
+
+    @Test
+    void preferredPutsTheRememberedValueFirstAndKeepsTheRest() {
+        assertEquals(List.of("/login", "/auth/login", "/signin"),
+                Locators.preferred("test.ruta", "/login", "/auth/login", "/signin"));
+
+        Locators.remember("test.ruta", "/signin");
+        assertEquals(List.of("/signin", "/login", "/auth/login"),
+                Locators.preferred("test.ruta", "/login", "/auth/login", "/signin"));
+    }
+
+    /** Driver cuyo script "encuentra" el candidato {@code index} ({@code -1} = ninguno visible). */
+    private WebDriver driverHitting(int index) {
+        return (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{WebDriver.class, JavascriptExecutor.class}, (p, m, a) -> {
+                    if (!"executeScript".equals(m.getName())) {
+                        return null;
+                    }
+                    sent.add((List<?>) ((Object[]) a[1])[0]);
+                    return index < 0 ? null : List.of((long) index, element);
+                });
+    }
+}
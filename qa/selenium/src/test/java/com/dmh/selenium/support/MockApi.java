@@ -0,0 +1,59 @@
+package com.dmh.selenium.support;
+
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Port de {@code e2e/utils/mockApi.ts} para la suite Java, sobre {@link Clock} e {@link Intercept}.
+ * Mismos datos y mismas rutas que los helpers de Playwright, así ambas suites ven la misma app.
+ */
+public final class MockApi {
+
+    private MockApi() {
+    }
+
+    public static void freezeTime(WebDriver driver) {
+        Clock.freeze(driver, Clock.DEFAULT_INSTANT);
+    }
+
+    public static void freezeTime(WebDriver driver, String isoInstant) {
+        Clock.freeze(driver, isoInstant);
+    }
+
+    /** Movimientos fijos de agosto 2022 (ver fixtures/actividad/movimientos.json). */
+    public static void stubSupabaseActividad(WebDriver driver) {
+        Intercept.of(driver).add(Fixture.get("/rest/v1/movimientos").resource("fixtures/actividad/movimientos.json"));
+    }
+
+    /** Flujo "Cargar dinero": tarjetas, cuenta con saldo 1500 y la RPC que devuelve el saldo nuevo. */
+    public static void stubSupabaseCarga(WebDriver driver) {
+        Intercept.of(driver)
+                .add(Fixture.on(null, "/rest/v1/tarjetas").json(List.of(
+                        Map.of("id", "1", "brand", "Visa", "last4", "0000"),
+                        Map.of("id", "2", "brand", "Mastercard", "last4", "4067"))))
+                .add(Fixture.on(null, "/rest/v1/cuentas").json(List.of(Map.of(
+                        "id", 99, "usuario_id", "e2e-user", "saldo", 1500,
+                        "cvu", "0000002100075990000000", "alias", "estealiasnoexiste"))))
+                .add(Fixture.on(null, "/rpc/fn_cargar_dinero").json(1800));
+    }
+
+    /** "Pagar servicios": cuentas (GET/POST) con el saldo dado, tarjetas y cualquier RPC de fondo. */
+    public static void stubSupabaseCuentasTarjetas(WebDriver driver, double saldo, List<Map<String, Object>> tarjetas) {
+        Intercept.of(driver)
+                .add(Fixture.on(null, "/rest/v1/rpc/").json(List.of()))
+                .add(Fixture.get("/rest/v1/cuentas").json(List.of(Map.of(
+                        "id", "acc-1", "usuario_id", "e2e-user", "saldo", saldo, "cvu", "", "alias", ""))))
+                .add(Fixture.on("POST", "/rest/v1/cuentas").status(201).json(List.of(Map.of(
+                        "id", "acc-1", "usuario_id", "e2e-user", "saldo", 0, "cvu", "", "alias", ""))))
+                .add(Fixture.get("/rest/v1/tarjetas").json(tarjetas));
+    }
+
+    public static void stubSupabaseCuentasTarjetas(WebDriver driver) {
+        stubSupabaseCuentasTarjetas(driver, 300000, List.of(
+                Map.of("id", "stub-1", "brand", "Visa", "last4", "4067"),
+                Map.of("id", "stub-2", "brand", "Mastercard", "last4", "8040"),
+                Map.of("id", "stub-3", "brand", "Visa", "last4", "9006")));
+    }
+}
@@ -0,0 +1,35 @@
+package com.dmh.selenium.support;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fixture declarativo para {@link BrowserMocks}: responde en el browser los requests cuya URL contiene
+ * {@link #url()} con el JSON de {@link #resource()} (classpath de test) o {@link #json()} (literal).
+ * En la clase aplica a todos los tests; en el método se suma (y gana si matchea lo mismo).
+ * <pre>
+ *   &#64;MockRoute(url = "/rest/v1/movimientos", resource = "fixtures/actividad/movimientos.json")
+ *   &#64;MockRoute(method = "POST", url = "/rpc/fn_cargar_dinero", json = "1800")
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Inherited
+@Repeatable(MockRoutes.class)
+public @interface MockRoute {
+
+    /** Vacío = cualquier método. */
+    String method() default "GET";
+
+    String url();
+
+    int status() default 200;
+
+    String resource() default "";
+
+    String json() default "";
+}
@@ -0,0 +1,259 @@
+package com.dmh.selenium.support;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.regex.Pattern;
+
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Seguimiento de requests vía CDP (dominio Network) para esperar a que los datos realmente lleguen.
+ * <p>
+ * Las esperas se resuelven del lado Java con los eventos que empuja Chrome: no hay polling por el cable.
+ * Uso típico en un Page Object:
+ * <pre>
+ *   NetworkTracker net = NetworkTracker.of(driver);
+ *   long mark = net.mark();
+ *   boton.click();
+ *   net.waitForResponse("/rest/v1/cuentas", "PATCH", mark, Duration.ofSeconds(10));
+ * </pre>
+ * Si el driver no soporta CDP, las esperas no bloquean y quedan sólo las esperas de DOM.
+ */
+public final class NetworkTracker {
+
+    private static final Map<WebDriver, NetworkTracker> TRACKERS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /** Conexiones largas que nunca "terminan": no cuentan para idle. */
+    private static final Set<String> LONG_LIVED = Set.of("EventSource", "WebSocket", "Ping");
+
+    private final boolean available;
+    private final Object lock = new Object();
+    private final Map<String, Pending> inFlight = new HashMap<>();
+    private final List<Completed> completed = new ArrayList<>();
+    private long sequence;
+    private long lastActivityNanos = System.nanoTime();
+
+    /** Response terminada (ok o fallida), con el número de orden en que llegó. */
+    public static final class Completed {
+        public final long seq;
+        public final String url;
+        public final String method;
+        public final int status;
+        public final boolean failed;
+
+        Completed(long seq, String url, String method, int status, boolean failed) {
+            this.seq = seq;
+            this.url = url;
+            this.method = method;
+            this.status = status;
+            this.failed = failed;
+        }
+    }
+
+    private static final class Pending {
+        final String method;
+        final String url;
+        int status;
+
+        Pending(String method, String url) {
+            this.method = method;
+            this.url = url;
+        }
+
+        @Override
+        public String toString() {
+            return method + " " + url;
+        }
+    }
+
+    private NetworkTracker(WebDriver driver) {
+        this.available = attach(driver);
+    }
+
+    public static NetworkTracker of(WebDriver driver) {
+        WebDriver real = Cdp.unwrap(driver);
+        synchronized (TRACKERS) {
+            return TRACKERS.computeIfAbsent(real, NetworkTracker::new);
+        }
+    }
+
+    public boolean available() {
+        return available;
+    }
+
+    /* ---------- API ---------- */
+
+    /** Marca el momento actual; las responses posteriores tienen {@code seq > mark}. */
+    public long mark() {
+        synchronized (lock) {
+            return sequence;
+        }
+    }
+
+    public int inFlight() {
+        synchronized (lock) {
+            return inFlight.size();
+        }
+    }
+
+    /** Espera a que no haya requests en vuelo durante {@code quiet} (estilo "networkidle"). */
+    public void waitForIdle(Duration quiet, Duration timeout) {
+        if (!available) {
+            return;
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (lock) {
+            while (true) {
+                long now = System.nanoTime();
+                long idleFor = now - lastActivityNanos;
+                if (inFlight.isEmpty() && idleFor >= quiet.toNanos()) {
+                    return;
+                }
+                if (now >= deadline) {
+                    throw new TimeoutException("Red no quedó inactiva en " + timeout
+                            + " (en vuelo: " + new ArrayList<>(inFlight.values()) + ")");
+                }
+                long waitFor = inFlight.isEmpty() ? quiet.toNanos() - idleFor : deadline - now;
+                waitNanos(Math.min(waitFor, deadline - now));
+            }
+        }
+    }
+
+    /**
+     * Espera una response terminada cuya URL matchee {@code urlRegex} (find) y, si se indica, con ese método.
+     * Sólo cuenta lo que llegó después de {@code since} (ver {@link #mark()}).
+     */
+    public Completed waitForResponse(String urlRegex, String method, long since, Duration timeout) {
+        if (!available) {
+            return null;
+        }
+        Pattern p = Pattern.compile(urlRegex);
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (lock) {
+            while (true) {
+                for (Completed c : completed) {
+                    if (c.seq > since && p.matcher(c.url).find()
+                            && (method == null || method.equalsIgnoreCase(c.method))) {
+                        return c;
+                    }
+                }
+                long left = deadline - System.nanoTime();
+                if (left <= 0) {
+                    throw new TimeoutException("No llegó response para " + urlRegex + " en " + timeout);
+                }
+                waitNanos(left);
+            }
+        }
+    }
+
+    /** Versión tolerante: devuelve null en vez de fallar (para esperas "best effort"). */
+    public Completed awaitResponse(String urlRegex, String method, long since, Duration timeout) {
+        try {
+            return waitForResponse(urlRegex, method, since, timeout);
+        } catch (TimeoutException e) {
+            return null;
+        }
+    }
+
+    /** Versión tolerante de {@link #waitForIdle}: false si venció el timeout. */
+    public boolean awaitIdle(Duration quiet, Duration timeout) {
+        try {
+            waitForIdle(quiet, timeout);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    /** Reinicia el tracker del driver si ya tenía uno (no lo crea). */
+    public static void resetFor(WebDriver driver) {
+        NetworkTracker t;
+        synchronized (TRACKERS) {
+            t = TRACKERS.get(Cdp.unwrap(driver));
+        }
+        if (t != null) {
+            t.reset();
+        }
+    }
+
+    /** Olvida lo registrado (el pool lo llama entre tests). */
+    public void reset() {
+        synchronized (lock) {
+            inFlight.clear();
+            completed.clear();
+            lastActivityNanos = System.nanoTime();
+            lock.notifyAll();
+        }
+    }
+
+    /* ---------- Eventos CDP ---------- */
+    private boolean attach(WebDriver driver) {
+        if (!Cdp.supported(driver)) {
+            return false;
+        }
+        try {
+            Cdp.on(driver, "Network.requestWillBeSent", e -> {
+                Map<String, Object> req = Cdp.map(e, "request");
+                String type = Cdp.str(e, "type");
+                String url = Cdp.str(req, "url");
+                if (url == null || url.startsWith("data:") || (type != null && LONG_LIVED.contains(type))) {
+                    return;
+                }
+                synchronized (lock) {
+                    inFlight.put(Cdp.str(e, "requestId"), new Pending(Cdp.str(req, "method"), url));
+                    lastActivityNanos = System.nanoTime();
+                    lock.notifyAll();
+                }
+            });
+            Cdp.on(driver, "Network.responseReceived", e -> {
+                Map<String, Object> res = Cdp.map(e, "response");
+                synchronized (lock) {
+                    Pending p = inFlight.get(Cdp.str(e, "requestId"));
+                    if (p != null) {
+                        p.status = (int) Cdp.num(res, "status");
+                    }
+                }
+            });
+            Cdp.on(driver, "Network.loadingFinished", e -> finish(Cdp.str(e, "requestId"), false));
+            Cdp.on(driver, "Network.loadingFailed", e -> finish(Cdp.str(e, "requestId"), true));
+            Cdp.send(driver, "Network.enable", Map.of());
+            return true;
+        } catch (RuntimeException ex) {
+            return false;
+        }
+    }
+
+    private void finish(String requestId, boolean failed) {
+        synchronized (lock) {
+            Pending p = inFlight.remove(requestId);
+            if (p != null) {
+                completed.add(new Completed(++sequence, p.url, p.method, p.status, failed));
+                if (completed.size() > 500) {
+                    completed.subList(0, completed.size() - 500).clear();
+                }
+            }
+            lastActivityNanos = System.nanoTime();
+            lock.notifyAll();
+        }
+    }
+
+    private void waitNanos(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            long ms = Math.max(1, nanos / 1_000_000);
+            lock.wait(ms);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("Interrumpido esperando la red", ie);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.dmh.selenium.support;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+/**
+ * Métricas de carga por navegación: Navigation Timing (TTFB, DOMContentLoaded, load),
+ * paint (FCP, LCP), CLS y long tasks.
+ * <p>
+ * {@link #install} registra (vía CDP, antes de que corra la app) los PerformanceObserver que no tienen
+ * buffer propio (long tasks) o que conviene acumular (LCP/CLS). {@link #record} se llama después de cada
+ * {@code go(...)}/{@code open()} y etiqueta la muestra con el test en curso; {@link PerfReport} las escribe.
+ */
+public final class PageMetrics {
+
+    /** Observers tempranos: quedan en window.__dmhVitals. */
+    static final String OBSERVERS =
+            "(function(){if(window.__dmhVitals)return;var v=window.__dmhVitals={lcp:null,cls:0,longTasks:0,longTaskMs:0};"
+            + "function o(t,f){try{new PerformanceObserver(function(l){l.getEntries().forEach(f);}).observe({type:t,buffered:true});}catch(e){}}"
+            + "o('largest-contentful-paint',function(e){v.lcp=e.renderTime||e.startTime;});"
+            + "o('layout-shift',function(e){if(!e.hadRecentInput){v.cls+=e.value;}});"
+            + "o('longtask',function(e){v.longTasks++;v.longTaskMs+=e.duration;});})();";
+
+    private static final String COLLECT =
+            "var n=performance.getEntriesByType('navigation')[0]||{};var v=window.__dmhVitals;"
+            + "if(!v){v={lcp:null,cls:0,longTasks:null,longTaskMs:null};"
+            // Sin init script: LCP/CLS salen del buffer del observer; long tasks no tienen buffer
+            + " try{var p=new PerformanceObserver(function(){});p.observe({type:'largest-contentful-paint',buffered:true});"
+            + "  p.takeRecords().forEach(function(e){v.lcp=e.renderTime||e.startTime;});p.disconnect();}catch(e){}"
+            + " try{var q=new PerformanceObserver(function(){});q.observe({type:'layout-shift',buffered:true});"
+            + "  q.takeRecords().forEach(function(e){if(!e.hadRecentInput){v.cls+=e.value;}});q.disconnect();}catch(e){}}"
+            + "var fcp=null;performance.getEntriesByType('paint').forEach(function(e){if(e.name==='first-contentful-paint'){fcp=e.startTime;}});"
+            + "return {url:location.href,ttfb:n.responseStart||null,domContentLoaded:n.domContentLoadedEventEnd||null,"
+            + "load:n.loadEventEnd||null,transferSize:n.transferSize||null,fcp:fcp,lcp:v.lcp,cls:v.cls,"
+            + "longTasks:v.longTasks,longTaskMs:v.longTaskMs};";
+
+    private static final Set<WebDriver> INSTALLED = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<>()));
+    private static final ThreadLocal<String> CURRENT_TEST = new ThreadLocal<>();
+    private static final ConcurrentLinkedQueue<Sample> SAMPLES = new ConcurrentLinkedQueue<>();
+
+    /** Una medición: test + ruta + métricas (ms desde el inicio de la navegación; CLS sin unidad). */
+    public static final class Sample {
+        public final String test;
+        public final String route;
+        public final Instant at;
+        public final Map<String, Object> metrics;
+
+        Sample(String test, String route, Instant at, Map<String, Object> metrics) {
+            this.test = test;
+            this.route = route;
+            this.at = at;
+            this.metrics = metrics;
+        }
+
+        public Map<String, Object> toJson() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("test", test);
+            m.put("route", route);
+            m.put("at", at.toString());
+            m.putAll(metrics);
+            return m;
+        }
+    }
+
+    private PageMetrics() {
+    }
+
+    public static boolean enabled() {
+        return Config.bool(true, "PERF_METRICS", "perfMetrics");
+    }
+
+    /** Registra los observers tempranos en el driver (idempotente). */
+    public static void install(WebDriver driver) {
+        WebDriver real = Cdp.unwrap(driver);
+        if (!enabled() || !Cdp.supported(real) || INSTALLED.contains(real)) {
+            return;
+        }
+        try {
+            Cdp.send(real, "Page.enable", Map.of());
+            Cdp.send(real, "Page.addScriptToEvaluateOnNewDocument", Map.of("source", OBSERVERS));
+            INSTALLED.add(real);
+        } catch (RuntimeException ignore) {
+            // sin CDP, COLLECT cae al buffer de los observers
+        }
+    }
+
+    /* ---------- Contexto de test (lo maneja PerfReport) ---------- */
+    static void begin(String test) {
+        CURRENT_TEST.set(test);
+    }
+
+    static void end() {
+        CURRENT_TEST.remove();
+    }
+
+    public static String currentTest() {
+        String t = CURRENT_TEST.get();
+        return t != null ? t : "-";
+    }
+
+    /**
+     * Toma la muestra de la navegación actual. No falla el test si el browser no responde.
+     * {@code route} es la ruta lógica ("/home", "/actividad"...), no la URL con query.
+     */
+    @SuppressWarnings("unchecked")
+    public static void record(WebDriver driver, String route) {
+        if (!enabled()) {
+            return;
+        }
+        try {
+            Object raw = ((JavascriptExecutor) driver).executeScript(COLLECT);
+            if (raw instanceof Map) {
+                SAMPLES.add(new Sample(currentTest(), routeOf(route), Instant.now(),
+                        new LinkedHashMap<>((Map<String, Object>) raw)));
+            }
+        } catch (WebDriverException ignore) {
+        }
+    }
+
+    /** "/actividad?q=luz" → "/actividad"; URLs absolutas quedan con su path. */
+    static String routeOf(String path) {
+        if (path == null || path.isBlank()) {
+            return "/";
+        }
+        String p = path.replaceFirst("^https?://[^/]+", "");
+        int q = p.indexOf('?');
+        p = q >= 0 ? p.substring(0, q) : p;
+        return p.isEmpty() ? "/" : p;
+    }
+
+    /** Saca (y devuelve) las muestras cuyo test empieza con el prefijo dado. */
+    public static List<Sample> drain(String testPrefix) {
+        List<Sample> out = new ArrayList<>();
+        SAMPLES.removeIf(s -> {
+            if (s.test.startsWith(testPrefix)) {
+                out.add(s);
+                return true;
+            }
+            return false;
+        });
+        return out;
+    }
+}
@@ -0,0 +1,146 @@
+package com.dmh.selenium.support;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.openqa.selenium.json.Json;
+
+/**
+ * Extensión JUnit que etiqueta las muestras de {@link PageMetrics} y {@link SoftNavigation} con el test
+ * en curso y, al terminar la clase, escribe {@code target/surefire-reports/perf/<Clase>.json}: las muestras
+ * crudas y un resumen por ruta / transición (mediana y p90). Así cada corrida de CI deja su registro de latencias.
+ */
+public class PerfReport implements BeforeEachCallback, AfterEachCallback, AfterAllCallback {
+
+    private static final Json JSON = new Json();
+    private static final String[] SUMMARY_KEYS = {"ttfb", "fcp", "lcp", "domContentLoaded", "load", "cls", "longTasks"};
+
+    public static Path dir() {
+        return Config.reportsDir().resolve("perf");
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        PageMetrics.begin(testId(context));
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        PageMetrics.end();
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        String cls = context.getRequiredTestClass().getName();
+        List<PageMetrics.Sample> samples = PageMetrics.drain(cls + "#");
+        List<SoftNavigation.Transition> transitions = SoftNavigation.drain(cls + "#");
+        if (samples.isEmpty() && transitions.isEmpty()) {
+            return;
+        }
+        List<Map<String, Object>> raw = new ArrayList<>();
+        for (PageMetrics.Sample s : samples) {
+            raw.add(s.toJson());
+        }
+        List<Map<String, Object>> soft = new ArrayList<>();
+        for (SoftNavigation.Transition t : transitions) {
+            soft.add(t.toJson());
+        }
+        Map<String, Object> doc = new LinkedHashMap<>();
+        doc.put("testClass", cls);
+        doc.put("samples", raw);
+        doc.put("routes", summarize(samples));
+        doc.put("transitions", soft);
+        doc.put("transitionSummary", summarizeTransitions(transitions));
+        try {
+            Files.createDirectories(dir());
+            Files.writeString(dir().resolve(cls + ".json"), JSON.toJson(doc), StandardCharsets.UTF_8);
+        } catch (IOException ignore) {
+            // el reporte de performance nunca rompe la corrida
+        }
+    }
+
+    static String testId(ExtensionContext context) {
+        return context.getRequiredTestClass().getName() + "#" + context.getRequiredTestMethod().getName();
+    }
+
+    /* ---------- Helpers ---------- */
+    static Map<String, Object> summarize(List<PageMetrics.Sample> samples) {
+        Map<String, List<PageMetrics.Sample>> byRoute = new TreeMap<>();
+        for (PageMetrics.Sample s : samples) {
+            byRoute.computeIfAbsent(s.route, k -> new ArrayList<>()).add(s);
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        byRoute.forEach((route, list) -> {
+            Map<String, Object> r = new LinkedHashMap<>();
+            r.put("count", list.size());
+            for (String key : SUMMARY_KEYS) {
+                List<Double> values = new ArrayList<>();
+                for (PageMetrics.Sample s : list) {
+                    Object v = s.metrics.get(key);
+                    if (v instanceof Number) {
+                        values.add(((Number) v).doubleValue());
+                    }
+                }
+                if (!values.isEmpty()) {
+                    Collections.sort(values);
+                    r.put(key, Map.of("p50", percentile(values, 50), "p90", percentile(values, 90)));
+                }
+            }
+            out.put(route, r);
+        });
+        return out;
+    }
+
+    static Map<String, Object> summarizeTransitions(List<SoftNavigation.Transition> transitions) {
+        Map<String, List<SoftNavigation.Transition>> byName = new TreeMap<>();
+        for (SoftNavigation.Transition t : transitions) {
+            byName.computeIfAbsent(t.name, k -> new ArrayList<>()).add(t);
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        byName.forEach((name, list) -> {
+            List<Double> toUrl = new ArrayList<>();
+            List<Double> toContent = new ArrayList<>();
+            for (SoftNavigation.Transition t : list) {
+                if (t.clickToUrlMs != null) {
+                    toUrl.add(t.clickToUrlMs);
+                }
+                if (t.clickToContentMs != null) {
+                    toContent.add(t.clickToContentMs);
+                }
+            }
+            Collections.sort(toUrl);
+            Collections.sort(toContent);
+            Map<String, Object> r = new LinkedHashMap<>();
+            r.put("count", list.size());
+            if (!toUrl.isEmpty()) {
+                r.put("clickToUrlMs", Map.of("p50", percentile(toUrl, 50), "p90", percentile(toUrl, 90)));
+            }
+            if (!toContent.isEmpty()) {
+                r.put("clickToContentMs", Map.of("p50", percentile(toContent, 50), "p90", percentile(toContent, 90)));
+            }
+            out.put(name, r);
+        });
+        return out;
+    }
+
+    /** Percentil por "nearest rank" sobre una lista ordenada. */
+    public static double percentile(List<Double> sorted, double p) {
+        if (sorted.isEmpty()) {
+            return Double.NaN;
+        }
+        int rank = (int) Math.ceil(p / 100.0 * sorted.size());
+        return sorted.get(Math.max(0, Math.min(sorted.size() - 1, rank - 1)));
+    }
+}
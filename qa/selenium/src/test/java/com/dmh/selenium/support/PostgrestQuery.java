@@ -0,0 +1,206 @@
+package com.dmh.selenium.support;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Subconjunto de la sintaxis de PostgREST que arma supabase-js para las queries de la app:
+ * {@code select=a,b}, filtros {@code col=eq.valor} (eq, neq, gt, gte, lt, lte, like, ilike, is, in),
+ * {@code order=col.desc}, {@code limit} y {@code offset}. Lo usa {@link SupabaseStub}.
+ */
+final class PostgrestQuery {
+
+    private static final Set<String> RESERVED = Set.of("select", "order", "limit", "offset", "columns", "on_conflict");
+
+    private final List<String[]> filters = new ArrayList<>();
+    private final List<String[]> order = new ArrayList<>();
+    private List<String> columns;
+    private int limit = -1;
+    private int offset;
+
+    private PostgrestQuery() {
+    }
+
+    static PostgrestQuery parse(String rawQuery) {
+        PostgrestQuery q = new PostgrestQuery();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return q;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) {
+                continue;
+            }
+            String key = decode(pair.substring(0, eq));
+            String value = decode(pair.substring(eq + 1));
+            switch (key) {
+                case "select":
+                    q.columns = "*".equals(value.trim()) ? null : columnsOf(value);
+                    break;
+                case "order":
+                    for (String part : value.split(",")) {
+                        q.order.add(part.split("\\."));
+                    }
+                    break;
+                case "limit":
+                    q.limit = Integer.parseInt(value.trim());
+                    break;
+                case "offset":
+                    q.offset = Integer.parseInt(value.trim());
+                    break;
+                default:
+                    if (!RESERVED.contains(key)) {
+                        int dot = value.indexOf('.');
+                        q.filters.add(new String[]{key, value.substring(0, Math.max(dot, 0)), value.substring(dot + 1)});
+                    }
+            }
+        }
+        return q;
+    }
+
+    boolean matches(Map<String, Object> row) {
+        for (String[] f : filters) {
+            if (!test(row.get(f[0]), f[1], f[2])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Filtra, ordena y pagina; las filas devueltas son las originales (para update/delete). */
+    List<Map<String, Object>> apply(List<Map<String, Object>> rows) {
+        List<Map<String, Object>> out = new ArrayList<>();
+        for (Map<String, Object> r : rows) {
+            if (matches(r)) {
+                out.add(r);
+            }
+        }
+        if (!order.isEmpty()) {
+            out.sort(comparator());
+        }
+        int from = Math.min(offset, out.size());
+        int to = limit >= 0 ? Math.min(out.size(), from + limit) : out.size();
+        return new ArrayList<>(out.subList(from, to));
+    }
+
+    /** Copia de la fila con sólo las columnas pedidas (relaciones embebidas no se soportan). */
+    Map<String, Object> project(Map<String, Object> row) {
+        if (columns == null) {
+            return new LinkedHashMap<>(row);
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (String c : columns) {
+            out.put(c, row.get(c));
+        }
+        return out;
+    }
+
+    /* ---------- Helpers ---------- */
+    private static boolean test(Object actual, String op, String expected) {
+        boolean negate = op.startsWith("not.");
+        if (negate) {
+            int dot = expected.indexOf('.');
+            op = expected.substring(0, dot);
+            expected = expected.substring(dot + 1);
+        }
+        boolean r;
+        switch (op) {
+            case "eq":
+                r = actual != null && compare(actual, expected) == 0;
+                break;
+            case "neq":
+                r = actual != null && compare(actual, expected) != 0;
+                break;
+            case "gt":
+                r = actual != null && compare(actual, expected) > 0;
+                break;
+            case "gte":
+                r = actual != null && compare(actual, expected) >= 0;
+                break;
+            case "lt":
+                r = actual != null && compare(actual, expected) < 0;
+                break;
+            case "lte":
+                r = actual != null && compare(actual, expected) <= 0;
+                break;
+            case "like":
+            case "ilike":
+                r = actual != null && like(String.valueOf(actual), expected, "ilike".equals(op));
+                break;
+            case "is":
+                r = "null".equalsIgnoreCase(expected) ? actual == null : String.valueOf(actual).equalsIgnoreCase(expected);
+                break;
+            case "in":
+                r = actual != null && Arrays.stream(expected.replaceAll("^\\(|\\)$", "").split(","))
+                        .anyMatch(v -> compare(actual, v.replaceAll("^\"|\"$", "")) == 0);
+                break;
+            default:
+                throw new IllegalArgumentException("Operador PostgREST no soportado: " + op);
+        }
+        return negate != r;
+    }
+
+    private static int compare(Object actual, String expected) {
+        if (actual instanceof Number) {
+            try {
+                return Double.compare(((Number) actual).doubleValue(), Double.parseDouble(expected));
+            } catch (NumberFormatException e) {
+                return String.valueOf(actual).compareTo(expected);
+            }
+        }
+        return String.valueOf(actual).compareTo(expected);
+    }
+
+    private static boolean like(String actual, String pattern, boolean ignoreCase) {
+        String regex = Pattern.quote(pattern).replace("*", "\\E.*\\Q").replace("%", "\\E.*\\Q");
+        return Pattern.compile(regex, ignoreCase ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0)
+                .matcher(actual).matches();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Comparator<Map<String, Object>> comparator() {
+        Comparator<Map<String, Object>> cmp = null;
+        for (String[] o : order) {
+            String col = o[0];
+            boolean desc = o.length > 1 && "desc".equals(o[1]);
+            // Default de Postgres: NULLS LAST en asc, NULLS FIRST en desc
+            boolean nullsFirst = o.length > 2 ? "nullsfirst".equals(o[2]) : desc;
+            Comparator<Object> values = (a, b) -> a instanceof Number && b instanceof Number
+                    ? Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue())
+                    : ((Comparable) String.valueOf(a)).compareTo(String.valueOf(b));
+            if (desc) {
+                values = values.reversed();
+            }
+            Comparator<Object> withNulls = nullsFirst ? Comparator.nullsFirst(values) : Comparator.nullsLast(values);
+            Comparator<Map<String, Object>> c = Comparator.comparing(r -> r.get(col), withNulls);
+            cmp = cmp == null ? c : cmp.thenComparing(c);
+        }
+        return cmp;
+    }
+
+    private static List<String> columnsOf(String select) {
+        List<String> out = new ArrayList<>();
+        for (String c : select.split(",")) {
+            String col = c.trim();
+            // alias:columna → columna; "relacion(...)" se ignora
+            int colon = col.indexOf(':');
+            col = colon >= 0 ? col.substring(colon + 1) : col;
+            if (!col.isEmpty() && col.indexOf('(') < 0) {
+                out.add(col);
+            }
+        }
+        return out;
+    }
+
+    private static String decode(String s) {
+        return URLDecoder.decode(s, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,609 @@
+package com.dmh.selenium.support;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.InputStream;
+import java.lang.reflect.AnnotatedElement;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.OptionalLong;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+
+/**
+ * Perfil "fast smoke": los smokes miran navegación y comportamiento, así que imágenes, media, fuentes y scripts de
+ * terceros no hace falta bajarlos. Con CDP (dominio Fetch, vía {@link Intercept}) esos requests se cortan en el
+ * browser antes de salir a la red:
+ * <ul>
+ *   <li>Por tipo de recurso ({@code BLOCK_TYPES}, default {@code Image,Media,Font}) y por fragmento de URL
+ *   ({@code BLOCK_URLS}, default Google Fonts y analytics). Sólo se pausan esos requests; el resto no paga nada.</li>
+ *   <li>Con reemplazo inocuo cuando lo hay: un GIF transparente de 1x1 para imágenes (el layout queda igual y no
+ *   dispara {@code onError}), CSS/JS vacío, 204 para beacons. Fuentes y media fallan ({@code BlockedByClient}).</li>
+ *   <li>Aplica a todos los tests de {@link com.dmh.selenium.BaseTest} con {@code FAST_PROFILE=true} (default);
+ *   {@link BlockResources} lo ajusta por clase o método y {@link FullLoad} lo apaga (tests visuales).</li>
+ * </ul>
+ * Ahorro: por test, requests cortados y bytes que no se bajaron. El tamaño de cada URL sale de:
+ * <ul>
+ *   <li>Un sondeo, una vez por URL: al cortar una URL de tamaño desconocido se pide en segundo plano un {@code HEAD}
+ *   ({@code Content-Length}, con {@code Accept-Encoding} como el browser) y, si no alcanza, un {@code GET} de
+ *   {@code Range: bytes=0-0} ({@code Content-Range}) que no baja el cuerpo. {@code RESOURCE_PROBE=false} lo apaga.</li>
+ *   <li>Los tests que cargan todo ({@link FullLoad}, {@code FAST_PROFILE=false}): el tamaño transferido de las
+ *   respuestas 200 que no vinieron del cache, que pisa al del sondeo. Sólo ahí se escucha el dominio Network.</li>
+ * </ul>
+ * Quedan en {@code RESOURCE_SIZES} (default {@code target/resource-sizes.properties}), así la corrida siguiente no
+ * sondea; lo que no se pudo medir se cuenta aparte, sin tamaño. Al terminar la clase (esperando los sondeos
+ * pendientes, como mucho {@link #PROBE_WAIT}) escribe {@code perf/<Clase>.blocked.json} y una línea de resumen.
+ * <p>
+ * Las métricas de {@link PageMetrics} (LCP sobre todo) miden la página sin esos recursos: para compararlas contra
+ * una carga real, {@link FullLoad}.
+ */
+public class ResourceBlocking implements BeforeTestExecutionCallback, AfterTestExecutionCallback, AfterAllCallback {
+
+    private static final Json JSON = new Json();
+    private static final int TOP_URLS = 10;
+
+    /** Nombres de {@code Network.ResourceType}; {@code Document} no se deja bloquear. */
+    private static final List<String> TYPES = List.of("Stylesheet", "Image", "Media", "Font", "Script", "TextTrack",
+            "XHR", "Fetch", "Prefetch", "EventSource", "WebSocket", "Manifest", "SignedExchange", "Ping",
+            "CSPViolationReport", "Preflight", "Other");
+    private static final String DEFAULT_TYPES = "Image,Media,Font";
+    private static final String DEFAULT_URLS = "fonts.googleapis.com,fonts.gstatic.com,googletagmanager.com,"
+            + "google-analytics.com,doubleclick.net,/_vercel/insights,/_vercel/speed-insights,va.vercel-scripts.com";
+    /** Datos de la app: su tamaño no dice nada de un recurso estático. */
+    private static final Set<String> NOT_LEARNED = Set.of("Document", "XHR", "Fetch", "EventSource", "WebSocket",
+            "Preflight");
+
+    /** GIF transparente de 1x1. */
+    private static final byte[] PIXEL =
+            Base64.getDecoder().decode("R0lGODlhAQABAIAAAAAAAP///yH5BAEAAAAALAAAAAABAAEAAAIBRAA7");
+    private static final Stub FAIL = new Stub(0, null, null);
+
+    /** Lo que se espera, al cerrar la clase, a los sondeos que siguen en vuelo. */
+    static final Duration PROBE_WAIT = Duration.ofSeconds(5);
+    private static final Duration PROBE_TIMEOUT = Duration.ofSeconds(4);
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes\\s+\\d+-\\d+/(\\d+)");
+
+    private static final ThreadLocal<Profile> CURRENT = new ThreadLocal<>();
+    /** Perfiles ya corridos, por test; el JSON se arma en {@link #afterAll} con los tamaños de los sondeos. */
+    private static final ConcurrentLinkedQueue<Map.Entry<String, Profile>> TESTS = new ConcurrentLinkedQueue<>();
+    private static final Map<WebDriver, Learner> LEARNERS = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final Map<String, Long> SIZES = new ConcurrentHashMap<>();
+    /** Un sondeo por URL y por JVM (también los que fallaron). */
+    private static final Map<String, CompletableFuture<Void>> PROBES = new ConcurrentHashMap<>();
+    private static volatile HttpClient http;
+    private static volatile boolean loaded;
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        WebDriver driver = DriverHolder.get();
+        CURRENT.remove();
+        if (driver == null || !Cdp.supported(driver)) {
+            return;
+        }
+        loadOnce();
+        Profile profile = resolve(context);
+        // Sólo se aprende de lo que carga entero: con el perfil puesto, lo bloqueado no dice su tamaño y los
+        // listeners de Network serían costo sin nada que aprender (el driver que nunca carga entero no los tiene)
+        Learner learner = profile == null ? learner(driver) : LEARNERS.get(Cdp.unwrap(driver));
+        if (learner != null) {
+            learner.reset(profile == null);
+        }
+        if (profile != null && !profile.isEmpty()) {
+            Intercept.of(driver).block(profile);
+            CURRENT.set(profile);
+        }
+    }
+
+    /** Lo saca del driver {@link Intercept#clear()}, junto con los fixtures ({@link BrowserMocks} / pool). */
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        Profile profile = CURRENT.get();
+        CURRENT.remove();
+        if (profile != null) {
+            TESTS.add(Map.entry(PerfReport.testId(context), profile));
+        }
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        String cls = context.getRequiredTestClass().getName();
+        List<Map.Entry<String, Profile>> profiles = new ArrayList<>();
+        TESTS.removeIf(t -> {
+            if (t.getKey().startsWith(cls + "#")) {
+                profiles.add(t);
+                return true;
+            }
+            return false;
+        });
+        if (profiles.isEmpty()) {
+            return;
+        }
+        awaitProbes();
+        List<Map<String, Object>> tests = new ArrayList<>();
+        for (Map.Entry<String, Profile> p : profiles) {
+            Map<String, Object> doc = new LinkedHashMap<>();
+            doc.put("test", p.getKey());
+            doc.putAll(p.getValue().toJson());
+            tests.add(doc);
+        }
+        long requests = 0;
+        long bytes = 0;
+        long unknown = 0;
+        for (Map<String, Object> t : tests) {
+            requests += ((Number) t.get("requests")).longValue();
+            bytes += ((Number) t.get("bytes")).longValue();
+            unknown += ((Number) t.get("unknownSize")).longValue();
+        }
+        Map<String, Object> doc = new LinkedHashMap<>();
+        doc.put("testClass", cls);
+        doc.put("requests", requests);
+        doc.put("bytes", bytes);
+        doc.put("unknownSize", unknown);
+        doc.put("tests", tests);
+        try {
+            Files.createDirectories(PerfReport.dir());
+            Files.writeString(PerfReport.dir().resolve(cls + ".blocked.json"), JSON.toJson(doc),
+                    StandardCharsets.UTF_8);
+        } catch (IOException ignore) {
+            // el reporte nunca rompe la corrida
+        }
+        if (requests > 0) {
+            System.out.printf("Recursos bloqueados en %s: %d requests, %s sin bajar%s%n",
+                    context.getRequiredTestClass().getSimpleName(), requests, human(bytes),
+                    unknown > 0 ? " (+" + unknown + " sin tamaño conocido)" : "");
+        }
+    }
+
+    /* ---------- Perfil ---------- */
+
+    /** Método antes que clase; {@link FullLoad} antes que {@link BlockResources}; si no, el global. */
+    static Profile resolve(ExtensionContext context) {
+        for (AnnotatedElement el : new AnnotatedElement[]{context.getRequiredTestMethod(),
+                context.getRequiredTestClass()}) {
+            if (AnnotationSupport.isAnnotated(el, FullLoad.class)) {
+                return null;
+            }
+            Optional<BlockResources> b = AnnotationSupport.findAnnotation(el, BlockResources.class);
+            if (b.isPresent()) {
+                return new Profile(
+                        b.get().types().length > 0 ? types(b.get().types()) : defaultTypes(),
+                        b.get().urls().length > 0 ? urls(b.get().urls()) : defaultUrls(),
+                        b.get().stub());
+            }
+        }
+        return Config.bool(true, "FAST_PROFILE", "fastProfile")
+                ? new Profile(defaultTypes(), defaultUrls(), true)
+                : null;
+    }
+
+    private static Set<String> defaultTypes() {
+        return types(Config.str(DEFAULT_TYPES, "BLOCK_TYPES", "blockTypes").split(","));
+    }
+
+    private static List<String> defaultUrls() {
+        return urls(Config.str(DEFAULT_URLS, "BLOCK_URLS", "blockUrls").split(","));
+    }
+
+    /** Nombres de CDP sin importar mayúsculas ({@code image} → {@code Image}); "none" = ninguno. */
+    static Set<String> types(String... names) {
+        Set<String> out = new LinkedHashSet<>();
+        for (String n : names) {
+            String t = n.trim();
+            if (t.isEmpty() || "none".equalsIgnoreCase(t)) {
+                continue;
+            }
+            String canonical = TYPES.stream().filter(x -> x.equalsIgnoreCase(t)).findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException(
+                            "Tipo de recurso desconocido para bloquear: '" + t + "' (válidos: " + TYPES + ")"));
+            out.add(canonical);
+        }
+        return out;
+    }
+
+    static List<String> urls(String... fragments) {
+        return Arrays.stream(fragments)
+                .map(String::trim)
+                .filter(f -> !f.isEmpty() && !"none".equalsIgnoreCase(f))
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    /** Respuesta para un request bloqueado; {@link #FAIL} = {@code Fetch.failRequest}. */
+    static final class Stub {
+        final int status;
+        final String contentType;
+        final byte[] body;
+
+        private Stub(int status, String contentType, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        boolean fails() {
+            return body == null;
+        }
+    }
+
+    /** Lo que bloquea un test y lo que se ahorró; los eventos llegan del hilo de CDP. */
+    static final class Profile {
+        private final Set<String> types;
+        private final List<String> urls;
+        private final boolean stub;
+
+        private int requests;
+        private int stubbed;
+        /** URL → {tipo, veces}: los bytes se calculan al armar el reporte, cuando ya volvieron los sondeos. */
+        private final Map<String, Object[]> byUrl = new HashMap<>();
+
+        Profile(Set<String> types, List<String> urls, boolean stub) {
+            this.types = types;
+            this.urls = urls;
+            this.stub = stub;
+        }
+
+        boolean isEmpty() {
+            return types.isEmpty() && urls.isEmpty();
+        }
+
+        /** Patrones de {@code Fetch.enable}: uno por tipo y uno por fragmento de URL. */
+        List<Map<String, Object>> patterns() {
+            List<Map<String, Object>> out = new ArrayList<>();
+            for (String t : types) {
+                out.add(Map.of("urlPattern", "*", "resourceType", t, "requestStage", "Request"));
+            }
+            for (String u : urls) {
+                out.add(Map.of("urlPattern", "*" + u + "*", "requestStage", "Request"));
+            }
+            return out;
+        }
+
+        /** Qué contestar a un request pausado; null si no es de este perfil (sigue a la red). */
+        Stub block(String url, String type) {
+            if (url == null || !(types.contains(type) || urls.stream().anyMatch(url::contains))) {
+                return null;
+            }
+            Stub s = stub ? stubFor(type) : FAIL;
+            String key = key(url);
+            probe(key);
+            synchronized (this) {
+                requests++;
+                if (!s.fails()) {
+                    stubbed++;
+                }
+                Object[] u = byUrl.computeIfAbsent(key, k -> new Object[]{type != null ? type : "Other", 0});
+                u[1] = (Integer) u[1] + 1;
+            }
+            return s;
+        }
+
+        synchronized Map<String, Object> toJson() {
+            long bytes = 0;
+            int unknownSize = 0;
+            Map<String, long[]> byType = new TreeMap<>();
+            for (Map.Entry<String, Object[]> u : byUrl.entrySet()) {
+                int times = (Integer) u.getValue()[1];
+                Long size = SIZES.get(u.getKey());
+                long[] t = byType.computeIfAbsent((String) u.getValue()[0], k -> new long[2]);
+                t[0] += times;
+                if (size != null) {
+                    bytes += size * times;
+                    t[1] += size * times;
+                } else {
+                    unknownSize += times;
+                }
+            }
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("types", types);
+            m.put("urls", urls);
+            m.put("stub", stub);
+            m.put("requests", requests);
+            m.put("stubbed", stubbed);
+            m.put("failed", requests - stubbed);
+            m.put("bytes", bytes);
+            m.put("unknownSize", unknownSize);
+            Map<String, Object> perType = new LinkedHashMap<>();
+            byType.forEach((t, v) -> {
+                Map<String, Object> c = new LinkedHashMap<>();
+                c.put("requests", v[0]);
+                c.put("bytes", v[1]);
+                perType.put(t, c);
+            });
+            m.put("byType", perType);
+            Map<String, Object> top = new LinkedHashMap<>();
+            byUrl.entrySet().stream()
+                    .sorted(Map.Entry.<String, Object[]>comparingByValue(
+                                    (a, b) -> Integer.compare((Integer) b[1], (Integer) a[1]))
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(TOP_URLS)
+                    .forEach(e -> top.put(e.getKey(), e.getValue()[1]));
+            m.put("topUrls", top);
+            return m;
+        }
+    }
+
+    private static Stub stubFor(String type) {
+        if (type == null) {
+            return FAIL;
+        }
+        switch (type) {
+            case "Image":
+                return new Stub(200, "image/gif", PIXEL);
+            case "Stylesheet":
+                return new Stub(200, "text/css", new byte[0]);
+            case "Script":
+                return new Stub(200, "application/javascript", new byte[0]);
+            case "XHR":
+            case "Fetch":
+            case "Ping":
+            case "Other":
+                return new Stub(204, "text/plain", new byte[0]);
+            default:
+                // Fuentes, media, manifest...: un cuerpo vacío sería un error de decodificación igual
+                return FAIL;
+        }
+    }
+
+    /* ---------- Tamaños: sondeo ---------- */
+
+    /** Sondeo en segundo plano (no bloquea el hilo de CDP) si la URL no tiene tamaño ni se sondeó ya. */
+    private static void probe(String url) {
+        if (SIZES.containsKey(url) || !(url.startsWith("http://") || url.startsWith("https://"))
+                || !Config.bool(true, "RESOURCE_PROBE", "resourceProbe")) {
+            return;
+        }
+        PROBES.computeIfAbsent(url, u -> sizeOf(u)
+                .thenAccept(size -> size.ifPresent(v -> SIZES.putIfAbsent(u, v)))
+                .exceptionally(e -> null));
+    }
+
+    /** {@code HEAD}; si no trae largo (chunked, 405...), {@code GET} del primer byte y el total de Content-Range. */
+    static CompletableFuture<OptionalLong> sizeOf(String url) {
+        URI uri = URI.create(url);
+        return client().sendAsync(request(uri).method("HEAD", HttpRequest.BodyPublishers.noBody()).build(),
+                        HttpResponse.BodyHandlers.discarding())
+                .thenApply(r -> r.statusCode() == 200 ? contentLength(r.headers()) : OptionalLong.empty())
+                .thenCompose(size -> size.isPresent()
+                        ? CompletableFuture.completedFuture(size)
+                        : client().sendAsync(request(uri).header("Range", "bytes=0-0").GET().build(),
+                                        HttpResponse.BodyHandlers.ofInputStream())
+                                .thenApply(ResourceBlocking::rangeTotal));
+    }
+
+    private static HttpRequest.Builder request(URI uri) {
+        // El tamaño que se ahorra es el transferido: comprimido si el servidor comprime
+        return HttpRequest.newBuilder(uri).timeout(PROBE_TIMEOUT).header("Accept-Encoding", "gzip, deflate, br");
+    }
+
+    private static OptionalLong contentLength(HttpHeaders h) {
+        OptionalLong n = h.firstValueAsLong("Content-Length");
+        return n.isPresent() && n.getAsLong() > 0 ? n : OptionalLong.empty();
+    }
+
+    /** 206 con {@code Content-Range: bytes 0-0/TOTAL}; un 200 (sin soporte de Range) vale por su Content-Length. */
+    private static OptionalLong rangeTotal(HttpResponse<InputStream> r) {
+        try {
+            if (r.statusCode() == 206) {
+                Matcher m = CONTENT_RANGE.matcher(r.headers().firstValue("Content-Range").orElse(""));
+                return m.matches() ? OptionalLong.of(Long.parseLong(m.group(1))) : OptionalLong.empty();
+            }
+            return r.statusCode() == 200 ? contentLength(r.headers()) : OptionalLong.empty();
+        } finally {
+            // Se cierra sin leer (con discarding() un servidor que ignora Range mandaría el recurso entero)
+            try {
+                r.body().close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    private static HttpClient client() {
+        if (http == null) {
+            synchronized (PROBES) {
+                if (http == null) {
+                    http = HttpClient.newBuilder()
+                            .connectTimeout(PROBE_TIMEOUT)
+                            .followRedirects(HttpClient.Redirect.NORMAL)
+                            .build();
+                }
+            }
+        }
+        return http;
+    }
+
+    /** Espera los sondeos en vuelo (como mucho {@link #PROBE_WAIT}); los que no llegan quedan sin tamaño. */
+    static void awaitProbes() {
+        CompletableFuture<?>[] pending = PROBES.values().stream().filter(f -> !f.isDone())
+                .toArray(CompletableFuture[]::new);
+        if (pending.length == 0) {
+            return;
+        }
+        try {
+            CompletableFuture.allOf(pending).get(PROBE_WAIT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException ignore) {
+            // el reporte sale igual, con esos requests en unknownSize
+        }
+    }
+
+    /* ---------- Tamaños aprendidos ---------- */
+
+    /** Escucha (una vez por driver) las respuestas enteras para saber cuánto pesa cada URL. */
+    private static final class Learner {
+        private final Map<String, String> pending = new HashMap<>();
+        private volatile boolean active;
+
+        void reset(boolean learn) {
+            synchronized (pending) {
+                pending.clear();
+            }
+            active = learn;
+        }
+
+        void attach(WebDriver driver) {
+            Cdp.on(driver, "Network.responseReceived", e -> {
+                Map<String, Object> res = Cdp.map(e, "response");
+                String url = Cdp.str(res, "url");
+                int status = (int) Cdp.num(res, "status");
+                boolean cached = Boolean.TRUE.equals(res.get("fromDiskCache"))
+                        || Boolean.TRUE.equals(res.get("fromServiceWorker"))
+                        || Boolean.TRUE.equals(res.get("fromPrefetchCache"));
+                if (!active || url == null || url.startsWith("data:") || NOT_LEARNED.contains(Cdp.str(e, "type"))
+                        || status != 200 || cached) {
+                    return;
+                }
+                synchronized (pending) {
+                    pending.put(Cdp.str(e, "requestId"), url);
+                }
+            });
+            Cdp.on(driver, "Network.loadingFinished", e -> {
+                String url;
+                synchronized (pending) {
+                    url = pending.remove(Cdp.str(e, "requestId"));
+                }
+                long size = (long) Cdp.num(e, "encodedDataLength");
+                if (url != null && active && size > 0) {
+                    // lo medido en el browser manda sobre el sondeo
+                    SIZES.put(key(url), size);
+                }
+            });
+            Cdp.on(driver, "Network.loadingFailed", e -> {
+                synchronized (pending) {
+                    pending.remove(Cdp.str(e, "requestId"));
+                }
+            });
+            Cdp.send(driver, "Network.enable", Map.of());
+        }
+    }
+
+    private static Learner learner(WebDriver driver) {
+        WebDriver real = Cdp.unwrap(driver);
+        synchronized (LEARNERS) {
+            Learner l = LEARNERS.get(real);
+            if (l == null && !LEARNERS.containsKey(real)) {
+                l = new Learner();
+                try {
+                    l.attach(real);
+                } catch (RuntimeException e) {
+                    // sin dominio Network no se aprende; el bloqueo funciona igual
+                    l = null;
+                }
+                LEARNERS.put(real, l);
+            }
+            return l;
+        }
+    }
+
+    /** URL sin fragmento: {@code /_next/image?url=...&w=64} es un recurso distinto por ancho. */
+    private static String key(String url) {
+        int hash = url.indexOf('#');
+        return hash >= 0 ? url.substring(0, hash) : url;
+    }
+
+    private static Path sizesFile() {
+        String f = Config.str("target/resource-sizes.properties", "RESOURCE_SIZES", "resourceSizes");
+        return "none".equalsIgnoreCase(f) ? null : Path.of(f);
+    }
+
+    private static void loadOnce() {
+        if (loaded) {
+            return;
+        }
+        synchronized (SIZES) {
+            if (loaded) {
+                return;
+            }
+            Path f = sizesFile();
+            if (f != null && Files.isRegularFile(f)) {
+                Properties p = new Properties();
+                try (Reader r = Files.newBufferedReader(f, StandardCharsets.UTF_8)) {
+                    p.load(r);
+                    p.forEach((k, v) -> {
+                        try {
+                            SIZES.putIfAbsent(String.valueOf(k), Long.parseLong(String.valueOf(v)));
+                        } catch (NumberFormatException ignore) {
+                            // línea rota: esa URL se vuelve a aprender
+                        }
+                    });
+                } catch (IOException ignore) {
+                }
+            }
+            if (f != null) {
+                Runtime.getRuntime().addShutdownHook(new Thread(ResourceBlocking::save, "resource-sizes-save"));
+            }
+            loaded = true;
+        }
+    }
+
+    private static void save() {
+        Path f = sizesFile();
+        if (f == null || SIZES.isEmpty()) {
+            return;
+        }
+        try {
+            // releído bajo lock: los shards en paralelo suman cada uno sus URLs
+            SharedFile.locked(f, () -> {
+                Properties p = new Properties();
+                if (Files.isRegularFile(f)) {
+                    try (Reader r = Files.newBufferedReader(f, StandardCharsets.UTF_8)) {
+                        p.load(r);
+                    }
+                }
+                SIZES.forEach((k, v) -> p.setProperty(k, String.valueOf(v)));
+                StringWriter w = new StringWriter();
+                p.store(w, "Bytes por URL (sondeo HEAD/Range o respuestas enteras) para el ahorro de ResourceBlocking");
+                SharedFile.write(f, w.toString());
+            });
+        } catch (IOException ignore) {
+        }
+    }
+
+    private static String human(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format(Locale.ROOT, "%.1f KB", bytes / 1024.0);
+        }
+        return String.format(Locale.ROOT, "%.1f MB", bytes / (1024.0 * 1024));
+    }
+}
@@ -0,0 +1,160 @@
+package com.dmh.selenium.support;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Extensión JUnit que registra qué partes de la app toca cada test, para la selección por cambios
+ * ({@link TestSelection}): rutas navegadas (cargas completas y navegaciones del router de Next, vía los eventos
+ * {@code Page.frameNavigated} / {@code Page.navigatedWithinDocument} de CDP), endpoints {@code /api/*} que pidió
+ * el browser y Page Objects que usó ({@link CommandMetrics#pageObjects()}).
+ * <p>
+ * Al terminar cada clase se vuelca al mapa de la corrida ({@link TestMap}, {@code TEST_MAP}).
+ * Desactivar: {@code ROUTE_COVERAGE=false}.
+ */
+public class RouteCoverage implements BeforeTestExecutionCallback, AfterTestExecutionCallback, AfterAllCallback {
+
+    private static final Map<WebDriver, Recorder> RECORDERS = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final Map<String, TestMap.Entry> OBSERVED = Collections.synchronizedMap(new HashMap<>());
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        WebDriver driver = DriverHolder.get();
+        if (driver != null && enabled()) {
+            recorder(driver).clear();
+        }
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        WebDriver driver = DriverHolder.get();
+        if (driver == null || !enabled()) {
+            return;
+        }
+        Recorder r = recorder(driver);
+        Set<String> pages = CommandMetrics.current().map(CommandMetrics::pageObjects).orElse(Set.of());
+        OBSERVED.put(PerfReport.testId(context), new TestMap.Entry(r.routes(), r.api(), pages,
+                context.getExecutionException().isEmpty()));
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        String prefix = context.getRequiredTestClass().getName() + "#";
+        Map<String, TestMap.Entry> mine = new HashMap<>();
+        synchronized (OBSERVED) {
+            OBSERVED.entrySet().removeIf(e -> {
+                if (e.getKey().startsWith(prefix)) {
+                    mine.put(e.getKey(), e.getValue());
+                    return true;
+                }
+                return false;
+            });
+        }
+        if (!mine.isEmpty()) {
+            TestMap.record(mine);
+        }
+    }
+
+    private static boolean enabled() {
+        return Config.bool(true, "ROUTE_COVERAGE", "routeCoverage");
+    }
+
+    private static Recorder recorder(WebDriver driver) {
+        WebDriver real = Cdp.unwrap(driver);
+        synchronized (RECORDERS) {
+            return RECORDERS.computeIfAbsent(real, Recorder::new);
+        }
+    }
+
+    /** Rutas y endpoints vistos por un driver desde el último {@link #clear()}. */
+    private static final class Recorder {
+        private final String origin = origin(Config.baseUrl());
+        private final Set<String> routes = new TreeSet<>();
+        private final Set<String> api = new TreeSet<>();
+
+        Recorder(WebDriver driver) {
+            if (!Cdp.supported(driver)) {
+                return;
+            }
+            try {
+                Cdp.on(driver, "Page.frameNavigated", e -> {
+                    Map<String, Object> frame = Cdp.map(e, "frame");
+                    if (frame.get("parentId") == null) {
+                        navigated(Cdp.str(frame, "url"));
+                    }
+                });
+                Cdp.on(driver, "Page.navigatedWithinDocument", e -> navigated(Cdp.str(e, "url")));
+                Cdp.on(driver, "Network.requestWillBeSent", e -> {
+                    String path = pathOf(Cdp.str(Cdp.map(e, "request"), "url"));
+                    if (path != null && path.startsWith("/api/")) {
+                        synchronized (this) {
+                            api.add(path);
+                        }
+                    }
+                });
+                Cdp.send(driver, "Page.enable", Map.of());
+                Cdp.send(driver, "Network.enable", Map.of());
+            } catch (RuntimeException ignore) {
+                // sin CDP el test queda sin rutas: TestSelection lo corre siempre
+            }
+        }
+
+        private void navigated(String url) {
+            String path = pathOf(url);
+            if (path != null) {
+                synchronized (this) {
+                    routes.add(path);
+                }
+            }
+        }
+
+        /** Path sin query ni barra final, sólo si es de la app. */
+        private String pathOf(String url) {
+            if (url == null || origin == null || !url.startsWith(origin)) {
+                return null;
+            }
+            try {
+                String p = URI.create(url).getPath();
+                if (p == null || p.isEmpty()) {
+                    return "/";
+                }
+                return p.length() > 1 && p.endsWith("/") ? p.substring(0, p.length() - 1) : p;
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        synchronized void clear() {
+            routes.clear();
+            api.clear();
+        }
+
+        synchronized Set<String> routes() {
+            return new TreeSet<>(routes);
+        }
+
+        synchronized Set<String> api() {
+            return new TreeSet<>(api);
+        }
+
+        private static String origin(String baseUrl) {
+            try {
+                URI u = URI.create(baseUrl);
+                return u.getScheme() + "://" + u.getAuthority();
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+}
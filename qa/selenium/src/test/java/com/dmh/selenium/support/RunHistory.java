@@ -0,0 +1,638 @@
+package com.dmh.selenium.support;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openqa.selenium.json.Json;
+import org.w3c.dom.Element;
+
+/**
+ * Historial de corridas: un archivo append-only ({@code RUN_HISTORY}, default {@code target/run-history.jsonl}, una
+ * línea JSON por corrida) con la duración de cada test, las esperas de {@link WaitPolicy} y los tiempos de página de
+ * {@link PageMetrics}/{@link SoftNavigation}, etiquetados con el commit. En CI se guarda con cache, como
+ * {@link TestTimings}; las líneas no se reescriben nunca.
+ * <pre>
+ *   java -cp "target/test-classes:$(cat target/cp.txt)" com.dmh.selenium.support.RunHistory record
+ *   java -cp "target/test-classes:$(cat target/cp.txt)" com.dmh.selenium.support.RunHistory compare [commit]
+ * </pre>
+ * {@code record} lee lo que dejó la última corrida en {@code REPORTS_DIR} (después de {@link ShardMerge}, también los
+ * {@code shards/<n>/perf}); la misma corrida no se anota dos veces.
+ * <p>
+ * {@code compare} toma como candidata las corridas del commit pedido (o las últimas {@code HISTORY_WINDOW}) y como
+ * línea de base las {@code HISTORY_BASELINE} anteriores, y por métrica (un valor por corrida, ver {@link #perRun})
+ * corre Mann-Whitney U de una cola (¿la candidata tarda más?): sin suponer normalidad ni umbrales fijos, sólo cuenta
+ * cuánto se mezclan las dos muestras.
+ * Exacto con muestras chicas sin empates, aproximación normal con corrección por empates si no. Los p-values se
+ * corrigen por familia (tests, páginas, navegaciones, esperas) con Benjamini-Hochberg a {@code HISTORY_FDR}, porque
+ * son cientos de comparaciones por corrida. Deja {@code target/run-trend.md} (tabla con tendencia por corrida, para el
+ * resumen del job) y {@code target/run-trend.json}; sale con 1 si hay alguna lentitud significativa.
+ */
+public final class RunHistory {
+
+    private static final Json JSON = new Json();
+    private static final String[] PAGE_METRICS = {"ttfb", "fcp", "lcp", "domContentLoaded", "load"};
+    private static final String[] FAMILIES = {"test", "page", "nav", "wait"};
+    private static final String SPARK = "▁▂▃▄▅▆▇█";
+    /** Hasta acá se cuenta la distribución exacta de U (tabla de n2 × n1·n2). */
+    private static final int EXACT_MAX_PAIRS = 2500;
+    private static final int MIN_BASELINE = 8;
+    private static final int MIN_CANDIDATE = 3;
+
+    /** Una línea del archivo. */
+    static final class Run {
+        final int run;
+        final String commit;
+        final boolean dirty;
+        final String recorded;
+        final String fingerprint;
+        /** {@code familia:clave} → valores de la corrida (ms). */
+        final Map<String, List<Double>> metrics;
+
+        Run(int run, String commit, boolean dirty, String recorded, String fingerprint,
+                Map<String, List<Double>> metrics) {
+            this.run = run;
+            this.commit = commit;
+            this.dirty = dirty;
+            this.recorded = recorded;
+            this.fingerprint = fingerprint;
+            this.metrics = metrics;
+        }
+
+        Map<String, Object> toJson() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("run", run);
+            m.put("commit", commit);
+            m.put("dirty", dirty);
+            m.put("recorded", recorded);
+            m.put("fingerprint", fingerprint);
+            m.put("metrics", metrics);
+            return m;
+        }
+
+        @SuppressWarnings("unchecked")
+        static Run fromJson(Map<String, Object> m) {
+            Map<String, List<Double>> metrics = new TreeMap<>();
+            if (m.get("metrics") instanceof Map) {
+                ((Map<String, Object>) m.get("metrics")).forEach((k, v) -> {
+                    List<Double> l = new ArrayList<>();
+                    if (v instanceof Collection) {
+                        for (Object o : (Collection<Object>) v) {
+                            if (o instanceof Number) {
+                                l.add(((Number) o).doubleValue());
+                            }
+                        }
+                    }
+                    metrics.put(k, l);
+                });
+            }
+            return new Run(((Number) m.get("run")).intValue(), String.valueOf(m.get("commit")),
+                    Boolean.TRUE.equals(m.get("dirty")), String.valueOf(m.get("recorded")),
+                    String.valueOf(m.get("fingerprint")), metrics);
+        }
+
+        String shortCommit() {
+            return commit.matches("[0-9a-f]{8,}") ? commit.substring(0, 7) : commit;
+        }
+    }
+
+    private RunHistory() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String cmd = args.length > 0 ? args[0] : "";
+        switch (cmd) {
+            case "record":
+                record();
+                break;
+            case "compare":
+                if (compare(args.length > 1 ? args[1] : null) > 0) {
+                    System.exit(1);
+                }
+                break;
+            default:
+                System.err.println("Uso: RunHistory record | compare [commit]");
+                System.exit(2);
+        }
+    }
+
+    static Path file() {
+        return Path.of(Config.str("target/run-history.jsonl", "RUN_HISTORY", "runHistory"));
+    }
+
+    /* ---------- record ---------- */
+
+    static void record() throws IOException, InterruptedException {
+        Path reports = Config.reportsDir();
+        List<Path> xml = reports(reports);
+        if (xml.isEmpty()) {
+            System.err.println("Historial: no hay TEST-*.xml en " + reports + "; nada que anotar");
+            return;
+        }
+        long newest = 0;
+        for (Path p : xml) {
+            newest = Math.max(newest, Files.getLastModifiedTime(p).toMillis());
+        }
+        String fingerprint = xml.size() + "@" + newest;
+        Path file = file();
+        List<Run> runs = load(file);
+        if (!runs.isEmpty() && fingerprint.equals(runs.get(runs.size() - 1).fingerprint)) {
+            System.err.println("Historial: esta corrida ya está anotada (corrida " + runs.get(runs.size() - 1).run + ")");
+            return;
+        }
+
+        Map<String, List<Double>> metrics = new TreeMap<>();
+        for (Path p : xml) {
+            Element suite = TestTimings.read(p).getDocumentElement();
+            for (Element tc : TestTimings.children(suite, "testcase")) {
+                String method = TestTimings.methodName(tc.getAttribute("name"));
+                if (!method.isEmpty() && TestTimings.passed(tc)) {
+                    String cls = tc.getAttribute("classname").isEmpty()
+                            ? suite.getAttribute("name") : tc.getAttribute("classname");
+                    add(metrics, "test:" + cls + "#" + method, TestTimings.millis(tc.getAttribute("time")));
+                }
+            }
+        }
+        for (Path perf : perfDirs(reports)) {
+            readPerf(perf, metrics);
+        }
+
+        String commit = Config.str(null, "HISTORY_COMMIT", "GITHUB_SHA");
+        boolean dirty = false;
+        if (commit == null) {
+            List<String> head = git("rev-parse", "HEAD");
+            commit = head.isEmpty() ? "desconocido" : head.get(0);
+            dirty = !git("status", "--porcelain", "--untracked-files=no").isEmpty();
+        }
+        int id = runs.isEmpty() ? 1 : runs.get(runs.size() - 1).run + 1;
+        Run run = new Run(id, commit, dirty, Instant.now().toString(), fingerprint, metrics);
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        // Una sola escritura por línea: con APPEND no se intercalan dos corridas que anotan a la vez
+        Files.writeString(file, JSON.toJson(run.toJson()).replaceAll("\\s*\\n\\s*", "") + "\n",
+                StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        System.err.printf("Historial: corrida %d (%s%s) con %d métricas en %s%n", id, run.shortCommit(),
+                dirty ? ", con cambios sin commitear" : "", metrics.size(), file);
+    }
+
+    private static List<Path> reports(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.filter(TestTimings::isReport).sorted().collect(Collectors.toList());
+        }
+    }
+
+    /** {@code perf/} de la corrida y, si vino de shards, el de cada uno. */
+    private static List<Path> perfDirs(Path reports) throws IOException {
+        List<Path> out = new ArrayList<>();
+        out.add(reports.resolve("perf"));
+        Path shards = reports.resolve("shards");
+        if (Files.isDirectory(shards)) {
+            try (Stream<Path> s = Files.list(shards)) {
+                s.sorted().forEach(d -> out.add(d.resolve("perf")));
+            }
+        }
+        out.removeIf(d -> !Files.isDirectory(d));
+        return out;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void readPerf(Path dir, Map<String, List<Double>> metrics) throws IOException {
+        List<Path> files;
+        try (Stream<Path> s = Files.list(dir)) {
+            files = s.filter(p -> p.toString().endsWith(".json")).sorted().collect(Collectors.toList());
+        }
+        for (Path f : files) {
+            Map<String, Object> doc;
+            try {
+                doc = JSON.toType(Files.readString(f, StandardCharsets.UTF_8), Json.MAP_TYPE);
+            } catch (RuntimeException e) {
+                continue;
+            }
+            if (f.getFileName().toString().equals("waits.json") && doc.get("waits") instanceof Map) {
+                ((Map<String, Object>) doc.get("waits")).forEach((name, v) -> {
+                    Object samples = v instanceof Map ? ((Map<String, Object>) v).get("samples") : null;
+                    if (samples instanceof Collection) {
+                        for (Object o : (Collection<Object>) samples) {
+                            add(metrics, "wait:" + name, o);
+                        }
+                    }
+                });
+            } else if (doc.containsKey("testClass")) {
+                for (Map<String, Object> s : maps(doc.get("samples"))) {
+                    for (String k : PAGE_METRICS) {
+                        add(metrics, "page:" + s.get("route") + ":" + k, s.get(k));
+                    }
+                }
+                for (Map<String, Object> t : maps(doc.get("transitions"))) {
+                    add(metrics, "nav:" + t.get("name"), t.get("clickToContentMs"));
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> maps(Object v) {
+        List<Map<String, Object>> out = new ArrayList<>();
+        if (v instanceof Collection) {
+            for (Object o : (Collection<Object>) v) {
+                if (o instanceof Map) {
+                    out.add((Map<String, Object>) o);
+                }
+            }
+        }
+        return out;
+    }
+
+    private static void add(Map<String, List<Double>> metrics, String key, Object value) {
+        if (value instanceof Number && ((Number) value).doubleValue() >= 0) {
+            metrics.computeIfAbsent(key, k -> new ArrayList<>()).add(((Number) value).doubleValue());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<Run> load(Path file) throws IOException {
+        List<Run> out = new ArrayList<>();
+        if (!Files.isRegularFile(file)) {
+            return out;
+        }
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                out.add(Run.fromJson(JSON.toType(line, Json.MAP_TYPE)));
+            } catch (RuntimeException e) {
+                // línea cortada (corrida que murió escribiendo): se saltea, el resto sirve
+            }
+        }
+        return out;
+    }
+
+    /* ---------- compare ---------- */
+
+    /** Resultado por métrica. */
+    static final class Finding {
+        final String key;
+        final String family;
+        final int nBaseline;
+        final int nCandidate;
+        final double baselineMedian;
+        final double candidateMedian;
+        /** P(candidata > base): U / (n1·n2). */
+        final double superiority;
+        final double p;
+        double adjusted = Double.NaN;
+        boolean slower;
+        final List<Double> trend;
+
+        Finding(String key, List<Double> baseline, List<Double> candidate, double[] mw, List<Double> trend) {
+            this.key = key;
+            this.family = key.substring(0, key.indexOf(':'));
+            this.nBaseline = baseline.size();
+            this.nCandidate = candidate.size();
+            this.baselineMedian = median(baseline);
+            this.candidateMedian = median(candidate);
+            this.superiority = mw[0];
+            this.p = mw[1];
+            this.trend = trend;
+        }
+
+        double change() {
+            return baselineMedian == 0 ? 0 : candidateMedian / baselineMedian - 1;
+        }
+
+        Map<String, Object> toJson() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("metric", key);
+            m.put("baselineMedianMs", round(baselineMedian));
+            m.put("candidateMedianMs", round(candidateMedian));
+            m.put("change", round(change()));
+            m.put("nBaseline", nBaseline);
+            m.put("nCandidate", nCandidate);
+            m.put("superiority", round(superiority));
+            m.put("p", p);
+            m.put("pAdjusted", round(adjusted));
+            m.put("slower", slower);
+            m.put("trendMs", trend.stream().map(RunHistory::round).collect(Collectors.toList()));
+            return m;
+        }
+    }
+
+    /** Cantidad de métricas con lentitud significativa. */
+    static int compare(String commit) throws IOException {
+        Path file = file();
+        List<Run> runs = load(file);
+        if (runs.isEmpty()) {
+            System.err.println("Historial: " + file + " está vacío; correr 'record' después de cada corrida");
+            return 0;
+        }
+        int window = Math.max(1, Config.intValue(3, "HISTORY_WINDOW", "historyWindow"));
+        int baselineRuns = Math.max(2, Config.intValue(20, "HISTORY_BASELINE", "historyBaseline"));
+        double fdr = Double.parseDouble(Config.str("0.05", "HISTORY_FDR", "historyFdr"));
+
+        // Candidata: las corridas del commit (todas sus repeticiones) o las últimas HISTORY_WINDOW
+        int first;
+        if (commit != null) {
+            first = -1;
+            for (int i = 0; i < runs.size(); i++) {
+                if (runs.get(i).commit.startsWith(commit)) {
+                    first = first < 0 ? i : first;
+                }
+            }
+            if (first < 0) {
+                throw new IllegalArgumentException("No hay corridas del commit " + commit + " en " + file);
+            }
+        } else {
+            first = Math.max(0, runs.size() - window);
+        }
+        List<Run> candidate = new ArrayList<>();
+        for (Run r : runs.subList(first, runs.size())) {
+            if (commit == null || r.commit.startsWith(commit)) {
+                candidate.add(r);
+            }
+        }
+        List<Run> baseline = new ArrayList<>(runs.subList(Math.max(0, first - baselineRuns), first));
+        if (commit != null) {
+            baseline.removeIf(r -> r.commit.startsWith(commit));
+        }
+
+        List<Run> shown = new ArrayList<>(baseline);
+        shown.addAll(candidate);
+        List<Finding> findings = new ArrayList<>();
+        List<String> insufficient = new ArrayList<>();
+        Map<String, List<Double>> c = perRun(candidate);
+        Map<String, List<Double>> b = perRun(baseline);
+        for (Map.Entry<String, List<Double>> e : c.entrySet()) {
+            List<Double> base = b.getOrDefault(e.getKey(), List.of());
+            if (base.size() < MIN_BASELINE || e.getValue().size() < MIN_CANDIDATE) {
+                insufficient.add(e.getKey());
+                continue;
+            }
+            List<Double> trend = new ArrayList<>();
+            for (Run r : shown) {
+                List<Double> v = r.metrics.get(e.getKey());
+                trend.add(v == null || v.isEmpty() ? Double.NaN : median(v));
+            }
+            findings.add(new Finding(e.getKey(), base, e.getValue(), mannWhitney(base, e.getValue()), trend));
+        }
+        for (String family : FAMILIES) {
+            benjaminiHochberg(findings.stream().filter(f -> f.family.equals(family)).collect(Collectors.toList()),
+                    fdr);
+        }
+        findings.sort(Comparator.comparing((Finding f) -> !f.slower).thenComparing(f -> -f.change())
+                .thenComparing(f -> f.key));
+        List<Finding> slower = findings.stream().filter(f -> f.slower).collect(Collectors.toList());
+
+        Map<String, Object> doc = new LinkedHashMap<>();
+        doc.put("candidateRuns", candidate.stream().map(r -> r.run).collect(Collectors.toList()));
+        doc.put("candidateCommits", commits(candidate));
+        doc.put("baselineRuns", baseline.stream().map(r -> r.run).collect(Collectors.toList()));
+        doc.put("fdr", fdr);
+        doc.put("slower", slower.stream().map(f -> f.key).collect(Collectors.toList()));
+        doc.put("findings", findings.stream().map(Finding::toJson).collect(Collectors.toList()));
+        doc.put("insufficient", insufficient);
+        Files.createDirectories(Path.of("target"));
+        Files.writeString(Path.of("target", "run-trend.json"), JSON.toJson(doc), StandardCharsets.UTF_8);
+        Files.writeString(Path.of("target", "run-trend.md"), markdown(candidate, baseline, findings, insufficient, fdr),
+                StandardCharsets.UTF_8);
+
+        System.err.printf("Historial: corridas %s (%s) contra %d anteriores → %d métricas comparadas, %d más lentas%s%n",
+                candidate.stream().map(r -> String.valueOf(r.run)).collect(Collectors.joining(",")),
+                String.join(",", commits(candidate)), baseline.size(), findings.size(), slower.size(),
+                insufficient.isEmpty() ? "" : " (" + insufficient.size() + " sin datos suficientes)");
+        for (Finding f : slower) {
+            System.err.printf("  %s: %.0f → %.0f ms (%+.0f %%, p=%.2g)%n", f.key, f.baselineMedian,
+                    f.candidateMedian, f.change() * 100, f.adjusted);
+        }
+        return slower.size();
+    }
+
+    /**
+     * Un valor por corrida y métrica: la mediana de sus muestras. Las muestras de una misma corrida (cada carga de una
+     * ruta, cada espera) están correlacionadas; juntarlas en una sola muestra inflaría n1/n2 y daría p demasiado chicos
+     * con el ruido de una corrida. La unidad de la comparación es la corrida.
+     */
+    static Map<String, List<Double>> perRun(List<Run> runs) {
+        Map<String, List<Double>> out = new TreeMap<>();
+        for (Run r : runs) {
+            r.metrics.forEach((k, v) -> {
+                if (!v.isEmpty()) {
+                    out.computeIfAbsent(k, x -> new ArrayList<>()).add(median(v));
+                }
+            });
+        }
+        return out;
+    }
+
+    private static List<String> commits(List<Run> runs) {
+        return runs.stream().map(r -> r.shortCommit() + (r.dirty ? "+" : "")).distinct().collect(Collectors.toList());
+    }
+
+    private static String markdown(List<Run> candidate, List<Run> baseline, List<Finding> findings,
+            List<String> insufficient, double fdr) {
+        StringBuilder md = new StringBuilder();
+        md.append("## Tendencia de tiempos\n\n");
+        md.append(String.format(Locale.ROOT, "Candidata: corridas %s (%s). Base: %d corridas anteriores. "
+                        + "Mann-Whitney U de una cola, Benjamini-Hochberg por familia (FDR %.2f).%n%n",
+                candidate.stream().map(r -> String.valueOf(r.run)).collect(Collectors.joining(", ")),
+                String.join(", ", commits(candidate)), baseline.size(), fdr));
+        md.append("| | Métrica | Base (mediana) | Candidata | Cambio | P(más lenta) | p ajustado | Tendencia |\n");
+        md.append("|---|---|---:|---:|---:|---:|---:|---|\n");
+        for (Finding f : findings) {
+            md.append(String.format(Locale.ROOT, "| %s | `%s` | %.0f ms | %.0f ms | %+.1f %% | %.2f | %.3g | %s |%n",
+                    f.slower ? "⚠️" : "", f.key, f.baselineMedian, f.candidateMedian, f.change() * 100,
+                    f.superiority, f.adjusted, sparkline(f.trend)));
+        }
+        if (!insufficient.isEmpty()) {
+            md.append(String.format(Locale.ROOT, "%nSin datos suficientes (base < %d o candidata < %d corridas): %s%n",
+                    MIN_BASELINE, MIN_CANDIDATE, insufficient.stream().map(k -> "`" + k + "`")
+                            .collect(Collectors.joining(", "))));
+        }
+        return md.toString();
+    }
+
+    /** Mediana por corrida, de la más vieja a la más nueva; {@code ·} donde la corrida no la midió. */
+    static String sparkline(List<Double> values) {
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (double v : values) {
+            if (!Double.isNaN(v)) {
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        for (double v : values) {
+            if (Double.isNaN(v)) {
+                sb.append('·');
+            } else {
+                int i = max == min ? 0 : (int) Math.round((v - min) / (max - min) * (SPARK.length() - 1));
+                sb.append(SPARK.charAt(i));
+            }
+        }
+        return sb.toString();
+    }
+
+    /* ---------- Estadística ---------- */
+
+    /**
+     * Mann-Whitney U de una cola (H1: la candidata tiende a valores mayores). Devuelve {U/(n1·n2), p}; exacto
+     * si no hay empates y la tabla es chica, si no aproximación normal con corrección por empates y continuidad.
+     */
+    static double[] mannWhitney(List<Double> baseline, List<Double> candidate) {
+        int n1 = candidate.size();
+        int n2 = baseline.size();
+        int n = n1 + n2;
+        double[][] all = new double[n][2];
+        for (int i = 0; i < n1; i++) {
+            all[i] = new double[] {candidate.get(i), 1};
+        }
+        for (int i = 0; i < n2; i++) {
+            all[n1 + i] = new double[] {baseline.get(i), 0};
+        }
+        Arrays.sort(all, Comparator.comparingDouble(a -> a[0]));
+        double rankSum = 0;
+        double tieTerm = 0;
+        for (int i = 0; i < n; ) {
+            int j = i;
+            while (j + 1 < n && all[j + 1][0] == all[i][0]) {
+                j++;
+            }
+            double rank = (i + j) / 2.0 + 1;
+            int t = j - i + 1;
+            tieTerm += (double) t * t * t - t;
+            for (int k = i; k <= j; k++) {
+                if (all[k][1] == 1) {
+                    rankSum += rank;
+                }
+            }
+            i = j + 1;
+        }
+        double u = rankSum - n1 * (n1 + 1) / 2.0;
+        double superiority = u / ((double) n1 * n2);
+        if (tieTerm == 0 && (long) n1 * n2 <= EXACT_MAX_PAIRS) {
+            return new double[] {superiority, exactUpperTail(n1, n2, (int) Math.round(u))};
+        }
+        double mean = n1 * (double) n2 / 2;
+        double var = n1 * (double) n2 / 12 * ((n + 1) - tieTerm / ((double) n * (n - 1)));
+        if (var <= 0) {
+            return new double[] {superiority, 1};
+        }
+        double z = (u - mean - 0.5) / Math.sqrt(var);
+        return new double[] {superiority, 0.5 * erfc(z / Math.sqrt(2))};
+    }
+
+    /**
+     * P(U ≥ u) sin empates: cantidad de órdenes con cada U, por la recurrencia de los números de Gauss (el mayor de
+     * todos es de la candidata y suma n2 pares, o de la base y no suma), sobre C(n1+n2, n1) órdenes.
+     */
+    static double exactUpperTail(int n1, int n2, int u) {
+        int max = n1 * n2;
+        // prev[j] = distribución para (i-1, j); cur[j] = para (i, j)
+        double[][] prev = new double[n2 + 1][];
+        for (int j = 0; j <= n2; j++) {
+            prev[j] = new double[] {1};
+        }
+        for (int i = 1; i <= n1; i++) {
+            double[][] cur = new double[n2 + 1][];
+            cur[0] = new double[] {1};
+            for (int j = 1; j <= n2; j++) {
+                double[] a = prev[j];
+                double[] b = cur[j - 1];
+                double[] f = new double[i * j + 1];
+                for (int k = 0; k < a.length; k++) {
+                    f[k + j] += a[k];
+                }
+                for (int k = 0; k < b.length; k++) {
+                    f[k] += b[k];
+                }
+                cur[j] = f;
+            }
+            prev = cur;
+        }
+        double[] dist = prev[n2];
+        double total = 0;
+        double tail = 0;
+        for (int k = 0; k <= max; k++) {
+            total += dist[k];
+            if (k >= u) {
+                tail += dist[k];
+            }
+        }
+        return tail / total;
+    }
+
+    /** Complemento de la función error (Numerical Recipes, error relativo < 1.2e-7). */
+    static double erfc(double x) {
+        double z = Math.abs(x);
+        double t = 1 / (1 + 0.5 * z);
+        double r = t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+                + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+                + t * (-0.82215223 + t * 0.17087277)))))))));
+        return x >= 0 ? r : 2 - r;
+    }
+
+    /** Ajusta los p de una familia (step-up de Benjamini-Hochberg) y marca las más lentas que pasan el FDR. */
+    static void benjaminiHochberg(List<Finding> family, double fdr) {
+        int m = family.size();
+        List<Finding> sorted = new ArrayList<>(family);
+        sorted.sort(Comparator.comparingDouble(f -> f.p));
+        double running = 1;
+        for (int i = m - 1; i >= 0; i--) {
+            Finding f = sorted.get(i);
+            running = Math.min(running, f.p * m / (i + 1));
+            f.adjusted = running;
+            f.slower = running <= fdr && f.candidateMedian > f.baselineMedian;
+        }
+    }
+
+    static double median(List<Double> values) {
+        List<Double> s = new ArrayList<>(values);
+        Collections.sort(s);
+        int n = s.size();
+        return n == 0 ? Double.NaN : n % 2 == 1 ? s.get(n / 2) : (s.get(n / 2 - 1) + s.get(n / 2)) / 2;
+    }
+
+    /** Sin NaN: en el JSON, una corrida que no midió la métrica queda en null. */
+    private static Double round(double v) {
+        return Double.isNaN(v) ? null : Math.round(v * 1000) / 1000.0;
+    }
+
+    private static List<String> git(String... args) throws InterruptedException {
+        List<String> cmd = new ArrayList<>();
+        cmd.add("git");
+        cmd.addAll(List.of(args));
+        try {
+            Process p = new ProcessBuilder(cmd).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+            List<String> lines;
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(p.getInputStream(),
+                    StandardCharsets.UTF_8))) {
+                lines = in.lines().filter(l -> !l.isBlank()).collect(Collectors.toList());
+            }
+            return p.waitFor() == 0 ? lines : List.of();
+        } catch (IOException e) {
+            // sin git (p. ej. un tarball): el commit queda "desconocido"
+            return List.of();
+        }
+    }
+}
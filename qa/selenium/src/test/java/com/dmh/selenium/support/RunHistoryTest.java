@@ -0,0 +1,137 @@
+package com.dmh.selenium.support;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/** Mann-Whitney (exacto y normal) y Benjamini-Hochberg contra tablas y cuentas hechas a mano. */
+class RunHistoryTest {
+
+    private static final double EPS = 1e-9;
+
+    @Test
+    void exactTailMatchesTheCountsOfOrderings() {
+        // n1 = n2 = 3: C(6,3) = 20 órdenes; cantidad por U = 0..9 → 1 1 2 3 3 3 3 2 1 1
+        assertEquals(1.0, RunHistory.exactUpperTail(3, 3, 0), EPS);
+        assertEquals(1 / 20.0, RunHistory.exactUpperTail(3, 3, 9), EPS);
+        assertEquals(2 / 20.0, RunHistory.exactUpperTail(3, 3, 8), EPS);
+        assertEquals(4 / 20.0, RunHistory.exactUpperTail(3, 3, 7), EPS);
+        assertEquals(10 / 20.0, RunHistory.exactUpperTail(3, 3, 5), EPS);
+        // n1 = n2 = 4: C(8,4) = 70; por U = 8..16 → 8 7 7 5 5 3 2 1 1
+        assertEquals(1 / 70.0, RunHistory.exactUpperTail(4, 4, 16), EPS);
+        assertEquals(4 / 70.0, RunHistory.exactUpperTail(4, 4, 14), EPS);
+        assertEquals(7 / 70.0, RunHistory.exactUpperTail(4, 4, 13), EPS);
+        assertEquals(39 / 70.0, RunHistory.exactUpperTail(4, 4, 8), EPS);
+        // n1 = 2, n2 = 3 (no simétrico en tamaños): C(5,2) = 10; por U = 0..6 → 1 1 2 2 2 1 1
+        assertEquals(1 / 10.0, RunHistory.exactUpperTail(2, 3, 6), EPS);
+        assertEquals(RunHistory.exactUpperTail(3, 2, 4), RunHistory.exactUpperTail(2, 3, 4), EPS);
+    }
+
+    @Test
+    void exactTailAgreesWithTheCriticalValueTable() {
+        // Tabla de valores críticos, n1 = n2 = 5, una cola α = 0.05: U crítico 4 (P(U ≤ 4) = 12/252 = 0.0476);
+        // por simetría P(U ≥ 25 - 4) es lo mismo y 20 ya no alcanza
+        assertEquals(12 / 252.0, RunHistory.exactUpperTail(5, 5, 21), EPS);
+        assertTrue(RunHistory.exactUpperTail(5, 5, 21) <= 0.05);
+        assertTrue(RunHistory.exactUpperTail(5, 5, 20) > 0.05);
+        // n1 = n2 = 8, una cola α = 0.05: U crítico 15 → P(U ≥ 64 - 15) ≤ 0.05 < P(U ≥ 64 - 16)
+        assertTrue(RunHistory.exactUpperTail(8, 8, 49) <= 0.05);
+        assertTrue(RunHistory.exactUpperTail(8, 8, 48) > 0.05);
+    }
+
+    @Test
+    void exactWhenThereAreNoTies() {
+        // Las tres candidatas por encima de las ocho de base: U = 24, un solo orden de C(11,3) = 165
+        double[] mw = RunHistory.mannWhitney(List.of(1.0, 2.0, 3.0, 4.0, 5.0, 6.0, 7.0, 8.0), List.of(9.0, 10.0, 11.0));
+        assertArrayEquals(new double[] {1.0, 1 / 165.0}, mw, EPS);
+
+        // Candidata más rápida: U = 0, p = 1
+        assertArrayEquals(new double[] {0.0, 1.0}, RunHistory.mannWhitney(List.of(4.0, 5.0, 6.0),
+                List.of(1.0, 2.0, 3.0)), EPS);
+
+        // Intercaladas b c b c b c: U = 1 + 2 + 3 = 6 → P(U ≥ 6) = (3 + 2 + 1 + 1)/20
+        assertArrayEquals(new double[] {6 / 9.0, 7 / 20.0}, RunHistory.mannWhitney(List.of(1.0, 3.0, 5.0),
+                List.of(2.0, 4.0, 6.0)), EPS);
+    }
+
+    @Test
+    void normalApproximationWithTies() {
+        // base 1 2 3 4, candidata 3 4 5 6: rangos de la candidata 3.5 5.5 7 8 → R = 24, U = 24 - 10 = 14;
+        // empates (3, 4) de a dos → Σ(t³ - t) = 12; var = 16/12 · (9 - 12/56) = 11.7142857;
+        // z = (14 - 8 - 0.5) / √var = 1.60696 → p = 0.0540317
+        double[] mw = RunHistory.mannWhitney(List.of(1.0, 2.0, 3.0, 4.0), List.of(3.0, 4.0, 5.0, 6.0));
+        assertEquals(14 / 16.0, mw[0], EPS);
+        assertEquals(0.0540317, mw[1], 1e-6);
+
+        // Todo empatado: sin varianza, nada que decir
+        assertEquals(1.0, RunHistory.mannWhitney(List.of(5.0, 5.0), List.of(5.0, 5.0))[1], EPS);
+    }
+
+    @Test
+    void benjaminiHochbergStepUp() {
+        // p ordenados 0.01 0.035 0.04 0.30 (m = 4) → p·m/rango 0.04 0.0933 0.0533 0.30;
+        // de atrás hacia adelante con el mínimo: 0.04 0.0533 0.0533 0.30
+        RunHistory.Finding a = finding("test:a", 0.04, true);
+        RunHistory.Finding b = finding("test:b", 0.01, true);
+        RunHistory.Finding c = finding("test:c", 0.035, true);
+        RunHistory.Finding d = finding("test:d", 0.30, true);
+        RunHistory.benjaminiHochberg(List.of(a, b, c, d), 0.05);
+        assertEquals(0.04, b.adjusted, EPS);
+        assertEquals(0.16 / 3, c.adjusted, EPS);
+        assertEquals(0.16 / 3, a.adjusted, EPS);
+        assertEquals(0.30, d.adjusted, EPS);
+        // c tiene p crudo < 0.05 pero no pasa ajustado
+        assertTrue(b.slower);
+        assertFalse(c.slower);
+        assertFalse(a.slower);
+        assertFalse(d.slower);
+    }
+
+    @Test
+    void significantButFasterIsNotSlower() {
+        // 0.01 0.02 0.03 0.04 0.20 (m = 5) → 0.05 0.05 0.05 0.05 0.20: las cuatro primeras pasan a FDR 0.05
+        // (con Bonferroni sólo la primera); la de 0.02 es significativa pero la candidata es más rápida
+        RunHistory.Finding p1 = finding("page:1", 0.01, true);
+        RunHistory.Finding p2 = finding("page:2", 0.02, false);
+        RunHistory.Finding p3 = finding("page:3", 0.03, true);
+        RunHistory.Finding p4 = finding("page:4", 0.04, true);
+        RunHistory.Finding p5 = finding("page:5", 0.20, true);
+        RunHistory.benjaminiHochberg(List.of(p5, p4, p3, p2, p1), 0.05);
+        for (RunHistory.Finding f : List.of(p1, p2, p3, p4)) {
+            assertEquals(0.05, f.adjusted, EPS);
+        }
+        assertEquals(0.20, p5.adjusted, EPS);
+        assertTrue(p1.slower);
+        assertFalse(p2.slower);
+        assertTrue(p3.slower);
+        assertTrue(p4.slower);
+        assertFalse(p5.slower);
+    }
+
+    @Test
+    void oneValuePerRunNoMatterHowManySamples() {
+        // Una corrida con 5 cargas de la misma página cuenta una vez, con su mediana; la que no la midió no suma
+        RunHistory.Run busy = run(1, Map.of("page:/home:lcp", List.of(900.0, 100.0, 300.0, 500.0, 700.0),
+                "test:A#a", List.of(40.0)));
+        RunHistory.Run quiet = run(2, Map.of("page:/home:lcp", List.of(200.0, 400.0), "test:A#a", List.of()));
+        Map<String, List<Double>> values = RunHistory.perRun(List.of(busy, quiet));
+        assertEquals(List.of(500.0, 300.0), values.get("page:/home:lcp"));
+        assertEquals(List.of(40.0), values.get("test:A#a"));
+    }
+
+    private static RunHistory.Run run(int n, Map<String, List<Double>> metrics) {
+        return new RunHistory.Run(n, "abc1234", false, "2026-01-01T00:00:00Z", "run" + n, metrics);
+    }
+
+    /** Métrica con el p dado; mediana de la candidata 200 (más lenta) o 50 contra 100 de base. */
+    private static RunHistory.Finding finding(String key, double p, boolean slower) {
+        return new RunHistory.Finding(key, List.of(100.0), List.of(slower ? 200.0 : 50.0), new double[] {0.5, p},
+                List.of());
+    }
+}
@@ -0,0 +1,230 @@
+package com.dmh.selenium.support;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Grabación continua de los últimos segundos del test vía CDP ({@code Page.startScreencast}), para ver qué pasó
+ * antes de una falla y no sólo el estado final.
+ * <p>
+ * Chrome empuja frames JPEG cuando la página se repinta; se guardan en un ring buffer de tamaño fijo
+ * ({@code SCREENCAST_SECONDS} × {@code SCREENCAST_FPS} frames) que pisa los más viejos, y los que llegan más rápido
+ * que el FPS pedido se descartan sin decodificar. Nada se codifica mientras el test pasa: sólo si falla,
+ * {@link FailureArtifacts} arma un GIF animado con lo que haya en el buffer.
+ * <p>
+ * Cada test deja sus {@link Stats} (frames, bytes retenidos, CPU del handler) para medir lo que cuesta
+ * tenerlo prendido; {@link ScreenshotOnFailure} los escribe en {@code perf/<Clase>.screencast.json}.
+ */
+public final class Screencast {
+
+    private static final Map<WebDriver, Screencast> CASTS = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /** Resolución y calidad de los frames: lo justo para leer textos y ver dónde quedó cada cosa. */
+    static final int MAX_WIDTH = 960;
+    static final int MAX_HEIGHT = 720;
+    static final int QUALITY = 60;
+
+    private final WebDriver driver;
+    private final boolean available;
+    private boolean listening;
+
+    /* Ring buffer y contadores: todo bajo el lock de la instancia */
+    private Frame[] ring = new Frame[0];
+    private int next;
+    private int size;
+    private long minIntervalMs;
+    private boolean active;
+    private long lastKeptMs;
+    private long received;
+    private long kept;
+    private long bytes;
+    private long peakBytes;
+    private long handlerCpuNanos;
+    private long startNanos;
+
+    /** Frame JPEG con el instante (ms epoch) en que Chrome lo pintó. */
+    public static final class Frame {
+        public final long timestamp;
+        public final byte[] jpeg;
+
+        Frame(long timestamp, byte[] jpeg) {
+            this.timestamp = timestamp;
+            this.jpeg = jpeg;
+        }
+    }
+
+    /** Costo de una grabación, de {@link #start} a {@link #stop}. */
+    public static final class Stats {
+        public final long durationMs;
+        public final long framesReceived;
+        public final long framesKept;
+        public final int framesInBuffer;
+        public final long peakBufferBytes;
+        public final double handlerCpuMs;
+
+        Stats(long durationMs, long framesReceived, long framesKept, int framesInBuffer, long peakBufferBytes,
+              double handlerCpuMs) {
+            this.durationMs = durationMs;
+            this.framesReceived = framesReceived;
+            this.framesKept = framesKept;
+            this.framesInBuffer = framesInBuffer;
+            this.peakBufferBytes = peakBufferBytes;
+            this.handlerCpuMs = handlerCpuMs;
+        }
+
+        public Map<String, Object> toJson() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("durationMs", durationMs);
+            m.put("framesReceived", framesReceived);
+            m.put("framesKept", framesKept);
+            m.put("framesInBuffer", framesInBuffer);
+            m.put("peakBufferBytes", peakBufferBytes);
+            m.put("handlerCpuMs", Math.round(handlerCpuMs * 100) / 100.0);
+            return m;
+        }
+    }
+
+    private Screencast(WebDriver driver) {
+        this.driver = driver;
+        this.available = Cdp.supported(driver);
+    }
+
+    public static Screencast of(WebDriver driver) {
+        WebDriver real = Cdp.unwrap(driver);
+        synchronized (CASTS) {
+            return CASTS.computeIfAbsent(real, Screencast::new);
+        }
+    }
+
+    public boolean available() {
+        return available;
+    }
+
+    /** Arranca (o reinicia) la grabación con un buffer de {@code seconds × fps} frames. */
+    public synchronized void start(int seconds, int fps) {
+        if (!available) {
+            return;
+        }
+        int f = Math.max(1, fps);
+        ring = new Frame[Math.max(1, seconds) * f];
+        next = 0;
+        size = 0;
+        minIntervalMs = 1000L / f;
+        lastKeptMs = 0;
+        received = 0;
+        kept = 0;
+        bytes = 0;
+        peakBytes = 0;
+        handlerCpuNanos = 0;
+        startNanos = System.nanoTime();
+        try {
+            if (!listening) {
+                Cdp.on(driver, "Page.screencastFrame", this::onFrame);
+                listening = true;
+            }
+            Map<String, Object> params = new LinkedHashMap<>();
+            params.put("format", "jpeg");
+            params.put("quality", QUALITY);
+            params.put("maxWidth", MAX_WIDTH);
+            params.put("maxHeight", MAX_HEIGHT);
+            Cdp.send(driver, "Page.startScreencast", params);
+            active = true;
+        } catch (RuntimeException ignore) {
+            // sin screencast el test sigue igual; sólo no habrá video
+        }
+    }
+
+    /** Copia de los frames del buffer, del más viejo al más nuevo. */
+    public synchronized List<Frame> frames() {
+        List<Frame> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            out.add(ring[(next - size + i + ring.length) % ring.length]);
+        }
+        return out;
+    }
+
+    /** Para la grabación, libera el buffer y devuelve lo que costó (null si no estaba grabando). */
+    public Stats stop() {
+        Stats stats;
+        synchronized (this) {
+            if (!active) {
+                return null;
+            }
+            active = false;
+            stats = new Stats((System.nanoTime() - startNanos) / 1_000_000, received, kept, size, peakBytes,
+                    handlerCpuNanos / 1e6);
+            ring = new Frame[0];
+            next = 0;
+            size = 0;
+            bytes = 0;
+        }
+        try {
+            Cdp.send(driver, "Page.stopScreencast", Map.of());
+        } catch (RuntimeException ignore) {
+            // driver cerrado
+        }
+        return stats;
+    }
+
+    /** Para la grabación del driver si tenía una (no la crea). */
+    public static void resetFor(WebDriver driver) {
+        Screencast s;
+        synchronized (CASTS) {
+            s = CASTS.get(Cdp.unwrap(driver));
+        }
+        if (s != null) {
+            s.stop();
+        }
+    }
+
+    /* ---------- Eventos CDP ---------- */
+    private void onFrame(Map<String, Object> e) {
+        long cpu = cpuNanos();
+        Object sessionId = e.get("sessionId");
+        try {
+            synchronized (this) {
+                received++;
+                long ts = (long) (Cdp.num(Cdp.map(e, "metadata"), "timestamp") * 1000);
+                if (active && ts - lastKeptMs >= minIntervalMs) {
+                    byte[] jpeg = Base64.getDecoder().decode(Cdp.str(e, "data"));
+                    Frame old = ring[next];
+                    if (old != null) {
+                        bytes -= old.jpeg.length;
+                    } else {
+                        size++;
+                    }
+                    ring[next] = new Frame(ts, jpeg);
+                    next = (next + 1) % ring.length;
+                    bytes += jpeg.length;
+                    peakBytes = Math.max(peakBytes, bytes);
+                    lastKeptMs = ts;
+                    kept++;
+                }
+            }
+            // Sin ack Chrome deja de mandar frames
+            if (sessionId != null) {
+                Cdp.send(driver, "Page.screencastFrameAck", Map.of("sessionId", sessionId));
+            }
+        } catch (RuntimeException ignore) {
+            // el target se cerró entre el frame y el ack
+        } finally {
+            synchronized (this) {
+                handlerCpuNanos += cpuNanos() - cpu;
+            }
+        }
+    }
+
+    private static long cpuNanos() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : 0;
+    }
+}
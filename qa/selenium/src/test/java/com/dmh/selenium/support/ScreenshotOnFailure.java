@@ -1,48 +1,167 @@
 package com.dmh.selenium.support;
 
-import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.Path;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Supplier;
 
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
 import org.junit.jupiter.api.extension.ExtensionContext;
-import org.junit.jupiter.api.extension.TestWatcher;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
 
-public class ScreenshotOnFailure implements TestWatcher {
+/**
+ * Extensión JUnit que junta los artefactos de un test fallido: captura de pantalla, HTML, DOM snapshot de CDP
+ * ({@code DOMSnapshot.captureSnapshot}, con layout y estilos básicos) y la consola del browser ({@link ConsoleLog}).
+ * <p>
+ * Corre después del cuerpo del test y antes de {@code @AfterEach}, con el driver todavía prestado
+ * (un {@code TestWatcher} llega tarde: el driver ya volvió limpio al pool). En el hilo del test sólo se piden
+ * los datos, sobre el driver sin decorar para no sumar comandos a {@link CommandMetrics}; hash, gzip y disco
+ * quedan para {@link FailureArtifacts}. Desactivar: {@code FAILURE_ARTIFACTS=false}.
+ * <p>
+ * Con {@code SCREENCAST=true} además graba cada test en el ring buffer de {@link Screencast} y, si falla, adjunta
+ * los últimos segundos como GIF. El costo de grabar (frames, memoria retenida, CPU del handler) queda por test
+ * en {@code target/surefire-reports/perf/<Clase>.screencast.json}.
+ */
+public class ScreenshotOnFailure implements BeforeTestExecutionCallback, AfterTestExecutionCallback, AfterAllCallback {
+
+    private static final Json JSON = new Json();
+    private static final ConcurrentLinkedQueue<Map<String, Object>> SCREENCASTS = new ConcurrentLinkedQueue<>();
+
+    /** Estilos que se guardan por nodo en el DOM snapshot: lo justo para saber si algo se veía. */
+    private static final List<String> COMPUTED_STYLES = List.of("display", "visibility", "opacity");
 
     private final Supplier<WebDriver> driverSupplier;
 
+    /** Para {@code @ExtendWith}: el driver del hilo ({@link DriverHolder}). */
+    public ScreenshotOnFailure() {
+        this(DriverHolder::get);
+    }
+
     public ScreenshotOnFailure(Supplier<WebDriver> driverSupplier) {
         this.driverSupplier = driverSupplier;
     }
 
     @Override
-    public void testFailed(ExtensionContext context, Throwable cause) {
-        try {
-            WebDriver driver = driverSupplier.get();
-            if (driver == null) {
-                return;
+    public void beforeTestExecution(ExtensionContext context) {
+        WebDriver driver = driverSupplier.get();
+        if (driver != null && enabled()) {
+            // Desde ahora: lo que se loguee antes de instalarlo (p. ej. en @BeforeEach) no queda
+            ConsoleLog.of(driver);
+            if (Config.bool(false, "SCREENCAST", "screencast")) {
+                Screencast.of(driver).start(Config.intValue(10, "SCREENCAST_SECONDS", "screencastSeconds"),
+                        Config.intValue(5, "SCREENCAST_FPS", "screencastFps"));
             }
+        }
+    }
 
-            String name = context.getRequiredTestClass().getSimpleName()
-                    + "-" + context.getRequiredTestMethod().getName()
-                    + "-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
-
-            Path dir = Path.of("target", "surefire-reports", "screenshots");
-            Files.createDirectories(dir);
-
-            // Screenshot
-            File png = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
-            Files.copy(png.toPath(), dir.resolve(name + ".png"));
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        Throwable cause = context.getExecutionException().orElse(null);
+        WebDriver driver = driverSupplier.get();
+        if (driver == null || !enabled()) {
+            return;
+        }
+        Screencast cast = Screencast.of(driver);
+        List<Screencast.Frame> frames = cause != null ? cast.frames() : null;
+        Screencast.Stats stats = cast.stop();
+        if (stats != null) {
+            Map<String, Object> doc = new LinkedHashMap<>();
+            doc.put("test", PerfReport.testId(context));
+            doc.put("failed", cause != null);
+            doc.putAll(stats.toJson());
+            SCREENCASTS.add(doc);
+        }
+        if (cause == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        WebDriver real = Cdp.unwrap(driver);
+        String url = null;
+        byte[] png = null;
+        String html = null;
+        Map<String, Object> dom = null;
+        List<Map<String, Object>> console = null;
+        // Cada parte por separado: si el renderer está colgado, lo que se pueda
+        try {
+            url = real.getCurrentUrl();
+        } catch (RuntimeException ignore) {
+        }
+        try {
+            png = ((TakesScreenshot) real).getScreenshotAs(OutputType.BYTES);
+        } catch (RuntimeException ignore) {
+        }
+        try {
+            html = real.getPageSource();
+        } catch (RuntimeException ignore) {
+        }
+        if (Cdp.supported(real)) {
+            try {
+                dom = Cdp.send(real, "DOMSnapshot.captureSnapshot",
+                        Map.of("computedStyles", COMPUTED_STYLES, "includeDOMRects", true));
+            } catch (RuntimeException ignore) {
+            }
+            ConsoleLog log = ConsoleLog.of(real);
+            if (log.available()) {
+                console = log.entries();
+            }
+        }
+        long captureMs = (System.nanoTime() - start) / 1_000_000;
+        FailureArtifacts.shared().submit(new FailureArtifacts.Capture(PerfReport.testId(context), Instant.now(),
+                String.valueOf(cause), url, png, html, dom, console, frames, captureMs));
+    }
 
-            // HTML
-            Files.writeString(dir.resolve(name + ".html"), driver.getPageSource());
-        } catch (Exception ignore) {
+    @Override
+    public void afterAll(ExtensionContext context) {
+        String cls = context.getRequiredTestClass().getName();
+        List<Map<String, Object>> tests = new ArrayList<>();
+        SCREENCASTS.removeIf(t -> {
+            if (String.valueOf(t.get("test")).startsWith(cls + "#")) {
+                tests.add(t);
+                return true;
+            }
+            return false;
+        });
+        if (tests.isEmpty()) {
+            return;
         }
+        long durationMs = 0;
+        double cpuMs = 0;
+        long peakBytes = 0;
+        for (Map<String, Object> t : tests) {
+            durationMs += ((Number) t.get("durationMs")).longValue();
+            cpuMs += ((Number) t.get("handlerCpuMs")).doubleValue();
+            peakBytes = Math.max(peakBytes, ((Number) t.get("peakBufferBytes")).longValue());
+        }
+        Map<String, Object> doc = new LinkedHashMap<>();
+        doc.put("testClass", cls);
+        doc.put("seconds", Config.intValue(10, "SCREENCAST_SECONDS", "screencastSeconds"));
+        doc.put("fps", Config.intValue(5, "SCREENCAST_FPS", "screencastFps"));
+        // CPU del lado Java (decodificar + guardar + ack) sobre el tiempo grabado; memoria = máximo retenido por driver
+        doc.put("handlerCpuMs", Math.round(cpuMs * 100) / 100.0);
+        doc.put("handlerCpuPercent", durationMs > 0 ? Math.round(cpuMs / durationMs * 10000) / 100.0 : 0);
+        doc.put("peakBufferBytes", peakBytes);
+        doc.put("tests", tests);
+        try {
+            Files.createDirectories(PerfReport.dir());
+            Files.writeString(PerfReport.dir().resolve(cls + ".screencast.json"), JSON.toJson(doc),
+                    StandardCharsets.UTF_8);
+        } catch (IOException ignore) {
+            // el reporte nunca rompe la corrida
+        }
+    }
+
+    private static boolean enabled() {
+        return Config.bool(true, "FAILURE_ARTIFACTS", "failureArtifacts");
     }
 }
@@ -0,0 +1,173 @@
+package com.dmh.selenium.support;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+
+import com.dmh.selenium.pages.LoginPage;
+
+/**
+ * Sesión autenticada compartida por la JVM (memoria) y entre corridas (target/session-state.json).
+ * <p>
+ * Se loguea una sola vez (por API con {@link ApiLogin} o, si no se puede, por UI), se captura el estado
+ * y se inyecta en los drivers siguientes.
+ * Si la app rechaza el token cacheado (redirige a /login), se invalida y se vuelve al login por UI.
+ */
+public final class SessionCache {
+
+    /** No reutilizamos un token al que le quede menos que esto. */
+    private static final long EXPIRY_MARGIN_SECONDS = 120;
+
+    private static final By AUTHENTICATED = By.cssSelector("[data-testid='navbar-user-greeting']");
+
+    private static volatile SessionState memory;
+
+    private SessionCache() {
+    }
+
+    public static boolean enabled() {
+        return Config.bool(true, "SESSION_CACHE", "sessionCache");
+    }
+
+    public static Path file() {
+        return Path.of(Config.str("target/session-state.json", "SESSION_FILE", "sessionFile"));
+    }
+
+    /**
+     * Deja al driver autenticado y parado en /home (mismo punto final que {@link LoginPage#login}).
+     */
+    public static void signIn(WebDriver driver, String baseUrl, String email, String password) {
+        if (!enabled()) {
+            if (apiSignIn(driver, baseUrl, email, password) == null) {
+                new LoginPage(driver, baseUrl).login(email, password);
+            }
+            return;
+        }
+        SessionState cached = load(email, baseUrl);
+        if (cached != null) {
+            cached.inject(driver);
+            if (landsAuthenticated(driver, baseUrl)) {
+                return;
+            }
+            invalidate(cached);
+        }
+        loginAndCapture(driver, baseUrl, email, password);
+    }
+
+    public static void store(SessionState state) {
+        memory = state;
+        try {
+            // Escritura atómica y bajo lock: otros forks y shards leen e invalidan el mismo archivo
+            Path f = file();
+            SharedFile.locked(f, () -> SharedFile.write(f, state.toJson()));
+        } catch (IOException ignore) {
+            // sin disco seguimos con la copia en memoria
+        }
+    }
+
+    /* ---------- Helpers ---------- */
+    private static SessionState load(String email, String baseUrl) {
+        SessionState s = memory;
+        if (usable(s, email, baseUrl)) {
+            return s;
+        }
+        try {
+            Path f = file();
+            if (Files.isRegularFile(f)) {
+                s = SessionState.fromJson(Files.readString(f, StandardCharsets.UTF_8));
+                if (usable(s, email, baseUrl)) {
+                    memory = s;
+                    return s;
+                }
+            }
+        } catch (IOException ignore) {
+        }
+        return null;
+    }
+
+    private static boolean usable(SessionState s, String email, String baseUrl) {
+        return s != null && s.matches(email, baseUrl) && !s.isExpired(EXPIRY_MARGIN_SECONDS);
+    }
+
+    private static synchronized void invalidate(SessionState rejected) {
+        if (memory == rejected) {
+            memory = null;
+        }
+        try {
+            // Sólo si sigue siendo la rechazada: otro shard pudo haber guardado una sesión nueva mientras tanto
+            Path f = file();
+            SharedFile.locked(f, () -> {
+                if (Files.isRegularFile(f) && sameSession(Files.readString(f, StandardCharsets.UTF_8), rejected)) {
+                    Files.delete(f);
+                }
+            });
+        } catch (IOException ignore) {
+        }
+    }
+
+    /** Comparadas por su JSON, ambas pasadas por {@link SessionState#fromJson} (la de disco es otra instancia). */
+    private static boolean sameSession(String onDisk, SessionState rejected) {
+        try {
+            return SessionState.fromJson(onDisk).toJson().equals(SessionState.fromJson(rejected.toJson()).toJson());
+        } catch (RuntimeException e) {
+            // ilegible: no sirve a nadie
+            return true;
+        }
+    }
+
+    /** Un solo hilo hace el login; los demás reutilizan lo que capture. */
+    private static synchronized void loginAndCapture(WebDriver driver, String baseUrl, String email, String password) {
+        SessionState fresh = load(email, baseUrl);
+        if (fresh != null) {
+            fresh.inject(driver);
+            if (landsAuthenticated(driver, baseUrl)) {
+                return;
+            }
+            invalidate(fresh);
+        }
+        SessionState api = apiSignIn(driver, baseUrl, email, password);
+        if (api != null) {
+            store(api);
+            return;
+        }
+        new LoginPage(driver, baseUrl).login(email, password);
+        WaitPolicy.until(driver, "sesion.autenticada", Duration.ofSeconds(15),
+                ExpectedConditions.presenceOfElementLocated(AUTHENTICATED));
+        store(SessionState.capture(driver, email, baseUrl));
+    }
+
+    /** Sin browser: /api/login + Supabase Auth. Devuelve null si no está configurado o lo rechazan. */
+    private static SessionState apiSignIn(WebDriver driver, String baseUrl, String email, String password) {
+        if (!ApiLogin.available()) {
+            return null;
+        }
+        try {
+            SessionState api = ApiLogin.login(baseUrl, email, password);
+            api.inject(driver);
+            return landsAuthenticated(driver, baseUrl) ? api : null;
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+
+    private static boolean landsAuthenticated(WebDriver driver, String baseUrl) {
+        driver.navigate().to(baseUrl + "/home");
+        try {
+            // until() sigue esperando ante false, así que devolvemos el desenlace como texto
+            String outcome = WaitPolicy.until(driver, "sesion.aterrizaje", Duration.ofSeconds(15), d ->
+                    d.getCurrentUrl().contains("/login") ? "rechazado"
+                    : !d.findElements(AUTHENTICATED).isEmpty() ? "ok"
+                    : null);
+            return "ok".equals(outcome);
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.dmh.selenium.support;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonException;
+
+/**
+ * Foto de una sesión autenticada (al estilo storageState de Playwright):
+ * cookies + localStorage del origen de la app, con su vencimiento.
+ */
+public final class SessionState {
+
+    private static final Json JSON = new Json();
+
+    /** Si no encontramos el token de Supabase, asumimos esta vida útil. */
+    private static final long DEFAULT_TTL_SECONDS = 30 * 60;
+
+    final String email;
+    final String baseUrl;
+    final long expiresAt; // epoch seconds
+    final List<Map<String, Object>> cookies;
+    final Map<String, String> localStorage;
+
+    SessionState(String email, String baseUrl, long expiresAt,
+            List<Map<String, Object>> cookies, Map<String, String> localStorage) {
+        this.email = email;
+        this.baseUrl = baseUrl;
+        this.expiresAt = expiresAt;
+        this.cookies = cookies;
+        this.localStorage = localStorage;
+    }
+
+    /* ---------- Captura / inyección ---------- */
+    @SuppressWarnings("unchecked")
+    public static SessionState capture(WebDriver driver, String email, String baseUrl) {
+        List<Map<String, Object>> cookies = new ArrayList<>();
+        for (Cookie c : driver.manage().getCookies()) {
+            cookies.add(new LinkedHashMap<>(c.toJson()));
+        }
+        Object raw = ((JavascriptExecutor) driver).executeScript(
+                "var o={};for(var i=0;i<localStorage.length;i++){var k=localStorage.key(i);o[k]=localStorage.getItem(k);}return o;");
+        Map<String, String> ls = new LinkedHashMap<>();
+        if (raw instanceof Map) {
+            ((Map<String, Object>) raw).forEach((k, v) -> ls.put(k, String.valueOf(v)));
+        }
+        return new SessionState(email, baseUrl, resolveExpiry(cookies, ls), cookies, ls);
+    }
+
+    /**
+     * Carga cookies y localStorage en el driver. Hay que estar en el origen para escribirlos,
+     * así que se pasa por /favicon.ico (estático, no ejecuta JS de la app).
+     */
+    public void inject(WebDriver driver) {
+        driver.navigate().to(baseUrl + "/favicon.ico");
+        for (Map<String, Object> c : cookies) {
+            Cookie.Builder b = new Cookie.Builder(String.valueOf(c.get("name")), String.valueOf(c.get("value")))
+                    .path(c.get("path") != null ? String.valueOf(c.get("path")) : "/")
+                    .isSecure(Boolean.TRUE.equals(c.get("secure")))
+                    .isHttpOnly(Boolean.TRUE.equals(c.get("httpOnly")));
+            if (c.get("expiry") instanceof Number) {
+                b.expiresOn(new Date(((Number) c.get("expiry")).longValue() * 1000));
+            }
+            if (c.get("sameSite") != null) {
+                b.sameSite(String.valueOf(c.get("sameSite")));
+            }
+            driver.manage().addCookie(b.build());
+        }
+        ((JavascriptExecutor) driver).executeScript(
+                "var o=arguments[0];for(var k in o){localStorage.setItem(k,o[k]);}", localStorage);
+    }
+
+    public boolean isExpired(long marginSeconds) {
+        return Instant.now().getEpochSecond() + marginSeconds >= expiresAt;
+    }
+
+    public boolean matches(String email, String baseUrl) {
+        return this.email != null && this.email.equalsIgnoreCase(email) && this.baseUrl.equals(baseUrl);
+    }
+
+    /* ---------- Serialización ---------- */
+    public String toJson() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("email", email);
+        m.put("baseUrl", baseUrl);
+        m.put("expiresAt", expiresAt);
+        m.put("cookies", cookies);
+        m.put("localStorage", localStorage);
+        return JSON.toJson(m);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static SessionState fromJson(String text) {
+        try {
+            Map<String, Object> m = JSON.toType(text, Json.MAP_TYPE);
+            Map<String, String> ls = new LinkedHashMap<>();
+            ((Map<String, Object>) m.getOrDefault("localStorage", Map.of())).forEach((k, v) -> ls.put(k, String.valueOf(v)));
+            return new SessionState(
+                    (String) m.get("email"),
+                    (String) m.get("baseUrl"),
+                    ((Number) m.get("expiresAt")).longValue(),
+                    (List<Map<String, Object>>) m.getOrDefault("cookies", List.of()),
+                    ls);
+        } catch (JsonException | ClassCastException | NullPointerException e) {
+            return null;
+        }
+    }
+
+    /* ---------- Helpers ---------- */
+    /** supabase-js guarda la sesión en localStorage ("sb-&lt;ref&gt;-auth-token") con expires_at en segundos. */
+    private static long resolveExpiry(List<Map<String, Object>> cookies, Map<String, String> ls) {
+        long best = Long.MAX_VALUE;
+        for (Map.Entry<String, String> e : ls.entrySet()) {
+            if (e.getKey().startsWith("sb-") && e.getKey().endsWith("-auth-token")) {
+                try {
+                    Map<String, Object> token = JSON.toType(e.getValue(), Json.MAP_TYPE);
+                    Object exp = token.get("expires_at");
+                    if (exp instanceof Number) {
+                        best = Math.min(best, ((Number) exp).longValue());
+                    }
+                } catch (JsonException ignore) {
+                }
+            }
+        }
+        for (Map<String, Object> c : cookies) {
+            String name = String.valueOf(c.get("name"));
+            if (name.startsWith("sb-") && c.get("expiry") instanceof Number) {
+                best = Math.min(best, ((Number) c.get("expiry")).longValue());
+            }
+        }
+        return best != Long.MAX_VALUE ? best : Instant.now().getEpochSecond() + DEFAULT_TTL_SECONDS;
+    }
+}
@@ -0,0 +1,267 @@
+package com.dmh.selenium.support;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.openqa.selenium.json.Json;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Junta los reportes de los shards de {@link ShardPlan} en uno solo, como si hubiera corrido una JVM:
+ * <pre>
+ *   java -cp "target/test-classes:$(cat target/cp.txt)" com.dmh.selenium.support.ShardMerge \
+ *        target/surefire-reports target/shards/1 target/shards/2 target/shards/3
+ * </pre>
+ * <ul>
+ *   <li>{@code TEST-*.xml} y {@code *.txt} quedan en el destino, uno por clase; una clase partida entre shards se
+ *   une en una sola suite (tests, fallas, errores, skipped y {@code time} sumados).</li>
+ *   <li>El resto de cada shard (perf, artefactos de falla, dumps) se copia a {@code shards/<shard>/}: son reportes
+ *   por JVM y no se mezclan.</li>
+ *   <li>{@code shards.json}: por shard, lo estimado por el plan contra lo medido (suma de sus suites), el shard más
+ *   lento y la suma en serie; y las clases del plan que no dejaron reporte (JVM caída).</li>
+ * </ul>
+ * Después suma los reportes de cada shard (no los unidos) al historial de duraciones ({@link TestTimings}). Sale con 1
+ * si hubo fallas, errores o clases sin reporte: es la única señal que hace falta mirar de la corrida partida.
+ */
+public final class ShardMerge {
+
+    private static final Json JSON = new Json();
+    private static final String[] COUNTERS = {"tests", "errors", "skipped", "failures"};
+
+    private ShardMerge() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: ShardMerge <destino> <dir de shard>...");
+            System.exit(2);
+        }
+        Path out = Path.of(args[0]);
+        List<Path> shards = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            shards.add(Path.of(args[i]));
+        }
+        Files.createDirectories(out);
+        clean(out);
+
+        // Clase → sus reportes en cada shard
+        Map<String, List<Path>> xml = new TreeMap<>();
+        Map<String, List<Path>> txt = new TreeMap<>();
+        List<Map<String, Object>> perShard = new ArrayList<>();
+        Map<String, Long> estimated = estimates();
+        for (Path shard : shards) {
+            String label = shard.getFileName().toString();
+            long ms = 0;
+            int tests = 0;
+            int bad = 0;
+            if (Files.isDirectory(shard)) {
+                try (Stream<Path> s = Files.list(shard)) {
+                    for (Path p : (Iterable<Path>) s.sorted()::iterator) {
+                        String n = p.getFileName().toString();
+                        if (TestTimings.isReport(p)) {
+                            Element suite = TestTimings.read(p).getDocumentElement();
+                            ms += TestTimings.millis(suite.getAttribute("time"));
+                            tests += count(suite, "tests");
+                            bad += count(suite, "failures") + count(suite, "errors");
+                            xml.computeIfAbsent(suite.getAttribute("name"), k -> new ArrayList<>()).add(p);
+                        } else if (n.endsWith(".txt") && Files.isRegularFile(p)) {
+                            txt.computeIfAbsent(n, k -> new ArrayList<>()).add(p);
+                        } else {
+                            copyTree(p, out.resolve("shards").resolve(label).resolve(n));
+                        }
+                    }
+                }
+            }
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("shard", label);
+            m.put("estimatedMs", estimated.get(label));
+            m.put("ms", ms);
+            m.put("tests", tests);
+            m.put("failed", bad);
+            perShard.add(m);
+        }
+
+        int tests = 0;
+        int failed = 0;
+        for (Map.Entry<String, List<Path>> e : xml.entrySet()) {
+            Element suite = merge(e.getValue(), out.resolve("TEST-" + e.getKey() + ".xml"));
+            tests += count(suite, "tests");
+            failed += count(suite, "failures") + count(suite, "errors");
+        }
+        for (Map.Entry<String, List<Path>> e : txt.entrySet()) {
+            Path target = out.resolve(e.getKey());
+            Files.deleteIfExists(target);
+            for (Path part : e.getValue()) {
+                Files.write(target, Files.readAllBytes(part), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+        }
+
+        Set<String> missing = new TreeSet<>(planned());
+        missing.removeAll(xml.keySet());
+        long serial = perShard.stream().mapToLong(m -> (Long) m.get("ms")).sum();
+        long slowest = perShard.stream().mapToLong(m -> (Long) m.get("ms")).max().orElse(0);
+        Map<String, Object> doc = new LinkedHashMap<>();
+        doc.put("shards", perShard);
+        doc.put("slowestMs", slowest);
+        doc.put("serialMs", serial);
+        doc.put("tests", tests);
+        doc.put("failed", failed);
+        doc.put("missing", missing);
+        Files.writeString(out.resolve("shards.json"), JSON.toJson(doc), StandardCharsets.UTF_8);
+
+        // Al historial, los reportes de cada shard: en una suite unida el "fuera de los métodos" sumaría el costo
+        // fijo de cada JVM que corrió la clase, y ShardPlan lo cobra por shard
+        Path timingsFile = TestTimings.file();
+        TestTimings timings = TestTimings.load(timingsFile);
+        timings.ingest(shards.toArray(new Path[0]));
+        timings.skip(out);
+        timings.save(timingsFile);
+
+        System.err.printf("Shards: %d → %d tests, %d con falla; el más lento %.1f s (en serie %.1f s)%s%n",
+                shards.size(), tests, failed, slowest / 1000.0, serial / 1000.0,
+                missing.isEmpty() ? "" : "; sin reporte: " + missing);
+        if (failed > 0 || !missing.isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    /** Reportes de una corrida anterior en el destino: si quedaran, se mezclarían con los de los shards. */
+    private static void clean(Path out) throws IOException {
+        try (Stream<Path> s = Files.list(out)) {
+            for (Path p : s.collect(Collectors.toList())) {
+                String n = p.getFileName().toString();
+                if (TestTimings.isReport(p) || n.endsWith(".txt") || n.equals("shards.json")) {
+                    Files.delete(p);
+                } else if (n.equals("shards") && Files.isDirectory(p)) {
+                    try (Stream<Path> old = Files.walk(p)) {
+                        for (Path f : old.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                            Files.delete(f);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /** Una suite por clase: si vino de varios shards, los testcases de todos y los contadores sumados. */
+    private static Element merge(List<Path> parts, Path target) throws IOException {
+        if (parts.size() == 1) {
+            Files.copy(parts.get(0), target, StandardCopyOption.REPLACE_EXISTING);
+            return TestTimings.read(target).getDocumentElement();
+        }
+        Document doc = TestTimings.read(parts.get(0));
+        Element suite = doc.getDocumentElement();
+        long ms = TestTimings.millis(suite.getAttribute("time"));
+        for (Path p : parts.subList(1, parts.size())) {
+            Element other = TestTimings.read(p).getDocumentElement();
+            for (String c : COUNTERS) {
+                suite.setAttribute(c, String.valueOf(count(suite, c) + count(other, c)));
+            }
+            ms += TestTimings.millis(other.getAttribute("time"));
+            for (Element tc : TestTimings.children(other, "testcase")) {
+                suite.appendChild(doc.importNode(tc, true));
+            }
+        }
+        suite.setAttribute("time", String.format(Locale.ROOT, "%.3f", ms / 1000.0));
+        try (OutputStream os = Files.newOutputStream(target)) {
+            Transformer t = TransformerFactory.newInstance().newTransformer();
+            t.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+            t.transform(new DOMSource(doc), new StreamResult(os));
+        } catch (TransformerException e) {
+            throw new IOException(target + ": " + e.getMessage(), e);
+        }
+        return suite;
+    }
+
+    private static int count(Element suite, String attr) {
+        try {
+            return Integer.parseInt(suite.getAttribute(attr));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static void copyTree(Path from, Path to) throws IOException {
+        try (Stream<Path> s = Files.walk(from)) {
+            for (Path p : (Iterable<Path>) s::iterator) {
+                Path dest = to.resolve(from.relativize(p).toString());
+                if (Files.isDirectory(p)) {
+                    Files.createDirectories(dest);
+                } else {
+                    Files.createDirectories(dest.getParent());
+                    Files.copy(p, dest, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+    }
+
+    /* ---------- Plan ---------- */
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> plan() {
+        Path file = ShardPlan.file();
+        if (!Files.isRegularFile(file)) {
+            return List.of();
+        }
+        try {
+            Map<String, Object> doc = JSON.toType(Files.readString(file, StandardCharsets.UTF_8), Json.MAP_TYPE);
+            List<Map<String, Object>> out = new ArrayList<>();
+            for (Object s : (Collection<Object>) doc.get("shards")) {
+                out.add((Map<String, Object>) s);
+            }
+            return out;
+        } catch (IOException | RuntimeException e) {
+            return List.of();
+        }
+    }
+
+    /** Shard (por el nombre de su directorio: {@code target/shards/2} → "2") → lo que estimó el plan. */
+    private static Map<String, Long> estimates() {
+        Map<String, Long> out = new TreeMap<>();
+        for (Map<String, Object> s : plan()) {
+            if (s.get("estimatedMs") instanceof Number) {
+                out.put(String.valueOf(s.get("index")), ((Number) s.get("estimatedMs")).longValue());
+            }
+        }
+        return out;
+    }
+
+    /** Clases que el plan mandó a algún shard. */
+    @SuppressWarnings("unchecked")
+    private static Set<String> planned() {
+        Set<String> out = new TreeSet<>();
+        for (Map<String, Object> s : plan()) {
+            if (s.get("units") instanceof Collection) {
+                for (Object u : (Collection<Object>) s.get("units")) {
+                    out.add(String.valueOf(((Map<String, Object>) u).get("class")));
+                }
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,326 @@
+package com.dmh.selenium.support;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openqa.selenium.json.Json;
+
+import com.dmh.selenium.BaseTest;
+
+/**
+ * Reparto de los smokes en K shards (una JVM + un Chrome cada uno) con duraciones de corridas anteriores
+ * ({@link TestTimings}): primero el más largo, siempre al shard con menos carga (LPT). Así el tiempo total lo marca
+ * el shard más lento y no la suma de todos los tests.
+ * <pre>
+ *   java -cp "target/test-classes:$(cat target/cp.txt)" com.dmh.selenium.support.ShardPlan 3     # una línea por shard
+ *   java -cp "target/test-classes:$(cat target/cp.txt)" com.dmh.selenium.support.ShardPlan 3 2   # sólo el shard 2
+ * </pre>
+ * Cada línea es un valor de {@code -Dtest} ({@code Clase} o {@code Clase#m1+m2}); un shard sin tests queda como
+ * línea vacía y no hay que lanzarlo (un {@code -Dtest} vacío corre todo). Las unidades son clases; una clase que
+ * sola pasa de la carga ideal (total / K) se parte por método, salvo que fije el orden o comparta la instancia
+ * ({@code @TestMethodOrder}, {@code @TestInstance}). Cada parte paga de nuevo el overhead de su clase.
+ * <p>
+ * Antes de planear se suman al historial los reportes nuevos de {@code REPORTS_DIR}. Sin historial cada test vale
+ * lo mismo (reparto por cantidad); un test nuevo vale la mediana de los conocidos. El plan queda en
+ * {@code SHARD_PLAN} (default {@code target/shards.json}); con un índice se reusa ese plan si es de K shards, así
+ * los jobs de CI de un mismo pipeline no dependen de planear igual cada uno. {@link ShardMerge} junta los reportes.
+ */
+public final class ShardPlan {
+
+    private static final Json JSON = new Json();
+    /** Lo que vale un test cuando no hay nada de historial: sólo importa que sea igual para todos. */
+    private static final long DEFAULT_TEST_MS = 10_000;
+    private static final Set<String> TEST_ANNOTATIONS =
+            Set.of("Test", "RepeatedTest", "ParameterizedTest", "TestFactory", "TestTemplate");
+    private static final Set<String> ORDERED = Set.of("TestMethodOrder", "TestInstance");
+
+    /** Una clase entera ({@code methods} vacío) o parte de sus métodos. */
+    static final class Unit {
+        final String cls;
+        final List<String> methods;
+        final long ms;
+        final boolean estimated;
+
+        Unit(String cls, List<String> methods, long ms, boolean estimated) {
+            this.cls = cls;
+            this.methods = methods;
+            this.ms = ms;
+            this.estimated = estimated;
+        }
+
+        String pattern() {
+            String simple = cls.substring(cls.lastIndexOf('.') + 1);
+            return methods.isEmpty() ? simple : simple + "#" + String.join("+", methods);
+        }
+
+        Map<String, Object> toJson() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("class", cls);
+            if (!methods.isEmpty()) {
+                m.put("methods", methods);
+            }
+            m.put("ms", ms);
+            m.put("estimated", estimated);
+            return m;
+        }
+    }
+
+    static final class Shard {
+        final int index;
+        final List<Unit> units = new ArrayList<>();
+        long ms;
+
+        Shard(int index) {
+            this.index = index;
+        }
+
+        /** Las partes de una misma clase se juntan en un solo {@code Clase#a+b}. */
+        String pattern() {
+            Map<String, List<String>> byClass = new TreeMap<>();
+            Set<String> whole = new TreeSet<>();
+            for (Unit u : units) {
+                if (u.methods.isEmpty()) {
+                    whole.add(u.cls);
+                } else {
+                    byClass.computeIfAbsent(u.cls, k -> new ArrayList<>()).addAll(u.methods);
+                }
+            }
+            List<String> parts = new ArrayList<>();
+            whole.forEach(c -> parts.add(new Unit(c, List.of(), 0, false).pattern()));
+            byClass.forEach((c, m) -> parts.add(new Unit(c, m, 0, false).pattern()));
+            return String.join(",", parts);
+        }
+    }
+
+    private ShardPlan() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Uso: ShardPlan <shards> [índice desde 1]");
+            System.exit(2);
+        }
+        int k = Integer.parseInt(args[0]);
+        int index = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        if (k < 1 || index < 0 || index > k) {
+            throw new IllegalArgumentException("Shards: " + k + ", índice: " + index);
+        }
+        Path planFile = file();
+        if (index > 0) {
+            List<String> saved = savedPatterns(planFile, k);
+            if (saved != null) {
+                System.out.println(saved.get(index - 1));
+                return;
+            }
+        }
+
+        Path timingsFile = TestTimings.file();
+        TestTimings timings = TestTimings.load(timingsFile);
+        int fresh = timings.ingest(Config.reportsDir());
+        if (fresh > 0) {
+            timings.save(timingsFile);
+        }
+        List<Shard> shards = plan(units(testClasses(), timings, k), k);
+
+        long serial = shards.stream().mapToLong(s -> s.ms).sum();
+        long makespan = shards.stream().mapToLong(s -> s.ms).max().orElse(0);
+        List<Map<String, Object>> out = new ArrayList<>();
+        for (Shard s : shards) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("index", s.index);
+            m.put("estimatedMs", s.ms);
+            m.put("pattern", s.pattern());
+            m.put("units", s.units.stream().map(Unit::toJson).collect(Collectors.toList()));
+            out.add(m);
+        }
+        Map<String, Object> doc = new LinkedHashMap<>();
+        doc.put("count", k);
+        doc.put("timings", timingsFile.toString());
+        doc.put("historical", !timings.isEmpty());
+        doc.put("serialMs", serial);
+        doc.put("makespanMs", makespan);
+        doc.put("shards", out);
+        Path dir = planFile.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Files.writeString(planFile, JSON.toJson(doc), StandardCharsets.UTF_8);
+
+        System.err.printf("Shards: %d unidades en %d shards → el más lento ~%.1f s (en serie ~%.1f s)%s%n",
+                shards.stream().mapToInt(s -> s.units.size()).sum(), k, makespan / 1000.0, serial / 1000.0,
+                timings.isEmpty() ? "; sin historial, por cantidad de tests" : "");
+        if (index > 0) {
+            System.out.println(shards.get(index - 1).pattern());
+        } else {
+            shards.forEach(s -> System.out.println(s.pattern()));
+        }
+    }
+
+    static Path file() {
+        return Path.of(Config.str("target/shards.json", "SHARD_PLAN", "shardPlan"));
+    }
+
+    /** Los patrones de un plan ya escrito para K shards; null si no hay o es de otro K. */
+    @SuppressWarnings("unchecked")
+    private static List<String> savedPatterns(Path file, int k) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            Map<String, Object> doc = JSON.toType(Files.readString(file, StandardCharsets.UTF_8), Json.MAP_TYPE);
+            if (!(doc.get("count") instanceof Number) || ((Number) doc.get("count")).intValue() != k) {
+                return null;
+            }
+            List<String> out = new ArrayList<>();
+            for (Object s : (Collection<Object>) doc.get("shards")) {
+                out.add(String.valueOf(((Map<String, Object>) s).get("pattern")));
+            }
+            return out.size() == k ? out : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /** Longest-processing-time first: de mayor a menor, cada unidad al shard con menos carga. */
+    static List<Shard> plan(List<Unit> units, int k) {
+        List<Shard> shards = new ArrayList<>();
+        for (int i = 1; i <= k; i++) {
+            shards.add(new Shard(i));
+        }
+        List<Unit> sorted = new ArrayList<>(units);
+        sorted.sort(Comparator.comparingLong((Unit u) -> u.ms).reversed().thenComparing(Unit::pattern));
+        for (Unit u : sorted) {
+            Shard lightest = shards.get(0);
+            for (Shard s : shards) {
+                if (s.ms < lightest.ms) {
+                    lightest = s;
+                }
+            }
+            lightest.units.add(u);
+            lightest.ms += u.ms;
+        }
+        return shards;
+    }
+
+    /** Clase → sus tests, con costo estimado; las clases que solas pasan de total / K, partidas por método. */
+    static List<Unit> units(Map<Class<?>, List<String>> classes, TestTimings timings, int k) {
+        long typicalTest = timings.typicalTest().orElse(DEFAULT_TEST_MS);
+        long typicalOverhead = timings.typicalOverhead().orElse(0);
+        Map<Class<?>, Map<String, Long>> costs = new LinkedHashMap<>();
+        Map<Class<?>, Long> overheads = new LinkedHashMap<>();
+        Map<Class<?>, Boolean> estimated = new LinkedHashMap<>();
+        long total = 0;
+        for (Map.Entry<Class<?>, List<String>> e : classes.entrySet()) {
+            String cls = e.getKey().getName();
+            Map<String, Long> byMethod = new LinkedHashMap<>();
+            boolean guessed = timings.overhead(cls).isEmpty();
+            long overhead = timings.overhead(cls).orElse(typicalOverhead);
+            total += overhead;
+            for (String m : e.getValue()) {
+                long ms = timings.test(cls, m).orElse(-1);
+                if (ms < 0) {
+                    ms = typicalTest;
+                    guessed = true;
+                }
+                byMethod.put(m, ms);
+                total += ms;
+            }
+            costs.put(e.getKey(), byMethod);
+            overheads.put(e.getKey(), overhead);
+            estimated.put(e.getKey(), guessed);
+        }
+        long ideal = total / k;
+        List<Unit> out = new ArrayList<>();
+        costs.forEach((c, byMethod) -> {
+            long overhead = overheads.get(c);
+            long classMs = overhead + byMethod.values().stream().mapToLong(Long::longValue).sum();
+            if (k > 1 && classMs > ideal && byMethod.size() > 1 && splittable(c)) {
+                byMethod.forEach((m, ms) -> out.add(new Unit(c.getName(), List.of(m), overhead + ms,
+                        timings.test(c.getName(), m).isEmpty())));
+            } else {
+                out.add(new Unit(c.getName(), List.of(), classMs, estimated.get(c)));
+            }
+        });
+        return out;
+    }
+
+    private static boolean splittable(Class<?> c) {
+        for (Class<?> k = c; k != null && k != Object.class; k = k.getSuperclass()) {
+            for (Annotation a : k.getDeclaredAnnotations()) {
+                if (ORDERED.contains(a.annotationType().getSimpleName())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /* ---------- Descubrimiento ---------- */
+
+    /** Clases concretas que extienden {@link BaseTest} (los smokes), con sus métodos de test. */
+    static Map<Class<?>, List<String>> testClasses() throws IOException {
+        Path root;
+        try {
+            root = Path.of(ShardPlan.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+        List<String> names;
+        try (Stream<Path> s = Files.walk(root)) {
+            names = s.map(p -> root.relativize(p).toString().replace('\\', '/'))
+                    .filter(n -> n.endsWith("Test.class") && !n.contains("$"))
+                    .map(n -> n.substring(0, n.length() - ".class".length()).replace('/', '.'))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        ClassLoader loader = ShardPlan.class.getClassLoader();
+        Map<Class<?>, List<String>> out = new LinkedHashMap<>();
+        for (String name : names) {
+            Class<?> c;
+            try {
+                c = Class.forName(name, false, loader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                continue;
+            }
+            if (!BaseTest.class.isAssignableFrom(c) || Modifier.isAbstract(c.getModifiers())) {
+                continue;
+            }
+            List<String> methods = testMethods(c);
+            if (!methods.isEmpty()) {
+                out.put(c, methods);
+            }
+        }
+        return out;
+    }
+
+    private static List<String> testMethods(Class<?> c) {
+        Set<String> out = new TreeSet<>();
+        for (Class<?> k = c; k != null && k != Object.class; k = k.getSuperclass()) {
+            for (Method m : k.getDeclaredMethods()) {
+                for (Annotation a : m.getDeclaredAnnotations()) {
+                    Class<? extends Annotation> type = a.annotationType();
+                    if (type.getName().startsWith("org.junit.jupiter.")
+                            && TEST_ANNOTATIONS.contains(type.getSimpleName())) {
+                        out.add(m.getName());
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(out);
+    }
+}
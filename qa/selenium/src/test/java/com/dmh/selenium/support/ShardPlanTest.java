@@ -0,0 +1,156 @@
+package com.dmh.selenium.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Reparto LPT, reglas de partición por método e historial por shard, con resultados calculados a mano. */
+class ShardPlanTest {
+
+    /* Clases de mentira: sólo importan el nombre y las anotaciones. */
+    static class Big {
+    }
+
+    static class Small {
+    }
+
+    @TestMethodOrder(MethodOrderer.MethodName.class)
+    static class Ordered {
+    }
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void longestFirstToTheLightestShard() {
+        // 7→1, 5→2, 4→3, 3→3 (4), 2→2 (5), 2→1 (empate: el primero)
+        List<ShardPlan.Shard> shards = ShardPlan.plan(List.of(unit("A", 7), unit("B", 5), unit("C", 4),
+                unit("D", 3), unit("E", 2), unit("F", 2)), 3);
+        assertEquals(List.of("A,F", "B,E", "C,D"), patterns(shards));
+        assertEquals(List.of(9L, 7L, 7L), loads(shards));
+    }
+
+    @Test
+    void lptWorstCaseOfGraham() {
+        // {5,5,4,4,3,3,3} en 3: LPT llega a 11 (el óptimo es 9 = {5,4},{5,4},{3,3,3}); cota 4/3 - 1/(3·3) = 11/9
+        List<ShardPlan.Shard> shards = ShardPlan.plan(List.of(unit("A", 5), unit("B", 5), unit("C", 4),
+                unit("D", 4), unit("E", 3), unit("F", 3), unit("G", 3)), 3);
+        assertEquals(11L, loads(shards).stream().mapToLong(Long::longValue).max().orElseThrow());
+        assertEquals(List.of("A,E,G", "B,F", "C,D"), patterns(shards));
+    }
+
+    @Test
+    void classAboveTheIdealLoadIsSplitUnlessItFixesTheOrder() throws IOException {
+        TestTimings timings = timings(Map.of(
+                name(Big.class) + "#a", 8000L, name(Big.class) + "#b", 6000L, name(Big.class) + "#c", 4000L,
+                name(Ordered.class) + "#x", 7000L, name(Ordered.class) + "#y", 7000L,
+                name(Small.class) + "#m", 2000L),
+                Map.of(name(Big.class), 1000L, name(Ordered.class), 1000L, name(Small.class), 0L));
+        Map<Class<?>, List<String>> classes = new LinkedHashMap<>();
+        classes.put(Big.class, List.of("a", "b", "c"));
+        classes.put(Ordered.class, List.of("x", "y"));
+        classes.put(Small.class, List.of("m"));
+
+        // total 36000, K = 3 → ideal 12000: Big (19000) se parte y cada parte paga su overhead;
+        // Ordered (15000) también pasa, pero fija el orden de sus métodos y va entera
+        List<ShardPlan.Unit> units = ShardPlan.units(classes, timings, 3);
+        assertEquals(Map.of("ShardPlanTest$Big#a", 9000L, "ShardPlanTest$Big#b", 7000L,
+                        "ShardPlanTest$Big#c", 5000L, "ShardPlanTest$Ordered", 15000L, "ShardPlanTest$Small", 2000L),
+                units.stream().collect(Collectors.toMap(ShardPlan.Unit::pattern, u -> u.ms)));
+
+        List<ShardPlan.Shard> shards = ShardPlan.plan(units, 3);
+        assertEquals(List.of("ShardPlanTest$Ordered", "ShardPlanTest$Small,ShardPlanTest$Big#a",
+                "ShardPlanTest$Big#b+c"), patterns(shards));
+        assertEquals(List.of(15000L, 11000L, 12000L), loads(shards));
+
+        // Con un solo shard no se parte nada
+        assertEquals(3, ShardPlan.units(classes, timings, 1).size());
+    }
+
+    @Test
+    void withoutHistoryEveryTestCostsTheSameAndNewTestsCostTheMedian() throws IOException {
+        Map<Class<?>, List<String>> classes = new LinkedHashMap<>();
+        classes.put(Big.class, List.of("a", "b"));
+        classes.put(Small.class, List.of("m"));
+        List<ShardPlan.Unit> none = ShardPlan.units(classes, timings(Map.of(), Map.of()), 1);
+        assertEquals(List.of(20_000L, 10_000L), none.stream().map(u -> u.ms).collect(Collectors.toList()));
+
+        // Big#b no tiene historial: vale la mediana de los conocidos (1000, 3000 → la menor del medio, 1000)
+        TestTimings partial = timings(Map.of(name(Big.class) + "#a", 3000L, name(Small.class) + "#m", 1000L),
+                Map.of(name(Big.class), 500L));
+        List<ShardPlan.Unit> units = ShardPlan.units(classes, partial, 1);
+        assertEquals(500 + 3000 + 1000, units.get(0).ms);
+        assertEquals(true, units.get(0).estimated);
+        // Small sin overhead conocido: el típico (500)
+        assertEquals(500 + 1000, units.get(1).ms);
+    }
+
+    @Test
+    void timingsComeFromEachShardNotFromTheMergedSuite() throws IOException {
+        // Big partida en dos shards: cada JVM pagó 1 s fuera de los métodos
+        report(dir.resolve("shards/1"), "Big", 4.0, "a", 3.0);
+        report(dir.resolve("shards/2"), "Big", 6.0, "b", 2.0, "c", 3.0);
+        // La suite unida: time sumado (10 s) contra 8 s de métodos → 2 s, el doble de lo real
+        report(dir.resolve("merged"), "Big", 10.0, "a", 3.0, "b", 2.0, "c", 3.0);
+
+        TestTimings t = TestTimings.load(dir.resolve("none.json"));
+        assertEquals(2, t.ingest(dir.resolve("shards/1"), dir.resolve("shards/2")));
+        t.skip(dir.resolve("merged"));
+        assertEquals(0, t.ingest(dir.resolve("merged")));
+        assertEquals(1000L, t.overhead("Big").orElseThrow());
+        assertEquals(2000L, t.test("Big", "b").orElseThrow());
+    }
+
+    /* ---------- Helpers ---------- */
+
+    private static ShardPlan.Unit unit(String cls, long ms) {
+        return new ShardPlan.Unit("x." + cls, List.of(), ms, false);
+    }
+
+    private static List<String> patterns(List<ShardPlan.Shard> shards) {
+        return shards.stream().map(ShardPlan.Shard::pattern).collect(Collectors.toList());
+    }
+
+    private static List<Long> loads(List<ShardPlan.Shard> shards) {
+        return shards.stream().map(s -> s.ms).collect(Collectors.toList());
+    }
+
+    private static String name(Class<?> c) {
+        return c.getName();
+    }
+
+    /** Historial con una muestra por test y por clase. */
+    private TestTimings timings(Map<String, Long> tests, Map<String, Long> overhead) throws IOException {
+        Map<String, Object> doc = new LinkedHashMap<>();
+        doc.put("updated", "2026-01-01T00:00:00Z");
+        doc.put("tests", tests.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> List.of(e.getValue()))));
+        doc.put("overhead", overhead.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> List.of(e.getValue()))));
+        Path f = dir.resolve("timings-" + System.nanoTime() + ".json");
+        Files.writeString(f, new org.openqa.selenium.json.Json().toJson(doc));
+        return TestTimings.load(f);
+    }
+
+    /** {@code TEST-<cls>.xml} de surefire con {@code time} de la suite y pares método, segundos. */
+    private static void report(Path shard, String cls, double suiteSeconds, Object... cases) throws IOException {
+        StringBuilder xml = new StringBuilder("<testsuite name=\"" + cls + "\" time=\"" + suiteSeconds + "\">");
+        for (int i = 0; i < cases.length; i += 2) {
+            xml.append("<testcase classname=\"").append(cls).append("\" name=\"").append(cases[i])
+                    .append("\" time=\"").append(cases[i + 1]).append("\"/>");
+        }
+        Files.createDirectories(shard);
+        Files.writeString(shard.resolve("TEST-" + cls + ".xml"), xml.append("</testsuite>").toString());
+    }
+}
@@ -0,0 +1,61 @@
+package com.dmh.selenium.support;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Archivos de estado que comparten las JVMs de una corrida: forks de surefire y shards locales en paralelo sobre el
+ * mismo {@code target/} ({@code WAIT_HISTORY}, {@code TEST_MAP}, {@code LOCATOR_MEMO_FILE}, {@code SESSION_FILE},
+ * {@code RESOURCE_SIZES}).
+ * <p>
+ * Releer, sumar lo propio y escribir pasa bajo un lock de archivo ({@code <archivo>.lock}): sin él, dos JVMs que leen
+ * antes de que la otra escriba se pisan y gana la última. La escritura es tmp + move, así quien lee sin lock (la
+ * carga al arrancar) nunca ve un archivo a medias.
+ */
+final class SharedFile {
+
+    interface Update {
+        void run() throws IOException;
+    }
+
+    private SharedFile() {
+    }
+
+    /**
+     * Corre {@code body} con el lock del archivo tomado. Dentro de la JVM se serializa aparte: {@link FileLock} es por
+     * proceso, y dos hilos sobre el mismo archivo fallarían con {@code OverlappingFileLockException}.
+     */
+    static void locked(Path file, Update body) throws IOException {
+        Path lock = file.toAbsolutePath().resolveSibling(file.getFileName() + ".lock");
+        Files.createDirectories(lock.getParent());
+        synchronized (SharedFile.class) {
+            try (FileChannel ch = FileChannel.open(lock, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                FileLock l = ch.lock();
+                try {
+                    body.run();
+                } finally {
+                    l.release();
+                }
+            }
+        }
+    }
+
+    /** tmp (único, en el mismo directorio) + move atómico. */
+    static void write(Path file, String content) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            Files.writeString(tmp, content, StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.dmh.selenium.support;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+/**
+ * Tiempos de transiciones client-side (router de Next.js), que Navigation Timing no ve.
+ * <p>
+ * {@link #arm} inyecta un marcador antes de la acción: toma como t0 el primer click/keydown
+ * (event.timeStamp) y en cada frame chequea si cambió la URL y si ya se ve el contenido destino.
+ * {@link #finish} lee el resultado: click→URL y click→contenido, por nombre de transición.
+ * Cuando el destino ya está en pantalla antes de la acción (re-filtrar una lista en la misma ruta),
+ * {@link #armChange} exige que el contenido sea otro nodo o que su subárbol haya cambiado.
+ * <pre>
+ *   SoftNavigation nav = SoftNavigation.arm(driver, "navbar-saludo→/home", "input[placeholder*='buscar' i]");
+ *   saludo.click();
+ *   nav.finish(Duration.ofSeconds(10));
+ * </pre>
+ */
+public final class SoftNavigation {
+
+    /** Con la URL ya cambiada y el contenido sin tocar durante este lapso, la acción no cambió nada que medir. */
+    private static final long UNCHANGED_QUIET_MS = 1500;
+
+    private static final String ARM =
+            "var sel=arguments[0];var s=window.__dmhSoftNav={name:arguments[1],t0:performance.now(),"
+            + "startUrl:location.href,urlAt:null,contentAt:null,input:false,change:arguments[2],changedAt:null,"
+            + "old:arguments[2]&&sel?document.querySelector(sel):null};"
+            + "if(s.old){s.mo=new MutationObserver(function(){if(s.changedAt===null){s.changedAt=performance.now();}});"
+            + " s.mo.observe(s.old,{childList:true,subtree:true,characterData:true});}"
+            + "function first(e){if(!s.input){s.input=true;s.t0=e.timeStamp;}}"
+            + "document.addEventListener('click',first,{capture:true,once:true});"
+            + "document.addEventListener('keydown',first,{capture:true,once:true});"
+            + "function vis(e){return !!e&&e.getClientRects().length>0&&getComputedStyle(e).visibility!=='hidden';}"
+            + "(function tick(){if(window.__dmhSoftNav!==s)return;var now=performance.now();"
+            + " if(s.urlAt===null&&location.href!==s.startUrl){s.urlAt=now;}"
+            + " if(s.urlAt!==null&&s.contentAt===null){var el=sel?document.querySelector(sel):document.body;"
+            + "  if(vis(el)&&(!s.change||el!==s.old||s.changedAt!==null)){s.contentAt=now;}}"
+            + " if(s.contentAt===null&&now-s.t0<60000){requestAnimationFrame(tick);}"
+            + " else if(s.mo){s.mo.disconnect();}})();";
+
+    private static final String FINISH =
+            "var done=arguments[arguments.length-1],limit=arguments[0],quiet=arguments[1],start=performance.now();"
+            + "(function poll(){var s=window.__dmhSoftNav,now=performance.now();"
+            + " if(!s){done(null);return;}"
+            + " var unchanged=s.change&&s.contentAt===null&&s.urlAt!==null&&s.changedAt===null&&now-s.urlAt>quiet;"
+            + " if(s.contentAt!==null||unchanged||now-start>limit){"
+            + "  window.__dmhSoftNav=null;if(s.mo){s.mo.disconnect();}"
+            + "  done({url:location.href,clickToUrl:s.urlAt===null?null:s.urlAt-s.t0,"
+            + "   clickToContent:s.contentAt===null?null:s.contentAt-s.t0,unchanged:unchanged});return;}"
+            + " setTimeout(poll,16);})();";
+
+    private static final ConcurrentLinkedQueue<Transition> TRANSITIONS = new ConcurrentLinkedQueue<>();
+
+    /** Resultado de una transición; {@code null} en un campo = no ocurrió dentro del timeout. */
+    public static final class Transition {
+        public final String test;
+        public final String name;
+        public final Instant at;
+        public final String url;
+        public final Double clickToUrlMs;
+        public final Double clickToContentMs;
+        /** true si hubo recarga completa (el marcador desapareció): no fue una transición client-side. */
+        public final boolean hardNavigation;
+
+        Transition(String test, String name, String url, Double clickToUrlMs, Double clickToContentMs, boolean hard) {
+            this.test = test;
+            this.name = name;
+            this.at = Instant.now();
+            this.url = url;
+            this.clickToUrlMs = clickToUrlMs;
+            this.clickToContentMs = clickToContentMs;
+            this.hardNavigation = hard;
+        }
+
+        public Map<String, Object> toJson() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("test", test);
+            m.put("name", name);
+            m.put("at", at.toString());
+            m.put("url", url);
+            m.put("clickToUrlMs", clickToUrlMs);
+            m.put("clickToContentMs", clickToContentMs);
+            m.put("hardNavigation", hardNavigation);
+            return m;
+        }
+    }
+
+    private final WebDriver driver;
+    private final String name;
+    private final boolean armed;
+
+    private SoftNavigation(WebDriver driver, String name, boolean armed) {
+        this.driver = driver;
+        this.name = name;
+        this.armed = armed;
+    }
+
+    /**
+     * Arma el marcador. {@code contentSelector} (CSS) es lo que indica que la vista destino ya se pintó;
+     * null = sólo importa el cambio de URL.
+     */
+    public static SoftNavigation arm(WebDriver driver, String name, String contentSelector) {
+        return arm(driver, name, contentSelector, false);
+    }
+
+    /**
+     * Como {@link #arm}, para cuando {@code contentSelector} ya está visible antes de la acción: cuenta como
+     * contenido un nodo nuevo o el mismo con su subárbol modificado. Si la URL cambia y el contenido queda igual
+     * ({@value #UNCHANGED_QUIET_MS} ms sin mutaciones), {@link #finish} corta ahí sin registrarlo como espera vencida.
+     */
+    public static SoftNavigation armChange(WebDriver driver, String name, String contentSelector) {
+        return arm(driver, name, contentSelector, true);
+    }
+
+    private static SoftNavigation arm(WebDriver driver, String name, String contentSelector, boolean change) {
+        if (!PageMetrics.enabled()) {
+            return new SoftNavigation(driver, name, false);
+        }
+        try {
+            ((JavascriptExecutor) driver).executeScript(ARM, contentSelector, name, change);
+            return new SoftNavigation(driver, name, true);
+        } catch (WebDriverException e) {
+            return new SoftNavigation(driver, name, false);
+        }
+    }
+
+    /**
+     * Espera (en la página) hasta ver el contenido o vencer el timeout, y registra la medición.
+     * El timeout lo ajusta {@link WaitPolicy} ({@code nav.<nombre>}) con el click→contenido de corridas anteriores.
+     */
+    @SuppressWarnings("unchecked")
+    public Transition finish(Duration timeout) {
+        if (!armed) {
+            return null;
+        }
+        String waitName = "nav." + name;
+        try {
+            Object raw = ((JavascriptExecutor) driver).executeAsyncScript(FINISH,
+                    WaitPolicy.timeout(waitName, timeout).toMillis(), UNCHANGED_QUIET_MS);
+            Transition t;
+            if (raw instanceof Map) {
+                Map<String, Object> m = (Map<String, Object>) raw;
+                t = new Transition(PageMetrics.currentTest(), name, String.valueOf(m.get("url")),
+                        toDouble(m.get("clickToUrl")), toDouble(m.get("clickToContent")), false);
+                if (t.clickToContentMs != null) {
+                    WaitPolicy.sample(waitName, t.clickToContentMs.longValue(), timeout);
+                } else if (Boolean.TRUE.equals(m.get("unchanged"))) {
+                    // sólo cambió la URL: no hay click→contenido, pero tampoco una espera vencida
+                } else {
+                    WaitPolicy.missed(waitName, timeout);
+                }
+            } else {
+                t = new Transition(PageMetrics.currentTest(), name, driver.getCurrentUrl(), null, null, true);
+            }
+            TRANSITIONS.add(t);
+            return t;
+        } catch (WebDriverException e) {
+            return null;
+        }
+    }
+
+    public static List<Transition> drain(String testPrefix) {
+        List<Transition> out = new ArrayList<>();
+        TRANSITIONS.removeIf(t -> {
+            if (t.test.startsWith(testPrefix)) {
+                out.add(t);
+                return true;
+            }
+            return false;
+        });
+        return out;
+    }
+
+    private static Double toDouble(Object v) {
+        return v instanceof Number ? ((Number) v).doubleValue() : null;
+    }
+}
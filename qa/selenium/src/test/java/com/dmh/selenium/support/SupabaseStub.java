@@ -0,0 +1,441 @@
+package com.dmh.selenium.support;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonException;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Reemplazo local de Supabase (Auth + PostgREST) sobre el {@code HttpServer} del JDK, para correr los
+ * smokes sin red y con datos conocidos.
+ * <p>
+ * Implementa lo que usan la app y {@code /api/login}: {@code /auth/v1/token} (password y refresh),
+ * {@code /auth/v1/user}, {@code /auth/v1/logout}, {@code /auth/v1/admin/users} (registro), las tablas vía
+ * {@code /rest/v1/<tabla>} (GET/HEAD/POST/PATCH/DELETE con los filtros de {@link PostgrestQuery}) y las
+ * funciones {@code /rest/v1/rpc/*}. El estado vive en {@link SupabaseStubData}; sin RLS.
+ * <p>
+ * La app tiene que levantarse apuntando al stub (mismas variables de siempre):
+ * <pre>
+ *   NEXT_PUBLIC_SUPABASE_URL=http://localhost:54321 NEXT_PUBLIC_SUPABASE_ANON_KEY=stub-anon-key \
+ *   SUPABASE_SERVICE_ROLE_KEY=stub-service-key npm run dev
+ * </pre>
+ * Lo arranca {@link SupabaseStubExtension} con {@code SUPABASE_STUB=true}.
+ */
+public final class SupabaseStub {
+
+    public static final String ANON_KEY = "stub-anon-key";
+
+    private static final Json JSON = new Json();
+    /** Secreto fijo: los tokens siguen siendo válidos entre corridas (sesión cacheada en disco). */
+    private static final byte[] JWT_SECRET = "dmh-supabase-stub-secret".getBytes(StandardCharsets.UTF_8);
+    private static final long TOKEN_TTL_SECONDS = 3600;
+    private static final String OBJECT_MEDIA_TYPE = "application/vnd.pgrst.object+json";
+
+    private static SupabaseStub instance;
+    private static int activeClasses;
+
+    private final int port;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final SupabaseStubData data = new SupabaseStubData();
+    private final Map<String, String> refreshTokens = new ConcurrentHashMap<>();
+
+    private SupabaseStub(int port) throws IOException {
+        this.port = port;
+        this.server = HttpServer.create(new InetSocketAddress(port), 128);
+        this.executor = Executors.newFixedThreadPool(8, r -> {
+            Thread t = new Thread(r, "supabase-stub");
+            t.setDaemon(true);
+            return t;
+        });
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public static boolean enabled() {
+        return Config.bool(false, "SUPABASE_STUB", "supabaseStub");
+    }
+
+    public static int port() {
+        return Config.intValue(54321, "SUPABASE_STUB_PORT", "supabaseStubPort");
+    }
+
+    /**
+     * Arranca el stub (una vez por JVM) y re-siembra los datos si no hay otra clase usándolo.
+     * Deja apuntadas al stub las propiedades que leen {@link ApiLogin} y el login por UI.
+     */
+    public static synchronized SupabaseStub acquire() {
+        if (instance == null) {
+            try {
+                instance = new SupabaseStub(port());
+            } catch (IOException e) {
+                throw new IllegalStateException("No se pudo levantar el stub de Supabase en el puerto " + port(), e);
+            }
+            SupabaseStub started = instance;
+            Runtime.getRuntime().addShutdownHook(new Thread(started::stop, "supabase-stub-stop"));
+            System.setProperty("NEXT_PUBLIC_SUPABASE_URL", started.url());
+            System.setProperty("NEXT_PUBLIC_SUPABASE_ANON_KEY", ANON_KEY);
+            System.setProperty("E2E_EMAIL", SupabaseStubData.EMAIL);
+            System.setProperty("E2E_PASSWORD", SupabaseStubData.PASSWORD);
+        }
+        if (activeClasses++ == 0) {
+            instance.data.seed();
+            instance.refreshTokens.clear();
+        }
+        return instance;
+    }
+
+    /**
+     * Stub suelto, sin tests (p. ej. de backend para {@code qa/load-http}). Queda corriendo hasta Ctrl+C:
+     * <pre>
+     *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+     *   java -cp "target/test-classes:$(cat target/cp.txt)" com.dmh.selenium.support.SupabaseStub
+     * </pre>
+     */
+    public static void main(String[] args) throws InterruptedException {
+        SupabaseStub stub = acquire();
+        System.out.println("Supabase stub en " + stub.url() + " (anon key: " + ANON_KEY + ")");
+        Thread.currentThread().join();
+    }
+
+    public static synchronized void release() {
+        activeClasses = Math.max(0, activeClasses - 1);
+    }
+
+    public static synchronized Optional<SupabaseStub> running() {
+        return Optional.ofNullable(instance);
+    }
+
+    public String url() {
+        return "http://localhost:" + port;
+    }
+
+    /** Estado en memoria, para que un test agregue filas propias antes de navegar. */
+    public SupabaseStubData data() {
+        return data;
+    }
+
+    void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /* ---------- Dispatch ---------- */
+    private void handle(HttpExchange ex) {
+        try {
+            cors(ex);
+            String method = ex.getRequestMethod();
+            String path = ex.getRequestURI().getPath();
+            if ("OPTIONS".equals(method)) {
+                send(ex, 204, null);
+            } else if (path.startsWith("/auth/v1/")) {
+                auth(ex, method, path.substring("/auth/v1/".length()));
+            } else if (path.startsWith("/rest/v1/rpc/")) {
+                rpc(ex, path.substring("/rest/v1/rpc/".length()));
+            } else if (path.startsWith("/rest/v1/")) {
+                rest(ex, method, path.substring("/rest/v1/".length()));
+            } else {
+                send(ex, 404, Map.of("message", "No soportado por el stub: " + path));
+            }
+        } catch (SupabaseStubData.Conflict e) {
+            send(ex, 409, pgError("23505", e.getMessage()));
+        } catch (IllegalArgumentException | JsonException e) {
+            send(ex, 400, pgError("PGRST100", e.getMessage()));
+        } catch (RuntimeException e) {
+            send(ex, 500, pgError("XX000", String.valueOf(e)));
+        } finally {
+            ex.close();
+        }
+    }
+
+    /* ---------- Auth (GoTrue) ---------- */
+    private void auth(HttpExchange ex, String method, String path) {
+        String query = ex.getRequestURI().getRawQuery();
+        if ("token".equals(path) && "POST".equals(method)) {
+            Map<String, Object> body = bodyMap(ex);
+            SupabaseStubData.AuthUser user;
+            if (query != null && query.contains("grant_type=refresh_token")) {
+                String userId = refreshTokens.remove(String.valueOf(body.get("refresh_token")));
+                user = userId != null ? data.authUser(userId) : null;
+            } else {
+                user = data.authUserByEmail(String.valueOf(body.get("email")));
+                if (user != null && !user.password.equals(body.get("password"))) {
+                    user = null;
+                }
+            }
+            if (user == null) {
+                send(ex, 400, Map.of("error", "invalid_grant", "error_code", "invalid_credentials",
+                        "error_description", "Invalid login credentials", "msg", "Invalid login credentials"));
+                return;
+            }
+            send(ex, 200, session(user));
+        } else if ("user".equals(path) && "GET".equals(method)) {
+            SupabaseStubData.AuthUser user = userOf(ex);
+            if (user == null) {
+                send(ex, 401, Map.of("code", 401, "error_code", "bad_jwt", "msg", "invalid JWT"));
+                return;
+            }
+            send(ex, 200, user.toJson());
+        } else if ("logout".equals(path)) {
+            send(ex, 204, null);
+        } else if ("admin/users".equals(path) && "POST".equals(method)) {
+            Map<String, Object> body = bodyMap(ex);
+            try {
+                SupabaseStubData.AuthUser u = data.createAuthUser(String.valueOf(body.get("email")),
+                        String.valueOf(body.get("password")));
+                send(ex, 200, u.toJson());
+            } catch (SupabaseStubData.Conflict e) {
+                send(ex, 422, Map.of("code", 422, "error_code", "email_exists", "msg", e.getMessage()));
+            }
+        } else if (path.startsWith("admin/users/") && "DELETE".equals(method)) {
+            data.deleteAuthUser(path.substring("admin/users/".length()));
+            send(ex, 200, Map.of());
+        } else if ("health".equals(path) || "settings".equals(path)) {
+            send(ex, 200, Map.of("name", "GoTrue", "description", "DMH stub"));
+        } else {
+            send(ex, 404, Map.of("code", 404, "msg", "No soportado por el stub: /auth/v1/" + path));
+        }
+    }
+
+    private Map<String, Object> session(SupabaseStubData.AuthUser user) {
+        long now = Instant.now().getEpochSecond();
+        String refresh = UUID.randomUUID().toString().replace("-", "");
+        refreshTokens.put(refresh, user.id);
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", user.id);
+        claims.put("email", user.email);
+        claims.put("aud", "authenticated");
+        claims.put("role", "authenticated");
+        claims.put("iat", now);
+        claims.put("exp", now + TOKEN_TTL_SECONDS);
+        claims.put("session_id", UUID.randomUUID().toString());
+
+        Map<String, Object> s = new LinkedHashMap<>();
+        s.put("access_token", jwt(claims));
+        s.put("token_type", "bearer");
+        s.put("expires_in", TOKEN_TTL_SECONDS);
+        s.put("expires_at", now + TOKEN_TTL_SECONDS);
+        s.put("refresh_token", refresh);
+        s.put("user", user.toJson());
+        return s;
+    }
+
+    private SupabaseStubData.AuthUser userOf(HttpExchange ex) {
+        String auth = ex.getRequestHeaders().getFirst("Authorization");
+        if (auth == null || !auth.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return null;
+        }
+        Map<String, Object> claims = verify(auth.substring(7).trim());
+        return claims != null ? data.authUser(String.valueOf(claims.get("sub"))) : null;
+    }
+
+    /* ---------- PostgREST ---------- */
+    private void rest(HttpExchange ex, String method, String table) {
+        PostgrestQuery q = PostgrestQuery.parse(ex.getRequestURI().getRawQuery());
+        String prefer = header(ex, "Prefer");
+        boolean representation = prefer.contains("return=representation");
+        List<Map<String, Object>> rows;
+        int status;
+        switch (method) {
+            case "GET":
+            case "HEAD":
+                rows = data.select(table, q);
+                if (prefer.contains("count=")) {
+                    int total = data.count(table, q);
+                    ex.getResponseHeaders().set("Content-Range",
+                            rows.isEmpty() ? "*/" + total : "0-" + (rows.size() - 1) + "/" + total);
+                }
+                if ("HEAD".equals(method)) {
+                    send(ex, 200, null);
+                } else {
+                    respondRows(ex, 200, rows);
+                }
+                return;
+            case "POST":
+                rows = data.insert(table, bodyRows(ex));
+                status = 201;
+                break;
+            case "PATCH":
+                rows = data.update(table, q, bodyMap(ex));
+                status = 200;
+                break;
+            case "DELETE":
+                rows = data.delete(table, q);
+                status = 200;
+                break;
+            default:
+                send(ex, 405, pgError("PGRST117", "Método no soportado: " + method));
+                return;
+        }
+        if (!representation) {
+            send(ex, "POST".equals(method) ? 201 : 204, null);
+            return;
+        }
+        rows.replaceAll(q::project);
+        respondRows(ex, status, rows);
+    }
+
+    /** Array JSON, u objeto si el cliente pidió {@code .single()} / {@code .maybeSingle()} (Accept de objeto). */
+    private void respondRows(HttpExchange ex, int status, List<Map<String, Object>> rows) {
+        if (header(ex, "Accept").contains(OBJECT_MEDIA_TYPE)) {
+            if (rows.size() != 1) {
+                Map<String, Object> err = pgError("PGRST116", "JSON object requested, multiple (or no) rows returned");
+                err.put("details", "The result contains " + rows.size() + " rows");
+                send(ex, 406, err);
+                return;
+            }
+            send(ex, status, rows.get(0));
+            return;
+        }
+        send(ex, status, rows);
+    }
+
+    private void rpc(HttpExchange ex, String fn) {
+        try {
+            send(ex, 200, data.rpc(fn, bodyMap(ex)));
+        } catch (IllegalArgumentException e) {
+            send(ex, 400, pgError("P0001", e.getMessage()));
+        }
+    }
+
+    /* ---------- JWT (HS256) ---------- */
+    private static String jwt(Map<String, Object> claims) {
+        Base64.Encoder b64 = Base64.getUrlEncoder().withoutPadding();
+        String head = b64.encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+        String body = b64.encodeToString(JSON.toJson(claims).getBytes(StandardCharsets.UTF_8));
+        return head + "." + body + "." + b64.encodeToString(hmac(head + "." + body));
+    }
+
+    /** Claims si la firma es del stub y no venció; null si no. */
+    private static Map<String, Object> verify(String token) {
+        String[] parts = token.split("\\.");
+        if (parts.length != 3) {
+            return null;
+        }
+        try {
+            byte[] sig = Base64.getUrlDecoder().decode(parts[2]);
+            if (!MessageDigest.isEqual(sig, hmac(parts[0] + "." + parts[1]))) {
+                return null;
+            }
+            Map<String, Object> claims = JSON.toType(
+                    new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8), Json.MAP_TYPE);
+            Object exp = claims.get("exp");
+            return exp instanceof Number && ((Number) exp).longValue() > Instant.now().getEpochSecond() ? claims : null;
+        } catch (IllegalArgumentException | JsonException e) {
+            return null;
+        }
+    }
+
+    private static byte[] hmac(String content) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(JWT_SECRET, "HmacSHA256"));
+            return mac.doFinal(content.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /* ---------- HTTP helpers ---------- */
+    private static void cors(HttpExchange ex) {
+        Headers req = ex.getRequestHeaders();
+        Headers res = ex.getResponseHeaders();
+        String origin = req.getFirst("Origin");
+        res.set("Access-Control-Allow-Origin", origin != null ? origin : "*");
+        res.set("Vary", "Origin");
+        res.set("Access-Control-Allow-Methods", "GET, HEAD, POST, PATCH, PUT, DELETE, OPTIONS");
+        String asked = req.getFirst("Access-Control-Request-Headers");
+        res.set("Access-Control-Allow-Headers", asked != null ? asked : "authorization, apikey, content-type, prefer");
+        res.set("Access-Control-Expose-Headers", "Content-Range, Content-Profile");
+        // El preflight se cachea: cada request autenticado no paga un OPTIONS extra
+        res.set("Access-Control-Max-Age", "86400");
+        if (req.getFirst("Access-Control-Request-Private-Network") != null) {
+            res.set("Access-Control-Allow-Private-Network", "true");
+        }
+    }
+
+    private static String header(HttpExchange ex, String name) {
+        String v = ex.getRequestHeaders().getFirst(name);
+        return v != null ? v : "";
+    }
+
+    private static Object body(HttpExchange ex) {
+        try (InputStream in = ex.getRequestBody()) {
+            String raw = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            return raw.isBlank() ? Map.of() : JSON.toType(raw, Object.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("No se pudo leer el body", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> bodyMap(HttpExchange ex) {
+        Object b = body(ex);
+        if (!(b instanceof Map)) {
+            throw new IllegalArgumentException("Se esperaba un objeto JSON");
+        }
+        return (Map<String, Object>) b;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> bodyRows(HttpExchange ex) {
+        Object b = body(ex);
+        if (b instanceof Map) {
+            return List.of((Map<String, Object>) b);
+        }
+        if (b instanceof List) {
+            return (List<Map<String, Object>>) b;
+        }
+        throw new IllegalArgumentException("Se esperaba un objeto o array JSON");
+    }
+
+    private static Map<String, Object> pgError(String code, String message) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("code", code);
+        m.put("details", null);
+        m.put("hint", null);
+        m.put("message", message);
+        return m;
+    }
+
+    private static void send(HttpExchange ex, int status, Object body) {
+        try {
+            if (body == null || "HEAD".equals(ex.getRequestMethod())) {
+                ex.sendResponseHeaders(status, -1);
+                return;
+            }
+            byte[] bytes = JSON.toJson(body).getBytes(StandardCharsets.UTF_8);
+            ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            ex.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (IOException ignore) {
+            // el browser cerró la conexión: nada que hacer
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.dmh.selenium.support;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estado en memoria de {@link SupabaseStub}: usuarios de Auth y tablas (usuarios, cuentas, movimientos,
+ * medios_pago, tarjetas, email_codes...). Se re-siembra por clase de test con {@link #seed()}.
+ * <p>
+ * Los accesos van sincronizados sobre la instancia: el server atiende requests en varios hilos.
+ */
+public final class SupabaseStubData {
+
+    public static final String USER_ID = "00000000-0000-4000-8000-00000000e2e1";
+    public static final String EMAIL = "e2e@dmh.test";
+    public static final String PASSWORD = "Stub-e2e-2024";
+    /** bcrypt($2b$, cost 10) de {@link #PASSWORD}: /api/login lo compara con bcryptjs. */
+    private static final String PASSWORD_HASH = "$2b$10$sOZNZSSptHvCQWUmtxnTPeVYPd.dvl1ac1EmMFkv9amYKgDP1nm7O";
+
+    /** Violación de unique (como el 23505 de Postgres). */
+    static final class Conflict extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Conflict(String message) {
+            super(message);
+        }
+    }
+
+    /** Usuario de Supabase Auth (auth.users), con password en claro: es un stub. */
+    static final class AuthUser {
+        final String id;
+        final String email;
+        final String password;
+        final Instant createdAt = Instant.now();
+
+        AuthUser(String id, String email, String password) {
+            this.id = id;
+            this.email = email;
+            this.password = password;
+        }
+
+        Map<String, Object> toJson() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("id", id);
+            m.put("aud", "authenticated");
+            m.put("role", "authenticated");
+            m.put("email", email);
+            m.put("email_confirmed_at", createdAt.toString());
+            m.put("phone", "");
+            m.put("app_metadata", Map.of("provider", "email", "providers", List.of("email")));
+            m.put("user_metadata", Map.of());
+            m.put("identities", List.of());
+            m.put("created_at", createdAt.toString());
+            m.put("updated_at", createdAt.toString());
+            return m;
+        }
+    }
+
+    private final Map<String, AuthUser> authUsers = new LinkedHashMap<>();
+    private final Map<String, List<Map<String, Object>>> tables = new HashMap<>();
+    private final AtomicLong sequence = new AtomicLong(1000);
+
+    SupabaseStubData() {
+        seed();
+    }
+
+    /** Vuelve al estado inicial: un usuario con cuenta, saldo, movimientos y una tarjeta. */
+    public synchronized void seed() {
+        authUsers.clear();
+        tables.clear();
+        sequence.set(1000);
+
+        authUsers.put(USER_ID, new AuthUser(USER_ID, EMAIL, PASSWORD));
+        Instant now = Instant.now();
+
+        Map<String, Object> usuario = row(
+                "id", USER_ID, "nombre", "Usuario", "apellido", "E2E", "dni", "30111222",
+                "email", EMAIL, "password", PASSWORD_HASH, "telefono", "1144445555", "cuit", "20301112229",
+                "last_login", now.minus(1, ChronoUnit.DAYS).toString(), "created_at", now.minus(90, ChronoUnit.DAYS).toString());
+        table("usuarios").add(usuario);
+
+        table("cuentas").add(row("id", 1L, "usuario_id", USER_ID, "saldo", 152_340.50,
+                "cvu", "0000002100075320000011", "alias", "dmh.e2e.stub"));
+
+        // Movimientos relativos a hoy: los filtros por período ("hoy", "semana", "mes"...) siempre tienen datos
+        LocalDate today = LocalDate.now();
+        Object[][] movs = {
+                {0, -1_265.57, "Transferiste a Rodrigo"},
+                {1, 25_000.00, "Ingresaste dinero"},
+                {2, -8_400.00, "Pagaste Luz"},
+                {4, 1_265.57, "Te transfirieron dinero"},
+                {6, -3_200.00, "Pagaste Internet"},
+                {9, -12_000.00, "Transferiste a Consorcio"},
+                {13, 50_000.00, "Ingresaste dinero"},
+                {20, -4_999.99, "Pagaste Gas"},
+                {27, -1_500.00, "Transferiste a Juana"},
+                {35, 80_000.00, "Te transfirieron dinero"},
+                {48, -2_750.00, "Pagaste Agua"},
+                {70, -15_000.00, "Transferiste a Martín"},
+                {120, 10_000.00, "Ingresaste dinero"},
+                {200, -6_100.00, "Pagaste Telefonía"},
+        };
+        long id = 1;
+        for (Object[] m : movs) {
+            Instant fecha = today.minusDays((Integer) m[0]).atTime(10, 0).atZone(ZoneId.systemDefault()).toInstant();
+            table("movimientos").add(row("id", id++, "usuario_id", USER_ID, "cuenta_id", 1L,
+                    "fecha", fecha.toString(), "monto", m[1], "descripcion", m[2]));
+        }
+
+        table("medios_pago").add(row("id", 1L, "usuario_id", USER_ID, "tipo", "visa",
+                "numero_mascarado", "**** **** **** 4067", "banco", "VISA", "fecha_vencimiento", "12/29",
+                "created_at", now.minus(30, ChronoUnit.DAYS).toString()));
+
+        table("tarjetas").add(row("id", 1L, "usuario_id", USER_ID, "brand", "Visa", "last4", "4067"));
+        table("tarjetas").add(row("id", 2L, "usuario_id", USER_ID, "brand", "Mastercard", "last4", "8040"));
+    }
+
+    /**
+     * Suma un usuario más (misma password que el de E2E) con su cuenta y saldo, para pruebas de carga
+     * donde cada usuario virtual necesita datos propios. Devuelve su id.
+     */
+    public synchronized String addUser(String email) {
+        AuthUser u = createAuthUser(email, PASSWORD);
+        Instant now = Instant.now();
+        table("usuarios").add(row("id", u.id, "nombre", "Carga", "apellido", u.email.substring(0, u.email.indexOf('@')),
+                "email", u.email, "password", PASSWORD_HASH, "last_login", now.toString(), "created_at", now.toString()));
+        long cuentaId = sequence.incrementAndGet();
+        table("cuentas").add(row("id", cuentaId, "usuario_id", u.id, "saldo", 100_000.0,
+                "cvu", String.format("00000021000%011d", cuentaId), "alias", "cuenta" + cuentaId + ".dmh.stub"));
+        return u.id;
+    }
+
+    /** Borra las filas de {@code table} con {@code column = value}; devuelve cuántas. */
+    public synchronized int deleteWhere(String table, String column, Object value) {
+        List<Map<String, Object>> rows = table(table);
+        int before = rows.size();
+        rows.removeIf(r -> String.valueOf(value).equals(String.valueOf(r.get(column))));
+        return before - rows.size();
+    }
+
+    /* ---------- Auth ---------- */
+    synchronized AuthUser authUser(String id) {
+        return authUsers.get(id);
+    }
+
+    synchronized AuthUser authUserByEmail(String email) {
+        for (AuthUser u : authUsers.values()) {
+            if (u.email.equalsIgnoreCase(email)) {
+                return u;
+            }
+        }
+        return null;
+    }
+
+    synchronized AuthUser createAuthUser(String email, String password) {
+        if (authUserByEmail(email) != null) {
+            throw new Conflict("A user with this email address has already been registered");
+        }
+        AuthUser u = new AuthUser(UUID.randomUUID().toString(), email.toLowerCase().trim(), password);
+        authUsers.put(u.id, u);
+        return u;
+    }
+
+    synchronized void deleteAuthUser(String id) {
+        authUsers.remove(id);
+    }
+
+    /* ---------- Tablas ---------- */
+
+    /** Filas (copias proyectadas) que cumplen la query. */
+    synchronized List<Map<String, Object>> select(String table, PostgrestQuery q) {
+        List<Map<String, Object>> out = new ArrayList<>();
+        for (Map<String, Object> r : q.apply(table(table))) {
+            out.add(q.project(r));
+        }
+        return out;
+    }
+
+    /** Total de filas que cumplen los filtros, sin paginar (Prefer: count=exact). */
+    synchronized int count(String table, PostgrestQuery q) {
+        int n = 0;
+        for (Map<String, Object> r : table(table)) {
+            if (q.matches(r)) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    public synchronized List<Map<String, Object>> insert(String table, List<Map<String, Object>> rows) {
+        List<Map<String, Object>> inserted = new ArrayList<>();
+        for (Map<String, Object> r : rows) {
+            Map<String, Object> copy = new LinkedHashMap<>(r);
+            copy.putIfAbsent("id", sequence.incrementAndGet());
+            copy.putIfAbsent("created_at", Instant.now().toString());
+            checkUnique(table, copy, null);
+            inserted.add(copy);
+        }
+        table(table).addAll(inserted);
+        return copies(inserted);
+    }
+
+    synchronized List<Map<String, Object>> update(String table, PostgrestQuery q, Map<String, Object> patch) {
+        List<Map<String, Object>> hits = q.apply(table(table));
+        for (Map<String, Object> r : hits) {
+            Map<String, Object> next = new LinkedHashMap<>(r);
+            next.putAll(patch);
+            checkUnique(table, next, r);
+        }
+        for (Map<String, Object> r : hits) {
+            r.putAll(patch);
+        }
+        return copies(hits);
+    }
+
+    synchronized List<Map<String, Object>> delete(String table, PostgrestQuery q) {
+        List<Map<String, Object>> hits = q.apply(table(table));
+        table(table).removeIf(r -> hits.stream().anyMatch(h -> h == r));
+        return copies(hits);
+    }
+
+    /* ---------- RPC (funciones de la base que usa la app) ---------- */
+    synchronized Object rpc(String fn, Map<String, Object> args) {
+        switch (fn) {
+            case "fn_cargar_dinero":
+                return move(args.get("p_cuenta"), number(args.get("p_monto")), "Ingresaste dinero");
+            case "fn_transferir_dinero":
+                Object dest = args.get("p_destinatario");
+                return move(args.get("p_cuenta"), -number(args.get("p_monto")),
+                        dest != null ? "Transferiste a " + dest : "Transferiste dinero");
+            case "fn_generar_cvu_alias":
+                Map<String, Object> cuenta = cuenta(args.get("p_cuenta"));
+                long n = ((Number) cuenta.get("id")).longValue();
+                cuenta.put("cvu", String.format("00000021000%011d", n));
+                cuenta.put("alias", "cuenta" + n + ".dmh.stub");
+                return Map.of("cvu", cuenta.get("cvu"), "alias", cuenta.get("alias"));
+            default:
+                throw new IllegalArgumentException("Función no soportada por el stub: " + fn);
+        }
+    }
+
+    /* ---------- Helpers ---------- */
+    private double move(Object cuentaId, double monto, String descripcion) {
+        Map<String, Object> cuenta = cuenta(cuentaId);
+        double saldo = number(cuenta.get("saldo")) + monto;
+        if (saldo < 0) {
+            throw new IllegalArgumentException("Saldo insuficiente");
+        }
+        cuenta.put("saldo", saldo);
+        table("movimientos").add(row("id", sequence.incrementAndGet(), "usuario_id", cuenta.get("usuario_id"),
+                "cuenta_id", cuenta.get("id"), "fecha", Instant.now().toString(), "monto", monto,
+                "descripcion", descripcion));
+        return saldo;
+    }
+
+    private Map<String, Object> cuenta(Object id) {
+        for (Map<String, Object> c : table("cuentas")) {
+            if (String.valueOf(c.get("id")).equals(String.valueOf(id))) {
+                return c;
+            }
+        }
+        throw new IllegalArgumentException("No existe la cuenta " + id);
+    }
+
+    /** Únicos que la app distingue: alias/cvu de cuentas y email de usuarios. */
+    private void checkUnique(String table, Map<String, Object> candidate, Map<String, Object> self) {
+        String[] keys = "cuentas".equals(table) ? new String[]{"alias", "cvu"}
+                : "usuarios".equals(table) ? new String[]{"email"} : new String[0];
+        for (String k : keys) {
+            Object v = candidate.get(k);
+            if (v == null || "".equals(v)) {
+                continue;
+            }
+            for (Map<String, Object> r : table(table)) {
+                if (r != self && v.equals(r.get(k))) {
+                    throw new Conflict("duplicate key value violates unique constraint \"" + table + "_" + k + "_key\"");
+                }
+            }
+        }
+    }
+
+    private List<Map<String, Object>> table(String name) {
+        return tables.computeIfAbsent(name, k -> new ArrayList<>());
+    }
+
+    private static List<Map<String, Object>> copies(List<Map<String, Object>> rows) {
+        List<Map<String, Object>> out = new ArrayList<>();
+        for (Map<String, Object> r : rows) {
+            out.add(new LinkedHashMap<>(r));
+        }
+        return out;
+    }
+
+    private static double number(Object v) {
+        if (v instanceof Number) {
+            return ((Number) v).doubleValue();
+        }
+        return v == null ? 0 : Double.parseDouble(String.valueOf(v));
+    }
+
+    private static Map<String, Object> row(Object... kv) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        for (int i = 0; i < kv.length; i += 2) {
+            m.put((String) kv[i], kv[i + 1]);
+        }
+        return m;
+    }
+}
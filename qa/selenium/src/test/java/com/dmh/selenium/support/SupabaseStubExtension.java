@@ -0,0 +1,27 @@
+package com.dmh.selenium.support;
+
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Con {@code SUPABASE_STUB=true}, levanta {@link SupabaseStub} antes de cada clase de test y la siembra
+ * con los datos iniciales. Si otra clase ya lo está usando (ejecución paralela), comparten el estado.
+ * Sin la variable no hace nada: los smokes van contra el Supabase real.
+ */
+public class SupabaseStubExtension implements BeforeAllCallback, AfterAllCallback {
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        if (SupabaseStub.enabled()) {
+            SupabaseStub.acquire();
+        }
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        if (SupabaseStub.enabled()) {
+            SupabaseStub.release();
+        }
+    }
+}
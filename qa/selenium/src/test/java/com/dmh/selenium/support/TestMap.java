@@ -0,0 +1,153 @@
+package com.dmh.selenium.support;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.openqa.selenium.json.Json;
+
+/**
+ * Mapa test → rutas / endpoints {@code /api} / Page Objects, armado con lo que registró {@link RouteCoverage}
+ * en corridas anteriores. Vive en {@code TEST_MAP} (default {@code target/test-map.json}); en CI se guarda y
+ * restaura entre pipelines (cache/artifact) y cada corrida lo actualiza con los tests que ejecutó.
+ * <p>
+ * Si el test pasó, su entrada se reemplaza (la app pudo cambiar de rutas); si falló, se suma a la anterior:
+ * un test que se cortó a la mitad no visitó todo lo que suele visitar.
+ */
+final class TestMap {
+
+    private static final Json JSON = new Json();
+
+    /** Lo que tocó un test. */
+    static final class Entry {
+        final Set<String> routes;
+        final Set<String> api;
+        final Set<String> pages;
+        final boolean passed;
+        final String recorded;
+
+        Entry(Set<String> routes, Set<String> api, Set<String> pages, boolean passed) {
+            this(routes, api, pages, passed, Instant.now().toString());
+        }
+
+        private Entry(Set<String> routes, Set<String> api, Set<String> pages, boolean passed, String recorded) {
+            this.routes = new TreeSet<>(routes);
+            this.api = new TreeSet<>(api);
+            this.pages = new TreeSet<>(pages);
+            this.passed = passed;
+            this.recorded = recorded;
+        }
+
+        Entry union(Entry older) {
+            Entry e = new Entry(routes, api, pages, passed, recorded);
+            e.routes.addAll(older.routes);
+            e.api.addAll(older.api);
+            e.pages.addAll(older.pages);
+            return e;
+        }
+
+        Map<String, Object> toJson() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("routes", routes);
+            m.put("api", api);
+            m.put("pages", pages);
+            m.put("passed", passed);
+            m.put("recorded", recorded);
+            return m;
+        }
+
+        static Entry fromJson(Map<String, Object> m) {
+            return new Entry(strings(m.get("routes")), strings(m.get("api")), strings(m.get("pages")),
+                    !Boolean.FALSE.equals(m.get("passed")), String.valueOf(m.get("recorded")));
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Set<String> strings(Object v) {
+            Set<String> out = new TreeSet<>();
+            if (v instanceof Collection) {
+                for (Object o : (Collection<Object>) v) {
+                    out.add(String.valueOf(o));
+                }
+            }
+            return out;
+        }
+    }
+
+    private TestMap() {
+    }
+
+    static Path file() {
+        return Path.of(Config.str("target/test-map.json", "TEST_MAP", "testMap"));
+    }
+
+    /** Tests ({@code Clase#metodo}) → entrada; vacío si todavía no hay mapa. */
+    @SuppressWarnings("unchecked")
+    static Map<String, Entry> load(Path file) {
+        Map<String, Entry> out = new TreeMap<>();
+        if (!Files.isRegularFile(file)) {
+            return out;
+        }
+        try {
+            Map<String, Object> doc = JSON.toType(Files.readString(file, StandardCharsets.UTF_8), Json.MAP_TYPE);
+            Object tests = doc.get("tests");
+            if (tests instanceof Map) {
+                ((Map<String, Object>) tests).forEach((test, v) -> {
+                    if (v instanceof Map) {
+                        out.put(test, Entry.fromJson((Map<String, Object>) v));
+                    }
+                });
+            }
+        } catch (IOException | RuntimeException e) {
+            // mapa corrupto: se arranca de cero (la selección corre todo)
+        }
+        return out;
+    }
+
+    /** Suma lo observado en esta corrida al mapa en disco. */
+    static synchronized void record(Map<String, Entry> observed) {
+        Path file = file();
+        try {
+            // releído bajo lock: otro fork o shard pudo sumar sus tests desde que arrancamos
+            SharedFile.locked(file, () -> {
+                Map<String, Entry> map = load(file);
+                observed.forEach((test, e) -> {
+                    Entry old = map.get(test);
+                    map.put(test, e.passed || old == null ? e : e.union(old));
+                });
+                Map<String, Object> tests = new LinkedHashMap<>();
+                map.forEach((test, e) -> tests.put(test, e.toJson()));
+                Map<String, Object> doc = new LinkedHashMap<>();
+                doc.put("updated", Instant.now().toString());
+                doc.put("tests", tests);
+                SharedFile.write(file, JSON.toJson(doc));
+            });
+        } catch (IOException ignore) {
+            // el mapa nunca rompe la corrida
+        }
+    }
+
+    /** Clases de test (nombre completo) presentes en el mapa. */
+    static Set<String> classes(Map<String, Entry> map) {
+        Set<String> out = new TreeSet<>();
+        for (String test : map.keySet()) {
+            out.add(test.substring(0, test.indexOf('#')));
+        }
+        return out;
+    }
+
+    static List<String> methodsOf(Map<String, Entry> map, String cls) {
+        return map.keySet().stream()
+                .filter(t -> t.startsWith(cls + "#"))
+                .map(t -> t.substring(cls.length() + 1))
+                .toList();
+    }
+}
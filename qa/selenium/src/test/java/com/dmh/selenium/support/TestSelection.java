@@ -0,0 +1,405 @@
+package com.dmh.selenium.support;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openqa.selenium.json.Json;
+
+/**
+ * Selección de tests por cambios: dado un diff de git, imprime el valor de {@code -Dtest} con los tests que
+ * visitan lo que cambió, según el {@link TestMap} que dejaron corridas anteriores ({@link RouteCoverage}).
+ * <pre>
+ *   TESTS=$(java -cp "target/test-classes:$(cat target/cp.txt)" com.dmh.selenium.support.TestSelection origin/main)
+ *   mvn -q -Dtest="$TESTS" -Dsurefire.failIfNoSpecifiedTests=false test
+ * </pre>
+ * Cómo se llega de un archivo a los tests:
+ * <ul>
+ *   <li>{@code src/app/**}: {@code page}/{@code route} → su ruta (grupos {@code (app)} fuera, {@code [slug]} = cualquier
+ *   segmento); {@code layout}/{@code template}/{@code loading}/{@code error} → las rutas de las páginas que envuelve.</li>
+ *   <li>Resto de {@code src/**} (componentes, context, lib, CSS): grafo de imports ({@code @/} y relativos) hacia
+ *   atrás hasta las páginas/layouts que lo usan.</li>
+ *   <li>Page Objects → los tests que los usaron; una clase de test → esa clase; el resto del módulo
+ *   (support, {@code BaseTest}, pom, fixtures) y la config global de la app ({@code package.json},
+ *   {@code next.config.*}, {@code public/}...) → todo.</li>
+ * </ul>
+ * Siempre entran el núcleo ({@code SELECT_CORE}) y las clases sin historial. Sin mapa, o si algo pide todo,
+ * imprime {@code SELECT_ALL}; si no queda nada (núcleo vacío y cambios que no tocan la app), una línea vacía.
+ * El detalle archivo → rutas → tests queda en {@code target/test-selection.json}.
+ */
+public final class TestSelection {
+
+    private static final Json JSON = new Json();
+
+    private static final Pattern IMPORT = Pattern.compile(
+            "(?:import|export)\\s+(?:[^'\";]*?\\s+from\\s+)?['\"]([^'\"]+)['\"]"
+                    + "|(?:import|require)\\s*\\(\\s*['\"]([^'\"]+)['\"]\\s*\\)");
+    private static final Pattern ENTRY = Pattern.compile(
+            "^src/app/(?:(.*)/)?(page|route|default|layout|template|loading|error|not-found)\\.(?:js|jsx|ts|tsx)$");
+    private static final Pattern PAGE_FILE = Pattern.compile("^page\\.(?:js|jsx|ts|tsx)$");
+    private static final Pattern PAGE_OBJECT = Pattern.compile("^src/test/java/com/dmh/selenium/pages/(\\w+)\\.java$");
+    private static final Pattern TEST_CLASS = Pattern.compile("^src/test/java/(.+Test)\\.java$");
+    private static final Pattern GLOBAL = Pattern.compile(
+            "^(package(-lock)?\\.json|next\\.config\\.\\w+|tsconfig\\.json|jsconfig\\.json|postcss\\.config\\.\\w+"
+                    + "|tailwind\\.config\\.\\w+|(src/)?middleware\\.\\w+|\\.env.*|public/.*)$");
+    private static final List<String> EXTENSIONS = List.of("", ".js", ".jsx", ".ts", ".tsx", ".mjs", ".cjs");
+
+    private final Path root;
+    private final String module;
+    private final Map<String, TestMap.Entry> map;
+    private Map<String, Set<String>> importers;
+
+    /* Resultado */
+    private final Set<String> selected = new TreeSet<>();
+    private final Map<String, Object> reasons = new LinkedHashMap<>();
+    private String all;
+
+    TestSelection(Path root, String module, Map<String, TestMap.Entry> map) {
+        this.root = root;
+        this.module = module;
+        this.map = map;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String base = args.length > 0 ? args[0] : Config.str("origin/main", "SELECT_BASE", "selectBase");
+        Path root = Path.of(git(Path.of("").toAbsolutePath(), "rev-parse", "--show-toplevel").get(0));
+        String module = root.relativize(Path.of("").toAbsolutePath()).toString().replace('\\', '/');
+
+        List<String> changed;
+        if ("-".equals(base)) {
+            // Lista de archivos por stdin (p. ej. la que arma el CI con la API del PR)
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
+                changed = in.lines().map(String::trim).filter(l -> !l.isEmpty()).collect(Collectors.toList());
+            }
+        } else {
+            // Contra el merge-base y el working tree: en CI es base...HEAD; local suma lo no commiteado
+            String mergeBase = git(root, "merge-base", base, "HEAD").get(0);
+            changed = git(root, "diff", "--name-only", "--no-renames", mergeBase);
+        }
+
+        TestSelection s = new TestSelection(root, module, TestMap.load(TestMap.file()));
+        String pattern = s.select(changed);
+
+        Map<String, Object> doc = new LinkedHashMap<>();
+        doc.put("base", base);
+        doc.put("map", TestMap.file().toString());
+        doc.put("changed", changed);
+        doc.put("all", s.all);
+        doc.put("selected", s.selected);
+        doc.put("reasons", s.reasons);
+        doc.put("pattern", pattern);
+        Files.createDirectories(Path.of("target"));
+        Files.writeString(Path.of("target", "test-selection.json"), JSON.toJson(doc), StandardCharsets.UTF_8);
+
+        System.err.printf("Selección: %d archivos cambiados → %s%n", changed.size(),
+                s.all != null ? "todo (" + s.all + ")" : s.selected.size() + " tests de " + s.map.size());
+        System.out.println(pattern);
+    }
+
+    /** Devuelve el valor para {@code -Dtest}. */
+    String select(List<String> changed) throws IOException {
+        if (map.isEmpty()) {
+            all = "no hay mapa en " + TestMap.file() + " (primera corrida)";
+            return allPattern();
+        }
+        for (String file : changed) {
+            classify(file);
+            if (all != null) {
+                return allPattern();
+            }
+        }
+        Set<String> known = TestMap.classes(map);
+        List<String> classes = testClasses();
+        // Clases borradas o renombradas desde que se grabó el mapa
+        selected.removeIf(t -> !classes.contains(t.substring(0, t.indexOf('#'))));
+        for (String cls : classes) {
+            String simple = cls.substring(cls.lastIndexOf('.') + 1);
+            if (!known.contains(cls)) {
+                addClass(cls, "sin historial en el mapa");
+            } else if (core().contains(simple)) {
+                addClass(cls, "núcleo (SELECT_CORE)");
+            }
+        }
+        return pattern();
+    }
+
+    /* ---------- Archivo → tests ---------- */
+    private void classify(String file) throws IOException {
+        if (file.endsWith(".md")) {
+            return;
+        }
+        String prefix = module.isEmpty() ? "" : module + "/";
+        if (!prefix.isEmpty() && file.startsWith(prefix)) {
+            String rel = file.substring(prefix.length());
+            Matcher po = PAGE_OBJECT.matcher(rel);
+            Matcher tc = TEST_CLASS.matcher(rel);
+            if (po.matches()) {
+                addWhere(file, "Page Object " + po.group(1), e -> e.pages.contains(po.group(1)));
+            } else if (tc.matches() && !rel.endsWith("/BaseTest.java")) {
+                addClass(tc.group(1).replace('/', '.'), file);
+            } else {
+                all = file + " (infraestructura de los tests)";
+            }
+            return;
+        }
+        if (GLOBAL.matcher(file).matches()) {
+            all = file + " (config global de la app)";
+            return;
+        }
+        if (!file.startsWith("src/")) {
+            return;
+        }
+        List<Pattern> routes = new ArrayList<>();
+        List<Pattern> api = new ArrayList<>();
+        for (String entry : entriesReaching(file)) {
+            Matcher m = ENTRY.matcher(entry);
+            m.matches();
+            String dir = m.group(1) != null ? m.group(1) : "";
+            switch (m.group(2)) {
+                case "page":
+                case "default":
+                    routes.add(exact(dir));
+                    break;
+                case "route":
+                    api.add(exact(dir));
+                    break;
+                default:
+                    for (String page : pagesUnder(dir)) {
+                        routes.add(exact(page));
+                    }
+            }
+        }
+        Map<String, Object> why = new LinkedHashMap<>();
+        why.put("routes", routes.stream().map(Pattern::pattern).collect(Collectors.toList()));
+        why.put("api", api.stream().map(Pattern::pattern).collect(Collectors.toList()));
+        List<String> tests = new ArrayList<>();
+        map.forEach((test, e) -> {
+            if (anyMatch(routes, e.routes) || anyMatch(api, e.api)) {
+                tests.add(test);
+            }
+        });
+        why.put("tests", tests);
+        reasons.put(file, why);
+        selected.addAll(tests);
+    }
+
+    private void addWhere(String file, String what, Predicate<TestMap.Entry> filter) {
+        List<String> tests = new ArrayList<>();
+        map.forEach((test, e) -> {
+            if (filter.test(e)) {
+                tests.add(test);
+            }
+        });
+        reasons.put(file, Map.of("by", what, "tests", tests));
+        selected.addAll(tests);
+    }
+
+    private void addClass(String cls, String why) {
+        List<String> methods = TestMap.methodsOf(map, cls);
+        if (methods.isEmpty()) {
+            selected.add(cls + "#*");
+        } else {
+            for (String m : methods) {
+                selected.add(cls + "#" + m);
+            }
+        }
+        reasons.put(cls, Map.of("by", why));
+    }
+
+    /* ---------- Rutas de Next ---------- */
+
+    /** {@code (app)/pagar-servicios/[slug]/pagar} → {@code ^/pagar-servicios/[^/]+/pagar$}. */
+    static Pattern exact(String dir) {
+        StringBuilder re = new StringBuilder();
+        for (String seg : dir.split("/")) {
+            if (seg.isEmpty() || (seg.startsWith("(") && seg.endsWith(")")) || seg.startsWith("@")) {
+                continue;
+            }
+            if (seg.startsWith("[[...")) {
+                re.append("(?:/.*)?");
+            } else if (seg.startsWith("[...")) {
+                re.append("/.+");
+            } else if (seg.startsWith("[")) {
+                re.append("/[^/]+");
+            } else {
+                re.append('/').append(Pattern.quote(seg));
+            }
+        }
+        return Pattern.compile("^" + (re.length() == 0 ? "/" : re) + "$");
+    }
+
+    /** Directorios (relativos a {@code src/app}) con un {@code page.*} debajo de {@code dir}. */
+    private List<String> pagesUnder(String dir) throws IOException {
+        Path app = root.resolve("src/app");
+        Path start = app.resolve(dir);
+        if (!Files.isDirectory(start)) {
+            return List.of();
+        }
+        try (Stream<Path> s = Files.walk(start)) {
+            return s.filter(p -> PAGE_FILE.matcher(p.getFileName().toString()).matches())
+                    .map(p -> app.relativize(p.getParent()).toString().replace('\\', '/'))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static boolean anyMatch(List<Pattern> patterns, Set<String> paths) {
+        for (Pattern p : patterns) {
+            for (String path : paths) {
+                if (p.matcher(path).matches()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /* ---------- Grafo de imports ---------- */
+
+    /** Páginas/layouts/routes de {@code src/app} que importan {@code file} (directa o indirectamente), o él mismo. */
+    private Set<String> entriesReaching(String file) throws IOException {
+        if (importers == null) {
+            importers = importGraph();
+        }
+        Set<String> seen = new TreeSet<>();
+        List<String> queue = new ArrayList<>(List.of(file));
+        while (!queue.isEmpty()) {
+            String f = queue.remove(queue.size() - 1);
+            if (seen.add(f)) {
+                queue.addAll(importers.getOrDefault(f, Set.of()));
+            }
+        }
+        seen.removeIf(f -> !ENTRY.matcher(f).matches());
+        return seen;
+    }
+
+    /** Archivo → quienes lo importan, con rutas relativas a la raíz del repo. */
+    private Map<String, Set<String>> importGraph() throws IOException {
+        Map<String, Set<String>> graph = new HashMap<>();
+        Path src = root.resolve("src");
+        if (!Files.isDirectory(src)) {
+            return graph;
+        }
+        List<Path> files;
+        try (Stream<Path> s = Files.walk(src)) {
+            files = s.filter(p -> p.toString().matches(".*\\.(js|jsx|ts|tsx|mjs|cjs)$")).collect(Collectors.toList());
+        }
+        for (Path f : files) {
+            String from = rel(f);
+            Matcher m = IMPORT.matcher(Files.readString(f, StandardCharsets.UTF_8));
+            while (m.find()) {
+                String spec = m.group(1) != null ? m.group(1) : m.group(2);
+                String to = resolve(f, spec);
+                if (to != null) {
+                    graph.computeIfAbsent(to, k -> new TreeSet<>()).add(from);
+                }
+            }
+        }
+        return graph;
+    }
+
+    /** {@code @/x} (alias de tsconfig) o relativo → archivo existente; paquetes de npm → null. */
+    private String resolve(Path importer, String spec) {
+        Path base;
+        if (spec.startsWith("@/")) {
+            base = root.resolve("src").resolve(spec.substring(2));
+        } else if (spec.startsWith(".")) {
+            base = importer.getParent().resolve(spec);
+        } else {
+            return null;
+        }
+        base = base.normalize();
+        for (String ext : EXTENSIONS) {
+            Path p = Path.of(base + ext);
+            if (Files.isRegularFile(p)) {
+                return rel(p);
+            }
+        }
+        for (String ext : EXTENSIONS.subList(1, EXTENSIONS.size())) {
+            Path p = base.resolve("index" + ext);
+            if (Files.isRegularFile(p)) {
+                return rel(p);
+            }
+        }
+        return null;
+    }
+
+    private String rel(Path p) {
+        return root.relativize(p.toAbsolutePath().normalize()).toString().replace('\\', '/');
+    }
+
+    /* ---------- Salida ---------- */
+
+    /** {@code Clase} si entran todos sus métodos conocidos, si no {@code Clase#m1+m2}; separados por coma. */
+    private String pattern() {
+        Map<String, List<String>> byClass = new TreeMap<>();
+        for (String t : selected) {
+            int hash = t.indexOf('#');
+            byClass.computeIfAbsent(t.substring(0, hash), k -> new ArrayList<>()).add(t.substring(hash + 1));
+        }
+        List<String> parts = new ArrayList<>();
+        byClass.forEach((cls, methods) -> {
+            String simple = cls.substring(cls.lastIndexOf('.') + 1);
+            boolean whole = methods.contains("*") || methods.size() >= TestMap.methodsOf(map, cls).size();
+            parts.add(whole ? simple : simple + "#" + String.join("+", methods));
+        });
+        return String.join(",", parts);
+    }
+
+    private static String allPattern() {
+        return Config.str("*Smoke*", "SELECT_ALL", "selectAll");
+    }
+
+    private static Set<String> core() {
+        return Set.of(Config.str("SmokeNavigationTest", "SELECT_CORE", "selectCore").split("\\s*,\\s*"));
+    }
+
+    /** Clases de test del módulo que usan {@code BaseTest} (las que registra {@link RouteCoverage}). */
+    private List<String> testClasses() throws IOException {
+        Path java = root.resolve(module).resolve("src/test/java");
+        if (!Files.isDirectory(java)) {
+            return List.of();
+        }
+        List<String> out = new ArrayList<>();
+        try (Stream<Path> s = Files.walk(java)) {
+            for (Path p : (Iterable<Path>) s.filter(x -> x.toString().endsWith("Test.java"))::iterator) {
+                if (Files.readString(p, StandardCharsets.UTF_8).contains("extends BaseTest")) {
+                    String cls = java.relativize(p).toString().replace('\\', '/');
+                    out.add(cls.substring(0, cls.length() - ".java".length()).replace('/', '.'));
+                }
+            }
+        }
+        return out;
+    }
+
+    private static List<String> git(Path dir, String... args) throws IOException, InterruptedException {
+        List<String> cmd = new ArrayList<>();
+        cmd.add("git");
+        cmd.addAll(List.of(args));
+        Process p = new ProcessBuilder(cmd).directory(dir.toFile())
+                .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        List<String> lines;
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+            lines = in.lines().filter(l -> !l.isBlank()).collect(Collectors.toList());
+        }
+        if (p.waitFor() != 0 || lines.isEmpty() && !"diff".equals(args[0])) {
+            throw new IOException("git " + String.join(" ", args) + " falló");
+        }
+        return lines;
+    }
+}
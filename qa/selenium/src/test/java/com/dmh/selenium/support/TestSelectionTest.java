@@ -0,0 +1,146 @@
+package com.dmh.selenium.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Diff → {@code -Dtest} sobre un repo armado en un directorio temporal (app de Next + módulo de smokes). */
+class TestSelectionTest {
+
+    private static final String MODULE = "qa/selenium";
+    private static final String SMOKE = "com.dmh.selenium.smoke.";
+
+    @TempDir
+    Path root;
+
+    private final Map<String, TestMap.Entry> map = new TreeMap<>();
+
+    @BeforeEach
+    void repo() throws IOException {
+        System.setProperty("SELECT_CORE", "none");
+        file("src/app/(app)/layout.jsx", "import Navbar from '@/components/Navbar';");
+        file("src/app/(app)/home/page.jsx", "import Navbar from '@/components/Navbar';");
+        file("src/app/(app)/actividad/page.jsx", "import List from '../../../components/ActivityList';");
+        file("src/app/(app)/pagar-servicios/[slug]/pagar/page.jsx", "export default function Pagar() {}");
+        file("src/app/api/login/route.js", "import { supabase } from '@/lib/supabase';");
+        file("src/components/Navbar.jsx", "export default function Navbar() {}");
+        file("src/components/ActivityList.jsx", "import { money } from './Money';");
+        file("src/components/Money.js", "export const money = (n) => n;");
+        file("src/lib/supabase.js", "export const supabase = {};");
+        for (String cls : List.of("SmokeNavigationTest", "SmokeActividadTest", "SmokeServiciosTest")) {
+            testClass(cls);
+        }
+
+        entry("SmokeNavigationTest#home", Set.of("/login", "/home"), Set.of("/api/login"), "LoginPage", "Navbar");
+        entry("SmokeActividadTest#filtra", Set.of("/home", "/actividad"), Set.of(), "ActividadPage");
+        entry("SmokeActividadTest#busca", Set.of("/actividad"), Set.of(), "ActividadPage");
+        entry("SmokeServiciosTest#paga", Set.of("/pagar-servicios/claro/pagar"), Set.of(), "ServiciosPage");
+    }
+
+    @AfterEach
+    void config() {
+        System.clearProperty("SELECT_CORE");
+    }
+
+    @Test
+    void deepImportReachesThePageThatUsesIt() throws IOException {
+        // Money ← ActivityList ← actividad/page (import relativo)
+        assertEquals("SmokeActividadTest", select("src/components/Money.js"));
+    }
+
+    @Test
+    void onlyTheMethodsThatVisitTheRouteAreSelected() throws IOException {
+        assertEquals("SmokeActividadTest#filtra,SmokeNavigationTest", select("src/app/(app)/home/page.jsx"));
+    }
+
+    @Test
+    void dynamicSegmentMatchesAnySlug() throws IOException {
+        assertEquals("SmokeServiciosTest", select("src/app/(app)/pagar-servicios/[slug]/pagar/page.jsx"));
+    }
+
+    @Test
+    void layoutSelectsEveryPageItWraps() throws IOException {
+        assertEquals("SmokeActividadTest,SmokeNavigationTest,SmokeServiciosTest",
+                select("src/app/(app)/layout.jsx"));
+    }
+
+    @Test
+    void apiRouteAndItsImportsSelectTheTestsThatCalledIt() throws IOException {
+        assertEquals("SmokeNavigationTest", select("src/app/api/login/route.js"));
+        assertEquals("SmokeNavigationTest", select("src/lib/supabase.js"));
+    }
+
+    @Test
+    void pageObjectSelectsTheTestsThatUsedIt() throws IOException {
+        assertEquals("SmokeActividadTest", select(MODULE + "/src/test/java/com/dmh/selenium/pages/ActividadPage.java"));
+    }
+
+    @Test
+    void globalConfigAndTestInfrastructureRunEverything() throws IOException {
+        assertEquals("*Smoke*", select("package.json"));
+        assertEquals("*Smoke*", select("public/images/logo.webp"));
+        assertEquals("*Smoke*", select(MODULE + "/src/test/java/com/dmh/selenium/support/WaitPolicy.java"));
+        assertEquals("*Smoke*", select(MODULE + "/pom.xml"));
+    }
+
+    @Test
+    void withoutMapEverythingRuns() throws IOException {
+        map.clear();
+        assertEquals("*Smoke*", select("src/components/Money.js"));
+    }
+
+    @Test
+    void docsSelectNothingButCoreAndNewClassesAlwaysRun() throws IOException {
+        assertEquals("", select("README.md"));
+
+        System.setProperty("SELECT_CORE", "SmokeNavigationTest");
+        testClass("SmokeNuevoTest");
+        assertEquals("SmokeNavigationTest,SmokeNuevoTest", select("README.md"));
+    }
+
+    @Test
+    void nextRoutePatterns() {
+        Pattern dynamic = TestSelection.exact("(app)/pagar-servicios/[slug]/pagar");
+        assertTrue(dynamic.matcher("/pagar-servicios/claro/pagar").matches());
+        assertFalse(dynamic.matcher("/pagar-servicios/claro/otra/pagar").matches());
+        assertTrue(TestSelection.exact("(app)").matcher("/").matches());
+        assertTrue(TestSelection.exact("docs/[...slug]").matcher("/docs/a/b").matches());
+        assertFalse(TestSelection.exact("docs/[...slug]").matcher("/docs").matches());
+        assertTrue(TestSelection.exact("docs/[[...slug]]").matcher("/docs").matches());
+    }
+
+    /* ---------- Repo de prueba ---------- */
+
+    private String select(String... changed) throws IOException {
+        return new TestSelection(root, MODULE, map).select(List.of(changed));
+    }
+
+    private void entry(String test, Set<String> routes, Set<String> api, String... pages) {
+        map.put(SMOKE + test, new TestMap.Entry(routes, api, Set.of(pages), true));
+    }
+
+    private void testClass(String simple) throws IOException {
+        file(MODULE + "/src/test/java/com/dmh/selenium/smoke/" + simple + ".java",
+                "public class " + simple + " extends BaseTest {}");
+    }
+
+    private void file(String rel, String content) throws IOException {
+        Path p = root.resolve(rel);
+        Files.createDirectories(p.getParent());
+        Files.writeString(p, content);
+    }
+}
@@ -0,0 +1,291 @@
+package com.dmh.selenium.support;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.openqa.selenium.json.Json;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * Duración histórica de cada test ({@code Clase#metodo}) y de lo que cada clase paga aparte de sus métodos (driver,
+ * {@code @BeforeAll}/{@code @AfterAll}: el {@code time} de la suite menos la suma de sus tests), sacadas de los
+ * {@code TEST-*.xml} de surefire. Vive en {@code SHARD_TIMINGS} (default {@code target/test-timings.json}); en CI se
+ * guarda con cache entre pipelines, como {@link TestMap}.
+ * <p>
+ * Sólo cuentan los tests que pasaron (uno que falla por timeout o se corta al principio no dice cuánto tarda) y los
+ * reportes más nuevos que la última actualización, así el mismo reporte no se suma dos veces. Por test quedan las
+ * últimas {@value #KEEP} muestras y se estima con la mediana.
+ */
+final class TestTimings {
+
+    private static final Json JSON = new Json();
+    static final int KEEP = 5;
+
+    /** {@code Clase#metodo} → ms. */
+    private final Map<String, List<Long>> tests = new TreeMap<>();
+    /** Clase → ms fuera de los métodos. */
+    private final Map<String, List<Long>> overhead = new TreeMap<>();
+    private Instant updated = Instant.EPOCH;
+
+    private TestTimings() {
+    }
+
+    static Path file() {
+        return Path.of(Config.str("target/test-timings.json", "SHARD_TIMINGS", "shardTimings"));
+    }
+
+    @SuppressWarnings("unchecked")
+    static TestTimings load(Path file) {
+        TestTimings t = new TestTimings();
+        if (!Files.isRegularFile(file)) {
+            return t;
+        }
+        try {
+            Map<String, Object> doc = JSON.toType(Files.readString(file, StandardCharsets.UTF_8), Json.MAP_TYPE);
+            t.updated = Instant.parse(String.valueOf(doc.get("updated")));
+            read(doc.get("tests"), t.tests);
+            read(doc.get("overhead"), t.overhead);
+        } catch (IOException | RuntimeException e) {
+            // historial corrupto: se reparte como si no hubiera (por cantidad de tests)
+            t.tests.clear();
+            t.overhead.clear();
+            t.updated = Instant.EPOCH;
+        }
+        return t;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void read(Object v, Map<String, List<Long>> into) {
+        if (!(v instanceof Map)) {
+            return;
+        }
+        ((Map<String, Object>) v).forEach((k, samples) -> {
+            List<Long> l = new ArrayList<>();
+            if (samples instanceof Collection) {
+                for (Object o : (Collection<Object>) samples) {
+                    if (o instanceof Number) {
+                        l.add(((Number) o).longValue());
+                    }
+                }
+            }
+            if (!l.isEmpty()) {
+                into.put(k, l);
+            }
+        });
+    }
+
+    boolean isEmpty() {
+        return tests.isEmpty();
+    }
+
+    /** Mediana de las últimas muestras del test. */
+    OptionalLong test(String cls, String method) {
+        return median(tests.get(cls + "#" + method));
+    }
+
+    OptionalLong overhead(String cls) {
+        return median(overhead.get(cls));
+    }
+
+    /** Mediana de todas las estimaciones por test: lo que se supone para uno sin historial. */
+    OptionalLong typicalTest() {
+        return median(estimates(tests));
+    }
+
+    OptionalLong typicalOverhead() {
+        return median(estimates(overhead));
+    }
+
+    private static List<Long> estimates(Map<String, List<Long>> m) {
+        List<Long> out = new ArrayList<>();
+        m.values().forEach(l -> median(l).ifPresent(out::add));
+        return out;
+    }
+
+    private static OptionalLong median(List<Long> samples) {
+        if (samples == null || samples.isEmpty()) {
+            return OptionalLong.empty();
+        }
+        List<Long> s = new ArrayList<>(samples);
+        Collections.sort(s);
+        return OptionalLong.of(s.get((s.size() - 1) / 2));
+    }
+
+    /**
+     * Suma los {@code TEST-*.xml} de los directorios escritos después de la última actualización; cuántos sumó.
+     * El corte es uno solo para todos: los shards terminan en cualquier orden.
+     */
+    int ingest(Path... dirs) {
+        Instant since = updated;
+        int n = 0;
+        for (Path dir : dirs) {
+            for (Path xml : reports(dir)) {
+                try {
+                    Instant written = Files.getLastModifiedTime(xml).toInstant();
+                    if (!written.isAfter(since)) {
+                        continue;
+                    }
+                    add(read(xml));
+                    n++;
+                    if (written.isAfter(updated)) {
+                        updated = written;
+                    }
+                } catch (IOException e) {
+                    // reporte a medio escribir o roto: se ignora
+                }
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Da por vistos los reportes de {@code dir} sin sumarlos: los que {@link ShardMerge} une a partir de los de cada
+     * shard ya entraron por shard (una suite unida sumaría el costo fijo de cada JVM como si fuera de la clase).
+     */
+    void skip(Path dir) {
+        for (Path xml : reports(dir)) {
+            try {
+                Instant written = Files.getLastModifiedTime(xml).toInstant();
+                if (written.isAfter(updated)) {
+                    updated = written;
+                }
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    private static List<Path> reports(Path dir) {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.filter(TestTimings::isReport).sorted().collect(Collectors.toList());
+        } catch (IOException e) {
+            return List.of();
+        }
+    }
+
+    private void add(Document doc) {
+        Element suite = doc.getDocumentElement();
+        long suiteMs = millis(suite.getAttribute("time"));
+        long casesMs = 0;
+        String suiteClass = suite.getAttribute("name");
+        boolean anyPassed = false;
+        for (Element tc : children(suite, "testcase")) {
+            long ms = millis(tc.getAttribute("time"));
+            casesMs += ms;
+            String method = methodName(tc.getAttribute("name"));
+            if (method.isEmpty() || !passed(tc)) {
+                continue;
+            }
+            String cls = tc.getAttribute("classname").isEmpty() ? suiteClass : tc.getAttribute("classname");
+            push(tests, cls + "#" + method, ms);
+            anyPassed = true;
+        }
+        if (anyPassed) {
+            push(overhead, suiteClass, Math.max(0, suiteMs - casesMs));
+        }
+    }
+
+    private static void push(Map<String, List<Long>> m, String key, long ms) {
+        List<Long> l = m.computeIfAbsent(key, k -> new ArrayList<>());
+        l.add(ms);
+        if (l.size() > KEEP) {
+            l.subList(0, l.size() - KEEP).clear();
+        }
+    }
+
+    /** Reescribe el archivo (tmp + move, como {@link TestMap}). */
+    void save(Path file) {
+        Map<String, Object> doc = new LinkedHashMap<>();
+        doc.put("updated", updated.toString());
+        doc.put("tests", tests);
+        doc.put("overhead", overhead);
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path tmp = dir.resolve(file.getFileName() + ".tmp");
+            Files.writeString(tmp, JSON.toJson(doc), StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ignore) {
+            // sin historial se reparte por cantidad de tests
+        }
+    }
+
+    /* ---------- Reportes de surefire ---------- */
+
+    static boolean isReport(Path p) {
+        String n = p.getFileName().toString();
+        return n.startsWith("TEST-") && n.endsWith(".xml") && Files.isRegularFile(p);
+    }
+
+    static Document read(Path xml) throws IOException {
+        try (InputStream in = Files.newInputStream(xml)) {
+            DocumentBuilderFactory f = DocumentBuilderFactory.newInstance();
+            f.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            return f.newDocumentBuilder().parse(in);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException(xml + ": " + e.getMessage(), e);
+        }
+    }
+
+    static List<Element> children(Element parent, String tag) {
+        List<Element> out = new ArrayList<>();
+        NodeList nodes = parent.getChildNodes();
+        for (int i = 0; i < nodes.getLength(); i++) {
+            Node n = nodes.item(i);
+            if (n instanceof Element && tag.equals(n.getNodeName())) {
+                out.add((Element) n);
+            }
+        }
+        return out;
+    }
+
+    static boolean passed(Element testcase) {
+        return children(testcase, "failure").isEmpty() && children(testcase, "error").isEmpty()
+                && children(testcase, "skipped").isEmpty();
+    }
+
+    /** Surefire escribe segundos con separador de miles ({@code 1,234.5}). */
+    static long millis(String seconds) {
+        try {
+            return Math.round(Double.parseDouble(seconds.replace(",", "")) * 1000);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /** {@code editarAlias()}, {@code filtra(String)[2]} → nombre del método. */
+    static String methodName(String name) {
+        int cut = name.length();
+        for (char c : new char[] {'(', '['}) {
+            int i = name.indexOf(c);
+            if (i >= 0) {
+                cut = Math.min(cut, i);
+            }
+        }
+        return name.substring(0, cut).trim();
+    }
+}
@@ -0,0 +1,465 @@
+package com.dmh.selenium.support;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+/**
+ * Política única de esperas. Cada espera tiene nombre ({@code "perfil.fila-alias"}, {@code "login.salida"}...) y
+ * de cada una se guarda la latencia que tardó en cumplirse, corrida tras corrida, en {@code WAIT_HISTORY}
+ * (default {@code target/wait-history.json}; en CI se cachea entre pipelines como {@code TEST_MAP}).
+ * <ul>
+ *   <li><b>Timeout:</b> con {@code WAIT_MIN_SAMPLES} muestras o más, p99 × {@code WAIT_FACTOR}, nunca menos de
+ *   {@code WAIT_FLOOR_MS} ni más que el timeout fijo de la espera ({@code WAIT_SECONDS}, si se pasa, reemplaza a
+ *   todos). Sin historial se usa el fijo. Si la espera venció en la corrida anterior, ésta vuelve al fijo y
+ *   reaprende: una pantalla que se puso lenta de verdad no queda fallando para siempre.</li>
+ *   <li><b>Sondeo:</b> arranca en {@value #FIRST_POLL_MS} ms y crece ×1.5 hasta {@value #MAX_POLL_MS} ms (el intervalo
+ *   fijo de {@code WebDriverWait}): lo que aparece enseguida se ve enseguida, lo que tarda no se sondea de más.</li>
+ *   <li><b>Falla:</b> el {@link TimeoutException} dice de dónde salió el límite y cuánto se aleja lo esperado de la
+ *   distribución (mediana, p99 y z en escala logarítmica).</li>
+ * </ul>
+ * Al cerrar la JVM se suma lo medido al historial y queda {@code perf/waits.json} con lo de esta corrida.
+ * {@code WAIT_ADAPTIVE=false} usa siempre los timeouts fijos y no lee ni escribe historial (corridas de carga).
+ */
+public final class WaitPolicy {
+
+    private static final Json JSON = new Json();
+
+    static final long FIRST_POLL_MS = 25;
+    static final long MAX_POLL_MS = 500;
+    private static final double BACKOFF = 1.5;
+    /** Muestras por espera que se conservan en el historial (las más recientes). */
+    private static final int KEEP = 50;
+
+    /** Lo de esta corrida, por nombre. */
+    private static final Map<String, Stat> RUN = new ConcurrentHashMap<>();
+    /** Historial de corridas anteriores (se carga una vez). */
+    private static volatile Map<String, Past> history;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(WaitPolicy::save, "wait-history-save"));
+    }
+
+    private WaitPolicy() {
+    }
+
+    /* ---------- API ---------- */
+
+    /**
+     * Como {@code WebDriverWait.until}: repite {@code condition} hasta que devuelva algo distinto de null/false.
+     * Ignora {@link NotFoundException} y {@link StaleElementReferenceException} mientras espera.
+     */
+    public static <T> T until(WebDriver driver, String name, Duration fallback,
+            Function<? super WebDriver, T> condition) {
+        Limit limit = limit(name, fallback);
+        long start = System.nanoTime();
+        long deadline = start + limit.ms * 1_000_000;
+        long poll = FIRST_POLL_MS;
+        RuntimeException last = null;
+        while (true) {
+            try {
+                T v = condition.apply(driver);
+                if (v != null && !Boolean.FALSE.equals(v)) {
+                    stat(name).success(elapsedMs(start), limit);
+                    return v;
+                }
+            } catch (NotFoundException | StaleElementReferenceException e) {
+                last = e;
+            }
+            long leftMs = (deadline - System.nanoTime()) / 1_000_000;
+            if (leftMs <= 0) {
+                throw timedOut(name, limit, elapsedMs(start), String.valueOf(condition), last);
+            }
+            sleep(Math.min(poll, leftMs));
+            poll = Math.min(MAX_POLL_MS, (long) (poll * BACKOFF));
+        }
+    }
+
+    /**
+     * Para esperas con su propio loop ({@link NetworkTracker}, scripts async): {@code body} recibe el timeout que
+     * corresponde y devuelve el resultado. Un {@link TimeoutException} se relanza con el diagnóstico; {@code null}
+     * o {@code false} (esperas tolerantes) cuentan como vencida pero no lanzan.
+     */
+    public static <T> T run(String name, Duration fallback, Function<Duration, T> body) {
+        Limit limit = limit(name, fallback);
+        long start = System.nanoTime();
+        T v;
+        try {
+            v = body.apply(Duration.ofMillis(limit.ms));
+        } catch (TimeoutException e) {
+            throw timedOut(name, limit, elapsedMs(start), e.getMessage(), e);
+        }
+        if (v != null && !Boolean.FALSE.equals(v)) {
+            stat(name).success(elapsedMs(start), limit);
+        } else {
+            stat(name).timeout(limit);
+        }
+        return v;
+    }
+
+    /** Timeout que le toca hoy a la espera {@code name}. */
+    public static Duration timeout(String name, Duration fallback) {
+        return Duration.ofMillis(limit(name, fallback).ms);
+    }
+
+    /**
+     * Un {@link WebDriverWait} cuyo {@code until} pasa por la política con el nombre dado, para código que recibe
+     * o expone un wait de Selenium. Conviene una espera con nombre propio por condición: si no, se mezclan latencias.
+     */
+    public static WebDriverWait wait(WebDriver driver, String name, Duration fallback) {
+        return new Named(driver, name, fallback);
+    }
+
+    /** Registra una latencia medida fuera de {@link #until}/{@link #run} (p. ej. dentro de la página). */
+    static void sample(String name, long ms, Duration fallback) {
+        stat(name).success(ms, limit(name, fallback));
+    }
+
+    /** Registra que la espera {@code name} venció con el timeout que le dio la política. */
+    static void missed(String name, Duration fallback) {
+        stat(name).timeout(limit(name, fallback));
+    }
+
+    /** Olvida lo medido en esta corrida para {@code name} (no llega al historial). */
+    static void forget(String name) {
+        RUN.remove(name);
+    }
+
+    /* ---------- Límite ---------- */
+
+    /** Timeout en ms y de dónde salió, con las muestras que se usaron. */
+    private static final class Limit {
+        final long ms;
+        final String source;
+        final long[] samples;
+        final long fixedMs;
+
+        Limit(long ms, String source, long[] samples, long fixedMs) {
+            this.ms = ms;
+            this.source = source;
+            this.samples = samples;
+            this.fixedMs = fixedMs;
+        }
+    }
+
+    private static Limit limit(String name, Duration fallback) {
+        int waitSeconds = Config.intValue(-1, "WAIT_SECONDS", "waitSeconds");
+        long fixed = waitSeconds > 0 ? waitSeconds * 1000L : fallback.toMillis();
+        if (!adaptive()) {
+            return new Limit(fixed, "fijo", new long[0], fixed);
+        }
+        Past past = history().get(name);
+        long[] samples = samples(past, RUN.get(name));
+        int min = Math.max(2, Config.intValue(10, "WAIT_MIN_SAMPLES", "waitMinSamples"));
+        if (past != null && past.timedOut) {
+            return new Limit(fixed, "fijo (venció en la corrida anterior)", samples, fixed);
+        }
+        if (samples.length < min) {
+            return new Limit(fixed, "fijo (" + samples.length + " de " + min + " muestras)", samples, fixed);
+        }
+        long p99 = percentile(samples, 0.99);
+        int factor = Math.max(1, Config.intValue(3, "WAIT_FACTOR", "waitFactor"));
+        long floor = Config.intValue(1000, "WAIT_FLOOR_MS", "waitFloorMs");
+        long ms = Math.min(fixed, Math.max(floor, p99 * factor));
+        return new Limit(ms, "p99 " + p99 + " ms × " + factor + ", " + samples.length + " muestras", samples, fixed);
+    }
+
+    static boolean adaptive() {
+        return Config.bool(true, "WAIT_ADAPTIVE", "waitAdaptive");
+    }
+
+    /** Historial + esta corrida, ordenado, con las {@link #KEEP} más recientes. */
+    private static long[] samples(Past past, Stat run) {
+        List<Long> all = new ArrayList<>();
+        if (past != null) {
+            all.addAll(past.samples);
+        }
+        if (run != null) {
+            all.addAll(run.samples());
+        }
+        long[] out = all.subList(Math.max(0, all.size() - KEEP), all.size()).stream()
+                .mapToLong(Long::longValue).toArray();
+        Arrays.sort(out);
+        return out;
+    }
+
+    /** Percentil por rango más cercano sobre muestras ordenadas. */
+    static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int idx = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, idx))];
+    }
+
+    /* ---------- Falla ---------- */
+
+    private static TimeoutException timedOut(String name, Limit limit, long elapsedMs, String what, Throwable cause) {
+        stat(name).timeout(limit);
+        StringBuilder msg = new StringBuilder()
+                .append("Espera '").append(name).append("' vencida a los ").append(seconds(elapsedMs))
+                .append(" (límite ").append(seconds(limit.ms)).append(": ").append(limit.source).append(')');
+        if (limit.samples.length >= 2) {
+            msg.append(". Historial: mediana ").append(percentile(limit.samples, 0.5)).append(" ms, p99 ")
+                    .append(percentile(limit.samples, 0.99)).append(" ms; ").append(seconds(elapsedMs))
+                    .append(" queda a ").append(String.format(Locale.ROOT, "z=%+.1f", zLog(limit.samples, elapsedMs)))
+                    .append(" (escala log), más lento que el ").append(rank(limit.samples, elapsedMs))
+                    .append(" % de las veces que se cumplió");
+        }
+        if (limit.ms < limit.fixedMs) {
+            msg.append(". El fijo era ").append(seconds(limit.fixedMs))
+                    .append("; si la pantalla se puso lenta de verdad, la próxima corrida lo usa y reaprende");
+        }
+        if (what != null && !what.contains("$$Lambda")) {
+            msg.append(". Esperando: ").append(what);
+        }
+        return new TimeoutException(msg.toString(), cause);
+    }
+
+    /** Desvíos (en log) entre {@code ms} y la media del historial: las latencias son asimétricas. */
+    private static double zLog(long[] samples, long ms) {
+        double mean = 0;
+        for (long s : samples) {
+            mean += Math.log(Math.max(1, s));
+        }
+        mean /= samples.length;
+        double var = 0;
+        for (long s : samples) {
+            double d = Math.log(Math.max(1, s)) - mean;
+            var += d * d;
+        }
+        // historial casi constante: un desvío mínimo para que z no explote
+        double sd = Math.max(0.05, Math.sqrt(var / (samples.length - 1)));
+        return (Math.log(Math.max(1, ms)) - mean) / sd;
+    }
+
+    private static int rank(long[] samples, long ms) {
+        int below = 0;
+        for (long s : samples) {
+            if (s < ms) {
+                below++;
+            }
+        }
+        return below * 100 / samples.length;
+    }
+
+    private static String seconds(long ms) {
+        return String.format(Locale.ROOT, "%.1f s", ms / 1000.0);
+    }
+
+    /* ---------- Esta corrida ---------- */
+
+    private static final class Stat {
+        private final List<Long> samples = new ArrayList<>();
+        private int timeouts;
+        private long limitMs;
+        private String source;
+
+        synchronized void success(long ms, Limit limit) {
+            samples.add(ms);
+            limitMs = limit.ms;
+            source = limit.source;
+        }
+
+        synchronized void timeout(Limit limit) {
+            timeouts++;
+            limitMs = limit.ms;
+            source = limit.source;
+        }
+
+        synchronized List<Long> samples() {
+            return new ArrayList<>(samples);
+        }
+
+        synchronized Map<String, Object> toJson() {
+            long[] sorted = samples.stream().mapToLong(Long::longValue).sorted().toArray();
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("waits", samples.size() + timeouts);
+            m.put("timeouts", timeouts);
+            m.put("p50Ms", percentile(sorted, 0.5));
+            m.put("p95Ms", percentile(sorted, 0.95));
+            m.put("maxMs", sorted.length == 0 ? 0 : sorted[sorted.length - 1]);
+            // último límite aplicado y de dónde salió
+            m.put("limitMs", limitMs);
+            m.put("limitSource", source);
+            // crudas: las compara RunHistory entre corridas
+            m.put("samples", new ArrayList<>(samples));
+            return m;
+        }
+    }
+
+    private static Stat stat(String name) {
+        return RUN.computeIfAbsent(name, k -> new Stat());
+    }
+
+    /* ---------- Historial ---------- */
+
+    private static final class Past {
+        final List<Long> samples;
+        final boolean timedOut;
+
+        Past(List<Long> samples, boolean timedOut) {
+            this.samples = samples;
+            this.timedOut = timedOut;
+        }
+    }
+
+    static Path file() {
+        String f = Config.str("target/wait-history.json", "WAIT_HISTORY", "waitHistory");
+        return "none".equalsIgnoreCase(f) ? null : Path.of(f);
+    }
+
+    private static Map<String, Past> history() {
+        Map<String, Past> h = history;
+        if (h != null) {
+            return h;
+        }
+        synchronized (WaitPolicy.class) {
+            if (history == null) {
+                history = Collections.unmodifiableMap(load(file()));
+            }
+            return history;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Past> load(Path file) {
+        Map<String, Past> out = new TreeMap<>();
+        if (file == null || !Files.isRegularFile(file)) {
+            return out;
+        }
+        try {
+            Map<String, Object> doc = JSON.toType(Files.readString(file, StandardCharsets.UTF_8), Json.MAP_TYPE);
+            Object waits = doc.get("waits");
+            if (waits instanceof Map) {
+                ((Map<String, Object>) waits).forEach((name, v) -> {
+                    if (v instanceof Map) {
+                        Map<String, Object> m = (Map<String, Object>) v;
+                        List<Long> samples = new ArrayList<>();
+                        if (m.get("samples") instanceof Collection) {
+                            for (Object o : (Collection<Object>) m.get("samples")) {
+                                if (o instanceof Number) {
+                                    samples.add(((Number) o).longValue());
+                                }
+                            }
+                        }
+                        out.put(name, new Past(samples, Boolean.TRUE.equals(m.get("timedOut"))));
+                    }
+                });
+            }
+        } catch (IOException | RuntimeException e) {
+            // historial corrupto: se arranca con los timeouts fijos
+        }
+        return out;
+    }
+
+    /** Suma esta corrida al historial en disco (releído: otros forks pudieron escribir) y deja el reporte. */
+    private static synchronized void save() {
+        if (RUN.isEmpty()) {
+            return;
+        }
+        Map<String, Object> report = new TreeMap<>();
+        RUN.forEach((name, s) -> report.put(name, s.toJson()));
+        Map<String, Object> doc = new LinkedHashMap<>();
+        doc.put("adaptive", adaptive());
+        doc.put("waits", report);
+        try {
+            Files.createDirectories(PerfReport.dir());
+            Files.writeString(PerfReport.dir().resolve("waits.json"), JSON.toJson(doc), StandardCharsets.UTF_8);
+        } catch (IOException ignore) {
+            // el reporte nunca rompe la corrida
+        }
+
+        Path file = file();
+        if (file == null || !adaptive()) {
+            return;
+        }
+        try {
+            // bajo lock: forks y shards en paralelo suman cada uno lo suyo, sin pisarse
+            SharedFile.locked(file, () -> {
+                Map<String, Past> merged = load(file);
+                RUN.forEach((name, s) -> {
+                    Past old = merged.get(name);
+                    List<Long> all = new ArrayList<>(old != null ? old.samples : List.of());
+                    all.addAll(s.samples());
+                    boolean timedOut;
+                    synchronized (s) {
+                        // sin ningún resultado nuevo se conserva lo que había
+                        timedOut = s.timeouts > 0 || (s.samples.isEmpty() && old != null && old.timedOut);
+                    }
+                    merged.put(name, new Past(
+                            new ArrayList<>(all.subList(Math.max(0, all.size() - KEEP), all.size())), timedOut));
+                });
+                Map<String, Object> waits = new LinkedHashMap<>();
+                merged.forEach((name, p) -> {
+                    Map<String, Object> m = new LinkedHashMap<>();
+                    m.put("samples", p.samples);
+                    m.put("timedOut", p.timedOut);
+                    waits.put(name, m);
+                });
+                Map<String, Object> out = new LinkedHashMap<>();
+                out.put("updated", Instant.now().toString());
+                out.put("waits", waits);
+                SharedFile.write(file, JSON.toJson(out));
+            });
+        } catch (IOException ignore) {
+            // el historial nunca rompe la corrida
+        }
+    }
+
+    /* ---------- Helpers ---------- */
+
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebDriverException(e);
+        }
+    }
+
+    /** {@link WebDriverWait} de Selenium con el {@code until} de la política. */
+    private static final class Named extends WebDriverWait {
+        private final WebDriver driver;
+        private final String name;
+        private final Duration fallback;
+
+        Named(WebDriver driver, String name, Duration fallback) {
+            super(driver, fallback);
+            this.driver = driver;
+            this.name = name;
+            this.fallback = fallback;
+        }
+
+        @Override
+        public <V> V until(Function<? super WebDriver, V> isTrue) {
+            return WaitPolicy.until(driver, name, fallback, isTrue);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.dmh.selenium.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.TimeoutException;
+
+/**
+ * Timeouts ajustados con las latencias medidas (p99 × factor, piso y techo). Las esperas usan nombres que no
+ * están en {@code WAIT_HISTORY}, y lo medido se olvida al terminar para no ensuciar el historial.
+ */
+class WaitPolicyTest {
+
+    private static final String NAME = "test.wait-policy";
+    private static final Duration FIXED = Duration.ofSeconds(5);
+
+    @AfterEach
+    void forget() {
+        WaitPolicy.forget(NAME);
+        System.clearProperty("WAIT_SECONDS");
+        System.clearProperty("WAIT_FACTOR");
+        System.clearProperty("WAIT_ADAPTIVE");
+    }
+
+    @Test
+    void nearestRankPercentile() {
+        long[] sorted = new long[100];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i + 1;
+        }
+        assertEquals(50, WaitPolicy.percentile(sorted, 0.5));
+        assertEquals(99, WaitPolicy.percentile(sorted, 0.99));
+        assertEquals(100, WaitPolicy.percentile(sorted, 1.0));
+        assertEquals(1, WaitPolicy.percentile(sorted, 0.0));
+        assertEquals(7, WaitPolicy.percentile(new long[]{7}, 0.99));
+        assertEquals(0, WaitPolicy.percentile(new long[0], 0.99));
+    }
+
+    @Test
+    void belowMinSamplesUsesTheFixedTimeout() {
+        samples(100, 200, 300, 400, 500, 600, 700, 800, 900);
+        assertEquals(5000, timeoutMs());
+    }
+
+    @Test
+    void withEnoughSamplesItIsP99TimesFactor() {
+        // p99 de 10 muestras = la mayor (rango ceil(9.9) = 10): 1000 × 3
+        samples(100, 200, 300, 400, 500, 600, 700, 800, 900, 1000);
+        assertEquals(3000, timeoutMs());
+
+        System.setProperty("WAIT_FACTOR", "4");
+        assertEquals(4000, timeoutMs());
+    }
+
+    @Test
+    void neverBelowTheFloor() {
+        samples(100, 100, 100, 100, 100, 100, 100, 100, 100, 100);
+        assertEquals(1000, timeoutMs());
+    }
+
+    @Test
+    void neverAboveTheFixedTimeout() {
+        samples(4000, 4000, 4000, 4000, 4000, 4000, 4000, 4000, 4000, 4000);
+        assertEquals(5000, timeoutMs());
+
+        // WAIT_SECONDS reemplaza al fijo de todas las esperas, también como techo
+        System.setProperty("WAIT_SECONDS", "2");
+        assertEquals(2000, timeoutMs());
+    }
+
+    @Test
+    void notAdaptiveIsAlwaysFixed() {
+        samples(100, 200, 300, 400, 500, 600, 700, 800, 900, 1000);
+        System.setProperty("WAIT_ADAPTIVE", "false");
+        assertEquals(5000, timeoutMs());
+    }
+
+    @Test
+    void timeoutSaysWhereTheLimitCameFrom() {
+        TimeoutException e = assertThrows(TimeoutException.class,
+                () -> WaitPolicy.until(null, NAME, Duration.ofMillis(60), d -> null));
+        assertTrue(e.getMessage().startsWith("Espera '" + NAME + "' vencida"), e.getMessage());
+        assertTrue(e.getMessage().contains("fijo (0 de 10 muestras)"), e.getMessage());
+    }
+
+    private static void samples(long... ms) {
+        for (long m : ms) {
+            WaitPolicy.sample(NAME, m, FIXED);
+        }
+    }
+
+    private static long timeoutMs() {
+        return WaitPolicy.timeout(NAME, FIXED).toMillis();
+    }
+}
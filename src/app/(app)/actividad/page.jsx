@@ -301,9 +301,11 @@ export default function ActividadPage() {
         {loading ? (
           <div className="px-7 py-10 text-gray-500">Cargando…</div>
         ) : pageItems.length === 0 ? (
-          <div className="px-7 py-10 text-gray-500">No hay movimientos</div>
+          <div data-testid="actividad-empty" className="px-7 py-10 text-gray-500">
+            No hay movimientos
+          </div>
         ) : (
-          <ul className="divide-y divide-[#d7d3d1]">
+          <ul data-testid="actividad-list" className="divide-y divide-[#d7d3d1]">
             {pageItems.map((m) => {
               const monto = Number(m.monto || 0);
               const isNeg = monto < 0;